@@ -0,0 +1,124 @@
+package org.pierre.shareazade.cache;
+
+import java.util.Objects;
+
+/**
+ * Eviction of an entry of a cache, to be applied by the other nodes.
+ * <p>
+ * It is encoded as a single line of text: the type, the region and the key, separated by tabs. The region and the key
+ * must not contain tabs nor line breaks.
+ */
+public final class CacheInvalidation {
+
+    /**
+     * The kind of cache holding the entry.
+     */
+    public enum Type {
+        /**
+         * A second level cache region of entities, keyed by id.
+         */
+        ENTITY('E'),
+        /**
+         * A second level cache region of collections, keyed by the id of their owner.
+         */
+        COLLECTION('C'),
+        /**
+         * An application cache, keyed by a string.
+         */
+        CACHE('K');
+
+        private final char code;
+
+        Type(char code) {
+            this.code = code;
+        }
+
+        private static Type fromCode(char code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown cache invalidation type " + code);
+        }
+    }
+
+    private static final char SEPARATOR = '\t';
+
+    private final Type type;
+
+    private final String region;
+
+    private final String key;
+
+    private CacheInvalidation(Type type, String region, String key) {
+        this.type = Objects.requireNonNull(type, "type");
+        this.region = Objects.requireNonNull(region, "region");
+        this.key = Objects.requireNonNull(key, "key");
+    }
+
+    public static CacheInvalidation entity(String entityName, Object id) {
+        return new CacheInvalidation(Type.ENTITY, entityName, String.valueOf(id));
+    }
+
+    public static CacheInvalidation collection(String role, Object ownerId) {
+        return new CacheInvalidation(Type.COLLECTION, role, String.valueOf(ownerId));
+    }
+
+    public static CacheInvalidation cache(String cacheName, String key) {
+        return new CacheInvalidation(Type.CACHE, cacheName, key);
+    }
+
+    /**
+     * Parse an invalidation encoded by {@link #encode()}.
+     *
+     * @param line the encoded invalidation.
+     * @return the invalidation.
+     * @throws IllegalArgumentException if the line is not a valid invalidation.
+     */
+    public static CacheInvalidation parse(String line) {
+        int regionEnd = line.indexOf(SEPARATOR, 2);
+        if (line.length() < 2 || line.charAt(1) != SEPARATOR || regionEnd < 0) {
+            throw new IllegalArgumentException("Invalid cache invalidation " + line);
+        }
+        return new CacheInvalidation(Type.fromCode(line.charAt(0)), line.substring(2, regionEnd), line.substring(regionEnd + 1));
+    }
+
+    public String encode() {
+        return type.code + String.valueOf(SEPARATOR) + region + SEPARATOR + key;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheInvalidation)) {
+            return false;
+        }
+        CacheInvalidation that = (CacheInvalidation) o;
+        return type == that.type && region.equals(that.region) && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, region, key);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvalidation{type=" + type + ", region='" + region + "', key='" + key + "'}";
+    }
+}
@@ -0,0 +1,216 @@
+package org.pierre.shareazade.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Broadcasts the evictions of the local caches to the other nodes, through a {@link CacheInvalidationTransport}.
+ * <p>
+ * The invalidations published within a transaction are only sent once it is committed. They are coalesced, then sent
+ * in batches by a single thread after a short delay, so that the writes of a burst share a few messages. Each message
+ * starts with the id of its node, which ignores its own messages: its caches were already evicted when it wrote. The
+ * other nodes pass each invalidation to the {@link Listener}s, and evict all their caches when messages may have been
+ * lost. The listeners are called by {@link org.springframework.core.annotation.Order order}, and the entity and
+ * collection invalidations of a message are passed before the cache ones, so that the second level cache is evicted
+ * before the caches loaded from it.
+ */
+public class CacheInvalidationBus implements CacheInvalidationTransport.Receiver {
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final CacheInvalidationTransport transport;
+
+    private final long flushDelay;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final Set<CacheInvalidation> pending = new LinkedHashSet<>();
+
+    private final ScheduledExecutorService sender;
+
+    private boolean flushScheduled;
+
+    public CacheInvalidationBus(CacheInvalidationTransport transport, Duration flushDelay) {
+        this.transport = transport;
+        this.flushDelay = flushDelay.toMillis();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-invalidation-sender-");
+        threadFactory.setDaemon(true);
+        this.sender = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    /**
+     * Start receiving the invalidations of the other nodes.
+     */
+    public void start() {
+        transport.start(this);
+    }
+
+    /**
+     * Send the pending invalidations, then stop, once the application is closed.
+     */
+    public void stop() {
+        sender.shutdownNow();
+        flush();
+        transport.stop();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+        listeners.sort(AnnotationAwareOrderComparator.INSTANCE);
+    }
+
+    /**
+     * Publish an invalidation to the other nodes, once the current transaction, if any, is committed.
+     *
+     * @param invalidation the invalidation.
+     */
+    public void publish(CacheInvalidation invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(Set.of(invalidation));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<CacheInvalidation> invalidations = (Set<CacheInvalidation>) TransactionSynchronizationManager.getResource(this);
+        if (invalidations == null) {
+            Set<CacheInvalidation> committed = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, committed);
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationBus.this);
+                        if (status == STATUS_COMMITTED) {
+                            enqueue(committed);
+                        }
+                    }
+                }
+            );
+            invalidations = committed;
+        }
+        invalidations.add(invalidation);
+    }
+
+    @Override
+    public void receive(String message) {
+        int headerEnd = message.indexOf('\n');
+        if (headerEnd < 0 || message.substring(0, headerEnd).equals(nodeId)) {
+            return;
+        }
+        List<CacheInvalidation> invalidations = new ArrayList<>();
+        for (String line : message.substring(headerEnd + 1).split("\n")) {
+            try {
+                invalidations.add(CacheInvalidation.parse(line));
+            } catch (RuntimeException e) {
+                log.warn("Could not parse the cache invalidation {}: {}", line, e.toString());
+            }
+        }
+        invalidations.sort(Comparator.comparing(invalidation -> invalidation.getType() == CacheInvalidation.Type.CACHE));
+        for (CacheInvalidation invalidation : invalidations) {
+            try {
+                log.debug("Received {}", invalidation);
+                for (Listener listener : listeners) {
+                    listener.evict(invalidation);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not apply the cache invalidation {}: {}", invalidation, e.toString());
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        log.info("Cache invalidations may have been lost, evicting all the caches");
+        for (Listener listener : listeners) {
+            listener.evictAll();
+        }
+    }
+
+    /**
+     * Send the pending invalidations now.
+     */
+    void flush() {
+        List<CacheInvalidation> invalidations;
+        synchronized (pending) {
+            invalidations = new ArrayList<>(pending);
+            pending.clear();
+            flushScheduled = false;
+        }
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        String header = nodeId + '\n';
+        StringBuilder message = new StringBuilder(header);
+        int messageBytes = utf8Length(header);
+        for (CacheInvalidation invalidation : invalidations) {
+            String line = invalidation.encode() + '\n';
+            int lineBytes = utf8Length(line);
+            if (message.length() > header.length() && messageBytes + lineBytes > transport.getMaxMessageBytes()) {
+                send(message);
+                message.setLength(header.length());
+                messageBytes = utf8Length(header);
+            }
+            message.append(line);
+            messageBytes += lineBytes;
+        }
+        send(message);
+        log.debug("Sent {} cache invalidations", invalidations.size());
+    }
+
+    private void enqueue(Collection<CacheInvalidation> invalidations) {
+        synchronized (pending) {
+            pending.addAll(invalidations);
+            if (!flushScheduled && !sender.isShutdown()) {
+                flushScheduled = true;
+                sender.schedule(this::flush, flushDelay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void send(StringBuilder message) {
+        try {
+            transport.send(message.substring(0, message.length() - 1));
+        } catch (RuntimeException e) {
+            log.warn("Could not send the cache invalidations, the other nodes may serve stale entries until they expire", e);
+        }
+    }
+
+    private static int utf8Length(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Evicts the entries of the local caches invalidated by the other nodes.
+     */
+    public interface Listener {
+        /**
+         * Evict an entry, if it belongs to a cache of this listener.
+         *
+         * @param invalidation the invalidation.
+         */
+        void evict(CacheInvalidation invalidation);
+
+        /**
+         * Evict all the entries of the caches of this listener.
+         */
+        void evictAll();
+    }
+}
@@ -0,0 +1,47 @@
+package org.pierre.shareazade.cache;
+
+/**
+ * Carries the messages of the {@link CacheInvalidationBus} to all the nodes, including the sender.
+ */
+public interface CacheInvalidationTransport {
+    /**
+     * Start delivering the messages sent by all the nodes.
+     *
+     * @param receiver the receiver of the messages.
+     */
+    void start(Receiver receiver);
+
+    /**
+     * Stop delivering the messages.
+     */
+    void stop();
+
+    /**
+     * Send a message to all the nodes.
+     *
+     * @param message the message, of at most {@link #getMaxMessageBytes()} bytes in UTF-8.
+     */
+    void send(String message);
+
+    /**
+     * @return the maximum length of a message, in UTF-8 bytes.
+     */
+    int getMaxMessageBytes();
+
+    /**
+     * Receiver of the messages.
+     */
+    interface Receiver {
+        /**
+         * Called with each message sent by a node.
+         *
+         * @param message the message.
+         */
+        void receive(String message);
+
+        /**
+         * Called when messages may have been lost, such as when the connection was broken and then restored.
+         */
+        void reset();
+    }
+}
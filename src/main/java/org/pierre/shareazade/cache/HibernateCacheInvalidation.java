@@ -0,0 +1,178 @@
+package org.pierre.shareazade.cache;
+
+import java.io.Serializable;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.CollectionEntry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Keeps the second level cache of the other nodes consistent with the writes of this node.
+ * <p>
+ * The updates and deletions of the cached entities, and the changes of the cached collections, are published on the
+ * {@link CacheInvalidationBus}: the inserted entities cannot be cached elsewhere yet. The invalidations received from
+ * the other nodes evict the entity or the collection from the local region, to be loaded again on its next access.
+ * Bulk updates and deletions, which Hibernate applies to whole regions, are not broadcast. The local region is evicted
+ * before the other listeners of the bus are called, as their caches may be loaded from it.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class HibernateCacheInvalidation
+    implements
+        PostUpdateEventListener,
+        PostDeleteEventListener,
+        PostCollectionRecreateEventListener,
+        PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener,
+        CacheInvalidationBus.Listener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient CacheInvalidationBus bus;
+
+    private final transient SessionFactoryImplementor sessionFactory;
+
+    public HibernateCacheInvalidation(CacheInvalidationBus bus, SessionFactory sessionFactory) {
+        this.bus = bus;
+        this.sessionFactory = sessionFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    /**
+     * Listen to the writes of the session factory, and to the invalidations of the other nodes.
+     */
+    public void register() {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+        bus.addListener(this);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publishEntity(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publishEntity(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * Still abstract in Hibernate 5, which only calls {@link #requiresPostCommitHandling(EntityPersister)}.
+     */
+    @Deprecated
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        publishCollection(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        publishCollection(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        publishCollection(event);
+    }
+
+    @Override
+    public void evict(CacheInvalidation invalidation) {
+        switch (invalidation.getType()) {
+            case ENTITY:
+                EntityPersister entityPersister = sessionFactory.getMetamodel().entityPersister(invalidation.getRegion());
+                sessionFactory
+                    .getCache()
+                    .evictEntityData(invalidation.getRegion(), parseId(entityPersister.getIdentifierType(), invalidation.getKey()));
+                break;
+            case COLLECTION:
+                CollectionPersister collectionPersister = sessionFactory.getMetamodel().collectionPersister(invalidation.getRegion());
+                sessionFactory
+                    .getCache()
+                    .evictCollectionData(
+                        invalidation.getRegion(),
+                        parseId(collectionPersister.getOwnerEntityPersister().getIdentifierType(), invalidation.getKey())
+                    );
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    private void publishEntity(EntityPersister persister, Serializable id) {
+        if (persister.canWriteToCache() && id != null) {
+            bus.publish(CacheInvalidation.entity(persister.getEntityName(), id));
+        }
+    }
+
+    private void publishCollection(AbstractCollectionEvent event) {
+        Serializable ownerId = event.getAffectedOwnerIdOrNull();
+        CollectionPersister persister = collectionPersister(event);
+        if (ownerId != null && persister != null && persister.hasCache()) {
+            bus.publish(CacheInvalidation.collection(persister.getRole(), ownerId));
+        }
+    }
+
+    /**
+     * The role of a new collection is only set on it once flushed: its entry in the persistence context tells its persister.
+     */
+    private static CollectionPersister collectionPersister(AbstractCollectionEvent event) {
+        CollectionEntry entry = event.getSession().getPersistenceContextInternal().getCollectionEntry(event.getCollection());
+        if (entry == null) {
+            return null;
+        }
+        return entry.getCurrentPersister() != null ? entry.getCurrentPersister() : entry.getLoadedPersister();
+    }
+
+    private static Serializable parseId(Type identifierType, String key) {
+        Class<?> idClass = identifierType.getReturnedClass();
+        if (idClass == Long.class) {
+            return Long.valueOf(key);
+        }
+        if (idClass == Integer.class) {
+            return Integer.valueOf(key);
+        }
+        if (idClass == UUID.class) {
+            return UUID.fromString(key);
+        }
+        if (idClass == String.class) {
+            return key;
+        }
+        throw new IllegalArgumentException("Unsupported identifier " + idClass.getName() + " of " + key);
+    }
+}
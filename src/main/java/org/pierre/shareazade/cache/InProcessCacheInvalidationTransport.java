@@ -0,0 +1,35 @@
+package org.pierre.shareazade.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * {@link CacheInvalidationTransport} delivering the messages to the buses started on the same instance, in the thread of
+ * the sender: for a single node, or for tests.
+ */
+public class InProcessCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final int MAX_MESSAGE_BYTES = 64 * 1024;
+
+    private final List<Receiver> receivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void start(Receiver receiver) {
+        receivers.add(receiver);
+    }
+
+    @Override
+    public void stop() {
+        receivers.clear();
+    }
+
+    @Override
+    public void send(String message) {
+        receivers.forEach(receiver -> receiver.receive(message));
+    }
+
+    @Override
+    public int getMaxMessageBytes() {
+        return MAX_MESSAGE_BYTES;
+    }
+}
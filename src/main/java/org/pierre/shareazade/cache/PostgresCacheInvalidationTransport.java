@@ -0,0 +1,139 @@
+package org.pierre.shareazade.cache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link CacheInvalidationTransport} over the {@code LISTEN} and {@code NOTIFY} commands of PostgreSQL, so that the nodes
+ * need nothing but their database to reach each other.
+ * <p>
+ * A daemon thread listens to the channel and polls its notifications on a dedicated connection, opened outside of the
+ * pool so that it never holds a pooled connection nor is retired by the pool. When the connection is broken, a new one
+ * is opened after a delay and the receiver is reset, as the notifications sent meanwhile are lost. Messages are sent
+ * with {@code pg_notify} on a pooled connection in auto-commit mode, as a notification is only delivered once its
+ * transaction is committed. PostgreSQL limits a notification to 8000 bytes.
+ */
+public class PostgresCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private static final int MAX_MESSAGE_BYTES = 7900;
+
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private final Logger log = LoggerFactory.getLogger(PostgresCacheInvalidationTransport.class);
+
+    private final DataSource dataSource;
+
+    private final DataSource listenDataSource;
+
+    private final String channel;
+
+    private volatile boolean running;
+
+    private Thread listener;
+
+    /**
+     * @param dataSource the pooled data source, which sends the messages.
+     * @param listenDataSource the data source opening a new physical connection on each call, which listens to them.
+     * @param channel the name of the channel.
+     */
+    public PostgresCacheInvalidationTransport(DataSource dataSource, DataSource listenDataSource, String channel) {
+        if (!CHANNEL.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid cache invalidation channel " + channel);
+        }
+        this.dataSource = dataSource;
+        this.listenDataSource = listenDataSource;
+        this.channel = channel;
+    }
+
+    @Override
+    public synchronized void start(Receiver receiver) {
+        running = true;
+        listener = new Thread(() -> listen(receiver), "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) {
+            try {
+                listener.join(2L * POLL_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            listener = null;
+        }
+    }
+
+    @Override
+    public void send(String message) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                statement.setString(1, channel);
+                statement.setString(2, message);
+                statement.execute();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not send the cache invalidations to " + channel, e);
+        }
+    }
+
+    @Override
+    public int getMaxMessageBytes() {
+        return MAX_MESSAGE_BYTES;
+    }
+
+    private void listen(Receiver receiver) {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = listenDataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.debug("Listening to the cache invalidations of {}", channel);
+                if (reconnecting) {
+                    receiver.reset();
+                }
+                reconnecting = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receiver.receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    log.warn("Stopped listening to the cache invalidations of {}, retrying: {}", channel, e.toString());
+                    sleep();
+                }
+            }
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package org.pierre.shareazade.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Shareazade.
@@ -10,7 +16,572 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Matching matching = new Matching();
+
+    private final Bulk bulk = new Bulk();
+
+    private final Export export = new Export();
+
+    private final Count count = new Count();
+
+    private final Geo geo = new Geo();
+
+    private final Itinerary itinerary = new Itinerary();
+
+    private final Suggest suggest = new Suggest();
+
+    private final Revocation revocation = new Revocation();
+
+    private final RefreshToken refreshToken = new RefreshToken();
+
+    private final PasswordEncoder passwordEncoder = new PasswordEncoder();
+
+    private final LoginThrottling loginThrottling = new LoginThrottling();
+
+    private final Cache cache = new Cache();
+
+    private final Proxy proxy = new Proxy();
+
     // jhipster-needle-application-properties-property
+
+    public Matching getMatching() {
+        return matching;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public Count getCount() {
+        return count;
+    }
+
+    public Geo getGeo() {
+        return geo;
+    }
+
+    public Itinerary getItinerary() {
+        return itinerary;
+    }
+
+    public Suggest getSuggest() {
+        return suggest;
+    }
+
+    public Revocation getRevocation() {
+        return revocation;
+    }
+
+    public RefreshToken getRefreshToken() {
+        return refreshToken;
+    }
+
+    public PasswordEncoder getPasswordEncoder() {
+        return passwordEncoder;
+    }
+
+    public LoginThrottling getLoginThrottling() {
+        return loginThrottling;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Proxy getProxy() {
+        return proxy;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class Matching {
+
+        private Duration bucket = Duration.ofHours(1);
+
+        private Duration defaultTolerance = Duration.ofHours(1);
+
+        private Duration maxTolerance = Duration.ofHours(12);
+
+        public Duration getBucket() {
+            return bucket;
+        }
+
+        public void setBucket(Duration bucket) {
+            this.bucket = bucket;
+        }
+
+        public Duration getDefaultTolerance() {
+            return defaultTolerance;
+        }
+
+        public void setDefaultTolerance(Duration defaultTolerance) {
+            this.defaultTolerance = defaultTolerance;
+        }
+
+        public Duration getMaxTolerance() {
+            return maxTolerance;
+        }
+
+        public void setMaxTolerance(Duration maxTolerance) {
+            this.maxTolerance = maxTolerance;
+        }
+    }
+
+    public static class Bulk {
+
+        private int chunkSize = 500;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class Export {
+
+        private int fetchSize = 1000;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    public static class Count {
+
+        private Duration estimateTtl = Duration.ofMinutes(1);
+
+        public Duration getEstimateTtl() {
+            return estimateTtl;
+        }
+
+        public void setEstimateTtl(Duration estimateTtl) {
+            this.estimateTtl = estimateTtl;
+        }
+    }
+
+    public static class Geo {
+
+        private double cellDegrees = 0.5;
+
+        public double getCellDegrees() {
+            return cellDegrees;
+        }
+
+        public void setCellDegrees(double cellDegrees) {
+            this.cellDegrees = cellDegrees;
+        }
+    }
+
+    public static class Itinerary {
+
+        private double averageSpeedKmh = 70;
+
+        private Duration defaultRideDuration = Duration.ofHours(2);
+
+        private Duration minTransfer = Duration.ofMinutes(15);
+
+        private Duration maxTransferWait = Duration.ofHours(3);
+
+        private int maxTransfers = 2;
+
+        private int maxItineraries = 10;
+
+        private Duration searchWindow = Duration.ofDays(1);
+
+        public double getAverageSpeedKmh() {
+            return averageSpeedKmh;
+        }
+
+        public void setAverageSpeedKmh(double averageSpeedKmh) {
+            this.averageSpeedKmh = averageSpeedKmh;
+        }
+
+        public Duration getDefaultRideDuration() {
+            return defaultRideDuration;
+        }
+
+        public void setDefaultRideDuration(Duration defaultRideDuration) {
+            this.defaultRideDuration = defaultRideDuration;
+        }
+
+        public Duration getMinTransfer() {
+            return minTransfer;
+        }
+
+        public void setMinTransfer(Duration minTransfer) {
+            this.minTransfer = minTransfer;
+        }
+
+        public Duration getMaxTransferWait() {
+            return maxTransferWait;
+        }
+
+        public void setMaxTransferWait(Duration maxTransferWait) {
+            this.maxTransferWait = maxTransferWait;
+        }
+
+        public int getMaxTransfers() {
+            return maxTransfers;
+        }
+
+        public void setMaxTransfers(int maxTransfers) {
+            this.maxTransfers = maxTransfers;
+        }
+
+        public int getMaxItineraries() {
+            return maxItineraries;
+        }
+
+        public void setMaxItineraries(int maxItineraries) {
+            this.maxItineraries = maxItineraries;
+        }
+
+        public Duration getSearchWindow() {
+            return searchWindow;
+        }
+
+        public void setSearchWindow(Duration searchWindow) {
+            this.searchWindow = searchWindow;
+        }
+    }
+
+    public static class Suggest {
+
+        private int maxResults = 20;
+
+        public int getMaxResults() {
+            return maxResults;
+        }
+
+        public void setMaxResults(int maxResults) {
+            this.maxResults = maxResults;
+        }
+    }
+
+    public static class Revocation {
+
+        private int expectedRevocations = 10000;
+
+        private double falsePositiveProbability = 0.01;
+
+        public int getExpectedRevocations() {
+            return expectedRevocations;
+        }
+
+        public void setExpectedRevocations(int expectedRevocations) {
+            this.expectedRevocations = expectedRevocations;
+        }
+
+        public double getFalsePositiveProbability() {
+            return falsePositiveProbability;
+        }
+
+        public void setFalsePositiveProbability(double falsePositiveProbability) {
+            this.falsePositiveProbability = falsePositiveProbability;
+        }
+    }
+
+    public static class RefreshToken {
+
+        private Duration accessTokenValidity = Duration.ofMinutes(15);
+
+        public Duration getAccessTokenValidity() {
+            return accessTokenValidity;
+        }
+
+        public void setAccessTokenValidity(Duration accessTokenValidity) {
+            this.accessTokenValidity = accessTokenValidity;
+        }
+    }
+
+    public static class PasswordEncoder {
+
+        private int strength = 10;
+
+        private int threads = 2;
+
+        private int queueCapacity = 64;
+
+        public int getStrength() {
+            return strength;
+        }
+
+        public void setStrength(int strength) {
+            this.strength = strength;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public static class LoginThrottling {
+
+        private Duration window = Duration.ofMinutes(5);
+
+        private int maxFailuresPerLogin = 10;
+
+        private int maxFailuresPerIp = 100;
+
+        private int maxKeys = 100000;
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getMaxFailuresPerLogin() {
+            return maxFailuresPerLogin;
+        }
+
+        public void setMaxFailuresPerLogin(int maxFailuresPerLogin) {
+            this.maxFailuresPerLogin = maxFailuresPerLogin;
+        }
+
+        public int getMaxFailuresPerIp() {
+            return maxFailuresPerIp;
+        }
+
+        public void setMaxFailuresPerIp(int maxFailuresPerIp) {
+            this.maxFailuresPerIp = maxFailuresPerIp;
+        }
+
+        public int getMaxKeys() {
+            return maxKeys;
+        }
+
+        public void setMaxKeys(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+    }
+
+    public static class Cache {
+
+        private final Map<String, Region> regions = new LinkedHashMap<>();
+
+        private final Invalidation invalidation = new Invalidation();
+
+        private final WarmUp warmUp = new WarmUp();
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public Invalidation getInvalidation() {
+            return invalidation;
+        }
+
+        public WarmUp getWarmUp() {
+            return warmUp;
+        }
+
+        /**
+         * Sizing and expiry of a cache, the missing values being taken from {@code jhipster.cache.ehcache}.
+         */
+        public static class Region {
+
+            private Long heapEntries;
+
+            private DataSize heapSize;
+
+            private DataSize offHeapSize;
+
+            private Duration timeToLive;
+
+            private Duration timeToIdle;
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public DataSize getHeapSize() {
+                return heapSize;
+            }
+
+            public void setHeapSize(DataSize heapSize) {
+                this.heapSize = heapSize;
+            }
+
+            public DataSize getOffHeapSize() {
+                return offHeapSize;
+            }
+
+            public void setOffHeapSize(DataSize offHeapSize) {
+                this.offHeapSize = offHeapSize;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+
+            public Duration getTimeToIdle() {
+                return timeToIdle;
+            }
+
+            public void setTimeToIdle(Duration timeToIdle) {
+                this.timeToIdle = timeToIdle;
+            }
+        }
+
+        /**
+         * Broadcast of the cache evictions to the other nodes.
+         */
+        public static class Invalidation {
+
+            /**
+             * The transports of the invalidations: {@code auto} uses PostgreSQL when it is the database, and the
+             * in-process transport otherwise.
+             */
+            public enum Transport {
+                AUTO,
+                POSTGRES,
+                IN_PROCESS,
+            }
+
+            private Transport transport = Transport.AUTO;
+
+            private String channel = "cache_invalidation";
+
+            private Duration flushDelay = Duration.ofMillis(50);
+
+            public Transport getTransport() {
+                return transport;
+            }
+
+            public void setTransport(Transport transport) {
+                this.transport = transport;
+            }
+
+            public String getChannel() {
+                return channel;
+            }
+
+            public void setChannel(String channel) {
+                this.channel = channel;
+            }
+
+            public Duration getFlushDelay() {
+                return flushDelay;
+            }
+
+            public void setFlushDelay(Duration flushDelay) {
+                this.flushDelay = flushDelay;
+            }
+        }
+
+        /**
+         * Loading of the caches once the application is started, before it accepts traffic.
+         */
+        public static class WarmUp {
+
+            private boolean enabled = true;
+
+            private Duration timeout = Duration.ofMinutes(2);
+
+            private Duration upcomingRides = Duration.ofDays(7);
+
+            private int maxShareRides = 10000;
+
+            private int maxShareUsers = 5000;
+
+            private int maxLogins = 2000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Duration getTimeout() {
+                return timeout;
+            }
+
+            public void setTimeout(Duration timeout) {
+                this.timeout = timeout;
+            }
+
+            public Duration getUpcomingRides() {
+                return upcomingRides;
+            }
+
+            public void setUpcomingRides(Duration upcomingRides) {
+                this.upcomingRides = upcomingRides;
+            }
+
+            public int getMaxShareRides() {
+                return maxShareRides;
+            }
+
+            public void setMaxShareRides(int maxShareRides) {
+                this.maxShareRides = maxShareRides;
+            }
+
+            public int getMaxShareUsers() {
+                return maxShareUsers;
+            }
+
+            public void setMaxShareUsers(int maxShareUsers) {
+                this.maxShareUsers = maxShareUsers;
+            }
+
+            public int getMaxLogins() {
+                return maxLogins;
+            }
+
+            public void setMaxLogins(int maxLogins) {
+                this.maxLogins = maxLogins;
+            }
+        }
+    }
+
+    public static class Proxy {
+
+        private List<String> trustedAddresses = new ArrayList<>();
+
+        public List<String> getTrustedAddresses() {
+            return trustedAddresses;
+        }
+
+        public void setTrustedAddresses(List<String> trustedAddresses) {
+            this.trustedAddresses = trustedAddresses;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
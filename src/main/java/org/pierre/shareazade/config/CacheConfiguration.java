@@ -1,9 +1,24 @@
 package org.pierre.shareazade.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.InternalCache;
+import org.ehcache.core.internal.statistics.DefaultCacheStatistics;
+import org.ehcache.core.statistics.TierStatistics;
+import org.ehcache.expiry.ExpiryPolicy;
 import org.ehcache.jsr107.Eh107Configuration;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
@@ -19,20 +34,17 @@ import tech.jhipster.config.cache.PrefixedKeyGenerator;
 @EnableCaching
 public class CacheConfiguration {
 
+    private final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
+
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
-
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final Map<String, ApplicationProperties.Cache.Region> regions;
+    private final Map<String, Map<String, TierStatistics>> tierStatistics = new ConcurrentHashMap<>();
 
-        jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
-            );
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.regions = applicationProperties.getCache().getRegions();
     }
 
     @Bean
@@ -40,18 +52,56 @@ public class CacheConfiguration {
         return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
     }
 
+    /**
+     * Report the entries and the bytes held by each tier of each cache, next to the gets, puts and evictions which Spring
+     * Boot binds from the JCache statistics.
+     * <p>
+     * The values are read from the tier statistics of Ehcache, set up as the caches are created: the bytes are only
+     * known for the tiers sized in bytes, the others report {@code NaN}.
+     */
+    @Bean
+    public MeterBinder cacheTierMeterBinder(javax.cache.CacheManager cacheManager) {
+        return registry ->
+            tierStatistics.forEach((cacheName, tiers) ->
+                tiers.forEach((tier, statistics) -> {
+                    Gauge
+                        .builder("cache.tier.entries", statistics, s -> value(s, TierStatistics::getMappings))
+                        .description("The number of entries in the tier of the cache")
+                        .tags("cache", cacheName, "tier", tier)
+                        .register(registry);
+                    Gauge
+                        .builder("cache.tier.occupied", statistics, s -> value(s, TierStatistics::getOccupiedByteSize))
+                        .description("The bytes occupied by the entries in the tier of the cache")
+                        .tags("cache", cacheName, "tier", tier)
+                        .baseUnit(BaseUnits.BYTES)
+                        .register(registry);
+                })
+            );
+    }
+
+    private static double value(TierStatistics statistics, ToLongFunction<TierStatistics> value) {
+        long result = value.applyAsLong(statistics);
+        return result < 0 ? Double.NaN : result;
+    }
+
     @Bean
     public JCacheManagerCustomizer cacheManagerCustomizer() {
         return cm -> {
             createCache(cm, org.pierre.shareazade.repository.UserRepository.USERS_BY_LOGIN_CACHE);
             createCache(cm, org.pierre.shareazade.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            createCache(cm, org.pierre.shareazade.security.UserCache.USERS_NOT_FOUND_CACHE);
             createCache(cm, org.pierre.shareazade.domain.User.class.getName());
             createCache(cm, org.pierre.shareazade.domain.Authority.class.getName());
             createCache(cm, org.pierre.shareazade.domain.User.class.getName() + ".authorities");
             createCache(cm, org.pierre.shareazade.domain.ShareRide.class.getName());
             createCache(cm, org.pierre.shareazade.domain.ShareCity.class.getName());
             createCache(cm, org.pierre.shareazade.domain.ShareUser.class.getName());
+            createCache(cm, org.pierre.shareazade.service.ShareRideCriteriaCache.CACHE_NAME);
+            createCache(cm, org.pierre.shareazade.service.ShareRideDTOCache.CACHE_NAME);
+            createCache(cm, org.pierre.shareazade.service.CountEstimator.CACHE_NAME);
+            createCache(cm, org.pierre.shareazade.security.jwt.TokenProvider.AUTHENTICATIONS_CACHE);
             // jhipster-needle-ehcache-add-entry
+            warnUnknownRegions(cm);
         };
     }
 
@@ -60,10 +110,46 @@ public class CacheConfiguration {
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cache = cm.createCache(cacheName, jcacheConfiguration(cacheName));
+        }
+        cm.enableStatistics(cacheName, true);
+        // The same statistics as the StatisticsService of the cache manager, which JCache does not expose
+        tierStatistics.put(cacheName, new DefaultCacheStatistics(cache.unwrap(InternalCache.class)).getTierStatistics());
+    }
+
+    private void warnUnknownRegions(javax.cache.CacheManager cm) {
+        Set<String> unknown = new TreeSet<>(regions.keySet());
+        cm.getCacheNames().forEach(unknown::remove);
+        if (!unknown.isEmpty()) {
+            log.warn("The application.cache.regions {} do not match any cache, their settings are ignored", unknown);
         }
     }
 
+    /**
+     * Build the configuration of a cache from its {@code application.cache.regions} entry, if any.
+     * <p>
+     * The heap tier is sized in entries, or in bytes when {@code heap-size} is set. An off-heap tier holds the entries
+     * evicted from the heap, which must then be serializable. Ehcache applies a single expiry: {@code time-to-idle}, when
+     * set, replaces {@code time-to-live}.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(String cacheName) {
+        ApplicationProperties.Cache.Region region = regions.getOrDefault(cacheName, new ApplicationProperties.Cache.Region());
+        ResourcePoolsBuilder resourcePools = region.getHeapSize() != null
+            ? ResourcePoolsBuilder.newResourcePoolsBuilder().heap(region.getHeapSize().toBytes(), MemoryUnit.B)
+            : ResourcePoolsBuilder.heap(region.getHeapEntries() != null ? region.getHeapEntries() : ehcache.getMaxEntries());
+        if (region.getOffHeapSize() != null) {
+            resourcePools = resourcePools.offheap(region.getOffHeapSize().toBytes(), MemoryUnit.B);
+        }
+        ExpiryPolicy<Object, Object> expiry = region.getTimeToIdle() != null
+            ? ExpiryPolicyBuilder.timeToIdleExpiration(region.getTimeToIdle())
+            : ExpiryPolicyBuilder.timeToLiveExpiration(
+                region.getTimeToLive() != null ? region.getTimeToLive() : Duration.ofSeconds(ehcache.getTimeToLiveSeconds())
+            );
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, resourcePools).withExpiry(expiry).build()
+        );
+    }
+
     @Autowired(required = false)
     public void setGitProperties(GitProperties gitProperties) {
         this.gitProperties = gitProperties;
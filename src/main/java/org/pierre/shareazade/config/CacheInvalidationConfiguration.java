@@ -0,0 +1,79 @@
+package org.pierre.shareazade.config;
+
+import java.sql.DatabaseMetaData;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.hibernate.SessionFactory;
+import org.pierre.shareazade.cache.CacheInvalidationBus;
+import org.pierre.shareazade.cache.CacheInvalidationTransport;
+import org.pierre.shareazade.cache.HibernateCacheInvalidation;
+import org.pierre.shareazade.cache.InProcessCacheInvalidationTransport;
+import org.pierre.shareazade.cache.PostgresCacheInvalidationTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+@Configuration
+public class CacheInvalidationConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationConfiguration.class);
+
+    private final ApplicationProperties.Cache.Invalidation invalidation;
+
+    public CacheInvalidationConfiguration(ApplicationProperties applicationProperties) {
+        this.invalidation = applicationProperties.getCache().getInvalidation();
+    }
+
+    /**
+     * Transport of the cache invalidations between the nodes: the {@code LISTEN} and {@code NOTIFY} commands of
+     * PostgreSQL when available, an in-process transport reaching no other node otherwise.
+     * <p>
+     * The {@code LISTEN} connection is opened by the driver with the {@code spring.datasource} settings, outside of the
+     * pool.
+     *
+     * @param dataSource the application data source.
+     * @param dataSourceProperties the settings of the application data source.
+     * @return the transport.
+     * @throws MetaDataAccessException if the database could not be identified.
+     */
+    @Bean
+    public CacheInvalidationTransport cacheInvalidationTransport(
+        DataSource dataSource,
+        DataSourceProperties dataSourceProperties
+    ) throws MetaDataAccessException {
+        ApplicationProperties.Cache.Invalidation.Transport transport = invalidation.getTransport();
+        if (transport == ApplicationProperties.Cache.Invalidation.Transport.AUTO) {
+            String databaseProductName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            transport =
+                DatabaseDriver.fromProductName(databaseProductName) == DatabaseDriver.POSTGRESQL
+                    ? ApplicationProperties.Cache.Invalidation.Transport.POSTGRES
+                    : ApplicationProperties.Cache.Invalidation.Transport.IN_PROCESS;
+        }
+        if (transport == ApplicationProperties.Cache.Invalidation.Transport.POSTGRES) {
+            log.debug("Broadcasting the cache invalidations on the PostgreSQL channel {}", invalidation.getChannel());
+            DataSource listenDataSource = dataSourceProperties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build();
+            return new PostgresCacheInvalidationTransport(dataSource, listenDataSource, invalidation.getChannel());
+        }
+        log.debug("Broadcasting the cache invalidations in process only");
+        return new InProcessCacheInvalidationTransport();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public CacheInvalidationBus cacheInvalidationBus(CacheInvalidationTransport cacheInvalidationTransport) {
+        return new CacheInvalidationBus(cacheInvalidationTransport, invalidation.getFlushDelay());
+    }
+
+    @Bean(initMethod = "register")
+    public HibernateCacheInvalidation hibernateCacheInvalidation(
+        CacheInvalidationBus cacheInvalidationBus,
+        EntityManagerFactory entityManagerFactory
+    ) {
+        return new HibernateCacheInvalidation(cacheInvalidationBus, entityManagerFactory.unwrap(SessionFactory.class));
+    }
+}
@@ -1,14 +1,27 @@
 package org.pierre.shareazade.config;
 
+import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.service.InMemoryShareRideCommentsIndex;
+import org.pierre.shareazade.service.PostgresShareRideCommentsIndex;
+import org.pierre.shareazade.service.ShareRideCommentsIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DatabaseDriver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
@@ -41,6 +54,44 @@ public class DatabaseConfiguration {
         return H2ConfigurationHelper.createServer(port);
     }
 
+    /**
+     * Full-text index of the ShareRide comments: the GIN index of PostgreSQL when available, an in-process index otherwise.
+     *
+     * @param dataSource the application data source.
+     * @param entityManager the shared entity manager.
+     * @param shareRideRepository the ShareRide repository.
+     * @return the ShareRide comments index.
+     * @throws MetaDataAccessException if the database could not be identified.
+     */
+    @Bean
+    public ShareRideCommentsIndex shareRideCommentsIndex(
+        DataSource dataSource,
+        EntityManager entityManager,
+        ShareRideRepository shareRideRepository
+    ) throws MetaDataAccessException {
+        String databaseProductName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if (DatabaseDriver.fromProductName(databaseProductName) == DatabaseDriver.POSTGRESQL) {
+            log.debug("Searching ShareRide comments with the PostgreSQL text index");
+            return new PostgresShareRideCommentsIndex(entityManager);
+        }
+        log.debug("Searching ShareRide comments with an in-memory index on {}", databaseProductName);
+        return new InMemoryShareRideCommentsIndex(shareRideRepository, entityManager);
+    }
+
+    /**
+     * Register the SQL functions of the PostgreSQL comments index. They are only called on PostgreSQL.
+     *
+     * @return the customizer of the Hibernate properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shareRideCommentsFunctionsCustomizer() {
+        return hibernateProperties ->
+            hibernateProperties.put(
+                EntityManagerFactoryBuilderImpl.METADATA_BUILDER_CONTRIBUTOR,
+                (MetadataBuilderContributor) PostgresShareRideCommentsIndex::registerFunctions
+            );
+    }
+
     private String getValidPortForH2() {
         int port = Integer.parseInt(env.getProperty("server.port"));
         if (port < 10000) {
@@ -0,0 +1,96 @@
+package org.pierre.shareazade.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.ToDoubleFunction;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Export the Hibernate statistics of each second level cache region and of each entity, when
+ * {@code hibernate.generate_statistics} is enabled, as in the {@code dev} profile, or in the {@code prod} profile with
+ * {@code HIBERNATE_STATISTICS=true}.
+ * <p>
+ * Spring Boot only binds them with the {@code hibernate-micrometer} module: the counters read the {@link Statistics}
+ * of the session factory instead, once all the beans are created.
+ */
+@Configuration
+public class HibernateMetricsConfiguration implements SmartInitializingSingleton {
+
+    private static final String REQUESTS = "hibernate.second.level.cache.requests";
+    private static final String REQUESTS_DESCRIPTION = "The number of lookups in the second level cache region";
+    private static final String PUTS = "hibernate.second.level.cache.puts";
+    private static final String PUTS_DESCRIPTION = "The number of entries put in the second level cache region";
+    private static final String LOADS = "hibernate.entities.loads";
+    private static final String LOADS_DESCRIPTION = "The number of entities loaded, from the second level cache or the database";
+    private static final String FETCHES = "hibernate.entities.fetches";
+    private static final String FETCHES_DESCRIPTION = "The number of entities fetched from the database";
+
+    private final Logger log = LoggerFactory.getLogger(HibernateMetricsConfiguration.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final MeterRegistry meterRegistry;
+
+    public HibernateMetricsConfiguration(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            log.debug("Hibernate statistics are disabled, they are not exported");
+            return;
+        }
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            regionCounter(statistics, region, REQUESTS, REQUESTS_DESCRIPTION, "hit", CacheRegionStatistics::getHitCount);
+            regionCounter(statistics, region, REQUESTS, REQUESTS_DESCRIPTION, "miss", CacheRegionStatistics::getMissCount);
+            regionCounter(statistics, region, PUTS, PUTS_DESCRIPTION, null, CacheRegionStatistics::getPutCount);
+        }
+        for (String entity : statistics.getEntityNames()) {
+            entityCounter(statistics, entity, LOADS, LOADS_DESCRIPTION, EntityStatistics::getLoadCount);
+            entityCounter(statistics, entity, FETCHES, FETCHES_DESCRIPTION, EntityStatistics::getFetchCount);
+        }
+    }
+
+    private void regionCounter(
+        Statistics statistics,
+        String region,
+        String name,
+        String description,
+        String result,
+        ToDoubleFunction<CacheRegionStatistics> count
+    ) {
+        FunctionCounter.Builder<Statistics> builder = FunctionCounter
+            .builder(name, statistics, s -> count.applyAsDouble(s.getDomainDataRegionStatistics(region)))
+            .description(description)
+            .tag("region", region);
+        if (result != null) {
+            builder.tag("result", result);
+        }
+        builder.register(meterRegistry);
+    }
+
+    private void entityCounter(
+        Statistics statistics,
+        String entity,
+        String name,
+        String description,
+        ToDoubleFunction<EntityStatistics> count
+    ) {
+        FunctionCounter
+            .builder(name, statistics, s -> count.applyAsDouble(s.getEntityStatistics(entity)))
+            .description(description)
+            .tag("entity", entity)
+            .register(meterRegistry);
+    }
+}
@@ -1,5 +1,6 @@
 package org.pierre.shareazade.config;
 
+import org.pierre.shareazade.management.SecurityMetersService;
 import org.pierre.shareazade.security.*;
 import org.pierre.shareazade.security.jwt.*;
 import org.springframework.context.annotation.Bean;
@@ -43,8 +44,14 @@ public class SecurityConfiguration {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ApplicationProperties applicationProperties, SecurityMetersService securityMetersService) {
+        ApplicationProperties.PasswordEncoder properties = applicationProperties.getPasswordEncoder();
+        return new BoundedPasswordEncoder(
+            new BCryptPasswordEncoder(properties.getStrength()),
+            properties.getThreads(),
+            properties.getQueueCapacity(),
+            securityMetersService
+        );
     }
 
     @Bean
@@ -80,6 +87,7 @@ public class SecurityConfiguration {
             .antMatchers("/test/**").permitAll()
             .antMatchers("/h2-console/**").permitAll()
             .antMatchers("/api/authenticate").permitAll()
+            .antMatchers("/api/authenticate/refresh").permitAll()
             .antMatchers("/api/register").permitAll()
             .antMatchers("/api/activate").permitAll()
             .antMatchers("/api/account/reset-password/init").permitAll()
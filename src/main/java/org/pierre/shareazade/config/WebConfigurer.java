@@ -5,14 +5,18 @@ import static java.net.URLDecoder.decode;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.List;
 import javax.servlet.*;
+import org.pierre.shareazade.web.filter.TrustedProxyFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.web.server.*;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
 import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
 import org.springframework.util.CollectionUtils;
@@ -101,6 +105,19 @@ public class WebConfigurer implements ServletContextInitializer, WebServerFactor
         return new CorsFilter(source);
     }
 
+    /**
+     * Apply the {@code X-Forwarded-*} headers of the trusted proxies only, before any other filter reads the request.
+     */
+    @Bean
+    public FilterRegistrationBean<TrustedProxyFilter> trustedProxyFilter(ApplicationProperties applicationProperties) {
+        List<String> trustedAddresses = applicationProperties.getProxy().getTrustedAddresses();
+        log.debug("Registering the trusted proxy filter, trusting {}", trustedAddresses);
+        FilterRegistrationBean<TrustedProxyFilter> registration = new FilterRegistrationBean<>(new TrustedProxyFilter(trustedAddresses));
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC, DispatcherType.ERROR);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
     /**
      * Initializes H2 console.
      */
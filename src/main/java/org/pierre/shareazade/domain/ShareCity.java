@@ -30,6 +30,12 @@ public class ShareCity implements Serializable {
     @Column(name = "city_country")
     private ShareCountry cityCountry;
 
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -71,6 +77,32 @@ public class ShareCity implements Serializable {
         this.cityCountry = cityCountry;
     }
 
+    public Double getLatitude() {
+        return this.latitude;
+    }
+
+    public ShareCity latitude(Double latitude) {
+        this.setLatitude(latitude);
+        return this;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return this.longitude;
+    }
+
+    public ShareCity longitude(Double longitude) {
+        this.setLongitude(longitude);
+        return this;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -97,6 +129,8 @@ public class ShareCity implements Serializable {
             "id=" + getId() +
             ", cityName='" + getCityName() + "'" +
             ", cityCountry='" + getCityCountry() + "'" +
+            ", latitude=" + getLatitude() +
+            ", longitude=" + getLongitude() +
             "}";
     }
 }
@@ -14,11 +14,27 @@ import org.pierre.shareazade.domain.enumeration.RideType;
 @Entity
 @Table(name = "share_ride")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// The to-one associations are lazy: each use case loads them with the graph it needs, the cities usually coming from the snapshot
+@NamedEntityGraph(
+    name = ShareRide.DETAIL_GRAPH,
+    attributeNodes = { @NamedAttributeNode("rideCityFrom"), @NamedAttributeNode("rideCityTo"), @NamedAttributeNode("rideUser") }
+)
+@NamedEntityGraph(name = ShareRide.LIST_GRAPH, attributeNodes = @NamedAttributeNode("rideUser"))
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class ShareRide implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Graph of a single shareRide: its cities and user.
+     */
+    public static final String DETAIL_GRAPH = "ShareRide.detail";
+
+    /**
+     * Graph of a list of shareRides: their user, their cities being mapped from the snapshot by their id.
+     */
+    public static final String LIST_GRAPH = "ShareRide.list";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
     @SequenceGenerator(name = "sequenceGenerator")
@@ -37,13 +53,13 @@ public class ShareRide implements Serializable {
     @Column(name = "ride_comments")
     private String rideComments;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private ShareCity rideCityFrom;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private ShareCity rideCityTo;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private ShareUser rideUser;
 
     // jhipster-needle-entity-add-field - JHipster will add fields here
@@ -1,7 +1,14 @@
 package org.pierre.shareazade.management;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -13,16 +20,72 @@ public class SecurityMetersService {
     public static final String INVALID_TOKENS_METER_BASE_UNIT = "errors";
     public static final String INVALID_TOKENS_METER_CAUSE_DIMENSION = "cause";
 
+    public static final String TOKEN_CACHE_METER_NAME = "security.authentication.token-cache";
+    public static final String TOKEN_CACHE_METER_DESCRIPTION = "Indicates lookup count of the verified tokens cache.";
+    public static final String TOKEN_CACHE_METER_BASE_UNIT = "lookups";
+    public static final String TOKEN_CACHE_METER_RESULT_DIMENSION = "result";
+
+    public static final String PASSWORD_ENCODER_WAIT_METER_NAME = "security.password-encoder.wait";
+    public static final String PASSWORD_ENCODER_WAIT_METER_DESCRIPTION =
+        "Indicates how long the passwords wait for a thread to be hashed or matched.";
+    public static final String PASSWORD_ENCODER_EXECUTION_METER_NAME = "security.password-encoder.execution";
+    public static final String PASSWORD_ENCODER_EXECUTION_METER_DESCRIPTION =
+        "Indicates how long the passwords take to be hashed or matched.";
+    public static final String PASSWORD_ENCODER_REJECTED_METER_NAME = "security.password-encoder.rejected";
+    public static final String PASSWORD_ENCODER_REJECTED_METER_DESCRIPTION =
+        "Indicates rejection count of the passwords when all the threads are busy.";
+    public static final String PASSWORD_ENCODER_OPERATION_DIMENSION = "operation";
+    public static final String PASSWORD_ENCODER_ENCODE = "encode";
+    public static final String PASSWORD_ENCODER_MATCHES = "matches";
+
+    public static final String LOGIN_THROTTLING_METER_NAME = "security.authentication.login-throttling";
+    public static final String LOGIN_THROTTLING_METER_DESCRIPTION =
+        "Indicates count of the logins rejected before checking the password, after too many failures.";
+    public static final String LOGIN_THROTTLING_KEYS_METER_NAME = "security.authentication.login-throttling.keys";
+    public static final String LOGIN_THROTTLING_KEYS_METER_DESCRIPTION =
+        "Indicates number of the logins and addresses having recent failures.";
+    public static final String LOGIN_THROTTLING_KEY_DIMENSION = "key";
+    public static final String LOGIN_THROTTLING_LOGIN = "login";
+    public static final String LOGIN_THROTTLING_IP = "ip";
+
     private final Counter tokenInvalidSignatureCounter;
     private final Counter tokenExpiredCounter;
     private final Counter tokenUnsupportedCounter;
     private final Counter tokenMalformedCounter;
+    private final Counter tokenCacheHitCounter;
+    private final Counter tokenCacheMissCounter;
+    private final Map<String, Timer> passwordEncoderWaitTimers = new HashMap<>();
+    private final Map<String, Timer> passwordEncoderExecutionTimers = new HashMap<>();
+    private final Map<String, Counter> passwordEncoderRejectedCounters = new HashMap<>();
+    private final Map<String, Counter> loginThrottledCounters = new HashMap<>();
+    private final MeterRegistry registry;
 
     public SecurityMetersService(MeterRegistry registry) {
         this.tokenInvalidSignatureCounter = invalidTokensCounterForCauseBuilder("invalid-signature").register(registry);
         this.tokenExpiredCounter = invalidTokensCounterForCauseBuilder("expired").register(registry);
         this.tokenUnsupportedCounter = invalidTokensCounterForCauseBuilder("unsupported").register(registry);
         this.tokenMalformedCounter = invalidTokensCounterForCauseBuilder("malformed").register(registry);
+        this.tokenCacheHitCounter = tokenCacheCounterForResultBuilder("hit").register(registry);
+        this.tokenCacheMissCounter = tokenCacheCounterForResultBuilder("miss").register(registry);
+        for (String operation : List.of(PASSWORD_ENCODER_ENCODE, PASSWORD_ENCODER_MATCHES)) {
+            passwordEncoderWaitTimers.put(
+                operation,
+                passwordEncoderTimerBuilder(PASSWORD_ENCODER_WAIT_METER_NAME, operation)
+                    .description(PASSWORD_ENCODER_WAIT_METER_DESCRIPTION)
+                    .register(registry)
+            );
+            passwordEncoderExecutionTimers.put(
+                operation,
+                passwordEncoderTimerBuilder(PASSWORD_ENCODER_EXECUTION_METER_NAME, operation)
+                    .description(PASSWORD_ENCODER_EXECUTION_METER_DESCRIPTION)
+                    .register(registry)
+            );
+            passwordEncoderRejectedCounters.put(operation, passwordEncoderRejectedCounterBuilder(operation).register(registry));
+        }
+        for (String key : List.of(LOGIN_THROTTLING_LOGIN, LOGIN_THROTTLING_IP)) {
+            loginThrottledCounters.put(key, loginThrottledCounterBuilder(key).register(registry));
+        }
+        this.registry = registry;
     }
 
     private Counter.Builder invalidTokensCounterForCauseBuilder(String cause) {
@@ -33,6 +96,34 @@ public class SecurityMetersService {
             .tag(INVALID_TOKENS_METER_CAUSE_DIMENSION, cause);
     }
 
+    private Counter.Builder tokenCacheCounterForResultBuilder(String result) {
+        return Counter
+            .builder(TOKEN_CACHE_METER_NAME)
+            .baseUnit(TOKEN_CACHE_METER_BASE_UNIT)
+            .description(TOKEN_CACHE_METER_DESCRIPTION)
+            .tag(TOKEN_CACHE_METER_RESULT_DIMENSION, result);
+    }
+
+    private Timer.Builder passwordEncoderTimerBuilder(String name, String operation) {
+        return Timer.builder(name).tag(PASSWORD_ENCODER_OPERATION_DIMENSION, operation);
+    }
+
+    private Counter.Builder passwordEncoderRejectedCounterBuilder(String operation) {
+        return Counter
+            .builder(PASSWORD_ENCODER_REJECTED_METER_NAME)
+            .baseUnit("rejections")
+            .description(PASSWORD_ENCODER_REJECTED_METER_DESCRIPTION)
+            .tag(PASSWORD_ENCODER_OPERATION_DIMENSION, operation);
+    }
+
+    private Counter.Builder loginThrottledCounterBuilder(String key) {
+        return Counter
+            .builder(LOGIN_THROTTLING_METER_NAME)
+            .baseUnit("rejections")
+            .description(LOGIN_THROTTLING_METER_DESCRIPTION)
+            .tag(LOGIN_THROTTLING_KEY_DIMENSION, key);
+    }
+
     public void trackTokenInvalidSignature() {
         this.tokenInvalidSignatureCounter.increment();
     }
@@ -48,4 +139,36 @@ public class SecurityMetersService {
     public void trackTokenMalformed() {
         this.tokenMalformedCounter.increment();
     }
+
+    public void trackTokenCacheHit() {
+        this.tokenCacheHitCounter.increment();
+    }
+
+    public void trackTokenCacheMiss() {
+        this.tokenCacheMissCounter.increment();
+    }
+
+    public void recordPasswordEncoderWait(String operation, long nanos) {
+        this.passwordEncoderWaitTimers.get(operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPasswordEncoderExecution(String operation, long nanos) {
+        this.passwordEncoderExecutionTimers.get(operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void trackPasswordEncoderRejected(String operation) {
+        this.passwordEncoderRejectedCounters.get(operation).increment();
+    }
+
+    public void trackLoginThrottled(String key) {
+        this.loginThrottledCounters.get(key).increment();
+    }
+
+    public void monitorLoginThrottlingKeys(String key, Supplier<Number> size) {
+        Gauge
+            .builder(LOGIN_THROTTLING_KEYS_METER_NAME, size)
+            .description(LOGIN_THROTTLING_KEYS_METER_DESCRIPTION)
+            .tag(LOGIN_THROTTLING_KEY_DIMENSION, key)
+            .register(registry);
+    }
 }
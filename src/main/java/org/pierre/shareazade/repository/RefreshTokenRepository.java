@@ -0,0 +1,47 @@
+package org.pierre.shareazade.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.pierre.shareazade.domain.RefreshToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link RefreshToken} entity.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    Optional<RefreshToken> findOneByTokenHash(String tokenHash);
+
+    /**
+     * @return the logins holding a refresh token which has not expired, that is which logged in recently.
+     */
+    @Query("select distinct refreshToken.login from RefreshToken refreshToken where refreshToken.expiresAt > :now")
+    List<String> findLoginsWithUnexpiredTokens(@Param("now") Instant now, Pageable pageable);
+
+    /**
+     * Mark a refresh token as used, unless it already is: of concurrent refreshes with the same token, only one succeeds.
+     *
+     * @return 1 if the token was marked, 0 if it was already used.
+     */
+    @Modifying
+    @Query("update RefreshToken refreshToken set refreshToken.usedAt = :now where refreshToken.id = :id and refreshToken.usedAt is null")
+    int markUsed(@Param("id") Long id, @Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from RefreshToken refreshToken where refreshToken.family = :family")
+    int deleteFamily(@Param("family") String family);
+
+    @Modifying
+    @Query("delete from RefreshToken refreshToken where refreshToken.login = :login")
+    int deleteAllByLogin(@Param("login") String login);
+
+    @Modifying
+    @Query("delete from RefreshToken refreshToken where refreshToken.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
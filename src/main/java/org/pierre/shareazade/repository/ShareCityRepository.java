@@ -1,5 +1,6 @@
 package org.pierre.shareazade.repository;
 
+import java.util.List;
 import org.pierre.shareazade.domain.ShareCity;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
@@ -9,4 +10,12 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ShareCityRepository extends JpaRepository<ShareCity, Long>, JpaSpecificationExecutor<ShareCity> {}
+public interface ShareCityRepository extends JpaRepository<ShareCity, Long>, JpaSpecificationExecutor<ShareCity> {
+    /**
+     * @return the id, latitude and longitude of the shareCities having coordinates.
+     */
+    @Query(
+        "select shareCity.id, shareCity.latitude, shareCity.longitude from ShareCity shareCity where shareCity.latitude is not null and shareCity.longitude is not null"
+    )
+    List<Object[]> findAllCoordinates();
+}
@@ -1,5 +1,6 @@
 package org.pierre.shareazade.repository;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 import org.pierre.shareazade.domain.ShareRide;
@@ -26,6 +27,13 @@ public interface ShareRideRepository extends JpaRepository<ShareRide, Long>, Jpa
         return this.findAllWithToOneRelationships(pageable);
     }
 
+    /**
+     * @return a page of shareRides with their user, their cities being mapped from the snapshot by their id.
+     */
+    @Override
+    @EntityGraph(ShareRide.LIST_GRAPH)
+    Page<ShareRide> findAll(Pageable pageable);
+
     @Query(
         value = "select distinct shareRide from ShareRide shareRide left join fetch shareRide.rideCityFrom left join fetch shareRide.rideCityTo left join fetch shareRide.rideUser",
         countQuery = "select count(distinct shareRide) from ShareRide shareRide"
@@ -41,4 +49,36 @@ public interface ShareRideRepository extends JpaRepository<ShareRide, Long>, Jpa
         "select shareRide from ShareRide shareRide left join fetch shareRide.rideCityFrom left join fetch shareRide.rideCityTo left join fetch shareRide.rideUser where shareRide.id =:id"
     )
     Optional<ShareRide> findOneWithToOneRelationships(@Param("id") Long id);
+
+    @Query(
+        "select shareRide from ShareRide shareRide left join fetch shareRide.rideCityFrom left join fetch shareRide.rideCityTo left join fetch shareRide.rideUser where shareRide.rideDateTime >= :from"
+    )
+    List<ShareRide> findAllUpcomingWithToOneRelationships(@Param("from") ZonedDateTime from);
+
+    /**
+     * @return the first shareRides departing within the given period, by departure time, with their cities and user.
+     */
+    @Query(
+        "select shareRide from ShareRide shareRide left join fetch shareRide.rideCityFrom left join fetch shareRide.rideCityTo left join fetch shareRide.rideUser where shareRide.rideDateTime >= :from and shareRide.rideDateTime < :to order by shareRide.rideDateTime"
+    )
+    List<ShareRide> findAllUpcomingWithToOneRelationships(
+        @Param("from") ZonedDateTime from,
+        @Param("to") ZonedDateTime to,
+        Pageable pageable
+    );
+
+    @Query("select shareRide.id, shareRide.rideComments from ShareRide shareRide where shareRide.rideComments is not null")
+    List<Object[]> findAllIdAndRideComments();
+
+    /**
+     * @return the id of each shareCity of departure and its number of shareRides.
+     */
+    @Query("select shareRide.rideCityFrom.id, count(shareRide) from ShareRide shareRide group by shareRide.rideCityFrom.id")
+    List<Object[]> countByRideCityFrom();
+
+    /**
+     * @return the id of each shareCity of arrival and its number of shareRides.
+     */
+    @Query("select shareRide.rideCityTo.id, count(shareRide) from ShareRide shareRide group by shareRide.rideCityTo.id")
+    List<Object[]> countByRideCityTo();
 }
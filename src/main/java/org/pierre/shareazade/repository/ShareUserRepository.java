@@ -1,6 +1,9 @@
 package org.pierre.shareazade.repository;
 
+import java.util.List;
 import org.pierre.shareazade.domain.ShareUser;
+import org.pierre.shareazade.domain.enumeration.UserStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +12,6 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ShareUserRepository extends JpaRepository<ShareUser, Long>, JpaSpecificationExecutor<ShareUser> {}
+public interface ShareUserRepository extends JpaRepository<ShareUser, Long>, JpaSpecificationExecutor<ShareUser> {
+    List<ShareUser> findAllByUserStatus(UserStatus userStatus, Pageable pageable);
+}
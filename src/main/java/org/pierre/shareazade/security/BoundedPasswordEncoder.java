@@ -0,0 +1,95 @@
+package org.pierre.shareazade.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.pierre.shareazade.management.SecurityMetersService;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link PasswordEncoder} running a CPU-heavy delegate, such as BCrypt, on a fixed number of threads.
+ * <p>
+ * The request threads wait for the result, so that a burst of logins or registrations occupies at most the given number
+ * of cores. When all the threads are busy and the queue is full, a {@link PasswordEncoderOverloadedException} is thrown
+ * at once rather than queuing more work. The wait and the execution are timed by the {@link SecurityMetersService}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private final SecurityMetersService securityMetersService;
+
+    private final ThreadPoolExecutor executor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, SecurityMetersService securityMetersService) {
+        this.delegate = delegate;
+        this.securityMetersService = securityMetersService;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-encoder-");
+        threadFactory.setDaemon(true);
+        this.executor =
+            new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(SecurityMetersService.PASSWORD_ENCODER_ENCODE, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(SecurityMetersService.PASSWORD_ENCODER_MATCHES, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Stop the threads, once the application is closed.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    private <T> T execute(String operation, Callable<T> task) {
+        long submitted = System.nanoTime();
+        Future<T> result;
+        try {
+            result =
+                executor.submit(() -> {
+                    long started = System.nanoTime();
+                    securityMetersService.recordPasswordEncoderWait(operation, started - submitted);
+                    try {
+                        return task.call();
+                    } finally {
+                        securityMetersService.recordPasswordEncoderExecution(operation, System.nanoTime() - started);
+                    }
+                });
+        } catch (RejectedExecutionException e) {
+            securityMetersService.trackPasswordEncoderRejected(operation);
+            throw new PasswordEncoderOverloadedException("Too many passwords to " + operation, e);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package org.pierre.shareazade.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.management.SecurityMetersService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits the failed logins per login and per client address, so that a brute-force or credential-stuffing burst is
+ * rejected before loading the user and checking the password.
+ * <p>
+ * Each attempt is reserved when it is allowed, then released if the login succeeds, so that a concurrent burst cannot
+ * pass the limit while its first attempts are still being checked.
+ * <p>
+ * The failures of each key are counted in a sliding window, approximated by the count of the current fixed window
+ * plus the count of the previous one weighted by how much of it still overlaps the sliding window. Each key only holds
+ * two counters, updated under its own lock, so that concurrent logins only contend on the same key. The keys without a
+ * failure in the last two windows are evicted every minute, and arbitrary ones make room for new keys once their
+ * number reaches {@code application.login-throttling.max-keys}.
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    private final Logger log = LoggerFactory.getLogger(LoginAttemptLimiter.class);
+
+    private final FailureCounters loginFailures;
+
+    private final FailureCounters ipFailures;
+
+    private final SecurityMetersService securityMetersService;
+
+    @Autowired
+    public LoginAttemptLimiter(ApplicationProperties applicationProperties, SecurityMetersService securityMetersService) {
+        this(applicationProperties.getLoginThrottling(), securityMetersService, Clock.systemUTC());
+    }
+
+    LoginAttemptLimiter(ApplicationProperties.LoginThrottling properties, SecurityMetersService securityMetersService, Clock clock) {
+        long window = properties.getWindow().toMillis();
+        this.loginFailures = new FailureCounters(window, properties.getMaxFailuresPerLogin(), properties.getMaxKeys(), clock);
+        this.ipFailures = new FailureCounters(window, properties.getMaxFailuresPerIp(), properties.getMaxKeys(), clock);
+        this.securityMetersService = securityMetersService;
+        securityMetersService.monitorLoginThrottlingKeys(SecurityMetersService.LOGIN_THROTTLING_LOGIN, loginFailures::size);
+        securityMetersService.monitorLoginThrottlingKeys(SecurityMetersService.LOGIN_THROTTLING_IP, ipFailures::size);
+    }
+
+    /**
+     * Check that a login may be attempted, and reserve the attempt: it counts as a failure until it is released.
+     *
+     * @param login the login of the user.
+     * @param ip the address of the client.
+     * @throws LoginThrottledException if the login or the address failed too many times within the window.
+     */
+    public void checkAllowed(String login, String ip) {
+        String loginKey = normalize(login);
+        long retryAfter = loginFailures.reserve(loginKey);
+        if (retryAfter > 0) {
+            securityMetersService.trackLoginThrottled(SecurityMetersService.LOGIN_THROTTLING_LOGIN);
+            log.debug("Too many failed logins for user {}", login);
+            throw new LoginThrottledException("Too many failed logins for this user", Duration.ofMillis(retryAfter));
+        }
+        retryAfter = ipFailures.reserve(ip);
+        if (retryAfter > 0) {
+            loginFailures.release(loginKey);
+            securityMetersService.trackLoginThrottled(SecurityMetersService.LOGIN_THROTTLING_IP);
+            log.debug("Too many failed logins from {}", ip);
+            throw new LoginThrottledException("Too many failed logins from this address", Duration.ofMillis(retryAfter));
+        }
+    }
+
+    /**
+     * Forget the failed logins of a user, once the user logged in, and release the attempt from the address. The other
+     * failures from the address are kept, as it may be shared by other clients.
+     *
+     * @param login the login of the user.
+     * @param ip the address of the client.
+     */
+    public void loginSucceeded(String login, String ip) {
+        loginFailures.remove(normalize(login));
+        ipFailures.release(ip);
+    }
+
+    /**
+     * Release an attempt which neither failed nor succeeded, such as one interrupted by an unexpected error.
+     *
+     * @param login the login of the user.
+     * @param ip the address of the client.
+     */
+    public void release(String login, String ip) {
+        loginFailures.release(normalize(login));
+        ipFailures.release(ip);
+    }
+
+    /**
+     * Evict the keys without a failure in the last two windows.
+     * <p>
+     * This is scheduled to get fired every minute.
+     */
+    @Scheduled(cron = "0 * * * * ?")
+    public void removeIdleCounters() {
+        int removed = loginFailures.removeIdle() + ipFailures.removeIdle();
+        log.debug("Removed {} idle login failure counters", removed);
+    }
+
+    private static String normalize(String login) {
+        return login != null ? login.toLowerCase(Locale.ENGLISH) : "";
+    }
+
+    /**
+     * Sliding window counters of the failures of each key, bounded in number.
+     */
+    private static final class FailureCounters {
+
+        private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+        private final long window;
+
+        private final int maxFailures;
+
+        private final int maxKeys;
+
+        private final Clock clock;
+
+        private FailureCounters(long window, int maxFailures, int maxKeys, Clock clock) {
+            this.window = window;
+            this.maxFailures = maxFailures;
+            this.maxKeys = maxKeys;
+            this.clock = clock;
+        }
+
+        private long reserve(String key) {
+            if (key == null) {
+                return 0;
+            }
+            long now = clock.millis();
+            Window counter = windows.get(key);
+            if (counter == null) {
+                if (windows.size() >= maxKeys) {
+                    evict();
+                }
+                counter = windows.computeIfAbsent(key, k -> new Window(now));
+            }
+            return counter.reserve(now, window, maxFailures);
+        }
+
+        private void release(String key) {
+            Window counter = key != null ? windows.get(key) : null;
+            if (counter != null) {
+                counter.release(clock.millis(), window);
+            }
+        }
+
+        private void remove(String key) {
+            windows.remove(key);
+        }
+
+        private int removeIdle() {
+            long now = clock.millis();
+            int before = windows.size();
+            windows.values().removeIf(counter -> counter.isIdle(now, window));
+            return before - windows.size();
+        }
+
+        private int size() {
+            return windows.size();
+        }
+
+        private void evict() {
+            // The idle keys are only removed every minute: until then an arbitrary key makes room, in constant time
+            Iterator<String> keys = windows.keySet().iterator();
+            if (keys.hasNext()) {
+                windows.remove(keys.next());
+            }
+        }
+    }
+
+    /**
+     * Failures of a key in the current fixed window and in the previous one.
+     */
+    private static final class Window {
+
+        private long start;
+
+        private long current;
+
+        private long previous;
+
+        private long lastFailure;
+
+        private Window(long now) {
+            this.start = now;
+            this.lastFailure = now;
+        }
+
+        /**
+         * Count an attempt, unless the failures reached the limit.
+         *
+         * @return the time to wait before the next attempt, in milliseconds, or 0 if the attempt was counted.
+         */
+        private synchronized long reserve(long now, long window, int maxFailures) {
+            long retryAfter = retryAfter(now, window, maxFailures);
+            if (retryAfter == 0) {
+                current++;
+                lastFailure = now;
+            }
+            return retryAfter;
+        }
+
+        /**
+         * Uncount an attempt, from the previous window if it was counted before the current one started.
+         */
+        private synchronized void release(long now, long window) {
+            roll(now, window);
+            if (current > 0) {
+                current--;
+            } else if (previous > 0) {
+                previous--;
+            }
+        }
+
+        private long retryAfter(long now, long window, int maxFailures) {
+            roll(now, window);
+            long elapsed = now - start;
+            double estimate = previous * (window - elapsed) / (double) window + current;
+            if (estimate < maxFailures) {
+                return 0;
+            }
+            // Time until the weight of the failures, once they belong to the previous window, brings the estimate under the limit
+            if (current >= maxFailures) {
+                return window - elapsed + (long) (window * (1 - maxFailures / (double) current)) + 1;
+            }
+            return (long) (window * (1 - (maxFailures - current) / (double) previous)) - elapsed + 1;
+        }
+
+        private synchronized boolean isIdle(long now, long window) {
+            return now - lastFailure >= 2 * window;
+        }
+
+        private void roll(long now, long window) {
+            long elapsed = now - start;
+            if (elapsed >= 2 * window) {
+                previous = 0;
+                current = 0;
+                start = now;
+            } else if (elapsed >= window) {
+                previous = current;
+                current = 0;
+                start += window;
+            }
+        }
+    }
+}
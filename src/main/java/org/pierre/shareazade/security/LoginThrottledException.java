@@ -0,0 +1,26 @@
+package org.pierre.shareazade.security;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when a login is attempted for a user, or from an address, having failed too many times
+ * recently. The password is not checked.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public LoginThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return how long until a failure leaves the window, at most.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
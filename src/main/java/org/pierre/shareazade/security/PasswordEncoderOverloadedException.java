@@ -0,0 +1,14 @@
+package org.pierre.shareazade.security;
+
+/**
+ * This exception is thrown when a password cannot be hashed or matched because all the threads of the
+ * {@link BoundedPasswordEncoder} are busy and its queue is full.
+ */
+public class PasswordEncoderOverloadedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordEncoderOverloadedException(String message, Throwable t) {
+        super(message, t);
+    }
+}
@@ -0,0 +1,230 @@
+package org.pierre.shareazade.security;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.pierre.shareazade.cache.CacheInvalidation;
+import org.pierre.shareazade.cache.CacheInvalidationBus;
+import org.pierre.shareazade.domain.User;
+import org.pierre.shareazade.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache of the {@link User}s with their authorities, by login and by email, loaded from the {@link UserRepository} on
+ * each authentication.
+ * <p>
+ * The concurrent misses of a key are coalesced: one caller queries the database, the others wait for its result. The
+ * logins and emails which do not exist are cached too, in the {@value #USERS_NOT_FOUND_CACHE} cache whose short expiry
+ * and size are set in {@code application.cache.regions}, so that they cannot crowd out the users. A result loaded while
+ * a user was being evicted is not stored, as it may already be stale. The evictions are broadcast to the other nodes on
+ * the {@link CacheInvalidationBus}.
+ * <p>
+ * Within a read-write transaction, the users are read from the database only, as they may not be committed yet.
+ */
+@Component
+public class UserCache implements CacheInvalidationBus.Listener {
+
+    public static final String USERS_NOT_FOUND_CACHE = "usersNotFound";
+
+    private static final String LOGIN = "login:";
+
+    private static final String EMAIL = "email:";
+
+    private final Logger log = LoggerFactory.getLogger(UserCache.class);
+
+    private final UserRepository userRepository;
+
+    private final Cache<Object, Object> usersByLogin;
+
+    private final Cache<Object, Object> usersByEmail;
+
+    private final Cache<Object, Object> usersNotFound;
+
+    private final Map<String, CompletableFuture<Optional<User>>> loading = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    public UserCache(UserRepository userRepository, CacheManager cacheManager, CacheInvalidationBus cacheInvalidationBus) {
+        this(
+            userRepository,
+            cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE),
+            cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE),
+            cacheManager.getCache(USERS_NOT_FOUND_CACHE),
+            cacheInvalidationBus
+        );
+    }
+
+    UserCache(
+        UserRepository userRepository,
+        Cache<Object, Object> usersByLogin,
+        Cache<Object, Object> usersByEmail,
+        Cache<Object, Object> usersNotFound,
+        CacheInvalidationBus cacheInvalidationBus
+    ) {
+        this.userRepository = userRepository;
+        this.usersByLogin = Objects.requireNonNull(usersByLogin, UserRepository.USERS_BY_LOGIN_CACHE);
+        this.usersByEmail = Objects.requireNonNull(usersByEmail, UserRepository.USERS_BY_EMAIL_CACHE);
+        this.usersNotFound = Objects.requireNonNull(usersNotFound, USERS_NOT_FOUND_CACHE);
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        cacheInvalidationBus.addListener(this);
+    }
+
+    /**
+     * Get a user with its authorities by login.
+     *
+     * @param login the login, in lower case.
+     * @return the user, or empty if no user has this login.
+     */
+    public Optional<User> findOneWithAuthoritiesByLogin(String login) {
+        return find(usersByLogin, LOGIN, login, userRepository::findOneWithAuthoritiesByLogin);
+    }
+
+    /**
+     * Get a user with its authorities by email, ignoring case.
+     *
+     * @param email the email.
+     * @return the user, or empty if no user has this email.
+     */
+    public Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email) {
+        return find(
+            usersByEmail,
+            EMAIL,
+            email != null ? email.toLowerCase(Locale.ENGLISH) : null,
+            userRepository::findOneWithAuthoritiesByEmailIgnoreCase
+        );
+    }
+
+    /**
+     * Evict a user, and the logins and emails which were not found, once a user is created, changed or deleted. When a
+     * transaction is active, the user is evicted again once it is committed, as it may have been loaded again meanwhile,
+     * and the other nodes evict it then.
+     *
+     * @param user the user.
+     */
+    public void evict(User user) {
+        String login = user.getLogin();
+        String email = user.getEmail() != null ? user.getEmail().toLowerCase(Locale.ENGLISH) : null;
+        evict(login, email);
+        cacheInvalidationBus.publish(CacheInvalidation.cache(UserRepository.USERS_BY_LOGIN_CACHE, login));
+        if (email != null) {
+            cacheInvalidationBus.publish(CacheInvalidation.cache(UserRepository.USERS_BY_EMAIL_CACHE, email));
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        evict(login, email);
+                    }
+                }
+            );
+        }
+    }
+
+    @Override
+    public void evict(CacheInvalidation invalidation) {
+        if (invalidation.getType() != CacheInvalidation.Type.CACHE) {
+            return;
+        }
+        if (UserRepository.USERS_BY_LOGIN_CACHE.equals(invalidation.getRegion())) {
+            evict(invalidation.getKey(), null);
+        } else if (UserRepository.USERS_BY_EMAIL_CACHE.equals(invalidation.getRegion())) {
+            evict(null, invalidation.getKey());
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        generation.incrementAndGet();
+        usersByLogin.clear();
+        usersByEmail.clear();
+        usersNotFound.clear();
+    }
+
+    private void evict(String login, String email) {
+        generation.incrementAndGet();
+        if (login != null) {
+            usersByLogin.remove(login);
+            usersNotFound.remove(LOGIN + login);
+        }
+        if (email != null) {
+            usersByEmail.remove(email);
+            usersNotFound.remove(EMAIL + email);
+        }
+    }
+
+    private Optional<User> find(Cache<Object, Object> users, String prefix, String key, Function<String, Optional<User>> query) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        if (!isConsultable()) {
+            return query.apply(key);
+        }
+        User user = (User) users.get(key);
+        if (user != null) {
+            return Optional.of(user);
+        }
+        if (usersNotFound.get(prefix + key) != null) {
+            return Optional.empty();
+        }
+        CompletableFuture<Optional<User>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<User>> current = loading.putIfAbsent(prefix + key, load);
+        if (current != null) {
+            log.debug("Waiting for the user {}{} loaded by another request", prefix, key);
+            try {
+                return current.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try {
+            long loadGeneration = generation.get();
+            Optional<User> result = query.apply(key);
+            if (result.isPresent()) {
+                store(users, key, result.get(), loadGeneration);
+            } else {
+                store(usersNotFound, prefix + key, Boolean.TRUE, loadGeneration);
+            }
+            load.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(prefix + key);
+        }
+    }
+
+    private void store(Cache<Object, Object> cache, String key, Object value, long loadGeneration) {
+        if (generation.get() != loadGeneration) {
+            return;
+        }
+        cache.put(key, value);
+        if (generation.get() != loadGeneration) {
+            // An eviction may have looked for the key before it was stored
+            cache.remove(key);
+        }
+    }
+
+    private static boolean isConsultable() {
+        boolean readWrite =
+            TransactionSynchronizationManager.isActualTransactionActive() && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return !readWrite;
+    }
+}
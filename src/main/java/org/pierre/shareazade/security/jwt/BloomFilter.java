@@ -0,0 +1,79 @@
+package org.pierre.shareazade.security.jwt;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe bloom filter of strings, each in a namespace.
+ * <p>
+ * {@link #mightContain(String, String)} is always {@code true} for a string which was {@link #put(String, String) put},
+ * and is {@code true} for another string with about the probability the filter was sized for, as long as it holds no
+ * more strings than expected. The positions of a string are derived from two 64-bit hashes, with double hashing.
+ */
+final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+
+    private final long bits;
+
+    private final int hashes;
+
+    BloomFilter(int expectedInsertions, double falsePositiveProbability) {
+        int expected = Math.max(1, expectedInsertions);
+        long optimalBits = (long) Math.ceil(-expected * Math.log(falsePositiveProbability) / (LN2 * LN2));
+        this.words = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) >>> 6));
+        this.bits = words.length() * 64L;
+        this.hashes = (int) Math.max(1, Math.round((double) bits / expected * LN2));
+    }
+
+    void put(String namespace, String value) {
+        long hash1 = hash(namespace, value);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bits);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(String namespace, String value) {
+        long hash1 = hash(namespace, value);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bits);
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a hash of the namespace and of the value, finalized by {@link #mix(long)}.
+     */
+    private static long hash(String namespace, String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < namespace.length(); i++) {
+            hash = (hash ^ namespace.charAt(i)) * 0x100000001b3L;
+        }
+        hash = (hash ^ 0xffff) * 0x100000001b3L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Finalizer of MurmurHash3, so that every bit of the result depends on every bit of the input.
+     */
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
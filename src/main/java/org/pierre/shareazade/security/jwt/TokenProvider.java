@@ -4,13 +4,21 @@ import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
 import org.pierre.shareazade.management.SecurityMetersService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -20,9 +28,21 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
 import tech.jhipster.config.JHipsterProperties;
 
+/**
+ * Creates and verifies the JWT tokens.
+ * <p>
+ * The authentications of the verified tokens are cached by the SHA-256 digest of the token until the token expires, so
+ * that a token presented again, as on every API call of a session, is neither parsed nor verified again. The cache
+ * holds the principal and the authorities only, never the token itself.
+ * <p>
+ * Each token has an id, so that it can be revoked before it expires through the {@link TokenRevocationList}, which is
+ * consulted for the cached tokens too.
+ */
 @Component
 public class TokenProvider {
 
+    public static final String AUTHENTICATIONS_CACHE = "jwtAuthentications";
+
     private final Logger log = LoggerFactory.getLogger(TokenProvider.class);
 
     private static final String AUTHORITIES_KEY = "auth";
@@ -39,7 +59,26 @@ public class TokenProvider {
 
     private final SecurityMetersService securityMetersService;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties, SecurityMetersService securityMetersService) {
+    private final Cache<Object, Object> authenticationsCache;
+
+    private final TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    public TokenProvider(
+        JHipsterProperties jHipsterProperties,
+        SecurityMetersService securityMetersService,
+        CacheManager cacheManager,
+        TokenRevocationList tokenRevocationList
+    ) {
+        this(jHipsterProperties, securityMetersService, cacheManager.getCache(AUTHENTICATIONS_CACHE), tokenRevocationList);
+    }
+
+    TokenProvider(
+        JHipsterProperties jHipsterProperties,
+        SecurityMetersService securityMetersService,
+        Cache<Object, Object> authenticationsCache,
+        TokenRevocationList tokenRevocationList
+    ) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -60,22 +99,36 @@ public class TokenProvider {
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
 
         this.securityMetersService = securityMetersService;
+        this.authenticationsCache = Objects.requireNonNull(authenticationsCache, AUTHENTICATIONS_CACHE);
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
+        return createToken(authentication, rememberMe ? this.tokenValidityInMillisecondsForRememberMe : this.tokenValidityInMilliseconds);
+    }
+
+    /**
+     * Create a token with a given validity, such as a short-lived token reissued from a refresh token.
+     *
+     * @param authentication the authentication of the user.
+     * @param validity how long the token is valid.
+     * @return the token.
+     */
+    public String createToken(Authentication authentication, Duration validity) {
+        return createToken(authentication, validity.toMillis());
+    }
+
+    private String createToken(Authentication authentication, long validityInMilliseconds) {
         String authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(","));
 
         long now = (new Date()).getTime();
-        Date validity;
-        if (rememberMe) {
-            validity = new Date(now + this.tokenValidityInMillisecondsForRememberMe);
-        } else {
-            validity = new Date(now + this.tokenValidityInMilliseconds);
-        }
+        Date validity = new Date(now + validityInMilliseconds);
 
         return Jwts
             .builder()
+            .setId(UUID.randomUUID().toString())
             .setSubject(authentication.getName())
+            .setIssuedAt(new Date(now))
             .claim(AUTHORITIES_KEY, authorities)
             .signWith(key, SignatureAlgorithm.HS512)
             .setExpiration(validity)
@@ -84,23 +137,75 @@ public class TokenProvider {
 
     public Authentication getAuthentication(String token) {
         Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        return toVerifiedToken(claims).toAuthentication(token);
+    }
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
+    public boolean validateToken(String authToken) {
+        Claims claims = parseClaims(authToken);
+        return claims != null && !toVerifiedToken(claims).isRevoked(tokenRevocationList);
+    }
 
-        User principal = new User(claims.getSubject(), "", authorities);
+    /**
+     * Validate a token and get its authentication, parsing and verifying the token only if it is not cached yet.
+     *
+     * @param token the token.
+     * @return the authentication, or {@code null} if the token is not valid.
+     */
+    public Authentication authenticate(String token) {
+        String digest = digest(token);
+        VerifiedToken verified = (VerifiedToken) authenticationsCache.get(digest);
+        if (verified != null && verified.expiration > System.currentTimeMillis()) {
+            this.securityMetersService.trackTokenCacheHit();
+        } else {
+            this.securityMetersService.trackTokenCacheMiss();
+            if (verified != null) {
+                authenticationsCache.remove(digest);
+            }
+            Claims claims = parseClaims(token);
+            if (claims == null) {
+                return null;
+            }
+            verified = toVerifiedToken(claims);
+            if (verified.expiration < Long.MAX_VALUE) {
+                authenticationsCache.put(digest, verified);
+            }
+        }
+        if (verified.isRevoked(tokenRevocationList)) {
+            log.trace("Revoked JWT token for user {}", verified.principal.getUsername());
+            return null;
+        }
+        return verified.toAuthentication(token);
+    }
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    /**
+     * Revoke a token until it expires.
+     *
+     * @param token the token.
+     * @return whether the token was revoked: {@code false} if it is not valid, or has no id.
+     */
+    public boolean revokeToken(String token) {
+        Claims claims = parseClaims(token);
+        if (claims == null || claims.getId() == null || claims.getExpiration() == null) {
+            return false;
+        }
+        tokenRevocationList.revoke(claims.getId(), claims.getSubject(), claims.getExpiration().toInstant());
+        authenticationsCache.remove(digest(token));
+        return true;
     }
 
-    public boolean validateToken(String authToken) {
-        try {
-            jwtParser.parseClaimsJws(authToken);
+    /**
+     * Revoke all the tokens issued to a user until now.
+     *
+     * @param login the login of the user.
+     */
+    public void revokeTokens(String login) {
+        long longestValidity = Math.max(tokenValidityInMilliseconds, tokenValidityInMillisecondsForRememberMe);
+        tokenRevocationList.revoke(null, login, Instant.now().plusMillis(longestValidity));
+    }
 
-            return true;
+    private Claims parseClaims(String authToken) {
+        try {
+            return jwtParser.parseClaimsJws(authToken).getBody();
         } catch (ExpiredJwtException e) {
             this.securityMetersService.trackTokenExpired();
 
@@ -121,6 +226,63 @@ public class TokenProvider {
             log.error("Token validation error {}", e.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    private static VerifiedToken toVerifiedToken(Claims claims) {
+        List<GrantedAuthority> authorities = Arrays
+            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
+            .filter(auth -> !auth.trim().isEmpty())
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toUnmodifiableList());
+
+        User principal = new User(claims.getSubject(), "", authorities);
+        // A token without expiration is not cached
+        long expiration = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+        Instant issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+        return new VerifiedToken(claims.getId(), principal, authorities, issuedAt, expiration);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Id, principal and authorities of a verified token, when it was issued, and its expiration in milliseconds.
+     */
+    private static final class VerifiedToken implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String id;
+
+        private final User principal;
+
+        private final List<GrantedAuthority> authorities;
+
+        private final Instant issuedAt;
+
+        private final long expiration;
+
+        private VerifiedToken(String id, User principal, List<GrantedAuthority> authorities, Instant issuedAt, long expiration) {
+            this.id = id;
+            this.principal = principal;
+            this.authorities = authorities;
+            this.issuedAt = issuedAt;
+            this.expiration = expiration;
+        }
+
+        private boolean isRevoked(TokenRevocationList tokenRevocationList) {
+            return tokenRevocationList.isRevoked(id, principal.getUsername(), issuedAt);
+        }
+
+        private Authentication toAuthentication(String token) {
+            return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        }
     }
 }
@@ -0,0 +1,147 @@
+package org.pierre.shareazade.security.jwt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.domain.RevokedToken;
+import org.pierre.shareazade.repository.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * In-memory list of the {@link RevokedToken}s which have not expired yet, consulted by {@link TokenProvider} for every
+ * authenticated request.
+ * <p>
+ * The revoked token ids and logins are held in exact sets, in front of which a {@link BloomFilter} answers the common
+ * case of a token which is not revoked with a few hash probes. Revocations made by this instance are added at once;
+ * the list is rebuilt from the database every minute, which picks up the revocations made by the other instances and
+ * drops the expired ones.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final String TOKEN_IDS = "token";
+
+    private static final String LOGINS = "login";
+
+    private final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final int expectedRevocations;
+
+    private final double falsePositiveProbability;
+
+    private volatile State state;
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository, ApplicationProperties applicationProperties) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = applicationProperties.getRevocation().getExpectedRevocations();
+        this.falsePositiveProbability = applicationProperties.getRevocation().getFalsePositiveProbability();
+        this.state = new State(expectedRevocations, falsePositiveProbability);
+    }
+
+    /**
+     * Load the revoked tokens which have not expired yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void loadRevokedTokens() {
+        log.info("Loaded {} revoked tokens", reload());
+    }
+
+    /**
+     * Delete the expired revoked tokens, and reload the other ones.
+     * <p>
+     * This is scheduled to get fired every minute.
+     */
+    @Scheduled(cron = "0 * * * * ?")
+    @Transactional
+    public synchronized void removeExpiredRevokedTokens() {
+        int deleted = revokedTokenRepository.deleteExpired(Instant.now());
+        int loaded = reload();
+        log.debug("Deleted {} expired revoked tokens, loaded {} revoked tokens", deleted, loaded);
+    }
+
+    /**
+     * Revoke a token, or all the tokens issued to a user until now.
+     *
+     * @param tokenId the id of the token, or {@code null} for all the tokens of the user.
+     * @param login the login of the user.
+     * @param expiresAt the expiration of the token, or the latest expiration of the tokens of the user.
+     */
+    public synchronized void revoke(String tokenId, String login, Instant expiresAt) {
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setTokenId(tokenId);
+        revokedToken.setLogin(login);
+        revokedToken.setRevokedAt(Instant.now());
+        revokedToken.setExpiresAt(expiresAt);
+        revokedTokenRepository.save(revokedToken);
+        state.add(revokedToken);
+        log.debug("Revoked token: {}", revokedToken);
+    }
+
+    /**
+     * Check whether a token is revoked.
+     *
+     * @param tokenId the id of the token, or {@code null} if it has none.
+     * @param login the login of the user the token was issued to.
+     * @param issuedAt when the token was issued, or {@code null} if it is not known.
+     * @return whether the token is revoked, by its id or by the login.
+     */
+    public boolean isRevoked(String tokenId, String login, Instant issuedAt) {
+        State current = state;
+        if (tokenId != null && current.filter.mightContain(TOKEN_IDS, tokenId) && current.tokenIds.contains(tokenId)) {
+            return true;
+        }
+        if (login != null && current.filter.mightContain(LOGINS, login)) {
+            Instant revokedAt = current.revokedAtByLogin.get(login);
+            // The issue time of a token is truncated to the second: a token issued in the second of the revocation is revoked
+            return revokedAt != null && (issuedAt == null || !issuedAt.isAfter(revokedAt));
+        }
+        return false;
+    }
+
+    private int reload() {
+        List<RevokedToken> revokedTokens = revokedTokenRepository.findAllByExpiresAtAfter(Instant.now());
+        // Room for as many new revocations until the next reload
+        State loaded = new State(Math.max(expectedRevocations, 2 * revokedTokens.size()), falsePositiveProbability);
+        revokedTokens.forEach(loaded::add);
+        state = loaded;
+        return revokedTokens.size();
+    }
+
+    private static final class State {
+
+        private final BloomFilter filter;
+
+        private final Set<String> tokenIds = ConcurrentHashMap.newKeySet();
+
+        private final Map<String, Instant> revokedAtByLogin = new ConcurrentHashMap<>();
+
+        private State(int expectedRevocations, double falsePositiveProbability) {
+            this.filter = new BloomFilter(expectedRevocations, falsePositiveProbability);
+        }
+
+        /**
+         * Add a revoked token to the exact sets, then to the filter, so that a positive filter is always confirmed.
+         */
+        private void add(RevokedToken revokedToken) {
+            if (revokedToken.getTokenId() != null) {
+                tokenIds.add(revokedToken.getTokenId());
+                filter.put(TOKEN_IDS, revokedToken.getTokenId());
+            } else {
+                revokedAtByLogin.merge(revokedToken.getLogin(), revokedToken.getRevokedAt(), (a, b) -> a.isAfter(b) ? a : b);
+                filter.put(LOGINS, revokedToken.getLogin());
+            }
+        }
+    }
+}
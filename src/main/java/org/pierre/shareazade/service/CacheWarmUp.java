@@ -0,0 +1,222 @@
+package org.pierre.shareazade.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.domain.enumeration.UserStatus;
+import org.pierre.shareazade.repository.RefreshTokenRepository;
+import org.pierre.shareazade.repository.ShareCityRepository;
+import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.repository.ShareUserRepository;
+import org.pierre.shareazade.security.UserCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * Loads the caches once the application is started, so that the first requests after a deployment do not all miss.
+ * <p>
+ * The shareCities, the active shareUsers, the upcoming shareRides with their cities and users, and the users holding an
+ * unexpired refresh token are loaded in parallel on the {@code taskExecutor}: the entities into the second level cache,
+ * the users into the {@link UserCache}. The {@link CacheWarmUpHealthIndicator}, part of the readiness probe, refuses
+ * traffic until all of them are loaded, or failed, or {@code application.cache.warm-up.timeout} elapsed.
+ */
+@Service
+public class CacheWarmUp {
+
+    private final Logger log = LoggerFactory.getLogger(CacheWarmUp.class);
+
+    private final ShareCityRepository shareCityRepository;
+
+    private final ShareUserRepository shareUserRepository;
+
+    private final ShareRideRepository shareRideRepository;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final UserCache userCache;
+
+    private final Executor taskExecutor;
+
+    private final ApplicationProperties.Cache.WarmUp properties;
+
+    private final Clock clock;
+
+    private volatile Map<String, Task> tasks;
+
+    private volatile Instant started;
+
+    @Autowired
+    public CacheWarmUp(
+        ShareCityRepository shareCityRepository,
+        ShareUserRepository shareUserRepository,
+        ShareRideRepository shareRideRepository,
+        RefreshTokenRepository refreshTokenRepository,
+        UserCache userCache,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        ApplicationProperties applicationProperties
+    ) {
+        this(
+            shareCityRepository,
+            shareUserRepository,
+            shareRideRepository,
+            refreshTokenRepository,
+            userCache,
+            taskExecutor,
+            applicationProperties.getCache().getWarmUp(),
+            Clock.systemUTC()
+        );
+    }
+
+    CacheWarmUp(
+        ShareCityRepository shareCityRepository,
+        ShareUserRepository shareUserRepository,
+        ShareRideRepository shareRideRepository,
+        RefreshTokenRepository refreshTokenRepository,
+        UserCache userCache,
+        Executor taskExecutor,
+        ApplicationProperties.Cache.WarmUp properties,
+        Clock clock
+    ) {
+        this.shareCityRepository = shareCityRepository;
+        this.shareUserRepository = shareUserRepository;
+        this.shareRideRepository = shareRideRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userCache = userCache;
+        this.taskExecutor = taskExecutor;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * Start loading the caches, unless the warm-up is disabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!properties.isEnabled()) {
+            log.debug("Cache warm-up is disabled");
+            return;
+        }
+        Map<String, Supplier<Integer>> loads = new LinkedHashMap<>();
+        loads.put("shareCities", () -> shareCityRepository.findAll().size());
+        loads.put("shareUsers", this::loadShareUsers);
+        loads.put("shareRides", this::loadShareRides);
+        loads.put("users", this::loadUsers);
+        Map<String, Task> started = new LinkedHashMap<>();
+        loads.keySet().forEach(name -> started.put(name, new Task()));
+        this.started = clock.instant();
+        this.tasks = started;
+        loads.forEach((name, load) -> {
+            try {
+                taskExecutor.execute(() -> run(name, load));
+            } catch (RejectedExecutionException e) {
+                log.warn("Could not start warming up the {} cache: {}", name, e.toString());
+                started.get(name).failed = true;
+            }
+        });
+    }
+
+    /**
+     * @return whether the caches are loaded, or the warm-up is disabled, or gave up waiting for them.
+     */
+    public boolean isWarm() {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        Map<String, Task> current = tasks;
+        if (current == null) {
+            return false;
+        }
+        return current.values().stream().allMatch(Task::isDone) || isTimedOut();
+    }
+
+    /**
+     * @return the progress of each cache: the number of entries loaded, or whether it is loading or failed.
+     */
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        Map<String, Task> current = tasks;
+        if (current != null) {
+            current.forEach((name, task) -> progress.put(name, task.getProgress()));
+            if (isTimedOut() && !current.values().stream().allMatch(Task::isDone)) {
+                progress.put("timedOut", true);
+            }
+        }
+        return progress;
+    }
+
+    private boolean isTimedOut() {
+        Instant current = started;
+        return current != null && Duration.between(current, clock.instant()).compareTo(properties.getTimeout()) >= 0;
+    }
+
+    private void run(String name, Supplier<Integer> load) {
+        Task task = tasks.get(name);
+        try {
+            task.loaded = load.get();
+            log.debug("Warmed up the {} cache with {} entries", name, task.loaded);
+        } catch (RuntimeException e) {
+            task.failed = true;
+            log.warn("Could not warm up the {} cache: {}", name, e.toString());
+        }
+        if (tasks.values().stream().allMatch(Task::isDone)) {
+            log.info("Warmed up the caches in {} ms: {}", Duration.between(started, clock.instant()).toMillis(), getProgress());
+        }
+    }
+
+    private int loadShareUsers() {
+        return shareUserRepository.findAllByUserStatus(UserStatus.ACTIVE, PageRequest.of(0, properties.getMaxShareUsers())).size();
+    }
+
+    private int loadShareRides() {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        PageRequest first = PageRequest.of(0, properties.getMaxShareRides());
+        return shareRideRepository.findAllUpcomingWithToOneRelationships(now, now.plus(properties.getUpcomingRides()), first).size();
+    }
+
+    private int loadUsers() {
+        PageRequest first = PageRequest.of(0, properties.getMaxLogins());
+        List<String> logins = refreshTokenRepository.findLoginsWithUnexpiredTokens(clock.instant(), first);
+        int loaded = 0;
+        for (String login : logins) {
+            if (userCache.findOneWithAuthoritiesByLogin(login).isPresent()) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Progress of the loading of a cache.
+     */
+    private static final class Task {
+
+        private volatile Integer loaded;
+
+        private volatile boolean failed;
+
+        private boolean isDone() {
+            return loaded != null || failed;
+        }
+
+        private Object getProgress() {
+            if (failed) {
+                return "failed";
+            }
+            return loaded != null ? loaded : "loading";
+        }
+    }
+}
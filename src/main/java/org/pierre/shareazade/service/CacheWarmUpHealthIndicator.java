@@ -0,0 +1,30 @@
+package org.pierre.shareazade.service;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health of the {@link CacheWarmUp}: out of service while the caches are loading, so that the readiness probe, which
+ * includes it, only accepts traffic once they are warm. The details report the progress of each cache.
+ */
+@Component
+public class CacheWarmUpHealthIndicator extends AbstractHealthIndicator {
+
+    private final CacheWarmUp cacheWarmUp;
+
+    public CacheWarmUpHealthIndicator(CacheWarmUp cacheWarmUp) {
+        super("Cache warm-up health check failed");
+        this.cacheWarmUp = cacheWarmUp;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        if (cacheWarmUp.isWarm()) {
+            builder.up();
+        } else {
+            builder.outOfService();
+        }
+        builder.withDetails(cacheWarmUp.getProgress());
+    }
+}
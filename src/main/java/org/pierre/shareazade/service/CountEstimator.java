@@ -0,0 +1,117 @@
+package org.pierre.shareazade.service;
+
+import java.io.Serializable;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Estimated number of entities matching a criteria, for the {@link org.pierre.shareazade.service.criteria.CountMode#ESTIMATE}
+ * list requests.
+ * <p>
+ * The count of each criteria is kept for {@code application.count.estimate-ttl}, then counted again by the next request
+ * needing it: while it is fresh, paging through the results of the criteria costs no count query.
+ */
+@Service
+public class CountEstimator {
+
+    public static final String CACHE_NAME = "estimatedCounts";
+
+    private final Logger log = LoggerFactory.getLogger(CountEstimator.class);
+
+    private final Cache<Object, Object> cache;
+
+    private final Duration ttl;
+
+    private final Clock clock;
+
+    @Autowired
+    public CountEstimator(CacheManager cacheManager, ApplicationProperties applicationProperties) {
+        this(cacheManager.getCache(CACHE_NAME), applicationProperties.getCount().getEstimateTtl(), Clock.systemUTC());
+    }
+
+    CountEstimator(Cache<Object, Object> cache, Duration ttl, Clock clock) {
+        this.cache = Objects.requireNonNull(cache, CACHE_NAME);
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the estimated number of entities matching a criteria.
+     *
+     * @param entity the type of the entities.
+     * @param criteria the criteria, which must implement {@code equals} and {@code hashCode}.
+     * @param count the exact count of the matching entities, called when no fresh estimate exists.
+     * @return the estimated number of matching entities.
+     */
+    public long estimate(Class<?> entity, Serializable criteria, LongSupplier count) {
+        Key key = new Key(entity.getName(), criteria);
+        long now = clock.millis();
+        Estimate estimate = (Estimate) cache.get(key);
+        if (estimate != null && now - estimate.countedAt < ttl.toMillis()) {
+            return estimate.count;
+        }
+        long exact = count.getAsLong();
+        log.debug("Counted {} for {}", exact, key);
+        cache.put(key, new Estimate(exact, now));
+        return exact;
+    }
+
+    private static final class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String entity;
+
+        private final Serializable criteria;
+
+        private Key(String entity, Serializable criteria) {
+            this.entity = entity;
+            this.criteria = criteria;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return entity.equals(that.entity) && Objects.equals(criteria, that.criteria);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entity, criteria);
+        }
+
+        @Override
+        public String toString() {
+            return "Key{entity=" + entity + ", criteria=" + criteria + "}";
+        }
+    }
+
+    private static final class Estimate implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long count;
+
+        private final long countedAt;
+
+        private Estimate(long count, long countedAt) {
+            this.count = count;
+            this.countedAt = countedAt;
+        }
+    }
+}
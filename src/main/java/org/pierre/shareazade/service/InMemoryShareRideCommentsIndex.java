@@ -0,0 +1,214 @@
+package org.pierre.shareazade.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.pierre.shareazade.domain.ShareRide;
+import org.pierre.shareazade.domain.ShareRide_;
+import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.event.ShareChangesLostEvent;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-process inverted {@link ShareRideCommentsIndex}, for the databases without a text index such as H2.
+ * <p>
+ * The index is loaded once the application is ready, then kept up to date from the {@link ShareRideChangedEvent}s of
+ * all the nodes. The comments are matched in memory, and all the matching ids are passed to the database, so that the
+ * other filters apply to all of them before they are ranked and paginated. Matches are ranked by the sum over the
+ * searched words of their frequency in the comments weighted by their inverse document frequency.
+ */
+public class InMemoryShareRideCommentsIndex implements ShareRideCommentsIndex {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Logger log = LoggerFactory.getLogger(InMemoryShareRideCommentsIndex.class);
+
+    private final ShareRideRepository shareRideRepository;
+
+    private final EntityManager entityManager;
+
+    private final Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+
+    private final Map<Long, Map<String, Integer>> documents = new ConcurrentHashMap<>();
+
+    public InMemoryShareRideCommentsIndex(ShareRideRepository shareRideRepository, EntityManager entityManager) {
+        this.shareRideRepository = shareRideRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Load the comments of all the shareRides into the index. When loaded again, as changes of the other nodes may have
+     * been lost, the shareRides indexed before and not found anymore are removed.
+     */
+    @EventListener({ ApplicationReadyEvent.class, ShareChangesLostEvent.class })
+    public void loadShareRideComments() {
+        Set<Long> removed = new HashSet<>(documents.keySet());
+        for (Object[] row : shareRideRepository.findAllIdAndRideComments()) {
+            index((Long) row[0], (String) row[1]);
+            removed.remove((Long) row[0]);
+        }
+        removed.forEach(id -> index(id, null));
+        log.info("Indexed the comments of {} ShareRides", documents.size());
+    }
+
+    /**
+     * Apply a committed change of a shareRide to the index.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onShareRideChanged(ShareRideChangedEvent event) {
+        ShareRideDTO shareRide = event.getShareRide();
+        index(event.getId(), shareRide != null ? shareRide.getRideComments() : null);
+    }
+
+    @Override
+    public Specification<ShareRide> matching(String text) {
+        final Set<Long> matches = score(text).keySet();
+        return (root, query, cb) -> matches.isEmpty() ? cb.disjunction() : root.get(ShareRide_.id).in(matches);
+    }
+
+    @Override
+    public List<Long> rank(String text, Specification<ShareRide> specification, long offset, int limit) {
+        log.debug("Request to rank ShareRide comments : {}", text);
+        Map<Long, Double> scores = score(text);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<ShareRide> root = query.from(ShareRide.class);
+        query.select(root.get(ShareRide_.id));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        List<Long> ids = byRelevance(entityManager.createQuery(query).getResultList(), scores);
+        int from = (int) Math.min(offset, ids.size());
+        int to = limit >= 0 ? (int) Math.min((long) from + limit, ids.size()) : ids.size();
+        return new ArrayList<>(ids.subList(from, to));
+    }
+
+    /**
+     * Search all the shareRides whose comments contain all the words of the given text.
+     *
+     * @param text the words to search.
+     * @return the ids of the matching shareRides, the most relevant first, then by id.
+     */
+    List<Long> search(String text) {
+        Map<Long, Double> scores = score(text);
+        return byRelevance(new ArrayList<>(scores.keySet()), scores);
+    }
+
+    private static List<Long> byRelevance(List<Long> ids, Map<Long, Double> scores) {
+        ids.sort(Comparator.<Long>comparingDouble(id -> scores.getOrDefault(id, 0d)).reversed().thenComparing(Comparator.naturalOrder()));
+        return ids;
+    }
+
+    /**
+     * Score all the shareRides whose comments contain all the words of the given text.
+     *
+     * @param text the words to search.
+     * @return the score of each matching shareRide.
+     */
+    private Map<Long, Double> score(String text) {
+        Set<String> words = tokenize(text).keySet();
+        if (words.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Map<Long, Integer>> wordPostings = new ArrayList<>(words.size());
+        for (String word : words) {
+            Map<Long, Integer> ids = postings.get(word);
+            if (ids == null) {
+                return Collections.emptyMap();
+            }
+            wordPostings.add(ids);
+        }
+        wordPostings.sort(Comparator.comparingInt(Map::size));
+        double documentCount = Math.max(1, documents.size());
+        Map<Long, Double> scores = new HashMap<>();
+        for (Long id : wordPostings.get(0).keySet()) {
+            double score = score(id, wordPostings, documentCount);
+            if (score > 0) {
+                scores.put(id, score);
+            }
+        }
+        return scores;
+    }
+
+    private static double score(Long id, List<Map<Long, Integer>> wordPostings, double documentCount) {
+        double score = 0;
+        for (Map<Long, Integer> ids : wordPostings) {
+            Integer frequency = ids.get(id);
+            if (frequency == null) {
+                return 0;
+            }
+            score += frequency * Math.log(1 + documentCount / ids.size());
+        }
+        return score;
+    }
+
+    private void index(Long id, String comments) {
+        Map<String, Integer> words = tokenize(comments);
+        documents.compute(
+            id,
+            (k, previous) -> {
+                if (previous != null) {
+                    previous.keySet().forEach(word -> removePosting(word, id));
+                }
+                words.forEach((word, frequency) -> putPosting(word, id, frequency));
+                return words.isEmpty() ? null : words;
+            }
+        );
+    }
+
+    private void putPosting(String word, Long id, Integer frequency) {
+        postings.compute(
+            word,
+            (w, ids) -> {
+                Map<Long, Integer> posting = ids != null ? ids : new ConcurrentHashMap<>();
+                posting.put(id, frequency);
+                return posting;
+            }
+        );
+    }
+
+    private void removePosting(String word, Long id) {
+        postings.computeIfPresent(
+            word,
+            (w, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            }
+        );
+    }
+
+    private static Map<String, Integer> tokenize(String text) {
+        Map<String, Integer> words = new HashMap<>();
+        if (text != null) {
+            for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+                if (!word.isEmpty()) {
+                    words.merge(word, 1, Integer::sum);
+                }
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,88 @@
+package org.pierre.shareazade.service;
+
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+import org.pierre.shareazade.domain.ShareRide;
+import org.pierre.shareazade.domain.ShareRide_;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * {@link ShareRideCommentsIndex} backed by the GIN index of PostgreSQL on the {@code tsvector} of the comments.
+ * <p>
+ * The match and the rank are SQL functions registered by {@link #registerFunctions(MetadataBuilder)}, whose
+ * {@code tsvector} expression is the one of the index, so that the match is served by the index and applied together
+ * with the other filters of the query.
+ */
+public class PostgresShareRideCommentsIndex implements ShareRideCommentsIndex {
+
+    static final String MATCHES_FUNCTION = "share_ride_comments_matches";
+
+    static final String RANK_FUNCTION = "share_ride_comments_rank";
+
+    private static final String TSVECTOR = "to_tsvector('simple', coalesce(?1, ''))";
+
+    private static final String TSQUERY = "plainto_tsquery('simple', ?2)";
+
+    private final Logger log = LoggerFactory.getLogger(PostgresShareRideCommentsIndex.class);
+
+    private final EntityManager entityManager;
+
+    public PostgresShareRideCommentsIndex(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Register the SQL functions matching and ranking the comments.
+     *
+     * @param metadataBuilder the builder of the Hibernate metadata.
+     */
+    public static void registerFunctions(MetadataBuilder metadataBuilder) {
+        metadataBuilder.applySqlFunction(
+            MATCHES_FUNCTION,
+            new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN, "(" + TSVECTOR + " @@ " + TSQUERY + ")")
+        );
+        metadataBuilder.applySqlFunction(
+            RANK_FUNCTION,
+            new SQLFunctionTemplate(StandardBasicTypes.DOUBLE, "ts_rank(" + TSVECTOR + ", " + TSQUERY + ")")
+        );
+    }
+
+    @Override
+    public Specification<ShareRide> matching(String text) {
+        return (root, query, cb) ->
+            cb.isTrue(cb.function(MATCHES_FUNCTION, Boolean.class, root.get(ShareRide_.rideComments), cb.literal(text)));
+    }
+
+    @Override
+    public List<Long> rank(String text, Specification<ShareRide> specification, long offset, int limit) {
+        log.debug("Request to rank ShareRide comments : {}", text);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<ShareRide> root = query.from(ShareRide.class);
+        query.select(root.get(ShareRide_.id));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // No join multiplies the rows, and the relevance could not be ordered by in a distinct query
+        query.distinct(false);
+        Expression<Double> relevance = cb.function(RANK_FUNCTION, Double.class, root.get(ShareRide_.rideComments), cb.literal(text));
+        query.orderBy(cb.desc(relevance), cb.asc(root.get(ShareRide_.id)));
+        TypedQuery<Long> typedQuery = entityManager.createQuery(query).setFirstResult(Math.toIntExact(offset));
+        if (limit >= 0) {
+            typedQuery.setMaxResults(limit);
+        }
+        return typedQuery.getResultList();
+    }
+}
@@ -0,0 +1,221 @@
+package org.pierre.shareazade.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.domain.Authority;
+import org.pierre.shareazade.domain.RefreshToken;
+import org.pierre.shareazade.domain.User;
+import org.pierre.shareazade.repository.RefreshTokenRepository;
+import org.pierre.shareazade.security.UserCache;
+import org.pierre.shareazade.security.jwt.TokenProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service class for managing the {@link RefreshToken}s, which reissue short-lived JWT tokens without running the
+ * password check of a login.
+ * <p>
+ * A refresh token is 256 random bits, stored as its SHA-256 hash. Each refresh rotates it: the presented token is marked
+ * used, and a new token of the same family is returned. A used token presented again means that it was stolen, by
+ * whoever presented it either time, so its whole family is deleted and the JWT tokens of the user are revoked.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final UserCache userCache;
+
+    private final TokenProvider tokenProvider;
+
+    private final Duration validity;
+
+    private final Duration validityForRememberMe;
+
+    private final Duration accessTokenValidity;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public RefreshTokenService(
+        RefreshTokenRepository refreshTokenRepository,
+        UserCache userCache,
+        TokenProvider tokenProvider,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userCache = userCache;
+        this.tokenProvider = tokenProvider;
+        JHipsterProperties.Security.Authentication.Jwt jwt = jHipsterProperties.getSecurity().getAuthentication().getJwt();
+        this.validity = Duration.ofSeconds(jwt.getTokenValidityInSeconds());
+        this.validityForRememberMe = Duration.ofSeconds(jwt.getTokenValidityInSecondsForRememberMe());
+        this.accessTokenValidity = applicationProperties.getRefreshToken().getAccessTokenValidity();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Create the refresh token of a login, which lasts as long as the JWT token of the login.
+     *
+     * @param login the login of the user.
+     * @param rememberMe whether the user is remembered.
+     * @return the refresh token.
+     */
+    public String createRefreshToken(String login, boolean rememberMe) {
+        Instant expiresAt = Instant.now().plus(rememberMe ? validityForRememberMe : validity);
+        return save(UUID.randomUUID().toString(), login, expiresAt);
+    }
+
+    /**
+     * Reissue a JWT token from a refresh token, and rotate the refresh token.
+     *
+     * @param refreshToken the refresh token.
+     * @return the JWT token and the next refresh token, or empty if the refresh token is not valid.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<RefreshedTokens> refresh(String refreshToken) {
+        Optional<RefreshToken> found = refreshTokenRepository.findOneByTokenHash(hash(refreshToken));
+        if (found.isEmpty()) {
+            log.debug("Unknown refresh token");
+            return Optional.empty();
+        }
+        RefreshToken current = found.get();
+        Instant now = Instant.now();
+        if (!current.getExpiresAt().isAfter(now)) {
+            log.debug("Expired refresh token: {}", current);
+            return Optional.empty();
+        }
+        // Looked up before the read-write transaction, which would bypass the cache of the users
+        User user = current.getUsedAt() == null
+            ? userCache.findOneWithAuthoritiesByLogin(current.getLogin()).filter(User::isActivated).orElse(null)
+            : null;
+        return transactionTemplate.execute(status -> rotate(current, user, now));
+    }
+
+    private Optional<RefreshedTokens> rotate(RefreshToken current, User user, Instant now) {
+        if (current.getUsedAt() != null || refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            log.warn("Reused refresh token of user {}: revoking its family and the tokens of the user", current.getLogin());
+            refreshTokenRepository.deleteFamily(current.getFamily());
+            tokenProvider.revokeTokens(current.getLogin());
+            return Optional.empty();
+        }
+        if (user == null) {
+            log.debug("Refresh token of a deleted or deactivated user: {}", current);
+            refreshTokenRepository.deleteFamily(current.getFamily());
+            return Optional.empty();
+        }
+        List<GrantedAuthority> authorities = user
+            .getAuthorities()
+            .stream()
+            .map(Authority::getName)
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toList());
+        String accessToken = tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken(current.getLogin(), null, authorities),
+            accessTokenValidity
+        );
+        return Optional.of(new RefreshedTokens(accessToken, save(current.getFamily(), current.getLogin(), current.getExpiresAt())));
+    }
+
+    /**
+     * Delete a refresh token and the other tokens of its family.
+     *
+     * @param refreshToken the refresh token.
+     */
+    public void revokeRefreshToken(String refreshToken) {
+        refreshTokenRepository
+            .findOneByTokenHash(hash(refreshToken))
+            .ifPresent(found -> refreshTokenRepository.deleteFamily(found.getFamily()));
+    }
+
+    /**
+     * Delete all the refresh tokens of a user.
+     *
+     * @param login the login of the user.
+     */
+    public void revokeRefreshTokens(String login) {
+        log.debug("Deleted {} refresh tokens of user {}", refreshTokenRepository.deleteAllByLogin(login), login);
+    }
+
+    /**
+     * Expired refresh tokens should be automatically deleted.
+     * <p>
+     * This is scheduled to get fired every hour.
+     */
+    @Scheduled(cron = "0 0 * * * ?")
+    public void removeExpiredRefreshTokens() {
+        log.debug("Deleted {} expired refresh tokens", refreshTokenRepository.deleteExpired(Instant.now()));
+    }
+
+    private String save(String family, String login, Instant expiresAt) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setFamily(family);
+        refreshToken.setLogin(login);
+        refreshToken.setExpiresAt(expiresAt);
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A JWT token reissued from a refresh token, and the next refresh token.
+     */
+    public static class RefreshedTokens {
+
+        private final String accessToken;
+
+        private final String refreshToken;
+
+        RefreshedTokens(String accessToken, String refreshToken) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+        }
+
+        public String getAccessToken() {
+            return accessToken;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.pierre.shareazade.service;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import org.pierre.shareazade.cache.CacheInvalidation;
+import org.pierre.shareazade.cache.CacheInvalidationBus;
+import org.pierre.shareazade.domain.enumeration.RideType;
+import org.pierre.shareazade.repository.ShareCityRepository;
+import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.dto.ShareUserDTO;
+import org.pierre.shareazade.service.event.ShareChangesLostEvent;
+import org.pierre.shareazade.service.event.ShareCityChangedEvent;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
+import org.pierre.shareazade.service.mapper.ShareCityMapper;
+import org.pierre.shareazade.service.mapper.ShareRideMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Relays the {@link ShareRideChangedEvent}s and {@link ShareCityChangedEvent}s between the nodes, so that the in-memory
+ * structures derived from the shareRides and the shareCities follow the writes of all the nodes.
+ * <p>
+ * The changes are published on the {@link CacheInvalidationBus} within their transaction, so that they are only sent once
+ * it is committed. A node receiving a change loads the entity again in a read-only transaction, and publishes the event
+ * as {@link ShareRideChangedEvent#isRemote() remote} to its listeners once that transaction is completed. A shareRide
+ * change also carries the date, the type, the cities and the user of the shareRide before and after the change: when the
+ * shareRide loaded does not match them, as it was changed again since, the state sent is published instead, until the
+ * later change is received. When changes may have been lost, a {@link ShareChangesLostEvent} is published, for the
+ * structures to be loaded again.
+ */
+@Service
+public class ShareChangeRelay implements CacheInvalidationBus.Listener {
+
+    static final String SHARE_RIDE_CHANGES = "shareRideChanges";
+
+    static final String SHARE_CITY_CHANGES = "shareCityChanges";
+
+    private static final String STATES_SEPARATOR = ";";
+
+    private static final String FIELDS_SEPARATOR = ",";
+
+    private final Logger log = LoggerFactory.getLogger(ShareChangeRelay.class);
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final ShareRideRepository shareRideRepository;
+
+    private final ShareRideMapper shareRideMapper;
+
+    private final ShareCityRepository shareCityRepository;
+
+    private final ShareCityMapper shareCityMapper;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ShareChangeRelay(
+        CacheInvalidationBus cacheInvalidationBus,
+        ShareRideRepository shareRideRepository,
+        ShareRideMapper shareRideMapper,
+        ShareCityRepository shareCityRepository,
+        ShareCityMapper shareCityMapper,
+        ApplicationEventPublisher applicationEventPublisher,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.shareRideRepository = shareRideRepository;
+        this.shareRideMapper = shareRideMapper;
+        this.shareCityRepository = shareCityRepository;
+        this.shareCityMapper = shareCityMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        cacheInvalidationBus.addListener(this);
+    }
+
+    /**
+     * Publish a change of a shareRide to the other nodes, once its transaction is committed.
+     *
+     * @param event the change.
+     */
+    @EventListener
+    public void onShareRideChanged(ShareRideChangedEvent event) {
+        if (!event.isRemote()) {
+            String key = event.getId() + STATES_SEPARATOR + encode(event.getPrevious()) + STATES_SEPARATOR + encode(event.getShareRide());
+            cacheInvalidationBus.publish(CacheInvalidation.cache(SHARE_RIDE_CHANGES, key));
+        }
+    }
+
+    /**
+     * Publish a change of a shareCity to the other nodes, once its transaction is committed.
+     *
+     * @param event the change.
+     */
+    @EventListener
+    public void onShareCityChanged(ShareCityChangedEvent event) {
+        if (!event.isRemote()) {
+            cacheInvalidationBus.publish(CacheInvalidation.cache(SHARE_CITY_CHANGES, String.valueOf(event.getId())));
+        }
+    }
+
+    @Override
+    public void evict(CacheInvalidation invalidation) {
+        if (invalidation.getType() != CacheInvalidation.Type.CACHE) {
+            return;
+        }
+        if (SHARE_RIDE_CHANGES.equals(invalidation.getRegion())) {
+            String key = invalidation.getKey();
+            readOnlyTransaction.executeWithoutResult(status -> applicationEventPublisher.publishEvent(shareRideChanged(key)));
+        } else if (SHARE_CITY_CHANGES.equals(invalidation.getRegion())) {
+            Long id = Long.valueOf(invalidation.getKey());
+            readOnlyTransaction.executeWithoutResult(status -> {
+                ShareCityDTO shareCity = shareCityRepository.findById(id).map(shareCityMapper::toDto).orElse(null);
+                applicationEventPublisher.publishEvent(ShareCityChangedEvent.remote(id, shareCity));
+            });
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        log.info("Changes of the other nodes may have been lost, loading the shareRides and the shareCities again");
+        applicationEventPublisher.publishEvent(new ShareChangesLostEvent());
+    }
+
+    private ShareRideChangedEvent shareRideChanged(String key) {
+        String[] parts = key.split(STATES_SEPARATOR, -1);
+        Long id = Long.valueOf(parts[0]);
+        ShareRideDTO previous = decode(id, parts[1]);
+        ShareRideDTO committed = decode(id, parts[2]);
+        if (committed == null) {
+            return ShareRideChangedEvent.remote(id, previous, null);
+        }
+        Optional<ShareRideDTO> loaded = shareRideRepository.findOneWithToOneRelationships(id).map(shareRideMapper::toDto);
+        ShareRideDTO shareRide = loaded.filter(current -> encode(current).equals(parts[2])).orElse(committed);
+        return ShareRideChangedEvent.remote(id, previous, shareRide);
+    }
+
+    /**
+     * @return the date, the type, the cities and the user of a shareRide, or an empty string if there is none.
+     */
+    static String encode(ShareRideDTO shareRide) {
+        if (shareRide == null) {
+            return "";
+        }
+        return String.join(
+            FIELDS_SEPARATOR,
+            shareRide.getRideDateTime() != null ? shareRide.getRideDateTime().toInstant().toString() : "",
+            shareRide.getRideType() != null ? shareRide.getRideType().name() : "",
+            shareRide.getRideCityFrom() != null ? toString(shareRide.getRideCityFrom().getId()) : "",
+            shareRide.getRideCityTo() != null ? toString(shareRide.getRideCityTo().getId()) : "",
+            shareRide.getRideUser() != null ? toString(shareRide.getRideUser().getId()) : ""
+        );
+    }
+
+    static ShareRideDTO decode(Long id, String state) {
+        if (state.isEmpty()) {
+            return null;
+        }
+        String[] fields = state.split(FIELDS_SEPARATOR, -1);
+        ShareRideDTO shareRide = new ShareRideDTO();
+        shareRide.setId(id);
+        if (!fields[0].isEmpty()) {
+            shareRide.setRideDateTime(Instant.parse(fields[0]).atZone(ZoneOffset.UTC));
+        }
+        if (!fields[1].isEmpty()) {
+            shareRide.setRideType(RideType.valueOf(fields[1]));
+        }
+        if (!fields[2].isEmpty()) {
+            shareRide.setRideCityFrom(shareCity(Long.valueOf(fields[2])));
+        }
+        if (!fields[3].isEmpty()) {
+            shareRide.setRideCityTo(shareCity(Long.valueOf(fields[3])));
+        }
+        if (!fields[4].isEmpty()) {
+            ShareUserDTO shareUser = new ShareUserDTO();
+            shareUser.setId(Long.valueOf(fields[4]));
+            shareRide.setRideUser(shareUser);
+        }
+        return shareRide;
+    }
+
+    private static ShareCityDTO shareCity(Long id) {
+        ShareCityDTO shareCity = new ShareCityDTO();
+        shareCity.setId(id);
+        return shareCity;
+    }
+
+    private static String toString(Long id) {
+        return id != null ? id.toString() : "";
+    }
+}
@@ -0,0 +1,255 @@
+package org.pierre.shareazade.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.domain.ShareCity;
+import org.pierre.shareazade.repository.ShareCityRepository;
+import org.pierre.shareazade.service.criteria.GeoCircle;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+import org.pierre.shareazade.service.event.ShareChangesLostEvent;
+import org.pierre.shareazade.service.event.ShareCityChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory spatial index of the coordinates of the {@link ShareCity}s.
+ * <p>
+ * The cities are put in the cells of a grid of {@code application.geo.cell-degrees} degrees of latitude and longitude.
+ * A search by circle only visits the cells overlapping the bounding box of the circle, wrapping around the antimeridian
+ * and covering all the longitudes near the poles, then keeps the cities within the great-circle radius. The index is
+ * loaded once the application is ready, then kept up to date from the {@link ShareCityChangedEvent}s published by
+ * {@link ShareCityService} once their transaction is committed.
+ */
+@Service
+public class ShareCityGeoIndex {
+
+    /**
+     * Mean radius of the earth, in kilometers.
+     */
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final Logger log = LoggerFactory.getLogger(ShareCityGeoIndex.class);
+
+    private final ShareCityRepository shareCityRepository;
+
+    private final double cellDegrees;
+
+    private final int latitudeCells;
+
+    private final int longitudeCells;
+
+    private final Map<Long, Map<Long, IndexedCity>> cells = new ConcurrentHashMap<>();
+
+    private final Map<Long, IndexedCity> indexedCities = new ConcurrentHashMap<>();
+
+    public ShareCityGeoIndex(ShareCityRepository shareCityRepository, ApplicationProperties applicationProperties) {
+        this.shareCityRepository = shareCityRepository;
+        // The longitudes are split in a whole number of cells, so that the grid wraps around the antimeridian
+        this.longitudeCells = (int) Math.max(1, Math.round(360 / applicationProperties.getGeo().getCellDegrees()));
+        this.cellDegrees = 360.0 / longitudeCells;
+        this.latitudeCells = (int) Math.ceil(180 / cellDegrees);
+    }
+
+    /**
+     * Load the coordinates of all the shareCities into the index. When loaded again, the cities which were indexed before
+     * and are not found anymore are removed.
+     */
+    @EventListener({ ApplicationReadyEvent.class, ShareChangesLostEvent.class })
+    @Transactional(readOnly = true)
+    public void loadCoordinates() {
+        Set<Long> removed = new HashSet<>(indexedCities.keySet());
+        for (Object[] row : shareCityRepository.findAllCoordinates()) {
+            index((Long) row[0], (Double) row[1], (Double) row[2]);
+            removed.remove((Long) row[0]);
+        }
+        removed.forEach(this::unindex);
+        log.info("Indexed the coordinates of {} ShareCities", indexedCities.size());
+    }
+
+    /**
+     * Apply a committed change of a shareCity to the index.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onShareCityChanged(ShareCityChangedEvent event) {
+        log.debug("Request to apply to the geo index : {}", event);
+        ShareCityDTO shareCity = event.getShareCity();
+        if (event.isDeleted()) {
+            unindex(event.getId());
+        } else {
+            index(shareCity.getId(), shareCity.getLatitude(), shareCity.getLongitude());
+        }
+    }
+
+    /**
+     * Get the shareCities located within a circle.
+     *
+     * @param circle the circle.
+     * @return the ids of the shareCities in the circle, in ascending order.
+     */
+    public List<Long> findWithin(GeoCircle circle) {
+        double angularRadius = circle.getRadiusKm() / EARTH_RADIUS_KM;
+        double latitudeDelta = Math.toDegrees(angularRadius);
+        double minLatitude = circle.getLatitude() - latitudeDelta;
+        double maxLatitude = circle.getLatitude() + latitudeDelta;
+        boolean allLongitudes = minLatitude <= -90 || maxLatitude >= 90;
+        double longitudeDelta = 180;
+        if (!allLongitudes) {
+            longitudeDelta = Math.toDegrees(Math.asin(Math.sin(angularRadius) / Math.cos(Math.toRadians(circle.getLatitude()))));
+            allLongitudes = Double.isNaN(longitudeDelta) || longitudeDelta >= 180;
+        }
+        int fromLatitudeCell = latitudeCell(Math.max(-90, minLatitude));
+        int toLatitudeCell = latitudeCell(Math.min(90, maxLatitude));
+        long fromLongitudeCell = 0;
+        long toLongitudeCell = longitudeCells - 1L;
+        if (!allLongitudes) {
+            fromLongitudeCell = longitudeCell(circle.getLongitude() - longitudeDelta);
+            toLongitudeCell = Math.min(fromLongitudeCell + longitudeCells - 1, longitudeCell(circle.getLongitude() + longitudeDelta));
+        }
+
+        List<Long> ids = new ArrayList<>();
+        long visitedCells = (toLatitudeCell - fromLatitudeCell + 1L) * (toLongitudeCell - fromLongitudeCell + 1L);
+        if (visitedCells > cells.size()) {
+            // Cheaper to check all the cities than to visit mostly empty cells
+            collectWithin(indexedCities.values(), circle, ids);
+        } else {
+            for (int latitudeCell = fromLatitudeCell; latitudeCell <= toLatitudeCell; latitudeCell++) {
+                for (long longitudeCell = fromLongitudeCell; longitudeCell <= toLongitudeCell; longitudeCell++) {
+                    Map<Long, IndexedCity> cell = cells.get(cellKey(latitudeCell, longitudeCell));
+                    if (cell != null) {
+                        collectWithin(cell.values(), circle, ids);
+                    }
+                }
+            }
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    /**
+     * Get the great-circle distance between two shareCities.
+     *
+     * @param fromId the id of the first shareCity.
+     * @param toId the id of the second shareCity.
+     * @return the distance in kilometers, or an empty {@link OptionalDouble} if a shareCity has no coordinates.
+     */
+    public OptionalDouble distanceKm(Long fromId, Long toId) {
+        IndexedCity from = indexedCities.get(fromId);
+        IndexedCity to = indexedCities.get(toId);
+        if (from == null || to == null) {
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.of(distanceKm(from.latitude, from.longitude, to.latitude, to.longitude));
+    }
+
+    private static void collectWithin(Collection<IndexedCity> candidates, GeoCircle circle, List<Long> ids) {
+        for (IndexedCity candidate : candidates) {
+            if (distanceKm(circle.getLatitude(), circle.getLongitude(), candidate.latitude, candidate.longitude) <= circle.getRadiusKm()) {
+                ids.add(candidate.id);
+            }
+        }
+    }
+
+    /**
+     * Great-circle distance between two points, by the haversine formula.
+     */
+    static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double sinLatitude = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double sinLongitude = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double cosLatitudes = Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2));
+        double a = sinLatitude * sinLatitude + cosLatitudes * sinLongitude * sinLongitude;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void index(Long id, Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            unindex(id);
+            return;
+        }
+        long key = cellKey(latitudeCell(latitude), longitudeCell(longitude));
+        IndexedCity city = new IndexedCity(id, latitude, longitude, key);
+        indexedCities.compute(
+            id,
+            (k, previous) -> {
+                if (previous != null) {
+                    removeFromCell(previous);
+                }
+                cells.compute(
+                    key,
+                    (c, cities) -> {
+                        Map<Long, IndexedCity> cell = cities != null ? cities : new ConcurrentHashMap<>();
+                        cell.put(id, city);
+                        return cell;
+                    }
+                );
+                return city;
+            }
+        );
+    }
+
+    private void unindex(Long id) {
+        indexedCities.computeIfPresent(
+            id,
+            (k, previous) -> {
+                removeFromCell(previous);
+                return null;
+            }
+        );
+    }
+
+    private void removeFromCell(IndexedCity city) {
+        cells.computeIfPresent(
+            city.cellKey,
+            (k, cities) -> {
+                cities.remove(city.id);
+                return cities.isEmpty() ? null : cities;
+            }
+        );
+    }
+
+    private int latitudeCell(double latitude) {
+        return Math.min(latitudeCells - 1, (int) Math.floor((latitude + 90) / cellDegrees));
+    }
+
+    private long longitudeCell(double longitude) {
+        return (long) Math.floor((longitude + 180) / cellDegrees);
+    }
+
+    /**
+     * The longitude cells are taken modulo their number, so that the cells past the antimeridian wrap around.
+     */
+    private long cellKey(int latitudeCell, long longitudeCell) {
+        return latitudeCell * (long) longitudeCells + Math.floorMod(longitudeCell, longitudeCells);
+    }
+
+    private static final class IndexedCity {
+
+        private final Long id;
+
+        private final double latitude;
+
+        private final double longitude;
+
+        private final long cellKey;
+
+        private IndexedCity(Long id, double latitude, double longitude, long cellKey) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cellKey = cellKey;
+        }
+    }
+}
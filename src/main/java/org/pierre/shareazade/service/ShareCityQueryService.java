@@ -1,9 +1,12 @@
 package org.pierre.shareazade.service;
 
+import java.util.Comparator;
 import java.util.List;
+import javax.persistence.EntityManager;
 import javax.persistence.criteria.JoinType;
 import org.pierre.shareazade.domain.*; // for static metamodels
 import org.pierre.shareazade.domain.ShareCity;
+import org.pierre.shareazade.domain.enumeration.ShareCountry;
 import org.pierre.shareazade.repository.ShareCityRepository;
 import org.pierre.shareazade.service.criteria.ShareCityCriteria;
 import org.pierre.shareazade.service.dto.ShareCityDTO;
@@ -11,8 +14,12 @@ import org.pierre.shareazade.service.mapper.ShareCityMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import tech.jhipster.service.QueryService;
@@ -22,20 +29,40 @@ import tech.jhipster.service.QueryService;
  * The main input is a {@link ShareCityCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
  * It returns a {@link List} of {@link ShareCityDTO} or a {@link Page} of {@link ShareCityDTO} which fulfills the criteria.
+ * <p>
+ * The pages and counts of all the shareCities, or of the ones of a {@code cityCountry}, ordered by id or country, are
+ * served from the {@link ShareCitySnapshot} without querying the database.
  */
 @Service
 @Transactional(readOnly = true)
 public class ShareCityQueryService extends QueryService<ShareCity> {
 
+    private static final Comparator<String> NULLS_LAST = Comparator.nullsLast(Comparator.naturalOrder());
+
     private final Logger log = LoggerFactory.getLogger(ShareCityQueryService.class);
 
     private final ShareCityRepository shareCityRepository;
 
     private final ShareCityMapper shareCityMapper;
 
-    public ShareCityQueryService(ShareCityRepository shareCityRepository, ShareCityMapper shareCityMapper) {
+    private final EntityManager entityManager;
+
+    private final CountEstimator countEstimator;
+
+    private final ShareCitySnapshot shareCitySnapshot;
+
+    public ShareCityQueryService(
+        ShareCityRepository shareCityRepository,
+        ShareCityMapper shareCityMapper,
+        EntityManager entityManager,
+        CountEstimator countEstimator,
+        ShareCitySnapshot shareCitySnapshot
+    ) {
         this.shareCityRepository = shareCityRepository;
         this.shareCityMapper = shareCityMapper;
+        this.entityManager = entityManager;
+        this.countEstimator = countEstimator;
+        this.shareCitySnapshot = shareCitySnapshot;
     }
 
     /**
@@ -59,10 +86,55 @@ public class ShareCityQueryService extends QueryService<ShareCity> {
     @Transactional(readOnly = true)
     public Page<ShareCityDTO> findByCriteria(ShareCityCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
+        List<ShareCityDTO> snapshot = findInSnapshot(criteria, page.getSort());
+        if (snapshot != null) {
+            if (page.isUnpaged()) {
+                return new PageImpl<>(snapshot, page, snapshot.size());
+            }
+            int from = (int) Math.min(page.getOffset(), snapshot.size());
+            int to = Math.min(from + page.getPageSize(), snapshot.size());
+            return new PageImpl<>(snapshot.subList(from, to), page, snapshot.size());
+        }
         final Specification<ShareCity> specification = createSpecification(criteria);
         return shareCityRepository.findAll(specification, page).map(shareCityMapper::toDto);
     }
 
+    /**
+     * Return a {@link Page} of {@link ShareCityDTO} which matches the criteria from the database, with an estimated total.
+     * The total is a recent count of the same criteria, given by the {@link CountEstimator}.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<ShareCityDTO> findByCriteriaEstimated(ShareCityCriteria criteria, Pageable page) {
+        log.debug("find by criteria : {}, page: {}, estimated count", criteria, page);
+        final Specification<ShareCity> specification = createSpecification(criteria);
+        List<ShareCityDTO> content = findSliceByCriteria(specification, page).getContent();
+        ShareCityCriteria key = criteria != null ? criteria : new ShareCityCriteria();
+        return PageableExecutionUtils.getPage(
+            content,
+            page,
+            () -> countEstimator.estimate(ShareCity.class, key, () -> shareCityRepository.count(specification))
+        );
+    }
+
+    /**
+     * Return a {@link Slice} of {@link ShareCityDTO} which matches the criteria from the database, without counting them.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ShareCityDTO> findSliceByCriteria(ShareCityCriteria criteria, Pageable page) {
+        log.debug("find by criteria : {}, page: {}, no count", criteria, page);
+        return findSliceByCriteria(createSpecification(criteria), page);
+    }
+
+    private Slice<ShareCityDTO> findSliceByCriteria(Specification<ShareCity> specification, Pageable page) {
+        return SliceQueries.findSlice(entityManager, ShareCity.class, specification, page).map(shareCityMapper::toDto);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -71,10 +143,54 @@ public class ShareCityQueryService extends QueryService<ShareCity> {
     @Transactional(readOnly = true)
     public long countByCriteria(ShareCityCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
+        List<ShareCityDTO> snapshot = findInSnapshot(criteria, Sort.unsorted());
+        if (snapshot != null) {
+            return snapshot.size();
+        }
         final Specification<ShareCity> specification = createSpecification(criteria);
         return shareCityRepository.count(specification);
     }
 
+    /**
+     * Return the shareCities matching the criteria from the {@link ShareCitySnapshot}, if it can be consulted and the
+     * criteria only filters on {@code cityCountry.equals}.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param sort The order of the results, only by id and country: the other orders depend on the database collation.
+     * @return the matching shareCities, or {@code null} if they have to be queried from the database.
+     */
+    private List<ShareCityDTO> findInSnapshot(ShareCityCriteria criteria, Sort sort) {
+        ShareCountry country = criteria != null && criteria.getCityCountry() != null ? criteria.getCityCountry().getEquals() : null;
+        ShareCityCriteria countryOnly = new ShareCityCriteria();
+        if (country != null) {
+            countryOnly.cityCountry().setEquals(country);
+        }
+        if (criteria != null && !criteria.equals(countryOnly)) {
+            return null;
+        }
+        Comparator<ShareCityDTO> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<ShareCityDTO> byProperty;
+            if (order.isIgnoreCase()) {
+                return null;
+            } else if (ShareCity_.ID.equals(order.getProperty())) {
+                byProperty = Comparator.comparing(ShareCityDTO::getId);
+            } else if (ShareCity_.CITY_COUNTRY.equals(order.getProperty())) {
+                // Stored as a string, and sorted as such
+                byProperty = Comparator.comparing(city -> city.getCityCountry() != null ? city.getCityCountry().name() : null, NULLS_LAST);
+            } else {
+                return null;
+            }
+            // Ascending with the nulls last, descending with the nulls first, as PostgreSQL does
+            byProperty = order.isAscending() ? byProperty : byProperty.reversed();
+            comparator = comparator == null ? byProperty : comparator.thenComparing(byProperty);
+        }
+        List<ShareCityDTO> shareCities = shareCitySnapshot.findAll(country);
+        if (shareCities != null && comparator != null) {
+            shareCities.sort(comparator);
+        }
+        return shareCities;
+    }
+
     /**
      * Function to convert {@link ShareCityCriteria} to a {@link Specification}
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -96,6 +212,12 @@ public class ShareCityQueryService extends QueryService<ShareCity> {
             if (criteria.getCityCountry() != null) {
                 specification = specification.and(buildSpecification(criteria.getCityCountry(), ShareCity_.cityCountry));
             }
+            if (criteria.getLatitude() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getLatitude(), ShareCity_.latitude));
+            }
+            if (criteria.getLongitude() != null) {
+                specification = specification.and(buildRangeSpecification(criteria.getLongitude(), ShareCity_.longitude));
+            }
         }
         return specification;
     }
@@ -4,9 +4,11 @@ import java.util.Optional;
 import org.pierre.shareazade.domain.ShareCity;
 import org.pierre.shareazade.repository.ShareCityRepository;
 import org.pierre.shareazade.service.dto.ShareCityDTO;
+import org.pierre.shareazade.service.event.ShareCityChangedEvent;
 import org.pierre.shareazade.service.mapper.ShareCityMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -25,9 +27,20 @@ public class ShareCityService {
 
     private final ShareCityMapper shareCityMapper;
 
-    public ShareCityService(ShareCityRepository shareCityRepository, ShareCityMapper shareCityMapper) {
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final ShareCitySnapshot shareCitySnapshot;
+
+    public ShareCityService(
+        ShareCityRepository shareCityRepository,
+        ShareCityMapper shareCityMapper,
+        ApplicationEventPublisher applicationEventPublisher,
+        ShareCitySnapshot shareCitySnapshot
+    ) {
         this.shareCityRepository = shareCityRepository;
         this.shareCityMapper = shareCityMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.shareCitySnapshot = shareCitySnapshot;
     }
 
     /**
@@ -40,7 +53,7 @@ public class ShareCityService {
         log.debug("Request to save ShareCity : {}", shareCityDTO);
         ShareCity shareCity = shareCityMapper.toEntity(shareCityDTO);
         shareCity = shareCityRepository.save(shareCity);
-        return shareCityMapper.toDto(shareCity);
+        return publishSaved(shareCityMapper.toDto(shareCity));
     }
 
     /**
@@ -53,7 +66,7 @@ public class ShareCityService {
         log.debug("Request to update ShareCity : {}", shareCityDTO);
         ShareCity shareCity = shareCityMapper.toEntity(shareCityDTO);
         shareCity = shareCityRepository.save(shareCity);
-        return shareCityMapper.toDto(shareCity);
+        return publishSaved(shareCityMapper.toDto(shareCity));
     }
 
     /**
@@ -73,7 +86,8 @@ public class ShareCityService {
                 return existingShareCity;
             })
             .map(shareCityRepository::save)
-            .map(shareCityMapper::toDto);
+            .map(shareCityMapper::toDto)
+            .map(this::publishSaved);
     }
 
     /**
@@ -89,7 +103,7 @@ public class ShareCityService {
     }
 
     /**
-     * Get one shareCity by id.
+     * Get one shareCity by id, from the {@link ShareCitySnapshot} if it can be consulted.
      *
      * @param id the id of the entity.
      * @return the entity.
@@ -97,6 +111,10 @@ public class ShareCityService {
     @Transactional(readOnly = true)
     public Optional<ShareCityDTO> findOne(Long id) {
         log.debug("Request to get ShareCity : {}", id);
+        ShareCityDTO shareCity = shareCitySnapshot.get(id);
+        if (shareCity != null) {
+            return Optional.of(shareCity);
+        }
         return shareCityRepository.findById(id).map(shareCityMapper::toDto);
     }
 
@@ -108,5 +126,11 @@ public class ShareCityService {
     public void delete(Long id) {
         log.debug("Request to delete ShareCity : {}", id);
         shareCityRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(ShareCityChangedEvent.deleted(id));
+    }
+
+    private ShareCityDTO publishSaved(ShareCityDTO shareCityDTO) {
+        applicationEventPublisher.publishEvent(ShareCityChangedEvent.saved(shareCityDTO));
+        return shareCityDTO;
     }
 }
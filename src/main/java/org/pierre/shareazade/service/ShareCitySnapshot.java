@@ -0,0 +1,198 @@
+package org.pierre.shareazade.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.pierre.shareazade.domain.ShareCity;
+import org.pierre.shareazade.domain.enumeration.ShareCountry;
+import org.pierre.shareazade.repository.ShareCityRepository;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+import org.pierre.shareazade.service.event.ShareChangesLostEvent;
+import org.pierre.shareazade.service.event.ShareCityChangedEvent;
+import org.pierre.shareazade.service.mapper.ShareCityMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Immutable in-memory copy of all the {@link ShareCity}s, which are small and rarely changing reference data.
+ * <p>
+ * The cities are held in an array sorted by id, looked up by binary search, and in a list per {@link ShareCountry}
+ * sorted by id. The snapshot is loaded once the application is ready, then a new one is swapped in for each
+ * {@link ShareCityChangedEvent} published by {@link ShareCityService} once its transaction is committed. The snapshot
+ * listens first, so that the caches evicted by the same events are loaded again with the new names.
+ * <p>
+ * A read-write transaction could see its own uncommitted changes of the cities, so the snapshot is not consulted
+ * within one: the lookups then return {@code null}, and the callers fall back to the database.
+ */
+@Service
+public class ShareCitySnapshot {
+
+    private final Logger log = LoggerFactory.getLogger(ShareCitySnapshot.class);
+
+    private final ShareCityRepository shareCityRepository;
+
+    private final ShareCityMapper shareCityMapper;
+
+    private volatile State state;
+
+    public ShareCitySnapshot(ShareCityRepository shareCityRepository, ShareCityMapper shareCityMapper) {
+        this.shareCityRepository = shareCityRepository;
+        this.shareCityMapper = shareCityMapper;
+    }
+
+    /**
+     * Load all the shareCities into the snapshot, once the application is ready, and again when the changes of the other
+     * nodes may have been lost.
+     */
+    @EventListener({ ApplicationReadyEvent.class, ShareChangesLostEvent.class })
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(readOnly = true)
+    public synchronized void loadShareCities() {
+        Map<Long, ShareCityDTO> cities = new HashMap<>();
+        shareCityRepository.findAll().stream().map(shareCityMapper::toDto).forEach(city -> cities.put(city.getId(), city));
+        state = new State(cities.values());
+        log.info("Loaded a snapshot of {} ShareCities", cities.size());
+    }
+
+    /**
+     * Apply a committed change of a shareCity to the snapshot.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onShareCityChanged(ShareCityChangedEvent event) {
+        log.debug("Request to apply to the shareCity snapshot : {}", event);
+        State current = state;
+        if (current == null) {
+            // Not loaded yet: the loading will read the change
+            return;
+        }
+        Map<Long, ShareCityDTO> cities = new HashMap<>();
+        Arrays.stream(current.cities).forEach(city -> cities.put(city.getId(), city));
+        if (event.isDeleted()) {
+            cities.remove(event.getId());
+        } else {
+            cities.put(event.getId(), copy(event.getShareCity()));
+        }
+        state = new State(cities.values());
+    }
+
+    /**
+     * @return whether the snapshot has been loaded.
+     */
+    public boolean isLoaded() {
+        return state != null;
+    }
+
+    /**
+     * Get a shareCity.
+     *
+     * @param id the id of the shareCity.
+     * @return a copy of the shareCity, or {@code null} if it is not in the snapshot or the snapshot cannot be consulted.
+     */
+    public ShareCityDTO get(Long id) {
+        ShareCityDTO shareCity = find(id);
+        return shareCity != null ? copy(shareCity) : null;
+    }
+
+    /**
+     * Get the id and the name of a shareCity, as referenced by the other entities.
+     *
+     * @param id the id of the shareCity.
+     * @return the reference, or {@code null} if the shareCity is not in the snapshot or the snapshot cannot be consulted.
+     */
+    public ShareCityDTO getReference(Long id) {
+        ShareCityDTO shareCity = find(id);
+        if (shareCity == null) {
+            return null;
+        }
+        ShareCityDTO reference = new ShareCityDTO();
+        reference.setId(shareCity.getId());
+        reference.setCityName(shareCity.getCityName());
+        return reference;
+    }
+
+    /**
+     * Get the shareCities of a country, or all of them.
+     *
+     * @param country the country, or {@code null} for all the shareCities.
+     * @return copies of the shareCities by id, or {@code null} if the snapshot cannot be consulted.
+     */
+    public List<ShareCityDTO> findAll(ShareCountry country) {
+        State current = visibleState();
+        if (current == null) {
+            return null;
+        }
+        List<ShareCityDTO> cities = country != null
+            ? current.citiesByCountry.getOrDefault(country, Collections.emptyList())
+            : Arrays.asList(current.cities);
+        List<ShareCityDTO> copies = new ArrayList<>(cities.size());
+        cities.forEach(city -> copies.add(copy(city)));
+        return copies;
+    }
+
+    private ShareCityDTO find(Long id) {
+        State current = visibleState();
+        if (current == null || id == null) {
+            return null;
+        }
+        int index = Arrays.binarySearch(current.ids, id);
+        return index >= 0 ? current.cities[index] : null;
+    }
+
+    private State visibleState() {
+        boolean readWrite =
+            TransactionSynchronizationManager.isActualTransactionActive() && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return readWrite ? null : state;
+    }
+
+    private static ShareCityDTO copy(ShareCityDTO shareCity) {
+        ShareCityDTO copy = new ShareCityDTO();
+        copy.setId(shareCity.getId());
+        copy.setCityName(shareCity.getCityName());
+        copy.setCityCountry(shareCity.getCityCountry());
+        copy.setLatitude(shareCity.getLatitude());
+        copy.setLongitude(shareCity.getLongitude());
+        return copy;
+    }
+
+    private static final class State {
+
+        private final long[] ids;
+
+        private final ShareCityDTO[] cities;
+
+        private final Map<ShareCountry, List<ShareCityDTO>> citiesByCountry;
+
+        private State(Iterable<ShareCityDTO> unsorted) {
+            List<ShareCityDTO> sorted = new ArrayList<>();
+            unsorted.forEach(sorted::add);
+            sorted.sort(Comparator.comparing(ShareCityDTO::getId));
+            this.cities = sorted.toArray(new ShareCityDTO[0]);
+            this.ids = new long[cities.length];
+            Map<ShareCountry, List<ShareCityDTO>> byCountry = new EnumMap<>(ShareCountry.class);
+            for (int i = 0; i < cities.length; i++) {
+                ids[i] = cities[i].getId();
+                if (cities[i].getCityCountry() != null) {
+                    byCountry.computeIfAbsent(cities[i].getCityCountry(), country -> new ArrayList<>()).add(cities[i]);
+                }
+            }
+            byCountry.replaceAll((country, countryCities) -> Collections.unmodifiableList(countryCities));
+            this.citiesByCountry = byCountry;
+        }
+    }
+}
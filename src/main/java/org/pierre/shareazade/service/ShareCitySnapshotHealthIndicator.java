@@ -0,0 +1,29 @@
+package org.pierre.shareazade.service;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health of the {@link ShareCitySnapshot}: out of service until it is loaded, so that the readiness probe, which
+ * includes it, only accepts traffic once the cities can be served from memory.
+ */
+@Component
+public class ShareCitySnapshotHealthIndicator extends AbstractHealthIndicator {
+
+    private final ShareCitySnapshot shareCitySnapshot;
+
+    public ShareCitySnapshotHealthIndicator(ShareCitySnapshot shareCitySnapshot) {
+        super("ShareCity snapshot health check failed");
+        this.shareCitySnapshot = shareCitySnapshot;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        if (shareCitySnapshot.isLoaded()) {
+            builder.up();
+        } else {
+            builder.outOfService();
+        }
+    }
+}
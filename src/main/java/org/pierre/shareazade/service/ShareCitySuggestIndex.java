@@ -0,0 +1,230 @@
+package org.pierre.shareazade.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.domain.ShareCity;
+import org.pierre.shareazade.domain.enumeration.ShareCountry;
+import org.pierre.shareazade.repository.ShareCityRepository;
+import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.event.ShareChangesLostEvent;
+import org.pierre.shareazade.service.event.ShareCityChangedEvent;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
+import org.pierre.shareazade.service.mapper.ShareCityMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory prefix index of the names of the {@link ShareCity}s, for autocompletion.
+ * <p>
+ * Each word of a name starts a key, lowercased and without accents, so that "saint" and "etienne" both find
+ * "Saint-Étienne". The keys are held in an immutable sorted array: a prefix is found by binary search, then the matching
+ * keys follow it. The array is rebuilt and swapped whenever a committed {@link ShareCityChangedEvent} is received. The
+ * matches are ranked by the number of shareRides departing from or arriving to the city, kept up to date from the
+ * {@link ShareRideChangedEvent}s.
+ */
+@Service
+public class ShareCitySuggestIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Logger log = LoggerFactory.getLogger(ShareCitySuggestIndex.class);
+
+    private final ShareCityRepository shareCityRepository;
+
+    private final ShareRideRepository shareRideRepository;
+
+    private final ShareCityMapper shareCityMapper;
+
+    private final int maxResults;
+
+    private final Map<Long, Long> popularity = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap());
+
+    public ShareCitySuggestIndex(
+        ShareCityRepository shareCityRepository,
+        ShareRideRepository shareRideRepository,
+        ShareCityMapper shareCityMapper,
+        ApplicationProperties applicationProperties
+    ) {
+        this.shareCityRepository = shareCityRepository;
+        this.shareRideRepository = shareRideRepository;
+        this.shareCityMapper = shareCityMapper;
+        this.maxResults = applicationProperties.getSuggest().getMaxResults();
+    }
+
+    /**
+     * Load the names of all the shareCities and their number of shareRides into the index, once the application is ready,
+     * and again when the changes of the other nodes may have been lost.
+     */
+    @EventListener({ ApplicationReadyEvent.class, ShareChangesLostEvent.class })
+    @Transactional(readOnly = true)
+    public synchronized void loadShareCities() {
+        Map<Long, ShareCityDTO> cities = new HashMap<>();
+        shareCityRepository.findAll().stream().map(shareCityMapper::toDto).forEach(city -> cities.put(city.getId(), city));
+        popularity.clear();
+        addPopularity(shareRideRepository.countByRideCityFrom());
+        addPopularity(shareRideRepository.countByRideCityTo());
+        rebuild(cities);
+        log.info("Indexed the names of {} ShareCities for suggestions", cities.size());
+    }
+
+    /**
+     * Apply a committed change of a shareCity to the index.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public synchronized void onShareCityChanged(ShareCityChangedEvent event) {
+        log.debug("Request to apply to the suggest index : {}", event);
+        Map<Long, ShareCityDTO> cities = new HashMap<>(snapshot.cities);
+        if (event.isDeleted()) {
+            cities.remove(event.getId());
+            popularity.remove(event.getId());
+        } else {
+            cities.put(event.getId(), event.getShareCity());
+        }
+        rebuild(cities);
+    }
+
+    /**
+     * Apply a committed change of a shareRide to the popularity of its cities.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onShareRideChanged(ShareRideChangedEvent event) {
+        addPopularity(event.getPrevious(), -1);
+        addPopularity(event.getShareRide(), 1);
+    }
+
+    /**
+     * Get the shareCities having a word of their name starting with a prefix, ignoring case and accents.
+     *
+     * @param prefix the prefix.
+     * @param country the country of the shareCities, or {@code null} for all of them.
+     * @param limit the maximum number of shareCities.
+     * @return the shareCities, the ones with the most shareRides first.
+     * @throws IllegalArgumentException if the limit is not positive or greater than the configured maximum.
+     */
+    public List<ShareCityDTO> suggest(String prefix, ShareCountry country, int limit) {
+        if (limit < 1 || limit > maxResults) {
+            throw new IllegalArgumentException("The limit must be between 1 and " + maxResults);
+        }
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Snapshot current = snapshot;
+        // The popularity of each match is read once, so that the ranking stays consistent while shareRides change
+        Map<Long, Long> matches = new HashMap<>();
+        Comparator<ShareCityDTO> byRank = Comparator
+            .<ShareCityDTO>comparingLong(city -> matches.get(city.getId()))
+            .reversed()
+            .thenComparing(ShareCityDTO::getCityName, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ShareCityDTO::getId);
+        // Heap of the best matches, the worst one on top
+        PriorityQueue<ShareCityDTO> best = new PriorityQueue<>(limit + 1, byRank.reversed());
+        int from = Arrays.binarySearch(current.keys, key);
+        for (int i = from >= 0 ? from : -from - 1; i < current.keys.length && current.keys[i].startsWith(key); i++) {
+            ShareCityDTO city = current.citiesByKey[i];
+            if (
+                (country == null || country == city.getCityCountry()) &&
+                matches.putIfAbsent(city.getId(), popularity.getOrDefault(city.getId(), 0L)) == null
+            ) {
+                best.add(city);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        List<ShareCityDTO> suggestions = new ArrayList<>(best);
+        suggestions.sort(byRank);
+        return suggestions;
+    }
+
+    private void rebuild(Map<Long, ShareCityDTO> cities) {
+        snapshot = new Snapshot(cities);
+    }
+
+    private void addPopularity(List<Object[]> counts) {
+        for (Object[] row : counts) {
+            if (row[0] != null) {
+                popularity.merge((Long) row[0], (Long) row[1], Long::sum);
+            }
+        }
+    }
+
+    private void addPopularity(ShareRideDTO shareRide, long delta) {
+        if (shareRide == null) {
+            return;
+        }
+        if (shareRide.getRideCityFrom() != null && shareRide.getRideCityFrom().getId() != null) {
+            popularity.merge(shareRide.getRideCityFrom().getId(), delta, Long::sum);
+        }
+        if (shareRide.getRideCityTo() != null && shareRide.getRideCityTo().getId() != null) {
+            popularity.merge(shareRide.getRideCityTo().getId(), delta, Long::sum);
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String withoutAccents = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(withoutAccents.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Immutable state of the index: the sorted keys, and the shareCity of each key.
+     */
+    private static final class Snapshot {
+
+        private final Map<Long, ShareCityDTO> cities;
+
+        private final String[] keys;
+
+        private final ShareCityDTO[] citiesByKey;
+
+        private Snapshot(Map<Long, ShareCityDTO> cities) {
+            this.cities = Collections.unmodifiableMap(cities);
+            List<Map.Entry<String, ShareCityDTO>> entries = new ArrayList<>();
+            for (ShareCityDTO city : cities.values()) {
+                String name = normalize(city.getCityName());
+                if (!name.isEmpty()) {
+                    entries.add(Map.entry(name, city));
+                    for (int space = name.indexOf(' '); space >= 0; space = name.indexOf(' ', space + 1)) {
+                        entries.add(Map.entry(name.substring(space + 1), city));
+                    }
+                }
+            }
+            entries.sort(Map.Entry.comparingByKey());
+            this.keys = new String[entries.size()];
+            this.citiesByKey = new ShareCityDTO[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                keys[i] = entries.get(i).getKey();
+                citiesByKey[i] = entries.get(i).getValue();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.pierre.shareazade.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.service.dto.ShareRideBulkResultDTO;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for creating large numbers of {@link org.pierre.shareazade.domain.ShareRide}s.
+ * <p>
+ * The shareRides are read one at a time and saved by chunks, each chunk in its own transaction, so that the inserts
+ * are sent in JDBC batches and the memory used does not depend on the number of shareRides. When a chunk fails, its
+ * shareRides are saved one by one, to find out which of them failed.
+ */
+@Service
+public class ShareRideBulkService {
+
+    private final Logger log = LoggerFactory.getLogger(ShareRideBulkService.class);
+
+    private final ShareRideService shareRideService;
+
+    private final int chunkSize;
+
+    public ShareRideBulkService(ShareRideService shareRideService, ApplicationProperties applicationProperties) {
+        this.shareRideService = shareRideService;
+        this.chunkSize = Math.max(1, applicationProperties.getBulk().getChunkSize());
+    }
+
+    /**
+     * Create shareRides.
+     * <p>
+     * Reading stops at the first item which cannot be read, as the following ones cannot be located reliably.
+     *
+     * @param shareRideDTOs the shareRides to create.
+     * @return the outcome of each item, in the order of the items.
+     */
+    public List<ShareRideBulkResultDTO> saveAll(Iterator<ShareRideDTO> shareRideDTOs) {
+        log.debug("Request to save ShareRides in bulk");
+        List<ShareRideBulkResultDTO> results = new ArrayList<>();
+        List<ShareRideDTO> chunk = new ArrayList<>(chunkSize);
+        int chunkStart = 0;
+        int index = 0;
+        while (true) {
+            ShareRideDTO shareRideDTO;
+            try {
+                if (!shareRideDTOs.hasNext()) {
+                    break;
+                }
+                shareRideDTO = shareRideDTOs.next();
+            } catch (RuntimeException e) {
+                log.debug("Unreadable ShareRide at index {}: {}", index, e.getMessage());
+                saveChunk(chunkStart, chunk, results);
+                results.add(ShareRideBulkResultDTO.failed(index, "unreadable", "The shareRide could not be read"));
+                return results;
+            }
+            if (shareRideDTO == null || shareRideDTO.getId() != null) {
+                saveChunk(chunkStart, chunk, results);
+                results.add(ShareRideBulkResultDTO.failed(index, "idexists", "A new shareRide cannot already have an ID"));
+                chunkStart = index + 1;
+            } else {
+                chunk.add(shareRideDTO);
+                if (chunk.size() == chunkSize) {
+                    saveChunk(chunkStart, chunk, results);
+                    chunkStart = index + 1;
+                }
+            }
+            index++;
+        }
+        saveChunk(chunkStart, chunk, results);
+        log.debug("Saved ShareRides in bulk : {} items", results.size());
+        return results;
+    }
+
+    private void saveChunk(int chunkStart, List<ShareRideDTO> chunk, List<ShareRideBulkResultDTO> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            List<ShareRideDTO> saved = shareRideService.saveAll(chunk);
+            for (int i = 0; i < saved.size(); i++) {
+                results.add(ShareRideBulkResultDTO.created(chunkStart + i, saved.get(i).getId()));
+            }
+        } catch (RuntimeException e) {
+            log.debug("Failed to save a chunk of {} ShareRides, saving them one by one: {}", chunk.size(), e.getMessage());
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(saveOne(chunkStart + i, chunk.get(i)));
+            }
+        }
+        chunk.clear();
+    }
+
+    private ShareRideBulkResultDTO saveOne(int index, ShareRideDTO shareRideDTO) {
+        try {
+            return ShareRideBulkResultDTO.created(index, shareRideService.save(shareRideDTO).getId());
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Invalid ShareRide at index {}: {}", index, e.getMessage());
+            return ShareRideBulkResultDTO.failed(index, "integrityviolation", "The shareRide references unknown entities");
+        } catch (RuntimeException e) {
+            log.warn("Failed to save ShareRide at index {}", index, e);
+            return ShareRideBulkResultDTO.failed(index, "internal", "The shareRide could not be saved");
+        }
+    }
+}
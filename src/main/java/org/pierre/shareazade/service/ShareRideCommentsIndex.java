@@ -0,0 +1,33 @@
+package org.pierre.shareazade.service;
+
+import java.util.List;
+import org.pierre.shareazade.domain.ShareRide;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Full-text index over the {@code rideComments} of the {@link ShareRide}s.
+ * <p>
+ * Comments are split into lower-cased words, without stemming nor stop words, so that the implementations agree
+ * whatever the language of the comments.
+ */
+public interface ShareRideCommentsIndex {
+    /**
+     * Restrict the shareRides to those whose comments contain all the words of the given text. The restriction is
+     * applied by the database together with the other filters, and counted like them.
+     *
+     * @param text the words to search.
+     * @return the matching {@link Specification} of the entity.
+     */
+    Specification<ShareRide> matching(String text);
+
+    /**
+     * Rank the shareRides selected by a specification, which restricts them to those matching the given text.
+     *
+     * @param text the words searched.
+     * @param specification the {@link Specification} the shareRides should match, including {@link #matching(String)}.
+     * @param offset the index of the first id to return.
+     * @param limit the maximum number of ids to return, or a negative value for no limit.
+     * @return the ids of the matching shareRides, the most relevant first, then by id.
+     */
+    List<Long> rank(String text, Specification<ShareRide> specification, long offset, int limit);
+}
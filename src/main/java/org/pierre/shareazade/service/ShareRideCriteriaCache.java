@@ -0,0 +1,472 @@
+package org.pierre.shareazade.service;
+
+import java.io.Serializable;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.pierre.shareazade.service.criteria.ShareRideCriteria;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.event.ShareChangesLostEvent;
+import org.pierre.shareazade.service.event.ShareCityChangedEvent;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.ZonedDateTimeFilter;
+
+/**
+ * Cache of the results of the {@link ShareRideCriteria} queries: the ids of the matching shareRides, and their count.
+ * <p>
+ * Results are keyed by the normalized criteria and the {@link Pageable}. When a shareRide is written, on this node or
+ * another one, only the results of the criteria matched by the shareRide, before or after the change, are evicted. A
+ * result computed while a change was being committed is not stored, as it may already be stale.
+ * <p>
+ * The keys are indexed by the values of an equality filter restricting them, on the id, the cities or the user of the
+ * shareRides, so that a change only tests the keys which it could affect rather than all the cached ones.
+ */
+@Service
+public class ShareRideCriteriaCache {
+
+    public static final String CACHE_NAME = "shareRideCriteriaResults";
+
+    private static final String ID = "id";
+
+    private static final String RIDE_USER_ID = "rideUserId";
+
+    private static final String RIDE_CITY_FROM_ID = "rideCityFromId";
+
+    private static final String RIDE_CITY_TO_ID = "rideCityToId";
+
+    private static final List<String> SHARE_CITY_SORT_PREFIXES = List.of("rideCityFrom.", "rideCityTo.");
+
+    private final Logger log = LoggerFactory.getLogger(ShareRideCriteriaCache.class);
+
+    private final Cache<Object, Object> cache;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final KeyIndex keyIndex = new KeyIndex();
+
+    @Autowired
+    public ShareRideCriteriaCache(CacheManager cacheManager) {
+        this(cacheManager.getCache(CACHE_NAME));
+    }
+
+    ShareRideCriteriaCache(Cache<Object, Object> cache) {
+        this.cache = Objects.requireNonNull(cache, CACHE_NAME);
+    }
+
+    /**
+     * Build the cache key of a query.
+     *
+     * @param criteria the criteria of the query.
+     * @param pageable the page of the query, or {@code null} to count the matching shareRides.
+     * @return the key.
+     */
+    public Key key(ShareRideCriteria criteria, Pageable pageable) {
+        return new Key(normalize(criteria), pageable);
+    }
+
+    /**
+     * @return the current generation, to be passed to {@link #put(Key, Result, long)} once the result is computed.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public Result get(Key key) {
+        return (Result) cache.get(key);
+    }
+
+    /**
+     * Store a result, unless a shareRide was changed since the result started to be computed.
+     *
+     * @param key the key of the query.
+     * @param result the result.
+     * @param generation the value of {@link #generation()} before the result was computed.
+     */
+    public void put(Key key, Result result, long generation) {
+        if (this.generation.get() != generation) {
+            return;
+        }
+        // Indexed first, so that a change committed from now on finds the key
+        keyIndex.add(key, cache);
+        cache.put(key, result);
+        if (this.generation.get() != generation) {
+            // A change may have looked for the key before it was stored
+            cache.remove(key);
+        }
+    }
+
+    public void evict(Key key) {
+        remove(key);
+    }
+
+    private void remove(Key key) {
+        cache.remove(key);
+        keyIndex.remove(key);
+    }
+
+    /**
+     * Evict the results which a committed change of a shareRide could affect.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onShareRideChanged(ShareRideChangedEvent event) {
+        generation.incrementAndGet();
+        List<Key> evicted = new ArrayList<>();
+        for (Key key : keyIndex.candidates(event.getPrevious(), event.getShareRide())) {
+            if (matches(key.criteria, event.getPrevious()) || matches(key.criteria, event.getShareRide())) {
+                evicted.add(key);
+            }
+        }
+        evicted.forEach(this::remove);
+        log.debug("Evicted {} criteria results after {}", evicted.size(), event);
+    }
+
+    /**
+     * Evict the results of the {@code rideCityFromNear} criteria, as a committed change of a shareCity can move it in or
+     * out of their circle, and the pages sorted by a property of the cities, such as their name, as the change can reorder
+     * them.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onShareCityChanged(ShareCityChangedEvent event) {
+        generation.incrementAndGet();
+        List<Key> evicted = keyIndex.shareCityDependent();
+        evicted.forEach(this::remove);
+        log.debug("Evicted {} criteria results after {}", evicted.size(), event);
+    }
+
+    /**
+     * Evict all the results, as the changes of the other nodes may have been lost.
+     *
+     * @param event the loss.
+     */
+    @EventListener
+    public void onShareChangesLost(ShareChangesLostEvent event) {
+        generation.incrementAndGet();
+        cache.clear();
+        keyIndex.prune(cache);
+    }
+
+    private static ShareRideCriteria normalize(ShareRideCriteria criteria) {
+        ShareRideCriteria normalized = criteria != null ? criteria.copy() : new ShareRideCriteria();
+        ZonedDateTimeFilter rideDateTime = normalized.getRideDateTime();
+        if (rideDateTime != null) {
+            rideDateTime.setEquals(utc(rideDateTime.getEquals()));
+            rideDateTime.setNotEquals(utc(rideDateTime.getNotEquals()));
+            rideDateTime.setIn(utc(rideDateTime.getIn()));
+            rideDateTime.setNotIn(utc(rideDateTime.getNotIn()));
+            rideDateTime.setGreaterThan(utc(rideDateTime.getGreaterThan()));
+            rideDateTime.setGreaterThanOrEqual(utc(rideDateTime.getGreaterThanOrEqual()));
+            rideDateTime.setLessThan(utc(rideDateTime.getLessThan()));
+            rideDateTime.setLessThanOrEqual(utc(rideDateTime.getLessThanOrEqual()));
+        }
+        if (normalized.getComments() != null && normalized.getComments().getMatches() != null) {
+            normalized.getComments().setMatches(normalized.getComments().getMatches().trim().toLowerCase(Locale.ROOT));
+        }
+        return normalized;
+    }
+
+    /**
+     * Whether a shareRide could be matched by a criteria, following the semantics of {@link ShareRideQueryService}.
+     * The comments and the coordinates of the cities are not indexed here, so any shareRide could match a comments search
+     * or a {@code rideCityFromNear} circle.
+     */
+    private static boolean matches(ShareRideCriteria criteria, ShareRideDTO shareRide) {
+        if (shareRide == null) {
+            return false;
+        }
+        return (
+            matches(criteria.getId(), shareRide.getId()) &&
+            matches(criteria.getRideDateTime(), utc(shareRide.getRideDateTime())) &&
+            matches(criteria.getRideType(), shareRide.getRideType()) &&
+            matches(criteria.getRideCityFromId(), shareRide.getRideCityFrom() != null ? shareRide.getRideCityFrom().getId() : null) &&
+            matches(criteria.getRideCityToId(), shareRide.getRideCityTo() != null ? shareRide.getRideCityTo().getId() : null) &&
+            matches(criteria.getRideUserId(), shareRide.getRideUser() != null ? shareRide.getRideUser().getId() : null)
+        );
+    }
+
+    private static <X> boolean matches(Filter<X> filter, X value) {
+        if (filter == null) {
+            return true;
+        }
+        if (filter.getEquals() != null) {
+            return filter.getEquals().equals(value);
+        }
+        if (filter.getIn() != null) {
+            return value != null && filter.getIn().contains(value);
+        }
+        return (
+            (filter.getSpecified() == null || filter.getSpecified() == (value != null)) &&
+            (filter.getNotEquals() == null || (value != null && !filter.getNotEquals().equals(value))) &&
+            (filter.getNotIn() == null || (value != null && !filter.getNotIn().contains(value)))
+        );
+    }
+
+    private static <X extends Comparable<? super X>> boolean matches(RangeFilter<X> filter, X value) {
+        if (filter == null) {
+            return true;
+        }
+        if (!matches((Filter<X>) filter, value)) {
+            return false;
+        }
+        if (filter.getEquals() != null || filter.getIn() != null) {
+            return true;
+        }
+        return (
+            (filter.getGreaterThan() == null || (value != null && value.compareTo(filter.getGreaterThan()) > 0)) &&
+            (filter.getGreaterThanOrEqual() == null || (value != null && value.compareTo(filter.getGreaterThanOrEqual()) >= 0)) &&
+            (filter.getLessThan() == null || (value != null && value.compareTo(filter.getLessThan()) < 0)) &&
+            (filter.getLessThanOrEqual() == null || (value != null && value.compareTo(filter.getLessThanOrEqual()) <= 0))
+        );
+    }
+
+    private static ZonedDateTime utc(ZonedDateTime dateTime) {
+        return dateTime != null ? dateTime.withZoneSameInstant(ZoneOffset.UTC) : null;
+    }
+
+    private static List<ZonedDateTime> utc(List<ZonedDateTime> dateTimes) {
+        if (dateTimes == null) {
+            return null;
+        }
+        List<ZonedDateTime> normalized = new ArrayList<>(dateTimes.size());
+        dateTimes.forEach(dateTime -> normalized.add(utc(dateTime)));
+        return normalized;
+    }
+
+    /**
+     * Index of the keys of the cached results. The results which the cache expires or evicts by itself stay indexed until
+     * the keys are pruned, once their number has doubled since the previous pruning.
+     */
+    private static final class KeyIndex {
+
+        private static final int MIN_PRUNED_SIZE = 1024;
+
+        private final Map<String, Map<Long, Set<Key>>> byFilter = new ConcurrentHashMap<>();
+
+        private final Set<Key> unrestricted = ConcurrentHashMap.newKeySet();
+
+        private final Set<Key> shareCityDependent = ConcurrentHashMap.newKeySet();
+
+        private final Set<Key> all = ConcurrentHashMap.newKeySet();
+
+        private volatile int prunedSize;
+
+        void add(Key key, Cache<Object, Object> cache) {
+            if (!all.add(key)) {
+                return;
+            }
+            if (key.criteria.getRideCityFromNear() != null || isSortedByShareCity(key.pageable)) {
+                shareCityDependent.add(key);
+            }
+            String field = restrictingField(key.criteria);
+            if (field == null) {
+                unrestricted.add(key);
+            } else {
+                Map<Long, Set<Key>> byValue = byFilter.computeIfAbsent(field, f -> new ConcurrentHashMap<>());
+                for (Long value : values(filter(key.criteria, field))) {
+                    byValue.computeIfAbsent(value, v -> ConcurrentHashMap.newKeySet()).add(key);
+                }
+            }
+            if (all.size() > Math.max(MIN_PRUNED_SIZE, 2 * prunedSize)) {
+                prune(cache);
+            }
+        }
+
+        private static boolean isSortedByShareCity(Pageable pageable) {
+            if (pageable == null) {
+                return false;
+            }
+            for (Sort.Order order : pageable.getSort()) {
+                for (String prefix : SHARE_CITY_SORT_PREFIXES) {
+                    if (order.getProperty().startsWith(prefix)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the first field restricted to some values by the criteria, or {@code null} if there is none.
+         */
+        private static String restrictingField(ShareRideCriteria criteria) {
+            for (String field : List.of(ID, RIDE_USER_ID, RIDE_CITY_FROM_ID, RIDE_CITY_TO_ID)) {
+                if (values(filter(criteria, field)) != null) {
+                    return field;
+                }
+            }
+            return null;
+        }
+
+        private static Filter<Long> filter(ShareRideCriteria criteria, String field) {
+            switch (field) {
+                case ID:
+                    return criteria.getId();
+                case RIDE_USER_ID:
+                    return criteria.getRideUserId();
+                case RIDE_CITY_FROM_ID:
+                    return criteria.getRideCityFromId();
+                default:
+                    return criteria.getRideCityToId();
+            }
+        }
+
+        private static List<Long> values(Filter<Long> filter) {
+            if (filter == null) {
+                return null;
+            }
+            if (filter.getEquals() != null) {
+                return List.of(filter.getEquals());
+            }
+            return filter.getIn() != null && filter.getIn().stream().noneMatch(Objects::isNull) ? filter.getIn() : null;
+        }
+
+        /**
+         * @return the keys whose criteria could match one of the given shareRides.
+         */
+        Set<Key> candidates(ShareRideDTO... shareRides) {
+            Set<Key> candidates = new HashSet<>(unrestricted);
+            for (ShareRideDTO shareRide : shareRides) {
+                if (shareRide != null) {
+                    addRestricted(candidates, ID, shareRide.getId());
+                    addRestricted(candidates, RIDE_USER_ID, shareRide.getRideUser() != null ? shareRide.getRideUser().getId() : null);
+                    addRestricted(candidates, RIDE_CITY_FROM_ID, shareRide.getRideCityFrom() != null ? shareRide.getRideCityFrom().getId() : null);
+                    addRestricted(candidates, RIDE_CITY_TO_ID, shareRide.getRideCityTo() != null ? shareRide.getRideCityTo().getId() : null);
+                }
+            }
+            return candidates;
+        }
+
+        private void addRestricted(Set<Key> candidates, String field, Long value) {
+            Map<Long, Set<Key>> byValue = byFilter.get(field);
+            Set<Key> keys = byValue != null && value != null ? byValue.get(value) : null;
+            if (keys != null) {
+                candidates.addAll(keys);
+            }
+        }
+
+        /**
+         * @return the keys of the {@code rideCityFromNear} criteria and of the pages sorted by a property of the cities.
+         */
+        List<Key> shareCityDependent() {
+            return new ArrayList<>(shareCityDependent);
+        }
+
+        void remove(Key key) {
+            if (!all.remove(key)) {
+                return;
+            }
+            unrestricted.remove(key);
+            shareCityDependent.remove(key);
+            String field = restrictingField(key.criteria);
+            Map<Long, Set<Key>> byValue = field != null ? byFilter.get(field) : null;
+            if (byValue != null) {
+                for (Long value : values(filter(key.criteria, field))) {
+                    Set<Key> keys = byValue.get(value);
+                    if (keys != null) {
+                        keys.remove(key);
+                    }
+                }
+            }
+        }
+
+        private synchronized void prune(Cache<Object, Object> cache) {
+            for (Key key : new ArrayList<>(all)) {
+                if (!cache.containsKey(key)) {
+                    remove(key);
+                }
+            }
+            byFilter.values().forEach(byValue -> byValue.values().removeIf(Set::isEmpty));
+            prunedSize = all.size();
+        }
+    }
+
+    /**
+     * Key of a cached result.
+     */
+    public static final class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ShareRideCriteria criteria;
+
+        private final Pageable pageable;
+
+        private Key(ShareRideCriteria criteria, Pageable pageable) {
+            this.criteria = criteria;
+            this.pageable = pageable;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return criteria.equals(that.criteria) && Objects.equals(pageable, that.pageable);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(criteria, pageable);
+        }
+
+        @Override
+        public String toString() {
+            return "Key{criteria=" + criteria + ", pageable=" + pageable + "}";
+        }
+    }
+
+    /**
+     * Cached result: the ids of the shareRides of the page, if any, and the total number of matching shareRides.
+     */
+    public static final class Result implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Long> ids;
+
+        private final long total;
+
+        public Result(List<Long> ids, long total) {
+            this.ids = ids != null ? new ArrayList<>(ids) : null;
+            this.total = total;
+        }
+
+        /**
+         * @return the ids of the shareRides of the page, or {@code null} for a count.
+         */
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+    }
+}
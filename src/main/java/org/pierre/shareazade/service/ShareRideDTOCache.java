@@ -0,0 +1,324 @@
+package org.pierre.shareazade.service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.pierre.shareazade.cache.CacheInvalidation;
+import org.pierre.shareazade.cache.CacheInvalidationBus;
+import org.pierre.shareazade.domain.ShareCity;
+import org.pierre.shareazade.domain.ShareRide;
+import org.pierre.shareazade.domain.ShareUser;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.dto.ShareUserDTO;
+import org.pierre.shareazade.service.event.ShareChangesLostEvent;
+import org.pierre.shareazade.service.event.ShareCityChangedEvent;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
+import org.pierre.shareazade.service.event.ShareUserChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Near cache of the {@link ShareRideDTO}s returned by {@link ShareRideService#findOne(Long)}, keyed by id, so that a hit
+ * needs neither a Hibernate session nor a mapping.
+ * <p>
+ * The DTOs are copied in and out, as the callers may change them. A shareRide is evicted once a change of it is
+ * committed, and the shareRides referencing a shareCity or a shareUser once a change of these is committed, as their
+ * names are part of the DTO, found through an index of the cached shareRides by the shareCities and the shareUser they
+ * reference. The shareCity changes are applied after the {@link ShareCitySnapshot} they are mapped from, including the
+ * changes of the other nodes relayed by the {@link ShareChangeRelay}. The other evictions are applied for the changes of
+ * the other nodes received from the {@link CacheInvalidationBus}, after the second level cache. A DTO built while a change was being committed is not stored, or is removed once stored,
+ * as it may already be stale. Like the {@link ShareCitySnapshot}, the cache is not used within a read-write transaction,
+ * which could see its own uncommitted changes.
+ */
+@Service
+public class ShareRideDTOCache implements CacheInvalidationBus.Listener {
+
+    public static final String CACHE_NAME = "shareRideDTOs";
+
+    private static final String SHARE_RIDE = ShareRide.class.getName();
+
+    private static final String SHARE_CITY = ShareCity.class.getName();
+
+    private static final String SHARE_USER = ShareUser.class.getName();
+
+    private final Logger log = LoggerFactory.getLogger(ShareRideDTOCache.class);
+
+    private final Cache<Object, Object> cache;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final ReferenceIndex referenceIndex = new ReferenceIndex();
+
+    @Autowired
+    public ShareRideDTOCache(CacheManager cacheManager, CacheInvalidationBus cacheInvalidationBus) {
+        this(cacheManager.getCache(CACHE_NAME));
+        cacheInvalidationBus.addListener(this);
+    }
+
+    ShareRideDTOCache(Cache<Object, Object> cache) {
+        this.cache = Objects.requireNonNull(cache, CACHE_NAME);
+    }
+
+    /**
+     * Get a shareRide.
+     *
+     * @param id the id of the shareRide.
+     * @return a copy of the shareRide, or {@code null} if it is not cached or the cache cannot be consulted.
+     */
+    public ShareRideDTO get(Long id) {
+        if (!isConsultable()) {
+            return null;
+        }
+        ShareRideDTO shareRide = (ShareRideDTO) cache.get(id);
+        return shareRide != null ? copy(shareRide) : null;
+    }
+
+    /**
+     * @return the current generation, to be passed to {@link #put(ShareRideDTO, long)} once the shareRide is loaded.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Store a copy of a shareRide, unless a shareRide, a shareCity or a shareUser was changed since it started to be loaded,
+     * or it was loaded within a read-write transaction.
+     *
+     * @param shareRide the shareRide.
+     * @param generation the value of {@link #generation()} before the shareRide was loaded.
+     */
+    public void put(ShareRideDTO shareRide, long generation) {
+        if (!isConsultable() || this.generation.get() != generation) {
+            return;
+        }
+        ShareRideDTO copy = copy(shareRide);
+        // Indexed first, so that a change committed from now on finds the shareRide
+        referenceIndex.add(copy);
+        cache.put(copy.getId(), copy);
+        if (this.generation.get() != generation) {
+            // A change may have looked for the shareRide before it was stored
+            cache.remove(copy.getId());
+        }
+        if (referenceIndex.isGrown()) {
+            prune();
+        }
+    }
+
+    /**
+     * Evict a shareRide once its change is committed.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onShareRideChanged(ShareRideChangedEvent event) {
+        evictShareRide(event.getId());
+    }
+
+    /**
+     * Evict the shareRides from or to a shareCity once its change is committed.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onShareCityChanged(ShareCityChangedEvent event) {
+        evictShareRides(SHARE_CITY, event.getId());
+    }
+
+    /**
+     * Evict the shareRides of a shareUser once its change is committed.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onShareUserChanged(ShareUserChangedEvent event) {
+        evictShareRides(SHARE_USER, event.getId());
+    }
+
+    @Override
+    public void evict(CacheInvalidation invalidation) {
+        if (invalidation.getType() != CacheInvalidation.Type.ENTITY) {
+            return;
+        }
+        // The shareCity changes are received as relayed ShareCityChangedEvents, once the snapshot is updated
+        if (SHARE_RIDE.equals(invalidation.getRegion())) {
+            evictShareRide(Long.valueOf(invalidation.getKey()));
+        } else if (SHARE_USER.equals(invalidation.getRegion())) {
+            evictShareRides(SHARE_USER, Long.valueOf(invalidation.getKey()));
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        generation.incrementAndGet();
+        cache.clear();
+        referenceIndex.prune(cache);
+    }
+
+    /**
+     * Evict all the shareRides again once the {@link ShareCitySnapshot} is loaded again, as the changes of the other nodes
+     * may have been lost.
+     *
+     * @param event the loss.
+     */
+    @EventListener
+    public void onShareChangesLost(ShareChangesLostEvent event) {
+        evictAll();
+    }
+
+    private void evictShareRide(Long id) {
+        generation.incrementAndGet();
+        cache.remove(id);
+    }
+
+    private void evictShareRides(String entityName, Long id) {
+        generation.incrementAndGet();
+        Set<Long> evicted = SHARE_CITY.equals(entityName) ? referenceIndex.byShareCity(id) : referenceIndex.byShareUser(id);
+        evicted.forEach(cache::remove);
+        log.debug("Evicted {} shareRides referencing {} {}", evicted.size(), entityName, id);
+    }
+
+    private void prune() {
+        // The shareRides being stored are dropped, as they may be unindexed before they are
+        generation.incrementAndGet();
+        referenceIndex.prune(cache);
+    }
+
+    private static boolean isConsultable() {
+        boolean readWrite =
+            TransactionSynchronizationManager.isActualTransactionActive() && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return !readWrite;
+    }
+
+    private static ShareRideDTO copy(ShareRideDTO shareRide) {
+        ShareRideDTO copy = new ShareRideDTO();
+        copy.setId(shareRide.getId());
+        copy.setRideDateTime(shareRide.getRideDateTime());
+        copy.setRideType(shareRide.getRideType());
+        copy.setRideComments(shareRide.getRideComments());
+        copy.setRideCityFrom(copy(shareRide.getRideCityFrom()));
+        copy.setRideCityTo(copy(shareRide.getRideCityTo()));
+        copy.setRideUser(copy(shareRide.getRideUser()));
+        return copy;
+    }
+
+    private static ShareCityDTO copy(ShareCityDTO shareCity) {
+        if (shareCity == null) {
+            return null;
+        }
+        ShareCityDTO copy = new ShareCityDTO();
+        copy.setId(shareCity.getId());
+        copy.setCityName(shareCity.getCityName());
+        copy.setCityCountry(shareCity.getCityCountry());
+        copy.setLatitude(shareCity.getLatitude());
+        copy.setLongitude(shareCity.getLongitude());
+        return copy;
+    }
+
+    private static ShareUserDTO copy(ShareUserDTO shareUser) {
+        if (shareUser == null) {
+            return null;
+        }
+        ShareUserDTO copy = new ShareUserDTO();
+        copy.setId(shareUser.getId());
+        copy.setUserName(shareUser.getUserName());
+        copy.setUserEmail(shareUser.getUserEmail());
+        copy.setUserRole(shareUser.getUserRole());
+        copy.setUserPhone(shareUser.getUserPhone());
+        copy.setUserStatus(shareUser.getUserStatus());
+        return copy;
+    }
+
+    /**
+     * Index of the ids of the cached shareRides by the ids of the shareCities and of the shareUser they reference. The
+     * shareRides which are evicted or expired stay indexed until the index is pruned, once the number of shareRides indexed
+     * has doubled since the previous pruning.
+     */
+    private static final class ReferenceIndex {
+
+        private static final int MIN_PRUNED_SIZE = 1024;
+
+        private final Map<Long, Set<Long>> byShareCity = new ConcurrentHashMap<>();
+
+        private final Map<Long, Set<Long>> byShareUser = new ConcurrentHashMap<>();
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        private volatile int prunedSize;
+
+        void add(ShareRideDTO shareRide) {
+            if (shareRide.getRideCityFrom() != null) {
+                add(byShareCity, shareRide.getRideCityFrom().getId(), shareRide.getId());
+            }
+            if (shareRide.getRideCityTo() != null) {
+                add(byShareCity, shareRide.getRideCityTo().getId(), shareRide.getId());
+            }
+            if (shareRide.getRideUser() != null) {
+                add(byShareUser, shareRide.getRideUser().getId(), shareRide.getId());
+            }
+            size.incrementAndGet();
+        }
+
+        private static void add(Map<Long, Set<Long>> index, Long referenceId, Long shareRideId) {
+            if (referenceId != null) {
+                index.computeIfAbsent(referenceId, r -> ConcurrentHashMap.newKeySet()).add(shareRideId);
+            }
+        }
+
+        /**
+         * @return the ids of the shareRides from or to a shareCity, which are not indexed anymore.
+         */
+        Set<Long> byShareCity(Long id) {
+            return removeAll(byShareCity, id);
+        }
+
+        /**
+         * @return the ids of the shareRides of a shareUser, which are not indexed anymore.
+         */
+        Set<Long> byShareUser(Long id) {
+            return removeAll(byShareUser, id);
+        }
+
+        private static Set<Long> removeAll(Map<Long, Set<Long>> index, Long referenceId) {
+            Set<Long> shareRideIds = index.get(referenceId);
+            if (shareRideIds == null) {
+                return Set.of();
+            }
+            Set<Long> removed = new HashSet<>();
+            for (Long shareRideId : shareRideIds) {
+                if (shareRideIds.remove(shareRideId)) {
+                    removed.add(shareRideId);
+                }
+            }
+            return removed;
+        }
+
+        boolean isGrown() {
+            return size.get() > Math.max(MIN_PRUNED_SIZE, 2 * prunedSize);
+        }
+
+        synchronized void prune(Cache<Object, Object> cache) {
+            for (Map<Long, Set<Long>> index : List.of(byShareCity, byShareUser)) {
+                index.values().forEach(shareRideIds -> shareRideIds.removeIf(id -> !cache.containsKey(id)));
+                index.values().removeIf(Set::isEmpty);
+            }
+            Set<Long> indexed = new HashSet<>();
+            byShareCity.values().forEach(indexed::addAll);
+            byShareUser.values().forEach(indexed::addAll);
+            prunedSize = indexed.size();
+            size.set(indexed.size());
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package org.pierre.shareazade.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.domain.ShareCity;
+import org.pierre.shareazade.domain.ShareRide;
+import org.pierre.shareazade.domain.enumeration.RideType;
+import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.dto.ShareRideItineraryDTO;
+import org.pierre.shareazade.service.dto.ShareRideLegDTO;
+import org.pierre.shareazade.service.event.ShareChangesLostEvent;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
+import org.pierre.shareazade.service.mapper.ShareRideMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory itinerary planner connecting two {@link ShareCity}s with one or more {@link RideType#OFFER}
+ * {@link ShareRide}s.
+ * <p>
+ * Upcoming offers are the time-dependent edges of a graph of the cities: for each {@code rideCityFrom}, they are sorted
+ * by {@code rideDateTime}, so that the rides reachable from an arrival are a range of that map. The arrival of a ride
+ * is estimated from the great-circle distance between its cities, given by the {@link ShareCityGeoIndex}. The graph is
+ * loaded once the application is ready, then kept up to date from the {@link ShareRideChangedEvent}s published by
+ * {@link ShareRideService} once their transaction is committed, so that planning an itinerary never hits the database.
+ * <p>
+ * Only the ids, the cities and the departures of the offers are indexed, as the DTO of an event is mapped from the entity
+ * sent by the client, whose city and user names are not the committed ones. The rides of the itineraries found are then
+ * taken from {@link ShareRideService#findAllById(List)}, which hits the database only for those missing from its cache.
+ */
+@Service
+public class ShareRideItineraryService {
+
+    private static final Comparator<Label> BEST_FIRST = Comparator
+        .<Label>comparingLong(label -> label.arrival)
+        .thenComparingInt(label -> label.transfers)
+        .thenComparing(label -> label.edge.id);
+
+    private final Logger log = LoggerFactory.getLogger(ShareRideItineraryService.class);
+
+    private final ShareRideRepository shareRideRepository;
+
+    private final ShareRideMapper shareRideMapper;
+
+    private final ShareRideService shareRideService;
+
+    private final ShareCityGeoIndex shareCityGeoIndex;
+
+    private final ApplicationProperties.Itinerary properties;
+
+    private final Map<Long, NavigableMap<Departure, Edge>> departures = new ConcurrentHashMap<>();
+
+    private final Map<Long, Edge> indexedRides = new ConcurrentHashMap<>();
+
+    public ShareRideItineraryService(
+        ShareRideRepository shareRideRepository,
+        ShareRideMapper shareRideMapper,
+        ShareRideService shareRideService,
+        ShareCityGeoIndex shareCityGeoIndex,
+        ApplicationProperties applicationProperties
+    ) {
+        this.shareRideRepository = shareRideRepository;
+        this.shareRideMapper = shareRideMapper;
+        this.shareRideService = shareRideService;
+        this.shareCityGeoIndex = shareCityGeoIndex;
+        this.properties = applicationProperties.getItinerary();
+    }
+
+    /**
+     * Load all the upcoming offers into the graph. When the changes of the other nodes may have been lost, they are loaded
+     * again, and the offers which are not found anymore are removed.
+     */
+    @EventListener({ ApplicationReadyEvent.class, ShareChangesLostEvent.class })
+    @Transactional(readOnly = true)
+    public void loadUpcomingShareRides() {
+        Set<Long> removed = new HashSet<>(indexedRides.keySet());
+        List<ShareRide> shareRides = shareRideRepository.findAllUpcomingWithToOneRelationships(ZonedDateTime.now(ZoneOffset.UTC));
+        shareRides.stream().map(shareRideMapper::toDto).forEach(this::index);
+        shareRides.forEach(shareRide -> removed.remove(shareRide.getId()));
+        removed.forEach(this::unindex);
+        log.info("Indexed {} upcoming ShareRide offers for itineraries", indexedRides.size());
+    }
+
+    /**
+     * Apply a committed change of a shareRide to the graph.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onShareRideChanged(ShareRideChangedEvent event) {
+        log.debug("Request to apply to the itinerary graph : {}", event);
+        if (event.isDeleted()) {
+            unindex(event.getId());
+        } else {
+            index(event.getShareRide());
+        }
+    }
+
+    /**
+     * Remove the shareRides which have already departed from the graph.
+     */
+    @Scheduled(cron = "0 */5 * * * ?")
+    public void removeDepartedShareRides() {
+        long now = Instant.now().getEpochSecond();
+        indexedRides.values().stream().filter(edge -> edge.departure.epochSecond < now).map(edge -> edge.id).forEach(this::unindex);
+    }
+
+    /**
+     * Get the itineraries from a shareCity to another one, by successive searches for the earliest arrival with the
+     * fewest transfers, each one departing after the first ride of the previous one. An itinerary departing earlier than
+     * another one without arriving earlier or with fewer transfers is left out.
+     *
+     * @param cityFromId the id of the shareCity of departure.
+     * @param cityToId the id of the shareCity of arrival.
+     * @param departAfter the earliest departure, or {@code null} for now.
+     * @param limit the maximum number of itineraries.
+     * @return the itineraries, by departure, but for those with a ride deleted meanwhile.
+     * @throws IllegalArgumentException if the cities are the same, or the limit is not positive or greater than the
+     * configured maximum.
+     */
+    public List<ShareRideItineraryDTO> findItineraries(Long cityFromId, Long cityToId, ZonedDateTime departAfter, int limit) {
+        log.debug("Request to get itineraries from ShareCity : {} to ShareCity : {}, after: {}", cityFromId, cityToId, departAfter);
+        if (Objects.equals(cityFromId, cityToId)) {
+            throw new IllegalArgumentException("The cities of departure and arrival must be different");
+        }
+        if (limit < 1 || limit > properties.getMaxItineraries()) {
+            throw new IllegalArgumentException("The limit must be between 1 and " + properties.getMaxItineraries());
+        }
+        long now = Instant.now().getEpochSecond();
+        long from = departAfter != null ? Math.max(now, departAfter.toEpochSecond()) : now;
+        long until = from + properties.getSearchWindow().getSeconds();
+        Map<Long, Long> arrivals = new HashMap<>();
+        List<Label> itineraries = new ArrayList<>();
+        while (itineraries.size() < limit && from <= until) {
+            Label itinerary = findEarliestArrival(cityFromId, cityToId, from, until, arrivals);
+            if (itinerary == null) {
+                break;
+            }
+            while (!itineraries.isEmpty() && dominates(itinerary, itineraries.get(itineraries.size() - 1))) {
+                itineraries.remove(itineraries.size() - 1);
+            }
+            itineraries.add(itinerary);
+            from = itinerary.firstRide().departure.epochSecond + 1;
+        }
+        if (itineraries.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Long> rideIds = new LinkedHashSet<>();
+        for (Label itinerary : itineraries) {
+            for (Label label = itinerary; label != null; label = label.previous) {
+                rideIds.add(label.edge.id);
+            }
+        }
+        Map<Long, ShareRideDTO> shareRides = new HashMap<>();
+        shareRideService.findAllById(new ArrayList<>(rideIds)).forEach(shareRide -> shareRides.put(shareRide.getId(), shareRide));
+        List<ShareRideItineraryDTO> result = new ArrayList<>(itineraries.size());
+        for (Label itinerary : itineraries) {
+            ShareRideItineraryDTO itineraryDTO = toDto(itinerary, shareRides);
+            if (itineraryDTO != null) {
+                result.add(itineraryDTO);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Dijkstra search over the rides: the arrival of a ride only depends on the ride, and the rides boarded after it
+     * arrive later, so the first label taken from the queue for a ride has the fewest transfers, and the first one
+     * reaching the destination has the earliest arrival.
+     */
+    private Label findEarliestArrival(Long cityFromId, Long cityToId, long from, long until, Map<Long, Long> arrivals) {
+        NavigableMap<Departure, Edge> firstRides = departures.get(cityFromId);
+        if (firstRides == null) {
+            return null;
+        }
+        long minTransfer = properties.getMinTransfer().getSeconds();
+        long maxTransferWait = properties.getMaxTransferWait().getSeconds();
+        PriorityQueue<Label> queue = new PriorityQueue<>(BEST_FIRST);
+        for (Edge edge : firstRides.subMap(Departure.first(from), true, Departure.last(until), true).values()) {
+            queue.add(new Label(edge, arrival(edge, arrivals), 0, null));
+        }
+        Set<Long> settled = new HashSet<>();
+        Label label;
+        while ((label = queue.poll()) != null) {
+            if (!settled.add(label.edge.id)) {
+                continue;
+            }
+            if (label.edge.cityToId.equals(cityToId)) {
+                return label;
+            }
+            NavigableMap<Departure, Edge> nextRides = departures.get(label.edge.cityToId);
+            if (nextRides == null || label.transfers >= properties.getMaxTransfers()) {
+                continue;
+            }
+            Departure earliest = Departure.first(label.arrival + minTransfer);
+            Departure latest = Departure.last(label.arrival + maxTransferWait);
+            for (Edge edge : nextRides.subMap(earliest, true, latest, true).values()) {
+                if (!settled.contains(edge.id) && !edge.cityToId.equals(cityFromId)) {
+                    queue.add(new Label(edge, arrival(edge, arrivals), label.transfers + 1, label));
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean dominates(Label itinerary, Label previous) {
+        return itinerary.arrival <= previous.arrival && itinerary.transfers <= previous.transfers;
+    }
+
+    private long arrival(Edge edge, Map<Long, Long> arrivals) {
+        return arrivals.computeIfAbsent(
+            edge.id,
+            id -> {
+                OptionalDouble distanceKm = shareCityGeoIndex.distanceKm(edge.cityFromId, edge.cityToId);
+                long duration = distanceKm.isPresent()
+                    ? Math.round(distanceKm.getAsDouble() / properties.getAverageSpeedKmh() * Duration.ofHours(1).getSeconds())
+                    : properties.getDefaultRideDuration().getSeconds();
+                return edge.departure.epochSecond + Math.max(1, duration);
+            }
+        );
+    }
+
+    private static ShareRideItineraryDTO toDto(Label itinerary, Map<Long, ShareRideDTO> shareRides) {
+        List<ShareRideLegDTO> legs = new ArrayList<>(itinerary.transfers + 1);
+        for (Label label = itinerary; label != null; label = label.previous) {
+            ShareRideDTO shareRide = shareRides.get(label.edge.id);
+            if (shareRide == null) {
+                return null;
+            }
+            legs.add(new ShareRideLegDTO(shareRide, utc(label.arrival)));
+        }
+        Collections.reverse(legs);
+        ShareRideItineraryDTO itineraryDTO = new ShareRideItineraryDTO();
+        itineraryDTO.setDeparture(utc(itinerary.firstRide().departure.epochSecond));
+        itineraryDTO.setEstimatedArrival(utc(itinerary.arrival));
+        itineraryDTO.setTransfers(itinerary.transfers);
+        itineraryDTO.setLegs(legs);
+        return itineraryDTO;
+    }
+
+    private static ZonedDateTime utc(long epochSecond) {
+        return Instant.ofEpochSecond(epochSecond).atZone(ZoneOffset.UTC);
+    }
+
+    private void index(ShareRideDTO shareRide) {
+        if (
+            shareRide.getRideType() != RideType.OFFER ||
+            shareRide.getRideDateTime() == null ||
+            shareRide.getRideDateTime().toEpochSecond() < Instant.now().getEpochSecond() ||
+            shareRide.getRideCityFrom() == null ||
+            shareRide.getRideCityFrom().getId() == null ||
+            shareRide.getRideCityTo() == null ||
+            shareRide.getRideCityTo().getId() == null ||
+            shareRide.getRideCityFrom().getId().equals(shareRide.getRideCityTo().getId())
+        ) {
+            unindex(shareRide.getId());
+            return;
+        }
+        Edge edge = new Edge(shareRide);
+        indexedRides.compute(
+            edge.id,
+            (id, previous) -> {
+                if (previous != null) {
+                    removeFromDepartures(previous);
+                }
+                departures.computeIfAbsent(edge.cityFromId, cityFromId -> new ConcurrentSkipListMap<>()).put(edge.departure, edge);
+                return edge;
+            }
+        );
+    }
+
+    private void unindex(Long id) {
+        indexedRides.computeIfPresent(
+            id,
+            (k, previous) -> {
+                removeFromDepartures(previous);
+                return null;
+            }
+        );
+    }
+
+    private void removeFromDepartures(Edge edge) {
+        departures.computeIfPresent(
+            edge.cityFromId,
+            (k, edges) -> {
+                edges.remove(edge.departure);
+                return edges.isEmpty() ? null : edges;
+            }
+        );
+    }
+
+    private static final class Edge {
+
+        private final Long id;
+
+        private final Long cityFromId;
+
+        private final Long cityToId;
+
+        private final Departure departure;
+
+        private Edge(ShareRideDTO shareRide) {
+            this.id = shareRide.getId();
+            this.cityFromId = shareRide.getRideCityFrom().getId();
+            this.cityToId = shareRide.getRideCityTo().getId();
+            this.departure = new Departure(shareRide.getRideDateTime().toEpochSecond(), id);
+        }
+    }
+
+    /**
+     * Key of a ride in the departures of a city: the rides departing at the same second are told apart by their id.
+     */
+    private static final class Departure implements Comparable<Departure> {
+
+        private final long epochSecond;
+
+        private final long id;
+
+        private Departure(long epochSecond, long id) {
+            this.epochSecond = epochSecond;
+            this.id = id;
+        }
+
+        private static Departure first(long epochSecond) {
+            return new Departure(epochSecond, Long.MIN_VALUE);
+        }
+
+        private static Departure last(long epochSecond) {
+            return new Departure(epochSecond, Long.MAX_VALUE);
+        }
+
+        @Override
+        public int compareTo(Departure other) {
+            int byTime = Long.compare(epochSecond, other.epochSecond);
+            return byTime != 0 ? byTime : Long.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Departure)) {
+                return false;
+            }
+            Departure that = (Departure) o;
+            return epochSecond == that.epochSecond && id == that.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(epochSecond, id);
+        }
+    }
+
+    /**
+     * A ride reached by a search, with its estimated arrival, the number of transfers to board it and the label of the
+     * previous ride.
+     */
+    private static final class Label {
+
+        private final Edge edge;
+
+        private final long arrival;
+
+        private final int transfers;
+
+        private final Label previous;
+
+        private Label(Edge edge, long arrival, int transfers, Label previous) {
+            this.edge = edge;
+            this.arrival = arrival;
+            this.transfers = transfers;
+            this.previous = previous;
+        }
+
+        private Edge firstRide() {
+            Label label = this;
+            while (label.previous != null) {
+                label = label.previous;
+            }
+            return label.edge;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package org.pierre.shareazade.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.domain.ShareRide;
+import org.pierre.shareazade.domain.enumeration.RideType;
+import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.event.ShareChangesLostEvent;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
+import org.pierre.shareazade.service.mapper.ShareRideMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory matching engine pairing {@link RideType#OFFER} and {@link RideType#REQUEST} {@link ShareRide}s.
+ * <p>
+ * Upcoming shareRides are indexed by route ({@code rideCityFrom}, {@code rideCityTo}), by time bucket of their
+ * {@code rideDateTime} and by {@link RideType}. The index is loaded once the application is ready, then kept up to date
+ * from the {@link ShareRideChangedEvent}s published by {@link ShareRideService} once their transaction is committed,
+ * so that finding the matches of a shareRide never hits the database.
+ * <p>
+ * Only the ids, the times and the keys of the shareRides are indexed, as the DTO of an event is mapped from the entity
+ * sent by the client, whose city and user names are not the committed ones. The matches found are then taken from
+ * {@link ShareRideService#findAllById(List)}, which hits the database only for those missing from its cache.
+ */
+@Service
+public class ShareRideMatchingService {
+
+    private final Logger log = LoggerFactory.getLogger(ShareRideMatchingService.class);
+
+    private final ShareRideRepository shareRideRepository;
+
+    private final ShareRideMapper shareRideMapper;
+
+    private final ShareRideService shareRideService;
+
+    private final long bucketSeconds;
+
+    private final Duration defaultTolerance;
+
+    private final Duration maxTolerance;
+
+    private final Map<BucketKey, Map<Long, IndexedRide>> buckets = new ConcurrentHashMap<>();
+
+    private final Map<Long, IndexedRide> indexedRides = new ConcurrentHashMap<>();
+
+    public ShareRideMatchingService(
+        ShareRideRepository shareRideRepository,
+        ShareRideMapper shareRideMapper,
+        ShareRideService shareRideService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.shareRideRepository = shareRideRepository;
+        this.shareRideMapper = shareRideMapper;
+        this.shareRideService = shareRideService;
+        ApplicationProperties.Matching matching = applicationProperties.getMatching();
+        this.bucketSeconds = Math.max(1, matching.getBucket().getSeconds());
+        this.defaultTolerance = matching.getDefaultTolerance();
+        this.maxTolerance = matching.getMaxTolerance();
+    }
+
+    /**
+     * Load all the upcoming shareRides into the index, once the application is ready, and again when the changes of the
+     * other nodes may have been lost: the shareRides indexed before and not found anymore are then removed.
+     */
+    @EventListener({ ApplicationReadyEvent.class, ShareChangesLostEvent.class })
+    @Transactional(readOnly = true)
+    public void loadUpcomingShareRides() {
+        Set<Long> removed = new HashSet<>(indexedRides.keySet());
+        List<ShareRide> shareRides = shareRideRepository.findAllUpcomingWithToOneRelationships(ZonedDateTime.now(ZoneOffset.UTC));
+        shareRides.stream().map(shareRideMapper::toDto).forEach(this::index);
+        shareRides.forEach(shareRide -> removed.remove(shareRide.getId()));
+        removed.forEach(this::unindex);
+        log.info("Indexed {} upcoming ShareRides for matching", indexedRides.size());
+    }
+
+    /**
+     * Apply a committed change of a shareRide to the index.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener
+    public void onShareRideChanged(ShareRideChangedEvent event) {
+        log.debug("Request to apply to the matching index : {}", event);
+        if (event.isDeleted()) {
+            unindex(event.getId());
+        } else {
+            index(event.getShareRide());
+        }
+    }
+
+    /**
+     * Remove the shareRides which have already departed from the index.
+     */
+    @Scheduled(cron = "0 */5 * * * ?")
+    public void removeDepartedShareRides() {
+        long now = Instant.now().getEpochSecond();
+        indexedRides.values().stream().filter(ride -> ride.epochSecond < now).map(ride -> ride.id).forEach(this::unindex);
+    }
+
+    /**
+     * Get the upcoming shareRides of the opposite {@link RideType} on the same route as the given shareRide,
+     * departing within the tolerance of its {@code rideDateTime}, the closest ones first.
+     *
+     * @param id the id of the shareRide to match.
+     * @param tolerance the maximum distance between the two {@code rideDateTime}s, or {@code null} for the default one.
+     * @return the matching shareRides, or an empty {@link Optional} if the shareRide is not an indexed upcoming shareRide.
+     * @throws IllegalArgumentException if the tolerance is negative or greater than the configured maximum.
+     */
+    public Optional<List<ShareRideDTO>> findMatches(Long id, Duration tolerance) {
+        log.debug("Request to get matches of ShareRide : {}, tolerance: {}", id, tolerance);
+        Duration effectiveTolerance = tolerance != null ? tolerance : defaultTolerance;
+        if (effectiveTolerance.isNegative() || effectiveTolerance.compareTo(maxTolerance) > 0) {
+            throw new IllegalArgumentException("The tolerance must be between 0 and " + maxTolerance);
+        }
+        IndexedRide ride = indexedRides.get(id);
+        if (ride == null) {
+            return Optional.empty();
+        }
+        long toleranceSeconds = effectiveTolerance.getSeconds();
+        long now = Instant.now().getEpochSecond();
+        RideType wanted = ride.key.rideType == RideType.OFFER ? RideType.REQUEST : RideType.OFFER;
+        List<IndexedRide> candidates = new ArrayList<>();
+        long lastBucket = Math.floorDiv(ride.epochSecond + toleranceSeconds, bucketSeconds);
+        for (long bucket = Math.floorDiv(ride.epochSecond - toleranceSeconds, bucketSeconds); bucket <= lastBucket; bucket++) {
+            Map<Long, IndexedRide> rides = buckets.get(new BucketKey(ride.key.cityFromId, ride.key.cityToId, bucket, wanted));
+            if (rides != null) {
+                for (IndexedRide candidate : rides.values()) {
+                    if (candidate.epochSecond >= now && Math.abs(candidate.epochSecond - ride.epochSecond) <= toleranceSeconds) {
+                        candidates.add(candidate);
+                    }
+                }
+            }
+        }
+        candidates.sort(
+            Comparator
+                .<IndexedRide>comparingLong(candidate -> Math.abs(candidate.epochSecond - ride.epochSecond))
+                .thenComparing(candidate -> candidate.id)
+        );
+        List<Long> matchIds = new ArrayList<>(candidates.size());
+        candidates.forEach(candidate -> matchIds.add(candidate.id));
+        return Optional.of(matchIds.isEmpty() ? List.of() : shareRideService.findAllById(matchIds));
+    }
+
+    private void index(ShareRideDTO shareRide) {
+        BucketKey key = bucketKey(shareRide);
+        if (key == null || shareRide.getRideDateTime().toEpochSecond() < Instant.now().getEpochSecond()) {
+            unindex(shareRide.getId());
+            return;
+        }
+        IndexedRide ride = new IndexedRide(shareRide.getId(), shareRide.getRideDateTime().toEpochSecond(), key);
+        indexedRides.compute(
+            ride.id,
+            (id, previous) -> {
+                if (previous != null) {
+                    removeFromBucket(previous);
+                }
+                buckets.compute(
+                    key,
+                    (k, rides) -> {
+                        Map<Long, IndexedRide> bucket = rides != null ? rides : new ConcurrentHashMap<>();
+                        bucket.put(id, ride);
+                        return bucket;
+                    }
+                );
+                return ride;
+            }
+        );
+    }
+
+    private void unindex(Long id) {
+        indexedRides.computeIfPresent(
+            id,
+            (k, previous) -> {
+                removeFromBucket(previous);
+                return null;
+            }
+        );
+    }
+
+    private void removeFromBucket(IndexedRide ride) {
+        buckets.computeIfPresent(
+            ride.key,
+            (k, rides) -> {
+                rides.remove(ride.id);
+                return rides.isEmpty() ? null : rides;
+            }
+        );
+    }
+
+    private BucketKey bucketKey(ShareRideDTO shareRide) {
+        if (
+            shareRide.getRideDateTime() == null ||
+            shareRide.getRideType() == null ||
+            shareRide.getRideCityFrom() == null ||
+            shareRide.getRideCityFrom().getId() == null ||
+            shareRide.getRideCityTo() == null ||
+            shareRide.getRideCityTo().getId() == null
+        ) {
+            return null;
+        }
+        return new BucketKey(
+            shareRide.getRideCityFrom().getId(),
+            shareRide.getRideCityTo().getId(),
+            Math.floorDiv(shareRide.getRideDateTime().toEpochSecond(), bucketSeconds),
+            shareRide.getRideType()
+        );
+    }
+
+    private static final class IndexedRide {
+
+        private final Long id;
+
+        private final long epochSecond;
+
+        private final BucketKey key;
+
+        private IndexedRide(Long id, long epochSecond, BucketKey key) {
+            this.id = id;
+            this.epochSecond = epochSecond;
+            this.key = key;
+        }
+    }
+
+    private static final class BucketKey {
+
+        private final Long cityFromId;
+
+        private final Long cityToId;
+
+        private final long bucket;
+
+        private final RideType rideType;
+
+        private BucketKey(Long cityFromId, Long cityToId, long bucket, RideType rideType) {
+            this.cityFromId = cityFromId;
+            this.cityToId = cityToId;
+            this.bucket = bucket;
+            this.rideType = rideType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BucketKey)) {
+                return false;
+            }
+            BucketKey that = (BucketKey) o;
+            return bucket == that.bucket && cityFromId.equals(that.cityFromId) && cityToId.equals(that.cityToId) && rideType == that.rideType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(cityFromId, cityToId, bucket, rideType);
+        }
+    }
+}
@@ -1,20 +1,61 @@
 package org.pierre.shareazade.service;
 
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
 import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.graph.GraphSemantic;
+import org.hibernate.graph.RootGraph;
+import org.hibernate.jpa.QueryHints;
+import org.pierre.shareazade.config.ApplicationProperties;
 import org.pierre.shareazade.domain.*; // for static metamodels
 import org.pierre.shareazade.domain.ShareRide;
+import org.pierre.shareazade.domain.enumeration.RideType;
 import org.pierre.shareazade.repository.ShareRideRepository;
 import org.pierre.shareazade.service.criteria.ShareRideCriteria;
+import org.pierre.shareazade.service.criteria.ShareRideCursor;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
 import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.dto.ShareUserDTO;
 import org.pierre.shareazade.service.mapper.ShareRideMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
 import tech.jhipster.service.QueryService;
 
 /**
@@ -22,6 +63,24 @@ import tech.jhipster.service.QueryService;
  * The main input is a {@link ShareRideCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
  * It returns a {@link List} of {@link ShareRideDTO} or a {@link Page} of {@link ShareRideDTO} which fulfills the criteria.
+ * <p>
+ * The {@link ShareRideDTO}s are built from a single tuple query selecting only the mapped columns, with the user joined
+ * upfront and the cities taken from the {@link ShareCitySnapshot} by their id, so that no {@link ShareRide} entity is
+ * hydrated, nor put in the persistence context or the second-level cache, while listing.
+ * <p>
+ * The to-one associations of a {@link ShareRide} are lazy, and each use case which needs the entities chooses the named
+ * entity graph loading what it maps: {@link ShareRide#DETAIL_GRAPH} for {@link #findOne(Long)}, and
+ * {@link ShareRide#LIST_GRAPH} for the pages served from the {@link ShareRideCriteriaCache}. The exports and the counts
+ * need no graph, as they hydrate no entity. Each of them therefore issues a fixed number of statements, whatever the
+ * number of shareRides.
+ * <p>
+ * The {@code comments.matches} filter is a predicate of the {@link ShareRideCommentsIndex}, applied and counted together
+ * with the other filters. Unless the page is explicitly sorted, the matching shareRides are then returned by relevance,
+ * as ranked by the index. The {@code rideCityFromNear} filter is resolved by the {@link ShareCityGeoIndex} into the ids
+ * of the departure cities.
+ * <p>
+ * The ids and counts of the lists and pages are kept in the {@link ShareRideCriteriaCache}, which is evicted when the
+ * shareRides are written.
  */
 @Service
 @Transactional(readOnly = true)
@@ -31,11 +90,42 @@ public class ShareRideQueryService extends QueryService<ShareRide> {
 
     private final ShareRideRepository shareRideRepository;
 
+    private final EntityManager entityManager;
+
+    private final ShareRideCommentsIndex shareRideCommentsIndex;
+
+    private final ShareRideCriteriaCache shareRideCriteriaCache;
+
     private final ShareRideMapper shareRideMapper;
 
-    public ShareRideQueryService(ShareRideRepository shareRideRepository, ShareRideMapper shareRideMapper) {
+    private final int exportFetchSize;
+
+    private final CountEstimator countEstimator;
+
+    private final ShareCityGeoIndex shareCityGeoIndex;
+
+    private final ShareCitySnapshot shareCitySnapshot;
+
+    public ShareRideQueryService(
+        ShareRideRepository shareRideRepository,
+        EntityManager entityManager,
+        ShareRideCommentsIndex shareRideCommentsIndex,
+        ApplicationProperties applicationProperties,
+        ShareRideCriteriaCache shareRideCriteriaCache,
+        ShareRideMapper shareRideMapper,
+        CountEstimator countEstimator,
+        ShareCityGeoIndex shareCityGeoIndex,
+        ShareCitySnapshot shareCitySnapshot
+    ) {
         this.shareRideRepository = shareRideRepository;
+        this.entityManager = entityManager;
+        this.shareRideCommentsIndex = shareRideCommentsIndex;
+        this.shareRideCriteriaCache = shareRideCriteriaCache;
         this.shareRideMapper = shareRideMapper;
+        this.exportFetchSize = applicationProperties.getExport().getFetchSize();
+        this.countEstimator = countEstimator;
+        this.shareCityGeoIndex = shareCityGeoIndex;
+        this.shareCitySnapshot = shareCitySnapshot;
     }
 
     /**
@@ -46,8 +136,7 @@ public class ShareRideQueryService extends QueryService<ShareRide> {
     @Transactional(readOnly = true)
     public List<ShareRideDTO> findByCriteria(ShareRideCriteria criteria) {
         log.debug("find by criteria : {}", criteria);
-        final Specification<ShareRide> specification = createSpecification(criteria);
-        return shareRideMapper.toDto(shareRideRepository.findAll(specification));
+        return findByCriteria(criteria, Pageable.unpaged()).getContent();
     }
 
     /**
@@ -59,8 +148,167 @@ public class ShareRideQueryService extends QueryService<ShareRide> {
     @Transactional(readOnly = true)
     public Page<ShareRideDTO> findByCriteria(ShareRideCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
+        if (!isCacheable()) {
+            return queryByCriteria(criteria, page);
+        }
+        ShareRideCriteriaCache.Key key = shareRideCriteriaCache.key(criteria, page);
+        ShareRideCriteriaCache.Result cached = shareRideCriteriaCache.get(key);
+        if (cached != null) {
+            List<ShareRideDTO> content = findAllById(cached.getIds());
+            if (content != null) {
+                return new PageImpl<>(content, page, cached.getTotal());
+            }
+            shareRideCriteriaCache.evict(key);
+        }
+        long generation = shareRideCriteriaCache.generation();
+        Page<ShareRideDTO> result = queryByCriteria(criteria, page);
+        List<Long> ids = result.getContent().stream().map(ShareRideDTO::getId).collect(Collectors.toList());
+        shareRideCriteriaCache.put(key, new ShareRideCriteriaCache.Result(ids, result.getTotalElements()), generation);
+        return result;
+    }
+
+    private Page<ShareRideDTO> queryByCriteria(ShareRideCriteria criteria, Pageable page) {
+        final Specification<ShareRide> specification = createSpecification(criteria);
+        if (page.isUnpaged()) {
+            return new PageImpl<>(findContent(criteria, specification, page.getSort(), 0, -1));
+        }
+        List<ShareRideDTO> content = findContent(criteria, specification, page.getSort(), page.getOffset(), page.getPageSize());
+        return PageableExecutionUtils.getPage(content, page, () -> shareRideRepository.count(specification));
+    }
+
+    /**
+     * Return a {@link Page} of {@link ShareRideDTO} which matches the criteria from the database, with an estimated total.
+     * The total is a recent count of the same criteria, given by the {@link CountEstimator}.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<ShareRideDTO> findByCriteriaEstimated(ShareRideCriteria criteria, Pageable page) {
+        log.debug("find by criteria : {}, page: {}, estimated count", criteria, page);
+        final Specification<ShareRide> specification = createSpecification(criteria);
+        List<ShareRideDTO> content = findSliceProjected(criteria, specification, page).getContent();
+        ShareRideCriteriaCache.Key key = shareRideCriteriaCache.key(criteria, null);
+        return PageableExecutionUtils.getPage(
+            content,
+            page,
+            () -> countEstimator.estimate(ShareRide.class, key, () -> shareRideRepository.count(specification))
+        );
+    }
+
+    /**
+     * Return a {@link Slice} of {@link ShareRideDTO} which matches the criteria from the database, without counting them.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ShareRideDTO> findSliceByCriteria(ShareRideCriteria criteria, Pageable page) {
+        log.debug("find by criteria : {}, page: {}, no count", criteria, page);
+        return findSliceProjected(criteria, createSpecification(criteria), page);
+    }
+
+    private Slice<ShareRideDTO> findSliceProjected(ShareRideCriteria criteria, Specification<ShareRide> specification, Pageable page) {
+        if (page.isUnpaged()) {
+            return new SliceImpl<>(findContent(criteria, specification, page.getSort(), 0, -1));
+        }
+        return SliceQueries.toSlice(
+            findContent(criteria, specification, page.getSort(), page.getOffset(), page.getPageSize() + 1),
+            page
+        );
+    }
+
+    /**
+     * Select the {@link ShareRideDTO}s of a page: in the requested order if the page is sorted or no comments are
+     * searched, by relevance otherwise.
+     */
+    private List<ShareRideDTO> findContent(
+        ShareRideCriteria criteria,
+        Specification<ShareRide> specification,
+        Sort sort,
+        long offset,
+        int limit
+    ) {
+        String commentsMatches = commentsMatches(criteria);
+        if (commentsMatches == null || sort.isSorted()) {
+            return findAllProjected(specification, sort, offset, limit);
+        }
+        List<Long> ids = shareRideCommentsIndex.rank(commentsMatches, specification, offset, limit);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<ShareRideDTO> content = findAllProjected((root, query, cb) -> root.get(ShareRide_.id).in(ids), Sort.unsorted(), 0, -1);
+        return sortByRelevance(content, ids);
+    }
+
+    /**
+     * Return a {@link Slice} of {@link ShareRideDTO} which matches the criteria from the database, using keyset pagination.
+     * The entities are ordered by {@code (rideDateTime, id)} and only those located after the given cursor are returned,
+     * so that the cost of a page does not depend on its depth. No count query is issued: one extra row is fetched to
+     * know whether a next slice exists. Entities without a {@code rideDateTime} are not part of the keyset ordering, and
+     * the {@code comments.matches} filter only restricts the entities, without ranking them.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after The position after which entities are returned, or {@code null} for the first slice.
+     * @param size The maximum number of entities to return.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ShareRideDTO> findByCriteriaAfter(ShareRideCriteria criteria, ShareRideCursor after, int size) {
+        log.debug("find by criteria : {}, after: {}, size: {}", criteria, after, size);
+        final Specification<ShareRide> specification = createSpecification(criteria).and(seekAfter(after));
+        Sort keyset = Sort.by(ShareRide_.RIDE_DATE_TIME, ShareRide_.ID);
+        List<ShareRideDTO> content = findAllProjected(specification, keyset, 0, size + 1);
+        boolean hasNext = content.size() > size;
+        return new SliceImpl<>(hasNext ? content.subList(0, size) : content, PageRequest.of(0, size, keyset), hasNext);
+    }
+
+    /**
+     * Pass every {@link ShareRideDTO} which matches the criteria to a consumer, in the order of their ids.
+     * The rows are read through a forward-only cursor fetching {@code application.export.fetch-size} rows at a time, and
+     * no entity is hydrated, so that the memory used does not depend on the number of matching entities. The
+     * {@code comments.matches} filter only restricts the entities, without ranking them.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param consumer The consumer of the matching entities, called while the transaction is open.
+     */
+    @Transactional(readOnly = true)
+    public void exportByCriteria(ShareRideCriteria criteria, Consumer<ShareRideDTO> consumer) {
+        log.debug("export by criteria : {}", criteria);
         final Specification<ShareRide> specification = createSpecification(criteria);
-        return shareRideRepository.findAll(specification, page).map(shareRideMapper::toDto);
+        TypedQuery<Tuple> query = createProjectedQuery(specification, Sort.by(ShareRide_.ID))
+            .setHint(QueryHints.HINT_FETCH_SIZE, exportFetchSize)
+            .setHint(QueryHints.HINT_READONLY, true);
+        try (Stream<Tuple> tuples = query.getResultStream()) {
+            tuples.map(this::toDto).forEach(consumer);
+        }
+    }
+
+    /**
+     * Return a {@link ShareRideDTO} by id, loaded with its cities and user in a single query.
+     * @param id The id of the entity.
+     * @return the entity, if it exists.
+     */
+    @Transactional(readOnly = true)
+    public Optional<ShareRideDTO> findOne(Long id) {
+        log.debug("find one : {}", id);
+        return entityManager
+            .createQuery("select shareRide from ShareRide shareRide where shareRide.id = :id", ShareRide.class)
+            .setParameter("id", id)
+            .setHint(GraphSemantic.FETCH.getJpaHintName(), graph(ShareRide.DETAIL_GRAPH))
+            .getResultStream()
+            .findFirst()
+            .map(shareRideMapper::toDto);
+    }
+
+    /**
+     * Return the {@link ShareRideDTO}s of the given ids through a tuple query, the cities being taken from the
+     * {@link ShareCitySnapshot}.
+     * @param ids The ids of the entities.
+     * @return the entities which exist, in no particular order.
+     */
+    @Transactional(readOnly = true)
+    public List<ShareRideDTO> findAllById(Collection<Long> ids) {
+        log.debug("find all by id : {}", ids);
+        return findAllProjected((root, query, cb) -> root.get(ShareRide_.id).in(ids), Sort.unsorted(), 0, -1);
     }
 
     /**
@@ -71,8 +319,77 @@ public class ShareRideQueryService extends QueryService<ShareRide> {
     @Transactional(readOnly = true)
     public long countByCriteria(ShareRideCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<ShareRide> specification = createSpecification(criteria);
-        return shareRideRepository.count(specification);
+        if (!isCacheable()) {
+            return shareRideRepository.count(createSpecification(criteria));
+        }
+        ShareRideCriteriaCache.Key key = shareRideCriteriaCache.key(criteria, null);
+        ShareRideCriteriaCache.Result cached = shareRideCriteriaCache.get(key);
+        if (cached != null) {
+            return cached.getTotal();
+        }
+        long generation = shareRideCriteriaCache.generation();
+        long count = shareRideRepository.count(createSpecification(criteria));
+        shareRideCriteriaCache.put(key, new ShareRideCriteriaCache.Result(null, count), generation);
+        return count;
+    }
+
+    /**
+     * The results are only cached out of read-write transactions, which could see their own uncommitted changes.
+     */
+    private static boolean isCacheable() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Load cached ids from the second-level cache of the entities, the missing ones in a single query with their user, as
+     * given by the {@link ShareRide#LIST_GRAPH}. The users of the cached entities which are not cached either are then
+     * loaded in a single query, rather than one by one when mapped.
+     * @return the entities in the order of the ids, or {@code null} if one of them does not exist anymore.
+     */
+    private List<ShareRideDTO> findAllById(List<Long> ids) {
+        Cache secondLevelCache = entityManager.getEntityManagerFactory().getCache();
+        Session session = entityManager.unwrap(Session.class);
+        Map<Long, ShareRide> shareRides = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (secondLevelCache.contains(ShareRide.class, id)) {
+                shareRides.put(id, entityManager.find(ShareRide.class, id));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<ShareRide> loaded = session
+                .byMultipleIds(ShareRide.class)
+                .with(graph(ShareRide.LIST_GRAPH), GraphSemantic.FETCH)
+                .withBatchSize(missing.size())
+                .multiLoad(missing);
+            for (ShareRide shareRide : loaded) {
+                if (shareRide != null) {
+                    shareRides.put(shareRide.getId(), shareRide);
+                }
+            }
+        }
+        Set<Long> missingRideUsers = new HashSet<>();
+        for (ShareRide shareRide : shareRides.values()) {
+            ShareUser rideUser = shareRide != null ? shareRide.getRideUser() : null;
+            if (rideUser != null && !Hibernate.isInitialized(rideUser) && !secondLevelCache.contains(ShareUser.class, rideUser.getId())) {
+                missingRideUsers.add(rideUser.getId());
+            }
+        }
+        if (!missingRideUsers.isEmpty()) {
+            // Loaded into the persistence context, from which the proxies are then initialized
+            session.byMultipleIds(ShareUser.class).withBatchSize(missingRideUsers.size()).multiLoad(new ArrayList<>(missingRideUsers));
+        }
+        List<ShareRideDTO> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ShareRide shareRide = shareRides.get(id);
+            if (shareRide == null) {
+                return null;
+            }
+            content.add(shareRideMapper.toDto(shareRide));
+        }
+        return content;
     }
 
     /**
@@ -96,21 +413,36 @@ public class ShareRideQueryService extends QueryService<ShareRide> {
             if (criteria.getRideType() != null) {
                 specification = specification.and(buildSpecification(criteria.getRideType(), ShareRide_.rideType));
             }
+            final String commentsMatches = commentsMatches(criteria);
+            if (commentsMatches != null) {
+                specification = specification.and(shareRideCommentsIndex.matching(commentsMatches));
+            }
             if (criteria.getRideCityFromId() != null) {
                 specification =
                     specification.and(
                         buildSpecification(
                             criteria.getRideCityFromId(),
-                            root -> root.join(ShareRide_.rideCityFrom, JoinType.LEFT).get(ShareCity_.id)
+                            root -> root.get(ShareRide_.rideCityFrom).get(ShareCity_.id)
                         )
                     );
             }
+            if (criteria.getRideCityFromNear() != null) {
+                // Resolved by the in-memory index, so that it is served like an exact rideCityFromId filter
+                final List<Long> rideCityFromIds = shareCityGeoIndex.findWithin(criteria.getRideCityFromNear());
+                specification =
+                    specification.and(
+                        (root, query, builder) ->
+                            rideCityFromIds.isEmpty()
+                                ? builder.disjunction()
+                                : root.get(ShareRide_.rideCityFrom).get(ShareCity_.id).in(rideCityFromIds)
+                    );
+            }
             if (criteria.getRideCityToId() != null) {
                 specification =
                     specification.and(
                         buildSpecification(
                             criteria.getRideCityToId(),
-                            root -> root.join(ShareRide_.rideCityTo, JoinType.LEFT).get(ShareCity_.id)
+                            root -> root.get(ShareRide_.rideCityTo).get(ShareCity_.id)
                         )
                     );
             }
@@ -119,11 +451,132 @@ public class ShareRideQueryService extends QueryService<ShareRide> {
                     specification.and(
                         buildSpecification(
                             criteria.getRideUserId(),
-                            root -> root.join(ShareRide_.rideUser, JoinType.LEFT).get(ShareUser_.id)
+                            root -> root.get(ShareRide_.rideUser).get(ShareUser_.id)
                         )
                     );
             }
         }
         return specification;
     }
+
+    /**
+     * The text of the {@code comments.matches} filter.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the words to search, or {@code null} if the criteria does not search the comments.
+     */
+    private static String commentsMatches(ShareRideCriteria criteria) {
+        if (criteria == null || criteria.getComments() == null || !StringUtils.hasText(criteria.getComments().getMatches())) {
+            return null;
+        }
+        return criteria.getComments().getMatches();
+    }
+
+    private static List<ShareRideDTO> sortByRelevance(List<ShareRideDTO> content, List<Long> rankedIds) {
+        Map<Long, Integer> ranks = new HashMap<>();
+        for (int rank = 0; rank < rankedIds.size(); rank++) {
+            ranks.put(rankedIds.get(rank), rank);
+        }
+        content.sort(Comparator.comparing(shareRideDTO -> ranks.get(shareRideDTO.getId())));
+        return content;
+    }
+
+    /**
+     * Select the {@link ShareRideDTO}s matching a {@link Specification} through a tuple query.
+     * @param specification The {@link Specification} the entities should match.
+     * @param sort The order of the results.
+     * @param offset The index of the first result.
+     * @param limit The maximum number of results, or a negative value for no limit.
+     * @return the matching entities.
+     */
+    private List<ShareRideDTO> findAllProjected(Specification<ShareRide> specification, Sort sort, long offset, int limit) {
+        TypedQuery<Tuple> typedQuery = createProjectedQuery(specification, sort).setFirstResult(Math.toIntExact(offset));
+        if (limit >= 0) {
+            typedQuery.setMaxResults(limit);
+        }
+        return typedQuery.getResultStream().map(this::toDto).collect(Collectors.toList());
+    }
+
+    /**
+     * Build the tuple query selecting the columns of the {@link ShareRideDTO}s, read by {@link #toDto(Tuple)}.
+     * @param specification The {@link Specification} the entities should match.
+     * @param sort The order of the results.
+     * @return the query.
+     */
+    private TypedQuery<Tuple> createProjectedQuery(Specification<ShareRide> specification, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<ShareRide> root = query.from(ShareRide.class);
+        Join<ShareRide, ShareUser> rideUser = root.join(ShareRide_.rideUser, JoinType.LEFT);
+        query.multiselect(
+            root.get(ShareRide_.id),
+            root.get(ShareRide_.rideDateTime),
+            root.get(ShareRide_.rideType),
+            root.get(ShareRide_.rideComments),
+            root.get(ShareRide_.rideCityFrom).get(ShareCity_.id),
+            root.get(ShareRide_.rideCityTo).get(ShareCity_.id),
+            rideUser.get(ShareUser_.id),
+            rideUser.get(ShareUser_.userName)
+        );
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(query);
+    }
+
+    private ShareRideDTO toDto(Tuple tuple) {
+        ShareRideDTO shareRideDTO = new ShareRideDTO();
+        shareRideDTO.setId(tuple.get(0, Long.class));
+        shareRideDTO.setRideDateTime(tuple.get(1, ZonedDateTime.class));
+        shareRideDTO.setRideType(tuple.get(2, RideType.class));
+        shareRideDTO.setRideComments(tuple.get(3, String.class));
+        shareRideDTO.setRideCityFrom(toShareCityDto(tuple.get(4, Long.class)));
+        shareRideDTO.setRideCityTo(toShareCityDto(tuple.get(5, Long.class)));
+        Long rideUserId = tuple.get(6, Long.class);
+        if (rideUserId != null) {
+            ShareUserDTO rideUser = new ShareUserDTO();
+            rideUser.setId(rideUserId);
+            rideUser.setUserName(tuple.get(7, String.class));
+            shareRideDTO.setRideUser(rideUser);
+        }
+        return shareRideDTO;
+    }
+
+    /**
+     * Take the city from the {@link ShareCitySnapshot}, or from the persistence context or the second-level cache if the
+     * snapshot cannot be consulted.
+     */
+    private ShareCityDTO toShareCityDto(Long id) {
+        if (id == null) {
+            return null;
+        }
+        ShareCityDTO reference = shareCitySnapshot.getReference(id);
+        return reference != null ? reference : shareRideMapper.toDtoShareCityCityName(entityManager.find(ShareCity.class, id));
+    }
+
+    @SuppressWarnings("unchecked")
+    private RootGraph<ShareRide> graph(String name) {
+        return (RootGraph<ShareRide>) entityManager.getEntityGraph(name);
+    }
+
+    /**
+     * Seek predicate on the {@code (rideDateTime, id)} keyset.
+     * @param after The position after which entities should be returned, or {@code null} to start from the beginning.
+     * @return the matching {@link Specification} of the entity.
+     */
+    private Specification<ShareRide> seekAfter(ShareRideCursor after) {
+        return (root, query, cb) -> {
+            Path<ZonedDateTime> rideDateTime = root.get(ShareRide_.rideDateTime);
+            if (after == null) {
+                return cb.isNotNull(rideDateTime);
+            }
+            return cb.or(
+                cb.greaterThan(rideDateTime, after.getRideDateTime()),
+                cb.and(cb.equal(rideDateTime, after.getRideDateTime()), cb.greaterThan(root.get(ShareRide_.id), after.getId()))
+            );
+        };
+    }
 }
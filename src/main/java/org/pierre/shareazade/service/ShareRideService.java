@@ -1,15 +1,24 @@
 package org.pierre.shareazade.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.pierre.shareazade.domain.ShareRide;
 import org.pierre.shareazade.repository.ShareRideRepository;
 import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
 import org.pierre.shareazade.service.mapper.ShareRideMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -25,9 +34,24 @@ public class ShareRideService {
 
     private final ShareRideMapper shareRideMapper;
 
-    public ShareRideService(ShareRideRepository shareRideRepository, ShareRideMapper shareRideMapper) {
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final ShareRideDTOCache shareRideDTOCache;
+
+    private final ShareRideQueryService shareRideQueryService;
+
+    public ShareRideService(
+        ShareRideRepository shareRideRepository,
+        ShareRideMapper shareRideMapper,
+        ApplicationEventPublisher applicationEventPublisher,
+        ShareRideDTOCache shareRideDTOCache,
+        ShareRideQueryService shareRideQueryService
+    ) {
         this.shareRideRepository = shareRideRepository;
         this.shareRideMapper = shareRideMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.shareRideDTOCache = shareRideDTOCache;
+        this.shareRideQueryService = shareRideQueryService;
     }
 
     /**
@@ -40,7 +64,22 @@ public class ShareRideService {
         log.debug("Request to save ShareRide : {}", shareRideDTO);
         ShareRide shareRide = shareRideMapper.toEntity(shareRideDTO);
         shareRide = shareRideRepository.save(shareRide);
-        return shareRideMapper.toDto(shareRide);
+        return publishSaved(null, shareRideMapper.toDto(shareRide));
+    }
+
+    /**
+     * Save new shareRides in a single transaction, flushed in JDBC batches.
+     *
+     * @param shareRideDTOs the entities to save.
+     * @return the persisted entities, in the same order.
+     */
+    public List<ShareRideDTO> saveAll(List<ShareRideDTO> shareRideDTOs) {
+        log.debug("Request to save {} ShareRides", shareRideDTOs.size());
+        List<ShareRide> shareRides = shareRideRepository.saveAll(shareRideMapper.toEntity(shareRideDTOs));
+        shareRideRepository.flush();
+        List<ShareRideDTO> saved = shareRideMapper.toDto(shareRides);
+        saved.forEach(shareRideDTO -> publishSaved(null, shareRideDTO));
+        return saved;
     }
 
     /**
@@ -51,9 +90,10 @@ public class ShareRideService {
      */
     public ShareRideDTO update(ShareRideDTO shareRideDTO) {
         log.debug("Request to update ShareRide : {}", shareRideDTO);
+        ShareRideDTO previous = shareRideRepository.findById(shareRideDTO.getId()).map(shareRideMapper::toDto).orElse(null);
         ShareRide shareRide = shareRideMapper.toEntity(shareRideDTO);
         shareRide = shareRideRepository.save(shareRide);
-        return shareRideMapper.toDto(shareRide);
+        return publishSaved(previous, shareRideMapper.toDto(shareRide));
     }
 
     /**
@@ -68,12 +108,11 @@ public class ShareRideService {
         return shareRideRepository
             .findById(shareRideDTO.getId())
             .map(existingShareRide -> {
+                ShareRideDTO previous = shareRideMapper.toDto(existingShareRide);
                 shareRideMapper.partialUpdate(existingShareRide, shareRideDTO);
 
-                return existingShareRide;
-            })
-            .map(shareRideRepository::save)
-            .map(shareRideMapper::toDto);
+                return publishSaved(previous, shareRideMapper.toDto(shareRideRepository.save(existingShareRide)));
+            });
     }
 
     /**
@@ -98,15 +137,55 @@ public class ShareRideService {
     }
 
     /**
-     * Get one shareRide by id.
+     * Get one shareRide by id, from the {@link ShareRideDTOCache} if it holds it.
+     * <p>
+     * No transaction is started, so that a hit opens no Hibernate session: on a miss, the {@link ShareRideQueryService}
+     * loads the shareRide with its cities and user in a transaction of its own.
      *
      * @param id the id of the entity.
      * @return the entity.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<ShareRideDTO> findOne(Long id) {
         log.debug("Request to get ShareRide : {}", id);
-        return shareRideRepository.findOneWithEagerRelationships(id).map(shareRideMapper::toDto);
+        ShareRideDTO cached = shareRideDTOCache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = shareRideDTOCache.generation();
+        Optional<ShareRideDTO> shareRide = shareRideQueryService.findOne(id);
+        shareRide.ifPresent(shareRideDTO -> shareRideDTOCache.put(shareRideDTO, generation));
+        return shareRide;
+    }
+
+    /**
+     * Get the shareRides of the given ids, from the {@link ShareRideDTOCache} for those it holds, the others being loaded
+     * by the {@link ShareRideQueryService} in a single query.
+     *
+     * @param ids the ids of the entities.
+     * @return the entities which exist, in the order of the ids.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<ShareRideDTO> findAllById(List<Long> ids) {
+        log.debug("Request to get ShareRides : {}", ids);
+        Map<Long, ShareRideDTO> shareRides = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            ShareRideDTO cached = shareRideDTOCache.get(id);
+            if (cached != null) {
+                shareRides.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long generation = shareRideDTOCache.generation();
+            for (ShareRideDTO shareRide : shareRideQueryService.findAllById(missing)) {
+                shareRideDTOCache.put(shareRide, generation);
+                shareRides.put(shareRide.getId(), shareRide);
+            }
+        }
+        return ids.stream().map(shareRides::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     /**
@@ -116,6 +195,13 @@ public class ShareRideService {
      */
     public void delete(Long id) {
         log.debug("Request to delete ShareRide : {}", id);
+        ShareRideDTO previous = shareRideRepository.findById(id).map(shareRideMapper::toDto).orElse(null);
         shareRideRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(ShareRideChangedEvent.deleted(id, previous));
+    }
+
+    private ShareRideDTO publishSaved(ShareRideDTO previous, ShareRideDTO shareRideDTO) {
+        applicationEventPublisher.publishEvent(ShareRideChangedEvent.saved(previous, shareRideDTO));
+        return shareRideDTO;
     }
 }
@@ -1,6 +1,7 @@
 package org.pierre.shareazade.service;
 
 import java.util.List;
+import javax.persistence.EntityManager;
 import javax.persistence.criteria.JoinType;
 import org.pierre.shareazade.domain.*; // for static metamodels
 import org.pierre.shareazade.domain.ShareUser;
@@ -12,7 +13,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import tech.jhipster.service.QueryService;
@@ -33,9 +36,20 @@ public class ShareUserQueryService extends QueryService<ShareUser> {
 
     private final ShareUserMapper shareUserMapper;
 
-    public ShareUserQueryService(ShareUserRepository shareUserRepository, ShareUserMapper shareUserMapper) {
+    private final EntityManager entityManager;
+
+    private final CountEstimator countEstimator;
+
+    public ShareUserQueryService(
+        ShareUserRepository shareUserRepository,
+        ShareUserMapper shareUserMapper,
+        EntityManager entityManager,
+        CountEstimator countEstimator
+    ) {
         this.shareUserRepository = shareUserRepository;
         this.shareUserMapper = shareUserMapper;
+        this.entityManager = entityManager;
+        this.countEstimator = countEstimator;
     }
 
     /**
@@ -63,6 +77,42 @@ public class ShareUserQueryService extends QueryService<ShareUser> {
         return shareUserRepository.findAll(specification, page).map(shareUserMapper::toDto);
     }
 
+    /**
+     * Return a {@link Page} of {@link ShareUserDTO} which matches the criteria from the database, with an estimated total.
+     * The total is a recent count of the same criteria, given by the {@link CountEstimator}.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<ShareUserDTO> findByCriteriaEstimated(ShareUserCriteria criteria, Pageable page) {
+        log.debug("find by criteria : {}, page: {}, estimated count", criteria, page);
+        final Specification<ShareUser> specification = createSpecification(criteria);
+        List<ShareUserDTO> content = findSliceByCriteria(specification, page).getContent();
+        ShareUserCriteria key = criteria != null ? criteria : new ShareUserCriteria();
+        return PageableExecutionUtils.getPage(
+            content,
+            page,
+            () -> countEstimator.estimate(ShareUser.class, key, () -> shareUserRepository.count(specification))
+        );
+    }
+
+    /**
+     * Return a {@link Slice} of {@link ShareUserDTO} which matches the criteria from the database, without counting them.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ShareUserDTO> findSliceByCriteria(ShareUserCriteria criteria, Pageable page) {
+        log.debug("find by criteria : {}, page: {}, no count", criteria, page);
+        return findSliceByCriteria(createSpecification(criteria), page);
+    }
+
+    private Slice<ShareUserDTO> findSliceByCriteria(Specification<ShareUser> specification, Pageable page) {
+        return SliceQueries.findSlice(entityManager, ShareUser.class, specification, page).map(shareUserMapper::toDto);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -4,9 +4,11 @@ import java.util.Optional;
 import org.pierre.shareazade.domain.ShareUser;
 import org.pierre.shareazade.repository.ShareUserRepository;
 import org.pierre.shareazade.service.dto.ShareUserDTO;
+import org.pierre.shareazade.service.event.ShareUserChangedEvent;
 import org.pierre.shareazade.service.mapper.ShareUserMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -25,9 +27,16 @@ public class ShareUserService {
 
     private final ShareUserMapper shareUserMapper;
 
-    public ShareUserService(ShareUserRepository shareUserRepository, ShareUserMapper shareUserMapper) {
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public ShareUserService(
+        ShareUserRepository shareUserRepository,
+        ShareUserMapper shareUserMapper,
+        ApplicationEventPublisher applicationEventPublisher
+    ) {
         this.shareUserRepository = shareUserRepository;
         this.shareUserMapper = shareUserMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     /**
@@ -40,7 +49,7 @@ public class ShareUserService {
         log.debug("Request to save ShareUser : {}", shareUserDTO);
         ShareUser shareUser = shareUserMapper.toEntity(shareUserDTO);
         shareUser = shareUserRepository.save(shareUser);
-        return shareUserMapper.toDto(shareUser);
+        return publishSaved(shareUserMapper.toDto(shareUser));
     }
 
     /**
@@ -53,7 +62,7 @@ public class ShareUserService {
         log.debug("Request to update ShareUser : {}", shareUserDTO);
         ShareUser shareUser = shareUserMapper.toEntity(shareUserDTO);
         shareUser = shareUserRepository.save(shareUser);
-        return shareUserMapper.toDto(shareUser);
+        return publishSaved(shareUserMapper.toDto(shareUser));
     }
 
     /**
@@ -73,7 +82,8 @@ public class ShareUserService {
                 return existingShareUser;
             })
             .map(shareUserRepository::save)
-            .map(shareUserMapper::toDto);
+            .map(shareUserMapper::toDto)
+            .map(this::publishSaved);
     }
 
     /**
@@ -108,5 +118,11 @@ public class ShareUserService {
     public void delete(Long id) {
         log.debug("Request to delete ShareUser : {}", id);
         shareUserRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(ShareUserChangedEvent.deleted(id));
+    }
+
+    private ShareUserDTO publishSaved(ShareUserDTO shareUserDTO) {
+        applicationEventPublisher.publishEvent(ShareUserChangedEvent.saved(shareUserDTO));
+        return shareUserDTO;
     }
 }
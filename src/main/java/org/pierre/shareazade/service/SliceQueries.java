@@ -0,0 +1,53 @@
+package org.pierre.shareazade.service;
+
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+/**
+ * Queries returning a {@link Slice} of the entities matching a {@link Specification}: one extra entity is fetched to know
+ * whether a next slice exists, instead of counting all the matching entities.
+ */
+final class SliceQueries {
+
+    private SliceQueries() {}
+
+    static <T> Slice<T> findSlice(EntityManager entityManager, Class<T> domainClass, Specification<T> specification, Pageable page) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        query.select(root);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (page.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(page.getSort(), root, cb));
+        }
+        if (page.isUnpaged()) {
+            return new SliceImpl<>(entityManager.createQuery(query).getResultList());
+        }
+        List<T> content = entityManager
+            .createQuery(query)
+            .setFirstResult(Math.toIntExact(page.getOffset()))
+            .setMaxResults(page.getPageSize() + 1)
+            .getResultList();
+        return toSlice(content, page);
+    }
+
+    /**
+     * Build a slice from a content fetched with one extra entity.
+     */
+    static <T> Slice<T> toSlice(List<T> content, Pageable page) {
+        boolean hasNext = content.size() > page.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, page.getPageSize()) : content, page, hasNext);
+    }
+}
@@ -0,0 +1,35 @@
+package org.pierre.shareazade.service.criteria;
+
+import java.util.Locale;
+
+/**
+ * How the total number of entities matching a criteria is computed by the list endpoints, through their
+ * {@code count} request parameter.
+ */
+public enum CountMode {
+    /**
+     * No total is computed: only whether a next page exists is known.
+     */
+    NONE,
+
+    /**
+     * The total is a recent count of the same criteria, which may be slightly stale.
+     */
+    ESTIMATE,
+
+    /**
+     * The total is counted for each page.
+     */
+    EXACT;
+
+    /**
+     * Parse the value of a {@code count} request parameter.
+     *
+     * @param value {@code none}, {@code estimate} or {@code exact}, in any case.
+     * @return the count mode.
+     * @throws IllegalArgumentException if the value is unknown.
+     */
+    public static CountMode fromParameter(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,90 @@
+package org.pierre.shareazade.service.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A circle on the surface of the earth, given by the coordinates of its center in decimal degrees and its radius in
+ * kilometers.
+ * <p>
+ * It is received from the request parameters as {@code latitude,longitude,radiusKm}, for example
+ * {@code rideCityFromNear=46.52,6.63,25}.
+ */
+public final class GeoCircle implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final double latitude;
+
+    private final double longitude;
+
+    private final double radiusKm;
+
+    public GeoCircle(double latitude, double longitude, double radiusKm) {
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new IllegalArgumentException("The latitude must be between -90 and 90: " + latitude);
+        }
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("The longitude must be between -180 and 180: " + longitude);
+        }
+        if (!(radiusKm >= 0) || Double.isInfinite(radiusKm)) {
+            throw new IllegalArgumentException("The radius must be a positive number of kilometers: " + radiusKm);
+        }
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.radiusKm = radiusKm;
+    }
+
+    /**
+     * Parse a circle, as used by the Spring conversion of the request parameters.
+     *
+     * @param value {@code latitude,longitude,radiusKm}.
+     * @return the circle.
+     * @throws IllegalArgumentException if the value is not a valid circle.
+     */
+    public static GeoCircle valueOf(String value) {
+        String[] parts = value.split(",", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("A circle must be given as latitude,longitude,radiusKm: " + value);
+        }
+        return new GeoCircle(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()), Double.parseDouble(parts[2].trim()));
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public double getRadiusKm() {
+        return radiusKm;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GeoCircle)) {
+            return false;
+        }
+        GeoCircle that = (GeoCircle) o;
+        return (
+            Double.compare(latitude, that.latitude) == 0 &&
+            Double.compare(longitude, that.longitude) == 0 &&
+            Double.compare(radiusKm, that.radiusKm) == 0
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(latitude, longitude, radiusKm);
+    }
+
+    @Override
+    public String toString() {
+        return latitude + "," + longitude + "," + radiusKm;
+    }
+}
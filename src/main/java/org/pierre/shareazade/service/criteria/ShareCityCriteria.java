@@ -45,6 +45,10 @@ public class ShareCityCriteria implements Serializable, Criteria {
 
     private ShareCountryFilter cityCountry;
 
+    private DoubleFilter latitude;
+
+    private DoubleFilter longitude;
+
     private Boolean distinct;
 
     public ShareCityCriteria() {}
@@ -53,6 +57,8 @@ public class ShareCityCriteria implements Serializable, Criteria {
         this.id = other.id == null ? null : other.id.copy();
         this.cityName = other.cityName == null ? null : other.cityName.copy();
         this.cityCountry = other.cityCountry == null ? null : other.cityCountry.copy();
+        this.latitude = other.latitude == null ? null : other.latitude.copy();
+        this.longitude = other.longitude == null ? null : other.longitude.copy();
         this.distinct = other.distinct;
     }
 
@@ -106,6 +112,36 @@ public class ShareCityCriteria implements Serializable, Criteria {
         this.cityCountry = cityCountry;
     }
 
+    public DoubleFilter getLatitude() {
+        return latitude;
+    }
+
+    public DoubleFilter latitude() {
+        if (latitude == null) {
+            latitude = new DoubleFilter();
+        }
+        return latitude;
+    }
+
+    public void setLatitude(DoubleFilter latitude) {
+        this.latitude = latitude;
+    }
+
+    public DoubleFilter getLongitude() {
+        return longitude;
+    }
+
+    public DoubleFilter longitude() {
+        if (longitude == null) {
+            longitude = new DoubleFilter();
+        }
+        return longitude;
+    }
+
+    public void setLongitude(DoubleFilter longitude) {
+        this.longitude = longitude;
+    }
+
     public Boolean getDistinct() {
         return distinct;
     }
@@ -127,13 +163,15 @@ public class ShareCityCriteria implements Serializable, Criteria {
             Objects.equals(id, that.id) &&
             Objects.equals(cityName, that.cityName) &&
             Objects.equals(cityCountry, that.cityCountry) &&
+            Objects.equals(latitude, that.latitude) &&
+            Objects.equals(longitude, that.longitude) &&
             Objects.equals(distinct, that.distinct)
         );
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, cityName, cityCountry, distinct);
+        return Objects.hash(id, cityName, cityCountry, latitude, longitude, distinct);
     }
 
     // prettier-ignore
@@ -143,6 +181,8 @@ public class ShareCityCriteria implements Serializable, Criteria {
             (id != null ? "id=" + id + ", " : "") +
             (cityName != null ? "cityName=" + cityName + ", " : "") +
             (cityCountry != null ? "cityCountry=" + cityCountry + ", " : "") +
+            (latitude != null ? "latitude=" + latitude + ", " : "") +
+            (longitude != null ? "longitude=" + longitude + ", " : "") +
             (distinct != null ? "distinct=" + distinct + ", " : "") +
             "}";
     }
@@ -45,8 +45,12 @@ public class ShareRideCriteria implements Serializable, Criteria {
 
     private RideTypeFilter rideType;
 
+    private TextSearchFilter comments;
+
     private LongFilter rideCityFromId;
 
+    private GeoCircle rideCityFromNear;
+
     private LongFilter rideCityToId;
 
     private LongFilter rideUserId;
@@ -59,7 +63,9 @@ public class ShareRideCriteria implements Serializable, Criteria {
         this.id = other.id == null ? null : other.id.copy();
         this.rideDateTime = other.rideDateTime == null ? null : other.rideDateTime.copy();
         this.rideType = other.rideType == null ? null : other.rideType.copy();
+        this.comments = other.comments == null ? null : other.comments.copy();
         this.rideCityFromId = other.rideCityFromId == null ? null : other.rideCityFromId.copy();
+        this.rideCityFromNear = other.rideCityFromNear;
         this.rideCityToId = other.rideCityToId == null ? null : other.rideCityToId.copy();
         this.rideUserId = other.rideUserId == null ? null : other.rideUserId.copy();
         this.distinct = other.distinct;
@@ -115,6 +121,21 @@ public class ShareRideCriteria implements Serializable, Criteria {
         this.rideType = rideType;
     }
 
+    public TextSearchFilter getComments() {
+        return comments;
+    }
+
+    public TextSearchFilter comments() {
+        if (comments == null) {
+            comments = new TextSearchFilter();
+        }
+        return comments;
+    }
+
+    public void setComments(TextSearchFilter comments) {
+        this.comments = comments;
+    }
+
     public LongFilter getRideCityFromId() {
         return rideCityFromId;
     }
@@ -130,6 +151,17 @@ public class ShareRideCriteria implements Serializable, Criteria {
         this.rideCityFromId = rideCityFromId;
     }
 
+    /**
+     * @return the circle the departure city of the shareRides must be in, or {@code null}.
+     */
+    public GeoCircle getRideCityFromNear() {
+        return rideCityFromNear;
+    }
+
+    public void setRideCityFromNear(GeoCircle rideCityFromNear) {
+        this.rideCityFromNear = rideCityFromNear;
+    }
+
     public LongFilter getRideCityToId() {
         return rideCityToId;
     }
@@ -181,7 +213,9 @@ public class ShareRideCriteria implements Serializable, Criteria {
             Objects.equals(id, that.id) &&
             Objects.equals(rideDateTime, that.rideDateTime) &&
             Objects.equals(rideType, that.rideType) &&
+            Objects.equals(comments, that.comments) &&
             Objects.equals(rideCityFromId, that.rideCityFromId) &&
+            Objects.equals(rideCityFromNear, that.rideCityFromNear) &&
             Objects.equals(rideCityToId, that.rideCityToId) &&
             Objects.equals(rideUserId, that.rideUserId) &&
             Objects.equals(distinct, that.distinct)
@@ -190,7 +224,7 @@ public class ShareRideCriteria implements Serializable, Criteria {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, rideDateTime, rideType, rideCityFromId, rideCityToId, rideUserId, distinct);
+        return Objects.hash(id, rideDateTime, rideType, comments, rideCityFromId, rideCityFromNear, rideCityToId, rideUserId, distinct);
     }
 
     // prettier-ignore
@@ -200,7 +234,9 @@ public class ShareRideCriteria implements Serializable, Criteria {
             (id != null ? "id=" + id + ", " : "") +
             (rideDateTime != null ? "rideDateTime=" + rideDateTime + ", " : "") +
             (rideType != null ? "rideType=" + rideType + ", " : "") +
+            (comments != null ? "comments=" + comments + ", " : "") +
             (rideCityFromId != null ? "rideCityFromId=" + rideCityFromId + ", " : "") +
+            (rideCityFromNear != null ? "rideCityFromNear=" + rideCityFromNear + ", " : "") +
             (rideCityToId != null ? "rideCityToId=" + rideCityToId + ", " : "") +
             (rideUserId != null ? "rideUserId=" + rideUserId + ", " : "") +
             (distinct != null ? "distinct=" + distinct + ", " : "") +
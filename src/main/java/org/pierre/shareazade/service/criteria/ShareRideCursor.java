@@ -0,0 +1,109 @@
+package org.pierre.shareazade.service.criteria;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.Objects;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+
+/**
+ * Position of a {@link org.pierre.shareazade.domain.ShareRide} in the keyset ordering {@code (rideDateTime, id)}.
+ * <p>
+ * It is exchanged with the clients as an opaque, URL-safe token through the {@code after} request parameter of
+ * {@link org.pierre.shareazade.web.rest.ShareRideResource}, so that the next page can be fetched with a seek
+ * predicate instead of an offset.
+ */
+public final class ShareRideCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String SEPARATOR = ".";
+
+    private final ZonedDateTime rideDateTime;
+
+    private final Long id;
+
+    public ShareRideCursor(ZonedDateTime rideDateTime, Long id) {
+        this.rideDateTime = Objects.requireNonNull(rideDateTime, "rideDateTime").withZoneSameInstant(ZoneOffset.UTC);
+        this.id = Objects.requireNonNull(id, "id");
+    }
+
+    /**
+     * Build the cursor pointing just after the given shareRide.
+     *
+     * @param shareRideDTO the last shareRide of a page.
+     * @return the cursor of the shareRide.
+     */
+    public static ShareRideCursor of(ShareRideDTO shareRideDTO) {
+        return new ShareRideCursor(shareRideDTO.getRideDateTime(), shareRideDTO.getId());
+    }
+
+    /**
+     * Decode a token previously built by {@link #encode()}.
+     *
+     * @param token the opaque token.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the token is not a valid cursor.
+     */
+    public static ShareRideCursor decode(String token) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + token, e);
+        }
+        String[] parts = value.split("\\" + SEPARATOR);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed cursor: " + token);
+        }
+        try {
+            Instant instant = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new ShareRideCursor(instant.atZone(ZoneOffset.UTC), Long.parseLong(parts[2]));
+        } catch (NumberFormatException | ArithmeticException | DateTimeException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + token, e);
+        }
+    }
+
+    /**
+     * @return the opaque, URL-safe representation of this cursor.
+     */
+    public String encode() {
+        Instant instant = rideDateTime.toInstant();
+        String value = instant.getEpochSecond() + SEPARATOR + instant.getNano() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ZonedDateTime getRideDateTime() {
+        return rideDateTime;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ShareRideCursor)) {
+            return false;
+        }
+        ShareRideCursor that = (ShareRideCursor) o;
+        return rideDateTime.toInstant().equals(that.rideDateTime.toInstant()) && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rideDateTime.toInstant(), id);
+    }
+
+    @Override
+    public String toString() {
+        return "ShareRideCursor{rideDateTime=" + rideDateTime + ", id=" + id + "}";
+    }
+}
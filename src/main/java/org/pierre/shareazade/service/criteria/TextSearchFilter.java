@@ -0,0 +1,61 @@
+package org.pierre.shareazade.service.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Filter class for the full-text searchable attributes. It can be added to a criteria class as a member, to support
+ * the following query parameter:
+ * <pre>
+ *      fieldName.matches='something'
+ * </pre>
+ * The text is split into words, and the entities whose attribute contains all of them match, the most relevant first
+ * unless the results are explicitly sorted.
+ */
+public class TextSearchFilter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String matches;
+
+    public TextSearchFilter() {}
+
+    public TextSearchFilter(TextSearchFilter filter) {
+        this.matches = filter.matches;
+    }
+
+    public TextSearchFilter copy() {
+        return new TextSearchFilter(this);
+    }
+
+    public String getMatches() {
+        return matches;
+    }
+
+    public TextSearchFilter setMatches(String matches) {
+        this.matches = matches;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final TextSearchFilter that = (TextSearchFilter) o;
+        return Objects.equals(matches, that.matches);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(matches);
+    }
+
+    @Override
+    public String toString() {
+        return "TextSearchFilter [" + (getMatches() != null ? "matches=" + getMatches() : "") + "]";
+    }
+}
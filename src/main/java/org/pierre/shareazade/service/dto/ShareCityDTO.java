@@ -16,6 +16,10 @@ public class ShareCityDTO implements Serializable {
 
     private ShareCountry cityCountry;
 
+    private Double latitude;
+
+    private Double longitude;
+
     public Long getId() {
         return id;
     }
@@ -40,6 +44,22 @@ public class ShareCityDTO implements Serializable {
         this.cityCountry = cityCountry;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -68,6 +88,8 @@ public class ShareCityDTO implements Serializable {
             "id=" + getId() +
             ", cityName='" + getCityName() + "'" +
             ", cityCountry='" + getCityCountry() + "'" +
+            ", latitude=" + getLatitude() +
+            ", longitude=" + getLongitude() +
             "}";
     }
 }
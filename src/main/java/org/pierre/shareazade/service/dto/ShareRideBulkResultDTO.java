@@ -0,0 +1,106 @@
+package org.pierre.shareazade.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The outcome of one item of a bulk creation of {@link org.pierre.shareazade.domain.ShareRide}s.
+ */
+public class ShareRideBulkResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int index;
+
+    private Long id;
+
+    private String errorKey;
+
+    private String message;
+
+    public ShareRideBulkResultDTO() {}
+
+    public static ShareRideBulkResultDTO created(int index, Long id) {
+        ShareRideBulkResultDTO result = new ShareRideBulkResultDTO();
+        result.setIndex(index);
+        result.setId(id);
+        return result;
+    }
+
+    public static ShareRideBulkResultDTO failed(int index, String errorKey, String message) {
+        ShareRideBulkResultDTO result = new ShareRideBulkResultDTO();
+        result.setIndex(index);
+        result.setErrorKey(errorKey);
+        result.setMessage(message);
+        return result;
+    }
+
+    /**
+     * @return the position of the item in the request, starting at 0.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * @return the id of the created shareRide, or {@code null} if the item failed.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public boolean isSuccess() {
+        return errorKey == null;
+    }
+
+    public String getErrorKey() {
+        return errorKey;
+    }
+
+    public void setErrorKey(String errorKey) {
+        this.errorKey = errorKey;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ShareRideBulkResultDTO)) {
+            return false;
+        }
+        ShareRideBulkResultDTO that = (ShareRideBulkResultDTO) o;
+        return index == that.index && Objects.equals(id, that.id) && Objects.equals(errorKey, that.errorKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, id, errorKey);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ShareRideBulkResultDTO{" +
+            "index=" + getIndex() +
+            ", id=" + getId() +
+            ", errorKey='" + getErrorKey() + "'" +
+            "}";
+    }
+}
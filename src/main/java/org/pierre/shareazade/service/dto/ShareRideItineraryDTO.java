@@ -0,0 +1,69 @@
+package org.pierre.shareazade.service.dto;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A connection between two {@link org.pierre.shareazade.domain.ShareCity}s made of one or more successive
+ * {@link org.pierre.shareazade.domain.ShareRide}s.
+ */
+public class ShareRideItineraryDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private ZonedDateTime departure;
+
+    private ZonedDateTime estimatedArrival;
+
+    private int transfers;
+
+    private List<ShareRideLegDTO> legs = new ArrayList<>();
+
+    public ZonedDateTime getDeparture() {
+        return departure;
+    }
+
+    public void setDeparture(ZonedDateTime departure) {
+        this.departure = departure;
+    }
+
+    public ZonedDateTime getEstimatedArrival() {
+        return estimatedArrival;
+    }
+
+    public void setEstimatedArrival(ZonedDateTime estimatedArrival) {
+        this.estimatedArrival = estimatedArrival;
+    }
+
+    /**
+     * @return the number of changes of shareRide, one less than the number of legs.
+     */
+    public int getTransfers() {
+        return transfers;
+    }
+
+    public void setTransfers(int transfers) {
+        this.transfers = transfers;
+    }
+
+    public List<ShareRideLegDTO> getLegs() {
+        return legs;
+    }
+
+    public void setLegs(List<ShareRideLegDTO> legs) {
+        this.legs = legs;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ShareRideItineraryDTO{" +
+            "departure='" + getDeparture() + "'" +
+            ", estimatedArrival='" + getEstimatedArrival() + "'" +
+            ", transfers=" + getTransfers() +
+            ", legs=" + getLegs() +
+            "}";
+    }
+}
@@ -0,0 +1,51 @@
+package org.pierre.shareazade.service.dto;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+/**
+ * One {@link org.pierre.shareazade.domain.ShareRide} of a {@link ShareRideItineraryDTO}, with its estimated arrival.
+ */
+public class ShareRideLegDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private ShareRideDTO shareRide;
+
+    private ZonedDateTime estimatedArrival;
+
+    public ShareRideLegDTO() {}
+
+    public ShareRideLegDTO(ShareRideDTO shareRide, ZonedDateTime estimatedArrival) {
+        this.shareRide = shareRide;
+        this.estimatedArrival = estimatedArrival;
+    }
+
+    public ShareRideDTO getShareRide() {
+        return shareRide;
+    }
+
+    public void setShareRide(ShareRideDTO shareRide) {
+        this.shareRide = shareRide;
+    }
+
+    /**
+     * @return the arrival at the {@code rideCityTo} of the shareRide, estimated from the distance between the cities.
+     */
+    public ZonedDateTime getEstimatedArrival() {
+        return estimatedArrival;
+    }
+
+    public void setEstimatedArrival(ZonedDateTime estimatedArrival) {
+        this.estimatedArrival = estimatedArrival;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ShareRideLegDTO{" +
+            "shareRide=" + (getShareRide() != null ? getShareRide().getId() : null) +
+            ", estimatedArrival='" + getEstimatedArrival() + "'" +
+            "}";
+    }
+}
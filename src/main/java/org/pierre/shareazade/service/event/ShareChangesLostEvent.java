@@ -0,0 +1,17 @@
+package org.pierre.shareazade.service.event;
+
+import java.io.Serializable;
+
+/**
+ * Published by the {@link org.pierre.shareazade.service.ShareChangeRelay} when the changes committed by the other nodes
+ * may have been lost, so that the in-memory structures derived from the shareRides and the shareCities load them again.
+ */
+public final class ShareChangesLostEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public String toString() {
+        return "ShareChangesLostEvent{}";
+    }
+}
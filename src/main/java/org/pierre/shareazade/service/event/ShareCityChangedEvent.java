@@ -0,0 +1,82 @@
+package org.pierre.shareazade.service.event;
+
+import java.io.Serializable;
+import java.util.Objects;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+
+/**
+ * Published by {@link org.pierre.shareazade.service.ShareCityService} each time a {@link org.pierre.shareazade.domain.ShareCity}
+ * is written, so that the in-memory structures derived from the shareCities can follow the database.
+ * <p>
+ * Listeners should use {@link org.springframework.transaction.event.TransactionalEventListener} so that they only see
+ * committed changes. The {@link org.pierre.shareazade.service.ShareChangeRelay} publishes the changes of the other nodes
+ * as {@link #isRemote() remote} events.
+ */
+public final class ShareCityChangedEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final ShareCityDTO shareCity;
+
+    private final boolean remote;
+
+    private ShareCityChangedEvent(Long id, ShareCityDTO shareCity, boolean remote) {
+        this.id = Objects.requireNonNull(id, "id");
+        this.shareCity = shareCity;
+        this.remote = remote;
+    }
+
+    /**
+     * @param shareCity the shareCity, as persisted.
+     * @return the event of a created or updated shareCity.
+     */
+    public static ShareCityChangedEvent saved(ShareCityDTO shareCity) {
+        return new ShareCityChangedEvent(shareCity.getId(), shareCity, false);
+    }
+
+    /**
+     * @param id the id of the deleted shareCity.
+     * @return the event of a deleted shareCity.
+     */
+    public static ShareCityChangedEvent deleted(Long id) {
+        return new ShareCityChangedEvent(id, null, false);
+    }
+
+    /**
+     * @param id the id of the shareCity.
+     * @param shareCity the shareCity as loaded after the change, or {@code null} if it was deleted.
+     * @return the event of a change committed by another node.
+     */
+    public static ShareCityChangedEvent remote(Long id, ShareCityDTO shareCity) {
+        return new ShareCityChangedEvent(id, shareCity, true);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return the shareCity as persisted, or {@code null} if it was deleted.
+     */
+    public ShareCityDTO getShareCity() {
+        return shareCity;
+    }
+
+    public boolean isDeleted() {
+        return shareCity == null;
+    }
+
+    /**
+     * @return whether the change was committed by another node.
+     */
+    public boolean isRemote() {
+        return remote;
+    }
+
+    @Override
+    public String toString() {
+        return "ShareCityChangedEvent{id=" + id + ", deleted=" + isDeleted() + ", remote=" + remote + "}";
+    }
+}
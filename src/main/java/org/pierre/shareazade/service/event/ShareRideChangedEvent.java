@@ -0,0 +1,112 @@
+package org.pierre.shareazade.service.event;
+
+import java.io.Serializable;
+import java.util.Objects;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+
+/**
+ * Published by {@link org.pierre.shareazade.service.ShareRideService} each time a {@link org.pierre.shareazade.domain.ShareRide}
+ * is written, so that the in-memory structures derived from the shareRides can follow the database.
+ * <p>
+ * Listeners should use {@link org.springframework.transaction.event.TransactionalEventListener} so that they only see
+ * committed changes. The changes committed by the other nodes are published again on each node by the
+ * {@link org.pierre.shareazade.service.ShareChangeRelay}, as {@link #isRemote() remote} events.
+ */
+public final class ShareRideChangedEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final ShareRideDTO previous;
+
+    private final ShareRideDTO shareRide;
+
+    private final boolean remote;
+
+    private ShareRideChangedEvent(Long id, ShareRideDTO previous, ShareRideDTO shareRide, boolean remote) {
+        this.id = Objects.requireNonNull(id, "id");
+        this.previous = previous;
+        this.shareRide = shareRide;
+        this.remote = remote;
+    }
+
+    /**
+     * @param shareRide the shareRide, as persisted.
+     * @return the event of a created shareRide.
+     */
+    public static ShareRideChangedEvent saved(ShareRideDTO shareRide) {
+        return saved(null, shareRide);
+    }
+
+    /**
+     * @param previous the shareRide before the change, or {@code null} if it was created.
+     * @param shareRide the shareRide, as persisted.
+     * @return the event of a created or updated shareRide.
+     */
+    public static ShareRideChangedEvent saved(ShareRideDTO previous, ShareRideDTO shareRide) {
+        return new ShareRideChangedEvent(shareRide.getId(), previous, shareRide, false);
+    }
+
+    /**
+     * @param id the id of the deleted shareRide.
+     * @return the event of a deleted shareRide.
+     */
+    public static ShareRideChangedEvent deleted(Long id) {
+        return deleted(id, null);
+    }
+
+    /**
+     * @param id the id of the deleted shareRide.
+     * @param previous the shareRide before its deletion, or {@code null} if it did not exist.
+     * @return the event of a deleted shareRide.
+     */
+    public static ShareRideChangedEvent deleted(Long id, ShareRideDTO previous) {
+        return new ShareRideChangedEvent(id, previous, null, false);
+    }
+
+    /**
+     * @param id the id of the shareRide.
+     * @param previous the shareRide before the change, or {@code null} if it was created. Only its id, date, type,
+     * cities and user are known.
+     * @param shareRide the shareRide after the change, or {@code null} if it was deleted.
+     * @return the event of a change committed by another node.
+     */
+    public static ShareRideChangedEvent remote(Long id, ShareRideDTO previous, ShareRideDTO shareRide) {
+        return new ShareRideChangedEvent(id, previous, shareRide, true);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return the shareRide before the change, or {@code null} if it did not exist.
+     */
+    public ShareRideDTO getPrevious() {
+        return previous;
+    }
+
+    /**
+     * @return the shareRide as persisted, or {@code null} if it was deleted.
+     */
+    public ShareRideDTO getShareRide() {
+        return shareRide;
+    }
+
+    public boolean isDeleted() {
+        return shareRide == null;
+    }
+
+    /**
+     * @return whether the change was committed by another node.
+     */
+    public boolean isRemote() {
+        return remote;
+    }
+
+    @Override
+    public String toString() {
+        return "ShareRideChangedEvent{id=" + id + ", deleted=" + isDeleted() + ", remote=" + remote + "}";
+    }
+}
@@ -0,0 +1,62 @@
+package org.pierre.shareazade.service.event;
+
+import java.io.Serializable;
+import java.util.Objects;
+import org.pierre.shareazade.service.dto.ShareUserDTO;
+
+/**
+ * Published by {@link org.pierre.shareazade.service.ShareUserService} each time a {@link org.pierre.shareazade.domain.ShareUser}
+ * is written, so that the in-memory structures derived from the shareUsers can follow the database.
+ * <p>
+ * Listeners should use {@link org.springframework.transaction.event.TransactionalEventListener} so that they only see
+ * committed changes.
+ */
+public final class ShareUserChangedEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final ShareUserDTO shareUser;
+
+    private ShareUserChangedEvent(Long id, ShareUserDTO shareUser) {
+        this.id = Objects.requireNonNull(id, "id");
+        this.shareUser = shareUser;
+    }
+
+    /**
+     * @param shareUser the shareUser, as persisted.
+     * @return the event of a created or updated shareUser.
+     */
+    public static ShareUserChangedEvent saved(ShareUserDTO shareUser) {
+        return new ShareUserChangedEvent(shareUser.getId(), shareUser);
+    }
+
+    /**
+     * @param id the id of the deleted shareUser.
+     * @return the event of a deleted shareUser.
+     */
+    public static ShareUserChangedEvent deleted(Long id) {
+        return new ShareUserChangedEvent(id, null);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return the shareUser as persisted, or {@code null} if it was deleted.
+     */
+    public ShareUserDTO getShareUser() {
+        return shareUser;
+    }
+
+    public boolean isDeleted() {
+        return shareUser == null;
+    }
+
+    @Override
+    public String toString() {
+        return "ShareUserChangedEvent{id=" + id + ", deleted=" + isDeleted() + "}";
+    }
+}
@@ -0,0 +1,37 @@
+package org.pierre.shareazade.service.mapper;
+
+import org.mapstruct.Named;
+import org.pierre.shareazade.domain.ShareCity;
+import org.pierre.shareazade.service.ShareCitySnapshot;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mapper of the cities referenced by other entities, such as the cities of a {@link org.pierre.shareazade.domain.ShareRide}.
+ * <p>
+ * The cities are mapped from the {@link ShareCitySnapshot} by their id, which does not initialize a lazy association.
+ */
+@Component
+public class ShareCityReferenceMapper {
+
+    private final ShareCitySnapshot shareCitySnapshot;
+
+    public ShareCityReferenceMapper(ShareCitySnapshot shareCitySnapshot) {
+        this.shareCitySnapshot = shareCitySnapshot;
+    }
+
+    @Named("shareCityReference")
+    public ShareCityDTO toDtoShareCityReference(ShareCity shareCity) {
+        if (shareCity == null) {
+            return null;
+        }
+        ShareCityDTO reference = shareCitySnapshot.getReference(shareCity.getId());
+        if (reference != null) {
+            return reference;
+        }
+        ShareCityDTO shareCityDTO = new ShareCityDTO();
+        shareCityDTO.setId(shareCity.getId());
+        shareCityDTO.setCityName(shareCity.getCityName());
+        return shareCityDTO;
+    }
+}
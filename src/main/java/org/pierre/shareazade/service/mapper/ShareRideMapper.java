@@ -10,11 +10,13 @@ import org.pierre.shareazade.service.dto.ShareUserDTO;
 
 /**
  * Mapper for the entity {@link ShareRide} and its DTO {@link ShareRideDTO}.
+ * <p>
+ * The cities are mapped by the {@link ShareCityReferenceMapper}, which does not initialize a lazy association.
  */
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = ShareCityReferenceMapper.class)
 public interface ShareRideMapper extends EntityMapper<ShareRideDTO, ShareRide> {
-    @Mapping(target = "rideCityFrom", source = "rideCityFrom", qualifiedByName = "shareCityCityName")
-    @Mapping(target = "rideCityTo", source = "rideCityTo", qualifiedByName = "shareCityCityName")
+    @Mapping(target = "rideCityFrom", source = "rideCityFrom", qualifiedByName = "shareCityReference")
+    @Mapping(target = "rideCityTo", source = "rideCityTo", qualifiedByName = "shareCityReference")
     @Mapping(target = "rideUser", source = "rideUser", qualifiedByName = "shareUserUserName")
     ShareRideDTO toDto(ShareRide s);
 
@@ -0,0 +1,126 @@
+package org.pierre.shareazade.web.filter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.ForwardedHeaderFilter;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Applies the {@code X-Forwarded-*} headers of the requests coming from a trusted proxy, and removes those of the other
+ * requests: Undertow would accept them from any peer, letting a client choose the address the failed logins are counted
+ * against.
+ * <p>
+ * The scheme, host and port are applied by a {@link ForwardedHeaderFilter}. The address of the client is the last one of
+ * {@code X-Forwarded-For} which is not a trusted proxy, as each proxy appends the address of its peer to those sent by
+ * the client.
+ */
+public class TrustedProxyFilter extends OncePerRequestFilter {
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    // Literal addresses only, so that checking an address never resolves a host name
+    private static final String IPV4_OCTET = "(25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)";
+
+    private static final Pattern IPV4 = Pattern.compile(IPV4_OCTET + "(\\." + IPV4_OCTET + "){3}");
+
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F]*:[0-9a-fA-F:.]*");
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    private final ForwardedHeaderFilter forwardedHeaderFilter = new ForwardedHeaderFilter();
+
+    private final ForwardedHeaderFilter forwardedHeaderRemovingFilter = new ForwardedHeaderFilter();
+
+    /**
+     * @param trustedProxies the addresses or the CIDR ranges of the trusted proxies.
+     */
+    public TrustedProxyFilter(List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream().map(IpAddressMatcher::new).collect(Collectors.toList());
+        forwardedHeaderRemovingFilter.setRemoveOnly(true);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilterErrorDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        if (!isTrusted(request.getRemoteAddr())) {
+            forwardedHeaderRemovingFilter.doFilter(request, response, filterChain);
+            return;
+        }
+        String clientAddress = clientAddress(request);
+        forwardedHeaderFilter.doFilter(
+            request,
+            response,
+            (forwardedRequest, forwardedResponse) ->
+                filterChain.doFilter(new ClientAddressRequest((HttpServletRequest) forwardedRequest, clientAddress), forwardedResponse)
+        );
+    }
+
+    private String clientAddress(HttpServletRequest request) {
+        List<String> forwardedFor = new ArrayList<>();
+        Enumeration<String> headers = request.getHeaders(X_FORWARDED_FOR);
+        while (headers.hasMoreElements()) {
+            for (String address : StringUtils.commaDelimitedListToStringArray(headers.nextElement())) {
+                if (StringUtils.hasText(address)) {
+                    forwardedFor.add(address.trim());
+                }
+            }
+        }
+        String clientAddress = request.getRemoteAddr();
+        for (int i = forwardedFor.size() - 1; i >= 0 && isTrusted(clientAddress); i--) {
+            clientAddress = forwardedFor.get(i);
+        }
+        return clientAddress;
+    }
+
+    private boolean isTrusted(String address) {
+        if (address == null || !(IPV4.matcher(address).matches() || IPV6.matcher(address).matches())) {
+            return false;
+        }
+        try {
+            return trustedProxies.stream().anyMatch(trustedProxy -> trustedProxy.matches(address));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static final class ClientAddressRequest extends HttpServletRequestWrapper {
+
+        private final String clientAddress;
+
+        private ClientAddressRequest(HttpServletRequest request, String clientAddress) {
+            super(request);
+            this.clientAddress = clientAddress;
+        }
+
+        @Override
+        public String getRemoteAddr() {
+            return clientAddress;
+        }
+
+        @Override
+        public String getRemoteHost() {
+            return clientAddress;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.pierre.shareazade.web.rest;
+
+import java.text.MessageFormat;
+import org.pierre.shareazade.service.criteria.CountMode;
+import org.pierre.shareazade.web.rest.errors.BadRequestAlertException;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for the {@code count} request parameter of the list endpoints.
+ * <p>
+ * When no total is computed, the {@code Link} header only carries the {@code first}, {@code prev} and {@code next} pages,
+ * and the {@code X-Has-Next-Page} header tells whether a next page exists, instead of {@code X-Total-Count}.
+ */
+final class CountPaginationUtil {
+
+    private static final String HEADER_HAS_NEXT_PAGE = "X-Has-Next-Page";
+
+    private static final String HEADER_LINK_FORMAT = "<{0}>; rel=\"{1}\"";
+
+    private CountPaginationUtil() {}
+
+    /**
+     * Parse the {@code count} request parameter.
+     *
+     * @param count the value of the parameter.
+     * @param entityName the name of the listed entity, for the error.
+     * @return the count mode.
+     * @throws BadRequestAlertException if the value is unknown.
+     */
+    static CountMode parseCountMode(String count, String entityName) {
+        try {
+            return CountMode.fromParameter(count);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("The count must be none, estimate or exact", entityName, "countinvalid");
+        }
+    }
+
+    /**
+     * Generate the pagination headers of a {@link Slice}.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param slice the slice.
+     * @param <T> the type of the content of the slice.
+     * @return the pagination headers.
+     */
+    static <T> HttpHeaders generateSliceHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HEADER_HAS_NEXT_PAGE, Boolean.toString(slice.hasNext()));
+        if (slice.getPageable().isUnpaged()) {
+            return headers;
+        }
+        int pageNumber = slice.getNumber();
+        int pageSize = slice.getSize();
+        StringBuilder link = new StringBuilder();
+        if (slice.hasNext()) {
+            link.append(prepareLink(uriBuilder, pageNumber + 1, pageSize, "next")).append(",");
+        }
+        if (slice.hasPrevious()) {
+            link.append(prepareLink(uriBuilder, pageNumber - 1, pageSize, "prev")).append(",");
+        }
+        link.append(prepareLink(uriBuilder, 0, pageSize, "first"));
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
+        String uri = uriBuilder
+            .replaceQueryParam("page", Integer.toString(pageNumber))
+            .replaceQueryParam("size", Integer.toString(pageSize))
+            .toUriString()
+            .replace(",", "%2C")
+            .replace(";", "%3B");
+        return MessageFormat.format(HEADER_LINK_FORMAT, uri, relType);
+    }
+}
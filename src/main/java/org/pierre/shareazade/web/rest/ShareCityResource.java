@@ -5,9 +5,12 @@ import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import org.pierre.shareazade.domain.enumeration.ShareCountry;
 import org.pierre.shareazade.repository.ShareCityRepository;
 import org.pierre.shareazade.service.ShareCityQueryService;
 import org.pierre.shareazade.service.ShareCityService;
+import org.pierre.shareazade.service.ShareCitySuggestIndex;
+import org.pierre.shareazade.service.criteria.CountMode;
 import org.pierre.shareazade.service.criteria.ShareCityCriteria;
 import org.pierre.shareazade.service.dto.ShareCityDTO;
 import org.pierre.shareazade.web.rest.errors.BadRequestAlertException;
@@ -16,6 +19,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -44,14 +48,18 @@ public class ShareCityResource {
 
     private final ShareCityQueryService shareCityQueryService;
 
+    private final ShareCitySuggestIndex shareCitySuggestIndex;
+
     public ShareCityResource(
         ShareCityService shareCityService,
         ShareCityRepository shareCityRepository,
-        ShareCityQueryService shareCityQueryService
+        ShareCityQueryService shareCityQueryService,
+        ShareCitySuggestIndex shareCitySuggestIndex
     ) {
         this.shareCityService = shareCityService;
         this.shareCityRepository = shareCityRepository;
         this.shareCityQueryService = shareCityQueryService;
+        this.shareCitySuggestIndex = shareCitySuggestIndex;
     }
 
     /**
@@ -149,15 +157,25 @@ public class ShareCityResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param count how the total is computed: {@code exact} (the default), {@code estimate} for a recent count, or {@code none} to only tell whether a next page exists.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of shareCities in body.
      */
     @GetMapping("/share-cities")
     public ResponseEntity<List<ShareCityDTO>> getAllShareCities(
         ShareCityCriteria criteria,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = "count", defaultValue = "exact") String count
     ) {
-        log.debug("REST request to get ShareCities by criteria: {}", criteria);
-        Page<ShareCityDTO> page = shareCityQueryService.findByCriteria(criteria, pageable);
+        log.debug("REST request to get ShareCities by criteria: {}, count: {}", criteria, count);
+        CountMode countMode = CountPaginationUtil.parseCountMode(count, ENTITY_NAME);
+        if (countMode == CountMode.NONE) {
+            Slice<ShareCityDTO> slice = shareCityQueryService.findSliceByCriteria(criteria, pageable);
+            HttpHeaders headers = CountPaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Page<ShareCityDTO> page = countMode == CountMode.ESTIMATE
+            ? shareCityQueryService.findByCriteriaEstimated(criteria, pageable)
+            : shareCityQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
@@ -174,6 +192,29 @@ public class ShareCityResource {
         return ResponseEntity.ok().body(shareCityQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /share-cities/suggest} : get the shareCities whose name has a word starting with a prefix, for autocompletion.
+     *
+     * @param q the prefix, case and accents are ignored.
+     * @param country the country of the shareCities, defaults to all of them.
+     * @param limit the maximum number of shareCities.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of shareCities with the most shareRides first in body,
+     * or with status {@code 400 (Bad Request)} if the limit is not valid.
+     */
+    @GetMapping("/share-cities/suggest")
+    public ResponseEntity<List<ShareCityDTO>> suggestShareCities(
+        @RequestParam("q") String q,
+        @RequestParam(value = "country", required = false) ShareCountry country,
+        @RequestParam(value = "limit", defaultValue = "10") int limit
+    ) {
+        log.debug("REST request to suggest ShareCities : {}, country: {}", q, country);
+        try {
+            return ResponseEntity.ok().body(shareCitySuggestIndex.suggest(q, country, limit));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "limitinvalid");
+        }
+    }
+
     /**
      * {@code GET  /share-cities/:id} : get the "id" shareCity.
      *
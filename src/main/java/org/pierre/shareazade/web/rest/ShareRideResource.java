@@ -1,24 +1,48 @@
 package org.pierre.shareazade.web.rest;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.service.ShareRideBulkService;
+import org.pierre.shareazade.service.ShareRideItineraryService;
+import org.pierre.shareazade.service.ShareRideMatchingService;
 import org.pierre.shareazade.service.ShareRideQueryService;
 import org.pierre.shareazade.service.ShareRideService;
+import org.pierre.shareazade.service.criteria.CountMode;
 import org.pierre.shareazade.service.criteria.ShareRideCriteria;
+import org.pierre.shareazade.service.criteria.ShareRideCursor;
+import org.pierre.shareazade.service.dto.ShareRideBulkResultDTO;
 import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.dto.ShareRideItineraryDTO;
 import org.pierre.shareazade.web.rest.errors.BadRequestAlertException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -35,6 +59,11 @@ public class ShareRideResource {
 
     private static final String ENTITY_NAME = "shareRide";
 
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private static final String CSV_HEADER =
+        "id,rideDateTime,rideType,rideComments,rideCityFromId,rideCityFromName,rideCityToId,rideCityToName,rideUserId,rideUserName\r\n";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -44,14 +73,30 @@ public class ShareRideResource {
 
     private final ShareRideQueryService shareRideQueryService;
 
+    private final ShareRideMatchingService shareRideMatchingService;
+
+    private final ShareRideBulkService shareRideBulkService;
+
+    private final ShareRideItineraryService shareRideItineraryService;
+
+    private final ObjectMapper objectMapper;
+
     public ShareRideResource(
         ShareRideService shareRideService,
         ShareRideRepository shareRideRepository,
-        ShareRideQueryService shareRideQueryService
+        ShareRideQueryService shareRideQueryService,
+        ShareRideMatchingService shareRideMatchingService,
+        ShareRideBulkService shareRideBulkService,
+        ShareRideItineraryService shareRideItineraryService,
+        ObjectMapper objectMapper
     ) {
         this.shareRideService = shareRideService;
         this.shareRideRepository = shareRideRepository;
         this.shareRideQueryService = shareRideQueryService;
+        this.shareRideMatchingService = shareRideMatchingService;
+        this.shareRideBulkService = shareRideBulkService;
+        this.shareRideItineraryService = shareRideItineraryService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -74,6 +119,24 @@ public class ShareRideResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /share-rides/bulk} : Create new shareRides.
+     * <p>
+     * The body is either a JSON array or a stream of newline-delimited JSON objects. The shareRides are read as they
+     * arrive and saved by chunks, so that the whole body is never held in memory.
+     *
+     * @param body the shareRideDTOs to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of each shareRide, in order.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/share-rides/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<List<ShareRideBulkResultDTO>> createShareRides(InputStream body) throws IOException {
+        log.debug("REST request to save ShareRides in bulk");
+        try (MappingIterator<ShareRideDTO> shareRideDTOs = objectMapper.readerFor(ShareRideDTO.class).readValues(body)) {
+            return ResponseEntity.ok().body(shareRideBulkService.saveAll(shareRideDTOs));
+        }
+    }
+
     /**
      * {@code PUT  /share-rides/:id} : Updates an existing shareRide.
      *
@@ -149,19 +212,120 @@ public class ShareRideResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param count how the total is computed: {@code exact} (the default), {@code estimate} for a recent count, or {@code none} to only tell whether a next page exists.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of shareRides in body.
      */
     @GetMapping("/share-rides")
     public ResponseEntity<List<ShareRideDTO>> getAllShareRides(
         ShareRideCriteria criteria,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = "count", defaultValue = "exact") String count
     ) {
-        log.debug("REST request to get ShareRides by criteria: {}", criteria);
-        Page<ShareRideDTO> page = shareRideQueryService.findByCriteria(criteria, pageable);
+        log.debug("REST request to get ShareRides by criteria: {}, count: {}", criteria, count);
+        CountMode countMode = CountPaginationUtil.parseCountMode(count, ENTITY_NAME);
+        if (countMode == CountMode.NONE) {
+            Slice<ShareRideDTO> slice = shareRideQueryService.findSliceByCriteria(criteria, pageable);
+            HttpHeaders headers = CountPaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Page<ShareRideDTO> page = countMode == CountMode.ESTIMATE
+            ? shareRideQueryService.findByCriteriaEstimated(criteria, pageable)
+            : shareRideQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /share-rides?after=:cursor} : get the shareRides located after a cursor, ordered by {@code (rideDateTime, id)}.
+     * <p>
+     * An empty {@code after} parameter returns the first slice. No total count is computed: when more shareRides are available,
+     * a {@code Link} header with {@code rel="next"} carries the cursor of the next slice.
+     *
+     * @param after the opaque cursor returned by the previous slice, or an empty value for the first slice.
+     * @param pageable the pagination information, only its size is used.
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of shareRides in body,
+     * or with status {@code 400 (Bad Request)} if the cursor is not valid.
+     */
+    @GetMapping(value = "/share-rides", params = "after")
+    public ResponseEntity<List<ShareRideDTO>> getAllShareRidesAfter(
+        @RequestParam("after") String after,
+        ShareRideCriteria criteria,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get ShareRides by criteria: {}, after: {}", criteria, after);
+        ShareRideCursor cursor = null;
+        if (!after.isEmpty()) {
+            try {
+                cursor = ShareRideCursor.decode(after);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+            }
+        }
+        Slice<ShareRideDTO> slice = shareRideQueryService.findByCriteriaAfter(criteria, cursor, pageable.getPageSize());
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext()) {
+            List<ShareRideDTO> content = slice.getContent();
+            String next = ShareRideCursor.of(content.get(content.size() - 1)).encode();
+            String uri = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("after", next).toUriString();
+            headers.add(HttpHeaders.LINK, "<" + uri + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /share-rides/export} : export all the shareRides matching the criteria, ordered by id.
+     * <p>
+     * The shareRides are written while they are read from the database, either as newline-delimited JSON or as CSV with
+     * a header line, so that the size of the export is not limited by the memory.
+     *
+     * @param format the format of the export, {@code ndjson} (the default) or {@code csv}.
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the streamed shareRides in body, or with status {@code 400 (Bad Request)} if the format is unknown.
+     */
+    @GetMapping("/share-rides/export")
+    public ResponseEntity<StreamingResponseBody> exportShareRides(
+        @RequestParam(value = "format", defaultValue = "ndjson") String format,
+        ShareRideCriteria criteria
+    ) {
+        log.debug("REST request to export ShareRides by criteria: {}, format: {}", criteria, format);
+        boolean csv;
+        if ("csv".equalsIgnoreCase(format)) {
+            csv = true;
+        } else if ("ndjson".equalsIgnoreCase(format)) {
+            csv = false;
+        } else {
+            throw new BadRequestAlertException("The format must be ndjson or csv", ENTITY_NAME, "formatinvalid");
+        }
+        ObjectWriter jsonWriter = objectMapper.writerFor(ShareRideDTO.class).without(SerializationFeature.INDENT_OUTPUT);
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            if (csv) {
+                writer.write(CSV_HEADER);
+            }
+            try {
+                shareRideQueryService.exportByCriteria(
+                    criteria,
+                    shareRideDTO -> {
+                        try {
+                            writer.write(csv ? toCsv(shareRideDTO) : jsonWriter.writeValueAsString(shareRideDTO) + "\n");
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                );
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return ResponseEntity
+            .ok()
+            .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"share-rides." + (csv ? "csv" : "ndjson") + "\"")
+            .body(body);
+    }
+
     /**
      * {@code GET  /share-rides/count} : count all the shareRides.
      *
@@ -174,6 +338,31 @@ public class ShareRideResource {
         return ResponseEntity.ok().body(shareRideQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /share-rides/itineraries} : get the itineraries between two shareCities, made of upcoming offers.
+     *
+     * @param from the id of the shareCity of departure.
+     * @param to the id of the shareCity of arrival.
+     * @param departAfter the earliest departure, as an ISO-8601 date-time, defaults to now.
+     * @param limit the maximum number of itineraries.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of itineraries in body,
+     * or with status {@code 400 (Bad Request)} if the cities or the limit are not valid.
+     */
+    @GetMapping("/share-rides/itineraries")
+    public ResponseEntity<List<ShareRideItineraryDTO>> getShareRideItineraries(
+        @RequestParam("from") Long from,
+        @RequestParam("to") Long to,
+        @RequestParam(value = "departAfter", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime departAfter,
+        @RequestParam(value = "limit", defaultValue = "3") int limit
+    ) {
+        log.debug("REST request to get itineraries from ShareCity : {} to ShareCity : {}, after: {}", from, to, departAfter);
+        try {
+            return ResponseEntity.ok().body(shareRideItineraryService.findItineraries(from, to, departAfter, limit));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "itineraryinvalid");
+        }
+    }
+
     /**
      * {@code GET  /share-rides/:id} : get the "id" shareRide.
      *
@@ -187,6 +376,28 @@ public class ShareRideResource {
         return ResponseUtil.wrapOrNotFound(shareRideDTO);
     }
 
+    /**
+     * {@code GET  /share-rides/:id/matches} : get the upcoming shareRides of the opposite type matching the "id" shareRide.
+     *
+     * @param id the id of the shareRideDTO to match.
+     * @param tolerance the maximum time between the two rides, as an ISO-8601 duration, defaults to the configured tolerance.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matching shareRides in body,
+     * or with status {@code 400 (Bad Request)} if the tolerance is not valid,
+     * or with status {@code 404 (Not Found)} if the shareRide is not an upcoming shareRide.
+     */
+    @GetMapping("/share-rides/{id}/matches")
+    public ResponseEntity<List<ShareRideDTO>> getShareRideMatches(
+        @PathVariable Long id,
+        @RequestParam(value = "tolerance", required = false) Duration tolerance
+    ) {
+        log.debug("REST request to get matches of ShareRide : {}, tolerance: {}", id, tolerance);
+        try {
+            return ResponseUtil.wrapOrNotFound(shareRideMatchingService.findMatches(id, tolerance));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "toleranceinvalid");
+        }
+    }
+
     /**
      * {@code DELETE  /share-rides/:id} : delete the "id" shareRide.
      *
@@ -202,4 +413,46 @@ public class ShareRideResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private static String toCsv(ShareRideDTO shareRideDTO) {
+        return String.join(
+            ",",
+            csvValue(shareRideDTO.getId()),
+            csvValue(shareRideDTO.getRideDateTime() != null ? shareRideDTO.getRideDateTime().toInstant() : null),
+            csvValue(shareRideDTO.getRideType()),
+            csvText(shareRideDTO.getRideComments()),
+            csvValue(shareRideDTO.getRideCityFrom() != null ? shareRideDTO.getRideCityFrom().getId() : null),
+            csvText(shareRideDTO.getRideCityFrom() != null ? shareRideDTO.getRideCityFrom().getCityName() : null),
+            csvValue(shareRideDTO.getRideCityTo() != null ? shareRideDTO.getRideCityTo().getId() : null),
+            csvText(shareRideDTO.getRideCityTo() != null ? shareRideDTO.getRideCityTo().getCityName() : null),
+            csvValue(shareRideDTO.getRideUser() != null ? shareRideDTO.getRideUser().getId() : null),
+            csvText(shareRideDTO.getRideUser() != null ? shareRideDTO.getRideUser().getUserName() : null)
+        ) +
+        "\r\n";
+    }
+
+    /**
+     * Format a CSV field of user-written text. A text starting like a formula is prefixed with a quote, so that a
+     * spreadsheet opening the export shows it as text instead of evaluating it.
+     */
+    private static String csvText(String text) {
+        if (text != null && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            return csvValue("'" + text);
+        }
+        return csvValue(text);
+    }
+
+    /**
+     * Format a CSV field, quoted when it contains a separator, a quote or a line break.
+     */
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
 }
@@ -8,6 +8,7 @@ import java.util.Optional;
 import org.pierre.shareazade.repository.ShareUserRepository;
 import org.pierre.shareazade.service.ShareUserQueryService;
 import org.pierre.shareazade.service.ShareUserService;
+import org.pierre.shareazade.service.criteria.CountMode;
 import org.pierre.shareazade.service.criteria.ShareUserCriteria;
 import org.pierre.shareazade.service.dto.ShareUserDTO;
 import org.pierre.shareazade.web.rest.errors.BadRequestAlertException;
@@ -16,6 +17,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -149,15 +151,25 @@ public class ShareUserResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param count how the total is computed: {@code exact} (the default), {@code estimate} for a recent count, or {@code none} to only tell whether a next page exists.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of shareUsers in body.
      */
     @GetMapping("/share-users")
     public ResponseEntity<List<ShareUserDTO>> getAllShareUsers(
         ShareUserCriteria criteria,
-        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = "count", defaultValue = "exact") String count
     ) {
-        log.debug("REST request to get ShareUsers by criteria: {}", criteria);
-        Page<ShareUserDTO> page = shareUserQueryService.findByCriteria(criteria, pageable);
+        log.debug("REST request to get ShareUsers by criteria: {}, count: {}", criteria, count);
+        CountMode countMode = CountPaginationUtil.parseCountMode(count, ENTITY_NAME);
+        if (countMode == CountMode.NONE) {
+            Slice<ShareUserDTO> slice = shareUserQueryService.findSliceByCriteria(criteria, pageable);
+            HttpHeaders headers = CountPaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Page<ShareUserDTO> page = countMode == CountMode.ESTIMATE
+            ? shareUserQueryService.findByCriteriaEstimated(criteria, pageable)
+            : shareUserQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
@@ -1,16 +1,25 @@
 package org.pierre.shareazade.web.rest;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import org.pierre.shareazade.security.LoginAttemptLimiter;
+import org.pierre.shareazade.security.PasswordEncoderOverloadedException;
+import org.pierre.shareazade.security.SecurityUtils;
 import org.pierre.shareazade.security.jwt.JWTFilter;
 import org.pierre.shareazade.security.jwt.TokenProvider;
+import org.pierre.shareazade.service.RefreshTokenService;
 import org.pierre.shareazade.web.rest.vm.LoginVM;
+import org.pierre.shareazade.web.rest.vm.RefreshTokenVM;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,24 +34,88 @@ public class UserJWTController {
 
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
 
-    public UserJWTController(TokenProvider tokenProvider, AuthenticationManagerBuilder authenticationManagerBuilder) {
+    private final RefreshTokenService refreshTokenService;
+
+    private final LoginAttemptLimiter loginAttemptLimiter;
+
+    public UserJWTController(
+        TokenProvider tokenProvider,
+        AuthenticationManagerBuilder authenticationManagerBuilder,
+        RefreshTokenService refreshTokenService,
+        LoginAttemptLimiter loginAttemptLimiter
+    ) {
         this.tokenProvider = tokenProvider;
         this.authenticationManagerBuilder = authenticationManagerBuilder;
+        this.refreshTokenService = refreshTokenService;
+        this.loginAttemptLimiter = loginAttemptLimiter;
     }
 
     @PostMapping("/authenticate")
-    public ResponseEntity<JWTToken> authorize(@Valid @RequestBody LoginVM loginVM) {
+    public ResponseEntity<JWTToken> authorize(@Valid @RequestBody LoginVM loginVM, HttpServletRequest request) {
+        // The address of the client, taken from X-Forwarded-For by the TrustedProxyFilter behind a trusted proxy
+        String ip = request.getRemoteAddr();
+        loginAttemptLimiter.checkAllowed(loginVM.getUsername(), ip);
         UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
             loginVM.getUsername(),
             loginVM.getPassword()
         );
 
-        Authentication authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);
+        Authentication authentication;
+        try {
+            authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);
+        } catch (InternalAuthenticationServiceException e) {
+            // Not a failed login, such as the password encoder overloaded while hashing for an unknown login
+            loginAttemptLimiter.release(loginVM.getUsername(), ip);
+            if (e.getCause() instanceof PasswordEncoderOverloadedException) {
+                throw (PasswordEncoderOverloadedException) e.getCause();
+            }
+            throw e;
+        } catch (AuthenticationException e) {
+            // The reserved attempt is kept as a failure
+            throw e;
+        } catch (RuntimeException e) {
+            loginAttemptLimiter.release(loginVM.getUsername(), ip);
+            throw e;
+        }
+        loginAttemptLimiter.loginSucceeded(loginVM.getUsername(), ip);
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = tokenProvider.createToken(authentication, loginVM.isRememberMe());
+        String refreshToken = refreshTokenService.createRefreshToken(authentication.getName(), loginVM.isRememberMe());
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
-        return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
+        return new ResponseEntity<>(new JWTToken(jwt, refreshToken), httpHeaders, HttpStatus.OK);
+    }
+
+    /**
+     * {@code POST  /authenticate/refresh} : reissue a short-lived token from a refresh token, without the password.
+     *
+     * @param refreshTokenVM the refresh token, which is replaced by the one returned.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the token and the next refresh token,
+     * or with status {@code 401 (Unauthorized)} if the refresh token is unknown, expired, or was already used.
+     */
+    @PostMapping("/authenticate/refresh")
+    public ResponseEntity<JWTToken> refresh(@Valid @RequestBody RefreshTokenVM refreshTokenVM) {
+        RefreshTokenService.RefreshedTokens refreshed = refreshTokenService
+            .refresh(refreshTokenVM.getRefreshToken())
+            .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + refreshed.getAccessToken());
+        return new ResponseEntity<>(new JWTToken(refreshed.getAccessToken(), refreshed.getRefreshToken()), httpHeaders, HttpStatus.OK);
+    }
+
+    /**
+     * {@code POST  /logout} : revoke the token of the request, until it expires, and the refresh token if any.
+     *
+     * @param refreshTokenVM the refresh token issued with the token, if any.
+     * @return the {@link ResponseEntity} with status {@code 204 (No Content)}.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody(required = false) RefreshTokenVM refreshTokenVM) {
+        SecurityUtils.getCurrentUserJWT().ifPresent(tokenProvider::revokeToken);
+        if (refreshTokenVM != null) {
+            refreshTokenService.revokeRefreshToken(refreshTokenVM.getRefreshToken());
+        }
+        return ResponseEntity.noContent().build();
     }
 
     /**
@@ -52,8 +125,11 @@ public class UserJWTController {
 
         private String idToken;
 
-        JWTToken(String idToken) {
+        private String refreshToken;
+
+        JWTToken(String idToken, String refreshToken) {
             this.idToken = idToken;
+            this.refreshToken = refreshToken;
         }
 
         @JsonProperty("id_token")
@@ -64,5 +140,14 @@ public class UserJWTController {
         void setIdToken(String idToken) {
             this.idToken = idToken;
         }
+
+        @JsonProperty("refresh_token")
+        String getRefreshToken() {
+            return refreshToken;
+        }
+
+        void setRefreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
     }
 }
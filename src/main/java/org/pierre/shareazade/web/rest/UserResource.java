@@ -10,7 +10,9 @@ import org.pierre.shareazade.config.Constants;
 import org.pierre.shareazade.domain.User;
 import org.pierre.shareazade.repository.UserRepository;
 import org.pierre.shareazade.security.AuthoritiesConstants;
+import org.pierre.shareazade.security.jwt.TokenProvider;
 import org.pierre.shareazade.service.MailService;
+import org.pierre.shareazade.service.RefreshTokenService;
 import org.pierre.shareazade.service.UserService;
 import org.pierre.shareazade.service.dto.AdminUserDTO;
 import org.pierre.shareazade.web.rest.errors.BadRequestAlertException;
@@ -87,10 +89,22 @@ public class UserResource {
 
     private final MailService mailService;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService) {
+    private final TokenProvider tokenProvider;
+
+    private final RefreshTokenService refreshTokenService;
+
+    public UserResource(
+        UserService userService,
+        UserRepository userRepository,
+        MailService mailService,
+        TokenProvider tokenProvider,
+        RefreshTokenService refreshTokenService
+    ) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.mailService = mailService;
+        this.tokenProvider = tokenProvider;
+        this.refreshTokenService = refreshTokenService;
     }
 
     /**
@@ -204,4 +218,20 @@ public class UserResource {
         userService.deleteUser(login);
         return ResponseEntity.noContent().headers(HeaderUtil.createAlert(applicationName, "userManagement.deleted", login)).build();
     }
+
+    /**
+     * {@code POST /admin/users/:login/revoke-tokens} : revoke all the tokens issued to the "login" User until now, and
+     * delete its refresh tokens.
+     *
+     * @param login the login of the user whose tokens to revoke.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     */
+    @PostMapping("/users/{login}/revoke-tokens")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<Void> revokeTokens(@PathVariable @Pattern(regexp = Constants.LOGIN_REGEX) String login) {
+        log.debug("REST request to revoke the tokens of User: {}", login);
+        refreshTokenService.revokeRefreshTokens(login);
+        tokenProvider.revokeTokens(login);
+        return ResponseEntity.noContent().headers(HeaderUtil.createAlert(applicationName, "userManagement.tokensRevoked", login)).build();
+    }
 }
@@ -44,6 +44,18 @@ export const ShareCityDetail = () => {
             </span>
           </dt>
           <dd>{shareCityEntity.cityCountry}</dd>
+          <dt>
+            <span id="latitude">
+              <Translate contentKey="shareazadeApp.shareCity.latitude">Latitude</Translate>
+            </span>
+          </dt>
+          <dd>{shareCityEntity.latitude}</dd>
+          <dt>
+            <span id="longitude">
+              <Translate contentKey="shareazadeApp.shareCity.longitude">Longitude</Translate>
+            </span>
+          </dt>
+          <dd>{shareCityEntity.longitude}</dd>
         </dl>
         <Button tag={Link} to="/share-city" replace color="info" data-cy="entityDetailsBackButton">
           <FontAwesomeIcon icon="arrow-left" />{' '}
@@ -110,6 +110,20 @@ export const ShareCityUpdate = () => {
                   </option>
                 ))}
               </ValidatedField>
+              <ValidatedField
+                label={translate('shareazadeApp.shareCity.latitude')}
+                id="share-city-latitude"
+                name="latitude"
+                data-cy="latitude"
+                type="text"
+              />
+              <ValidatedField
+                label={translate('shareazadeApp.shareCity.longitude')}
+                id="share-city-longitude"
+                name="longitude"
+                data-cy="longitude"
+                type="text"
+              />
               <Button tag={Link} id="cancel-save" data-cy="entityCreateCancelButton" to="/share-city" replace color="info">
                 <FontAwesomeIcon icon="arrow-left" />
                 &nbsp;
@@ -111,6 +111,12 @@ export const ShareCity = () => {
                 <th className="hand" onClick={sort('cityCountry')}>
                   <Translate contentKey="shareazadeApp.shareCity.cityCountry">City Country</Translate> <FontAwesomeIcon icon="sort" />
                 </th>
+                <th className="hand" onClick={sort('latitude')}>
+                  <Translate contentKey="shareazadeApp.shareCity.latitude">Latitude</Translate> <FontAwesomeIcon icon="sort" />
+                </th>
+                <th className="hand" onClick={sort('longitude')}>
+                  <Translate contentKey="shareazadeApp.shareCity.longitude">Longitude</Translate> <FontAwesomeIcon icon="sort" />
+                </th>
                 <th />
               </tr>
             </thead>
@@ -126,6 +132,8 @@ export const ShareCity = () => {
                   <td>
                     <Translate contentKey={`shareazadeApp.ShareCountry.${shareCity.cityCountry}`} />
                   </td>
+                  <td>{shareCity.latitude}</td>
+                  <td>{shareCity.longitude}</td>
                   <td className="text-end">
                     <div className="btn-group flex-btn-group-container">
                       <Button tag={Link} to={`/share-city/${shareCity.id}`} color="info" size="sm" data-cy="entityDetailsButton">
@@ -4,6 +4,8 @@ export interface IShareCity {
   id?: number;
   cityName?: string | null;
   cityCountry?: ShareCountry | null;
+  latitude?: number | null;
+  longitude?: number | null;
 }
 
 export const defaultValue: Readonly<IShareCity> = {};
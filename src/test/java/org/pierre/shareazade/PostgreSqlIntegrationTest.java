@@ -0,0 +1,25 @@
+package org.pierre.shareazade;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Composite annotation for the integration tests which need PostgreSQL, such as its query plans or its text search.
+ * <p>
+ * They run against the PostgreSQL Testcontainer of the {@code testprod} profile, with the integration tests of the
+ * {@code prod} Maven profile ({@code ./mvnw -Pprod verify}, also run by {@code npm run ci:backend:test}), and are
+ * skipped on the H2 database of the default {@code dev} profile.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@IntegrationTest
+@EnabledIfSystemProperty(
+    named = "spring.profiles.active",
+    matches = ".*testprod.*",
+    disabledReason = "Needs PostgreSQL: run with ./mvnw -Pprod verify"
+)
+public @interface PostgreSqlIntegrationTest {
+}
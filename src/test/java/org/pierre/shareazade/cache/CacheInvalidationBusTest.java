@@ -0,0 +1,184 @@
+package org.pierre.shareazade.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/**
+ * Test class for the {@link CacheInvalidationBus}.
+ */
+class CacheInvalidationBusTest {
+
+    private RecordingTransport transport;
+
+    private CacheInvalidationBus local;
+
+    private CacheInvalidationBus remote;
+
+    private RecordingListener localListener;
+
+    private RecordingListener remoteListener;
+
+    @BeforeEach
+    public void setUp() {
+        transport = new RecordingTransport();
+        // The invalidations are only sent by flush(), the tests not waiting for the delay
+        local = new CacheInvalidationBus(transport, Duration.ofHours(1));
+        remote = new CacheInvalidationBus(transport, Duration.ofHours(1));
+        localListener = new RecordingListener();
+        remoteListener = new RecordingListener();
+        local.addListener(localListener);
+        remote.addListener(remoteListener);
+        local.start();
+        remote.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        local.stop();
+        remote.stop();
+    }
+
+    @Test
+    void sendsCoalescedInvalidationsToTheOtherNodes() {
+        local.publish(CacheInvalidation.entity("org.pierre.shareazade.domain.ShareRide", 1L));
+        local.publish(CacheInvalidation.entity("org.pierre.shareazade.domain.ShareRide", 1L));
+        local.publish(CacheInvalidation.cache("usersByLogin", "user"));
+        local.flush();
+
+        assertThat(transport.messages).hasSize(1);
+        assertThat(remoteListener.evicted)
+            .containsExactly(
+                CacheInvalidation.entity("org.pierre.shareazade.domain.ShareRide", 1L),
+                CacheInvalidation.cache("usersByLogin", "user")
+            );
+        assertThat(localListener.evicted).isEmpty();
+    }
+
+    @Test
+    void passesTheEntityInvalidationsFirstToTheListenersByOrder() {
+        FirstListener firstListener = new FirstListener();
+        remote.addListener(firstListener);
+        local.publish(CacheInvalidation.cache("usersByLogin", "user"));
+        local.publish(CacheInvalidation.entity("org.pierre.shareazade.domain.ShareRide", 1L));
+        local.flush();
+
+        assertThat(remoteListener.evicted)
+            .containsExactly(
+                CacheInvalidation.entity("org.pierre.shareazade.domain.ShareRide", 1L),
+                CacheInvalidation.cache("usersByLogin", "user")
+            );
+        assertThat(firstListener.evictedBefore).containsExactly(0, 1);
+    }
+
+    @Test
+    void splitsTheLargeBatches() {
+        for (long id = 0; id < 1000; id++) {
+            local.publish(CacheInvalidation.entity("org.pierre.shareazade.domain.ShareRide", id));
+        }
+        local.flush();
+
+        assertThat(transport.messages).hasSizeGreaterThan(1);
+        assertThat(transport.messages).allMatch(message -> message.length() <= transport.getMaxMessageBytes());
+        assertThat(remoteListener.evicted).hasSize(1000);
+    }
+
+    @Test
+    void sendsOnlyTheCommittedInvalidations() {
+        TransactionSynchronizationManager.initSynchronization();
+        local.publish(CacheInvalidation.collection("org.pierre.shareazade.domain.User.authorities", 1L));
+        local.flush();
+        assertThat(transport.messages).isEmpty();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        local.flush();
+        assertThat(remoteListener.evicted).containsExactly(CacheInvalidation.collection("org.pierre.shareazade.domain.User.authorities", 1L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        local.publish(CacheInvalidation.entity("org.pierre.shareazade.domain.User", 2L));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        local.flush();
+        assertThat(remoteListener.evicted).hasSize(1);
+    }
+
+    @Test
+    void evictsAllTheCachesWhenMessagesWereLost() {
+        remote.reset();
+
+        assertThat(remoteListener.evictedAll).isTrue();
+        assertThat(localListener.evictedAll).isFalse();
+    }
+
+    @Test
+    void parsesTheEncodedInvalidations() {
+        CacheInvalidation invalidation = CacheInvalidation.cache("usersByEmail", "user@localhost");
+
+        assertThat(CacheInvalidation.parse(invalidation.encode())).isEqualTo(invalidation);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+
+    private static class RecordingTransport extends InProcessCacheInvalidationTransport {
+
+        private final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void send(String message) {
+            messages.add(message);
+            super.send(message);
+        }
+
+        @Override
+        public int getMaxMessageBytes() {
+            return 1000;
+        }
+    }
+
+    private static class RecordingListener implements CacheInvalidationBus.Listener {
+
+        private final List<CacheInvalidation> evicted = new ArrayList<>();
+
+        private boolean evictedAll;
+
+        @Override
+        public void evict(CacheInvalidation invalidation) {
+            evicted.add(invalidation);
+        }
+
+        @Override
+        public void evictAll() {
+            evictedAll = true;
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    private class FirstListener extends RecordingListener {
+
+        /**
+         * The number of invalidations already passed to the remote listener, at each invalidation.
+         */
+        private final List<Integer> evictedBefore = new ArrayList<>();
+
+        @Override
+        public void evict(CacheInvalidation invalidation) {
+            evictedBefore.add(remoteListener.evicted.size());
+            super.evict(invalidation);
+        }
+    }
+}
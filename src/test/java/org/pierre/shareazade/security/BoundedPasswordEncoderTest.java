@@ -0,0 +1,110 @@
+package org.pierre.shareazade.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.management.SecurityMetersService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Test class for the {@link BoundedPasswordEncoder}.
+ */
+class BoundedPasswordEncoderTest {
+
+    private MeterRegistry meterRegistry;
+
+    private BlockingPasswordEncoder delegate;
+
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        delegate = new BlockingPasswordEncoder();
+        passwordEncoder = new BoundedPasswordEncoder(delegate, 1, 1, new SecurityMetersService(meterRegistry));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        delegate.release.countDown();
+        passwordEncoder.shutdown();
+    }
+
+    @Test
+    void delegatesAndRecordsTheTimes() {
+        delegate.release.countDown();
+
+        assertThat(passwordEncoder.encode("secret")).isEqualTo("{secret}");
+        assertThat(passwordEncoder.matches("secret", "{secret}")).isTrue();
+        assertThat(passwordEncoder.matches("other", "{secret}")).isFalse();
+
+        assertThat(timerCount(SecurityMetersService.PASSWORD_ENCODER_WAIT_METER_NAME, SecurityMetersService.PASSWORD_ENCODER_ENCODE))
+            .isEqualTo(1);
+        assertThat(timerCount(SecurityMetersService.PASSWORD_ENCODER_EXECUTION_METER_NAME, SecurityMetersService.PASSWORD_ENCODER_MATCHES))
+            .isEqualTo(2);
+    }
+
+    @Test
+    void rejectsWhenTheQueueIsFull() throws Exception {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("running"));
+        assertThat(delegate.started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("queued", "{queued}"));
+        while (passwordEncoder.getQueueSize() == 0) {
+            Thread.sleep(10);
+        }
+
+        assertThatThrownBy(() -> passwordEncoder.matches("rejected", "{rejected}")).isInstanceOf(PasswordEncoderOverloadedException.class);
+        assertThat(
+            meterRegistry
+                .get(SecurityMetersService.PASSWORD_ENCODER_REJECTED_METER_NAME)
+                .tag(SecurityMetersService.PASSWORD_ENCODER_OPERATION_DIMENSION, SecurityMetersService.PASSWORD_ENCODER_MATCHES)
+                .counter()
+                .count()
+        )
+            .isEqualTo(1);
+
+        delegate.release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("{running}");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private long timerCount(String name, String operation) {
+        return meterRegistry.get(name).tag(SecurityMetersService.PASSWORD_ENCODER_OPERATION_DIMENSION, operation).timer().count();
+    }
+
+    private static class BlockingPasswordEncoder implements PasswordEncoder {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            await();
+            return "{" + rawPassword + "}";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await();
+            return encodedPassword.equals("{" + rawPassword + "}");
+        }
+
+        private void await() {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.pierre.shareazade.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.management.SecurityMetersService;
+
+/**
+ * Test class for the {@link LoginAttemptLimiter}.
+ */
+class LoginAttemptLimiterTest {
+
+    private MeterRegistry meterRegistry;
+
+    private MutableClock clock;
+
+    private LoginAttemptLimiter loginAttemptLimiter;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2030-01-01T00:00:00Z"));
+        ApplicationProperties.LoginThrottling properties = new ApplicationProperties.LoginThrottling();
+        properties.setWindow(Duration.ofMinutes(10));
+        properties.setMaxFailuresPerLogin(3);
+        properties.setMaxFailuresPerIp(5);
+        properties.setMaxKeys(4);
+        loginAttemptLimiter = new LoginAttemptLimiter(properties, new SecurityMetersService(meterRegistry), clock);
+    }
+
+    @Test
+    void throttlesALoginWithinTheSlidingWindow() {
+        for (int i = 0; i < 3; i++) {
+            loginAttemptLimiter.checkAllowed("User", "10.0.0." + i);
+        }
+
+        assertThatThrownBy(() -> loginAttemptLimiter.checkAllowed("user", "10.0.0.9"))
+            .isInstanceOf(LoginThrottledException.class)
+            .extracting(e -> ((LoginThrottledException) e).getRetryAfter())
+            .isEqualTo(Duration.ofMinutes(10).plusMillis(1));
+        loginAttemptLimiter.checkAllowed("other", "10.0.0.9");
+        assertThat(throttled(SecurityMetersService.LOGIN_THROTTLING_LOGIN)).isEqualTo(1);
+
+        // Half of the previous window still overlaps the sliding window: 1.5 failures
+        clock.advance(Duration.ofMinutes(15));
+        loginAttemptLimiter.checkAllowed("user", "10.0.0.9");
+        loginAttemptLimiter.checkAllowed("user", "10.0.0.9");
+        assertThatThrownBy(() -> loginAttemptLimiter.checkAllowed("user", "10.0.0.9")).isInstanceOf(LoginThrottledException.class);
+    }
+
+    @Test
+    void throttlesAnAddressAcrossLogins() {
+        for (int i = 0; i < 5; i++) {
+            loginAttemptLimiter.checkAllowed("user" + i, "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> loginAttemptLimiter.checkAllowed("user9", "10.0.0.1")).isInstanceOf(LoginThrottledException.class);
+        loginAttemptLimiter.checkAllowed("user9", "10.0.0.2");
+        assertThat(throttled(SecurityMetersService.LOGIN_THROTTLING_IP)).isEqualTo(1);
+    }
+
+    @Test
+    void forgetsTheFailuresOfALoginOnSuccess() {
+        for (int i = 0; i < 3; i++) {
+            loginAttemptLimiter.checkAllowed("user", "10.0.0.1");
+        }
+
+        loginAttemptLimiter.loginSucceeded("USER", "10.0.0.1");
+
+        loginAttemptLimiter.checkAllowed("user", "10.0.0.1");
+    }
+
+    @Test
+    void releasesTheAttemptsOfSuccessfulLoginsFromAnAddress() {
+        for (int i = 0; i < 10; i++) {
+            loginAttemptLimiter.checkAllowed("user" + i, "10.0.0.1");
+            loginAttemptLimiter.loginSucceeded("user" + i, "10.0.0.1");
+        }
+        loginAttemptLimiter.checkAllowed("user", "10.0.0.1");
+        loginAttemptLimiter.release("user", "10.0.0.1");
+
+        loginAttemptLimiter.checkAllowed("user", "10.0.0.1");
+        assertThat(throttled(SecurityMetersService.LOGIN_THROTTLING_IP)).isZero();
+    }
+
+    @Test
+    void reservesTheAttemptsOfConcurrentLogins() throws Exception {
+        int threads = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String ip = "10.0.0." + i;
+            attempts.add(
+                executor.submit(() -> {
+                    start.await();
+                    try {
+                        loginAttemptLimiter.checkAllowed("user", ip);
+                        return true;
+                    } catch (LoginThrottledException e) {
+                        return false;
+                    }
+                })
+            );
+        }
+        start.countDown();
+        int allowed = 0;
+        for (Future<Boolean> attempt : attempts) {
+            allowed += attempt.get(10, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertThat(allowed).isEqualTo(3);
+    }
+
+    @Test
+    void boundsAndEvictsTheKeys() {
+        for (int i = 0; i < 10; i++) {
+            loginAttemptLimiter.checkAllowed("user" + i, "10.0.0." + i);
+        }
+        assertThat(keys(SecurityMetersService.LOGIN_THROTTLING_LOGIN)).isEqualTo(4);
+        assertThat(keys(SecurityMetersService.LOGIN_THROTTLING_IP)).isEqualTo(4);
+
+        clock.advance(Duration.ofMinutes(19));
+        loginAttemptLimiter.checkAllowed("user0", "10.0.0.0");
+        clock.advance(Duration.ofMinutes(1));
+        loginAttemptLimiter.removeIdleCounters();
+        assertThat(keys(SecurityMetersService.LOGIN_THROTTLING_LOGIN)).isEqualTo(1);
+        assertThat(keys(SecurityMetersService.LOGIN_THROTTLING_IP)).isEqualTo(1);
+    }
+
+    private double throttled(String key) {
+        return meterRegistry
+            .get(SecurityMetersService.LOGIN_THROTTLING_METER_NAME)
+            .tag(SecurityMetersService.LOGIN_THROTTLING_KEY_DIMENSION, key)
+            .counter()
+            .count();
+    }
+
+    private double keys(String key) {
+        return meterRegistry
+            .get(SecurityMetersService.LOGIN_THROTTLING_KEYS_METER_NAME)
+            .tag(SecurityMetersService.LOGIN_THROTTLING_KEY_DIMENSION, key)
+            .gauge()
+            .value();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package org.pierre.shareazade.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.cache.CacheInvalidation;
+import org.pierre.shareazade.cache.CacheInvalidationBus;
+import org.pierre.shareazade.cache.InProcessCacheInvalidationTransport;
+import org.pierre.shareazade.domain.User;
+import org.pierre.shareazade.repository.UserRepository;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Test class for the {@link UserCache}.
+ */
+class UserCacheTest {
+
+    private CacheManager cacheManager;
+
+    private UserRepository userRepository;
+
+    private UserCache userCache;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager = Caching.getCachingProvider().getCacheManager();
+        userRepository = mock(UserRepository.class);
+        userCache =
+            new UserCache(
+                userRepository,
+                cacheManager.createCache(UserRepository.USERS_BY_LOGIN_CACHE, new MutableConfiguration<>()),
+                cacheManager.createCache(UserRepository.USERS_BY_EMAIL_CACHE, new MutableConfiguration<>()),
+                cacheManager.createCache(UserCache.USERS_NOT_FOUND_CACHE, new MutableConfiguration<>()),
+                new CacheInvalidationBus(new InProcessCacheInvalidationTransport(), Duration.ZERO)
+            );
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        cacheManager.destroyCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        cacheManager.destroyCache(UserRepository.USERS_BY_EMAIL_CACHE);
+        cacheManager.destroyCache(UserCache.USERS_NOT_FOUND_CACHE);
+    }
+
+    @Test
+    void cachesTheUsersAndTheUnknownLogins() {
+        when(userRepository.findOneWithAuthoritiesByLogin("user")).thenReturn(Optional.of(user("user", "user@localhost")));
+        when(userRepository.findOneWithAuthoritiesByLogin("unknown")).thenReturn(Optional.empty());
+        when(userRepository.findOneWithAuthoritiesByEmailIgnoreCase("user@localhost"))
+            .thenReturn(Optional.of(user("user", "user@localhost")));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(userCache.findOneWithAuthoritiesByLogin("user")).map(User::getLogin).contains("user");
+            assertThat(userCache.findOneWithAuthoritiesByLogin("unknown")).isEmpty();
+            assertThat(userCache.findOneWithAuthoritiesByEmailIgnoreCase("User@Localhost")).map(User::getLogin).contains("user");
+        }
+
+        verify(userRepository, times(1)).findOneWithAuthoritiesByLogin("user");
+        verify(userRepository, times(1)).findOneWithAuthoritiesByLogin("unknown");
+        verify(userRepository, times(1)).findOneWithAuthoritiesByEmailIgnoreCase("user@localhost");
+    }
+
+    @Test
+    void evictsTheUnknownLoginsOnceCreated() {
+        when(userRepository.findOneWithAuthoritiesByLogin("new")).thenReturn(Optional.empty());
+        when(userRepository.findOneWithAuthoritiesByEmailIgnoreCase("new@localhost")).thenReturn(Optional.empty());
+        assertThat(userCache.findOneWithAuthoritiesByLogin("new")).isEmpty();
+        assertThat(userCache.findOneWithAuthoritiesByEmailIgnoreCase("new@localhost")).isEmpty();
+
+        User created = user("new", "new@localhost");
+        when(userRepository.findOneWithAuthoritiesByLogin("new")).thenReturn(Optional.of(created));
+        when(userRepository.findOneWithAuthoritiesByEmailIgnoreCase("new@localhost")).thenReturn(Optional.of(created));
+        userCache.evict(created);
+
+        assertThat(userCache.findOneWithAuthoritiesByLogin("new")).contains(created);
+        assertThat(userCache.findOneWithAuthoritiesByEmailIgnoreCase("new@localhost")).contains(created);
+    }
+
+    @Test
+    void evictsTheUsersInvalidatedByOtherNodes() {
+        User user = user("user", "user@localhost");
+        when(userRepository.findOneWithAuthoritiesByLogin("user")).thenReturn(Optional.of(user));
+        when(userRepository.findOneWithAuthoritiesByEmailIgnoreCase("user@localhost")).thenReturn(Optional.empty());
+        assertThat(userCache.findOneWithAuthoritiesByLogin("user")).contains(user);
+        assertThat(userCache.findOneWithAuthoritiesByEmailIgnoreCase("user@localhost")).isEmpty();
+
+        userCache.evict(CacheInvalidation.cache(UserRepository.USERS_BY_LOGIN_CACHE, "user"));
+        userCache.evict(CacheInvalidation.cache(UserRepository.USERS_BY_EMAIL_CACHE, "user@localhost"));
+        assertThat(userCache.findOneWithAuthoritiesByLogin("user")).contains(user);
+        assertThat(userCache.findOneWithAuthoritiesByEmailIgnoreCase("user@localhost")).isEmpty();
+
+        verify(userRepository, times(2)).findOneWithAuthoritiesByLogin("user");
+        verify(userRepository, times(2)).findOneWithAuthoritiesByEmailIgnoreCase("user@localhost");
+    }
+
+    @Test
+    void coalescesTheConcurrentMisses() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        User user = user("user", "user@localhost");
+        when(userRepository.findOneWithAuthoritiesByLogin("user"))
+            .thenAnswer(invocation -> {
+                loading.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return Optional.of(user);
+            });
+
+        CompletableFuture<Optional<User>> first = CompletableFuture.supplyAsync(() -> userCache.findOneWithAuthoritiesByLogin("user"));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Optional<User>> second = CompletableFuture.supplyAsync(() -> userCache.findOneWithAuthoritiesByLogin("user"));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).contains(user);
+        assertThat(second.get(5, TimeUnit.SECONDS)).contains(user);
+        verify(userRepository, times(1)).findOneWithAuthoritiesByLogin("user");
+    }
+
+    @Test
+    void doesNotStoreAUserLoadedWhileEvicted() {
+        User user = user("user", "user@localhost");
+        when(userRepository.findOneWithAuthoritiesByLogin("user"))
+            .thenAnswer(invocation -> {
+                userCache.evict(user);
+                return Optional.of(user);
+            });
+
+        assertThat(userCache.findOneWithAuthoritiesByLogin("user")).contains(user);
+        assertThat(userCache.findOneWithAuthoritiesByLogin("user")).contains(user);
+
+        verify(userRepository, times(2)).findOneWithAuthoritiesByLogin("user");
+    }
+
+    @Test
+    void dropsAUserStoredWhileEvicted() {
+        Cache<Object, Object> usersByLogin = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        UserCache[] racing = new UserCache[1];
+        @SuppressWarnings("unchecked")
+        Cache<Object, Object> evictingOnPut = (Cache<Object, Object>) Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            new Class<?>[] { Cache.class },
+            (proxy, method, args) -> {
+                if ("put".equals(method.getName())) {
+                    racing[0].evict(CacheInvalidation.cache(UserRepository.USERS_BY_LOGIN_CACHE, "user"));
+                }
+                return method.invoke(usersByLogin, args);
+            }
+        );
+        racing[0] =
+            new UserCache(
+                userRepository,
+                evictingOnPut,
+                cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE),
+                cacheManager.getCache(UserCache.USERS_NOT_FOUND_CACHE),
+                new CacheInvalidationBus(new InProcessCacheInvalidationTransport(), Duration.ZERO)
+            );
+        when(userRepository.findOneWithAuthoritiesByLogin("user")).thenReturn(Optional.of(user("user", "user@localhost")));
+
+        assertThat(racing[0].findOneWithAuthoritiesByLogin("user")).isPresent();
+
+        assertThat(usersByLogin.containsKey("user")).isFalse();
+    }
+
+    @Test
+    void readsTheUsersFromTheDatabaseWithinReadWriteTransactions() {
+        when(userRepository.findOneWithAuthoritiesByLogin("user")).thenReturn(Optional.of(user("user", "user@localhost")));
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertThat(userCache.findOneWithAuthoritiesByLogin("user")).isPresent();
+        assertThat(userCache.findOneWithAuthoritiesByLogin("unknown")).isEmpty();
+        assertThat(userCache.findOneWithAuthoritiesByLogin("user")).isPresent();
+
+        verify(userRepository, times(2)).findOneWithAuthoritiesByLogin("user");
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).containsKey("user")).isFalse();
+        assertThat(cacheManager.getCache(UserCache.USERS_NOT_FOUND_CACHE).iterator().hasNext()).isFalse();
+    }
+
+    private static User user(String login, String email) {
+        User user = new User();
+        user.setLogin(login);
+        user.setEmail(email);
+        user.setActivated(true);
+        return user;
+    }
+}
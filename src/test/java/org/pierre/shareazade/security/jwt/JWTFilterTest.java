@@ -1,14 +1,21 @@
 package org.pierre.shareazade.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Collections;
+import javax.cache.Cache;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.config.ApplicationProperties;
 import org.pierre.shareazade.management.SecurityMetersService;
+import org.pierre.shareazade.repository.RevokedTokenRepository;
 import org.pierre.shareazade.security.AuthoritiesConstants;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockFilterChain;
@@ -26,15 +33,23 @@ class JWTFilterTest {
 
     private JWTFilter jwtFilter;
 
+    private Cache<Object, Object> authenticationsCache;
+
+    private TokenRevocationList tokenRevocationList;
+
     @BeforeEach
     public void setup() {
+        authenticationsCache =
+            Caching.getCachingProvider().getCacheManager().createCache(TokenProvider.AUTHENTICATIONS_CACHE, new MutableConfiguration<>());
+        tokenRevocationList = new TokenRevocationList(mock(RevokedTokenRepository.class), new ApplicationProperties());
+
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService, authenticationsCache, tokenRevocationList);
         ReflectionTestUtils.setField(tokenProvider, "key", Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
 
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 60000);
@@ -42,6 +57,11 @@ class JWTFilterTest {
         SecurityContextHolder.getContext().setAuthentication(null);
     }
 
+    @AfterEach
+    public void tearDown() {
+        Caching.getCachingProvider().getCacheManager().destroyCache(TokenProvider.AUTHENTICATIONS_CACHE);
+    }
+
     @Test
     void testJWTFilter() throws Exception {
         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
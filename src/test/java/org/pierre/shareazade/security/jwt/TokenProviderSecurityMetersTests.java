@@ -1,6 +1,7 @@
 package org.pierre.shareazade.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -13,9 +14,15 @@ import java.security.Key;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import javax.cache.Cache;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.config.ApplicationProperties;
 import org.pierre.shareazade.management.SecurityMetersService;
+import org.pierre.shareazade.repository.RevokedTokenRepository;
 import org.pierre.shareazade.security.AuthoritiesConstants;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -33,8 +40,16 @@ class TokenProviderSecurityMetersTests {
 
     private TokenProvider tokenProvider;
 
+    private Cache<Object, Object> authenticationsCache;
+
+    private TokenRevocationList tokenRevocationList;
+
     @BeforeEach
     public void setup() {
+        authenticationsCache =
+            Caching.getCachingProvider().getCacheManager().createCache(TokenProvider.AUTHENTICATIONS_CACHE, new MutableConfiguration<>());
+        tokenRevocationList = new TokenRevocationList(mock(RevokedTokenRepository.class), new ApplicationProperties());
+
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
@@ -43,13 +58,18 @@ class TokenProviderSecurityMetersTests {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(meterRegistry);
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService, authenticationsCache, tokenRevocationList);
         Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", ONE_MINUTE);
     }
 
+    @AfterEach
+    public void tearDown() {
+        Caching.getCachingProvider().getCacheManager().destroyCache(TokenProvider.AUTHENTICATIONS_CACHE);
+    }
+
     @Test
     void testValidTokenShouldNotCountAnything() {
         Collection<Counter> counters = meterRegistry.find(INVALID_TOKENS_METER_EXPECTED_NAME).counters();
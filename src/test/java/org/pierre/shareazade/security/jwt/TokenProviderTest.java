@@ -1,18 +1,26 @@
 package org.pierre.shareazade.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.*;
+import javax.cache.Cache;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.config.ApplicationProperties;
 import org.pierre.shareazade.management.SecurityMetersService;
+import org.pierre.shareazade.repository.RevokedTokenRepository;
 import org.pierre.shareazade.security.AuthoritiesConstants;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -27,22 +35,37 @@ class TokenProviderTest {
 
     private Key key;
     private TokenProvider tokenProvider;
+    private MeterRegistry meterRegistry;
+
+    private Cache<Object, Object> authenticationsCache;
+
+    private TokenRevocationList tokenRevocationList;
 
     @BeforeEach
     public void setup() {
+        authenticationsCache =
+            Caching.getCachingProvider().getCacheManager().createCache(TokenProvider.AUTHENTICATIONS_CACHE, new MutableConfiguration<>());
+        tokenRevocationList = new TokenRevocationList(mock(RevokedTokenRepository.class), new ApplicationProperties());
+
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
 
-        SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
+        meterRegistry = new SimpleMeterRegistry();
+        SecurityMetersService securityMetersService = new SecurityMetersService(meterRegistry);
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService, authenticationsCache, tokenRevocationList);
         key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", ONE_MINUTE);
     }
 
+    @AfterEach
+    public void tearDown() {
+        Caching.getCachingProvider().getCacheManager().destroyCache(TokenProvider.AUTHENTICATIONS_CACHE);
+    }
+
     @Test
     void testReturnFalseWhenJWThasInvalidSignature() {
         boolean isTokenValid = tokenProvider.validateToken(createTokenWithDifferentSignature());
@@ -88,6 +111,68 @@ class TokenProviderTest {
         assertThat(isTokenValid).isFalse();
     }
 
+    @Test
+    void testAuthenticateParsesTokenOnce() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Authentication first = tokenProvider.authenticate(token);
+        Authentication second = tokenProvider.authenticate(token);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getName()).isEqualTo("anonymous");
+        assertThat(second.getCredentials()).isEqualTo(token);
+        assertThat(second.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly(AuthoritiesConstants.ANONYMOUS);
+        assertThat(meterRegistry.get("security.authentication.token-cache").tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.authentication.token-cache").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testAuthenticateDoesNotCacheInvalidTokens() {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+        String expiredToken = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.authenticate(expiredToken)).isNull();
+        assertThat(tokenProvider.authenticate(createTokenWithDifferentSignature())).isNull();
+        assertThat(tokenProvider.authenticate(createTokenWithDifferentSignature())).isNull();
+        assertThat(authenticationsCache).isEmpty();
+        assertThat(meterRegistry.get("security.authentication.token-cache").tag("result", "hit").counter().count()).isZero();
+    }
+
+    @Test
+    void testAuthenticateDoesNotCacheToken() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        tokenProvider.authenticate(token);
+
+        assertThat(authenticationsCache).hasSize(1).allSatisfy(entry -> assertThat(entry.getKey()).isNotEqualTo(token));
+    }
+
+    @Test
+    void testRevokedTokenIsRejected() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        String otherToken = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenProvider.authenticate(token)).isNotNull();
+
+        assertThat(tokenProvider.revokeToken(token)).isTrue();
+
+        assertThat(tokenProvider.authenticate(token)).isNull();
+        assertThat(tokenProvider.validateToken(token)).isFalse();
+        assertThat(tokenProvider.authenticate(otherToken)).isNotNull();
+    }
+
+    @Test
+    void testTokensIssuedBeforeRevocationOfUserAreRejected() throws InterruptedException {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenProvider.authenticate(token)).isNotNull();
+
+        tokenProvider.revokeTokens("anonymous");
+
+        assertThat(tokenProvider.authenticate(token)).isNull();
+        // The issue time of a token is truncated to the second
+        Thread.sleep(1000);
+        assertThat(tokenProvider.authenticate(tokenProvider.createToken(createAuthentication(), false))).isNotNull();
+    }
+
     @Test
     void testKeyIsSetFromSecretWhenSecretIsNotEmpty() {
         final String secret = "NwskoUmKHZtzGRKJKVjsJF7BtQMMxNWi";
@@ -96,7 +181,7 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService, authenticationsCache, tokenRevocationList);
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
@@ -110,7 +195,7 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService, authenticationsCache, tokenRevocationList);
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
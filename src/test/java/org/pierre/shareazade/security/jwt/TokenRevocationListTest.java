@@ -0,0 +1,94 @@
+package org.pierre.shareazade.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.domain.RevokedToken;
+import org.pierre.shareazade.repository.RevokedTokenRepository;
+
+/**
+ * Test class for the {@link TokenRevocationList}.
+ */
+class TokenRevocationListTest {
+
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationList tokenRevocationList;
+
+    @BeforeEach
+    public void setUp() {
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        tokenRevocationList = new TokenRevocationList(revokedTokenRepository, new ApplicationProperties());
+    }
+
+    @Test
+    void revokesTokensById() {
+        Instant now = Instant.now();
+        tokenRevocationList.revoke("token-1", "user", now.plus(1, ChronoUnit.HOURS));
+
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        assertThat(tokenRevocationList.isRevoked("token-1", "user", now)).isTrue();
+        assertThat(tokenRevocationList.isRevoked("token-2", "user", now)).isFalse();
+        assertThat(tokenRevocationList.isRevoked(null, "user", now)).isFalse();
+    }
+
+    @Test
+    void revokesTokensIssuedToUserUntilNow() {
+        Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        tokenRevocationList.revoke(null, "user", issuedAt.plus(30, ChronoUnit.DAYS));
+
+        assertThat(tokenRevocationList.isRevoked("token-1", "user", issuedAt)).isTrue();
+        assertThat(tokenRevocationList.isRevoked(null, "user", null)).isTrue();
+        assertThat(tokenRevocationList.isRevoked("token-1", "user", issuedAt.plusSeconds(1))).isFalse();
+        assertThat(tokenRevocationList.isRevoked("token-1", "other-user", issuedAt)).isFalse();
+    }
+
+    @Test
+    void reloadsTheRevokedTokensWhichHaveNotExpired() {
+        Instant now = Instant.now();
+        tokenRevocationList.revoke("token-1", "user", now.plus(1, ChronoUnit.HOURS));
+        when(revokedTokenRepository.findAllByExpiresAtAfter(any())).thenReturn(List.of(revokedToken("token-2", "user", now)));
+
+        tokenRevocationList.removeExpiredRevokedTokens();
+
+        verify(revokedTokenRepository).deleteExpired(any());
+        assertThat(tokenRevocationList.isRevoked("token-1", "user", now)).isFalse();
+        assertThat(tokenRevocationList.isRevoked("token-2", "user", now)).isTrue();
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("token", "revoked-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            assertThat(filter.mightContain("token", "revoked-" + i)).isTrue();
+            if (filter.mightContain("token", "valid-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(filter.mightContain("login", "revoked-0")).isFalse();
+        assertThat(falsePositives).isLessThan(200);
+    }
+
+    private static RevokedToken revokedToken(String tokenId, String login, Instant revokedAt) {
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setTokenId(tokenId);
+        revokedToken.setLogin(login);
+        revokedToken.setRevokedAt(revokedAt);
+        revokedToken.setExpiresAt(revokedAt.plus(1, ChronoUnit.HOURS));
+        return revokedToken;
+    }
+}
@@ -0,0 +1,186 @@
+package org.pierre.shareazade.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.domain.ShareCity;
+import org.pierre.shareazade.domain.ShareRide;
+import org.pierre.shareazade.domain.ShareUser;
+import org.pierre.shareazade.domain.User;
+import org.pierre.shareazade.domain.enumeration.UserStatus;
+import org.pierre.shareazade.repository.RefreshTokenRepository;
+import org.pierre.shareazade.repository.ShareCityRepository;
+import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.repository.ShareUserRepository;
+import org.pierre.shareazade.security.UserCache;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Test class for the {@link CacheWarmUp}.
+ */
+class CacheWarmUpTest {
+
+    private ShareCityRepository shareCityRepository;
+
+    private ShareUserRepository shareUserRepository;
+
+    private ShareRideRepository shareRideRepository;
+
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private UserCache userCache;
+
+    private ApplicationProperties.Cache.WarmUp properties;
+
+    private MutableClock clock;
+
+    @BeforeEach
+    public void setUp() {
+        shareCityRepository = mock(ShareCityRepository.class);
+        shareUserRepository = mock(ShareUserRepository.class);
+        shareRideRepository = mock(ShareRideRepository.class);
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        userCache = mock(UserCache.class);
+        properties = new ApplicationProperties.Cache.WarmUp();
+        clock = new MutableClock(Instant.parse("2030-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void isWarmOnceAllTheCachesAreLoaded() {
+        when(shareCityRepository.findAll()).thenReturn(List.of(new ShareCity(), new ShareCity()));
+        when(shareUserRepository.findAllByUserStatus(eq(UserStatus.ACTIVE), any(Pageable.class))).thenReturn(List.of(new ShareUser()));
+        when(shareRideRepository.findAllUpcomingWithToOneRelationships(any(), any(), any(Pageable.class)))
+            .thenReturn(List.of(new ShareRide(), new ShareRide(), new ShareRide()));
+        when(refreshTokenRepository.findLoginsWithUnexpiredTokens(any(), any(Pageable.class))).thenReturn(List.of("user", "deleted"));
+        when(userCache.findOneWithAuthoritiesByLogin("user")).thenReturn(Optional.of(new User()));
+        when(userCache.findOneWithAuthoritiesByLogin("deleted")).thenReturn(Optional.empty());
+        HeldExecutor executor = new HeldExecutor();
+        CacheWarmUp cacheWarmUp = cacheWarmUp(executor);
+        assertThat(cacheWarmUp.isWarm()).isFalse();
+
+        cacheWarmUp.warmUp();
+        executor.runOne();
+        assertThat(cacheWarmUp.isWarm()).isFalse();
+        assertThat(cacheWarmUp.getProgress()).containsEntry("shareCities", 2).containsEntry("shareRides", "loading");
+
+        executor.runAll();
+        assertThat(cacheWarmUp.isWarm()).isTrue();
+        assertThat(cacheWarmUp.getProgress())
+            .containsEntry("shareCities", 2)
+            .containsEntry("shareUsers", 1)
+            .containsEntry("shareRides", 3)
+            .containsEntry("users", 1);
+    }
+
+    @Test
+    void isWarmWhenALoadFails() {
+        when(shareCityRepository.findAll()).thenThrow(new IllegalStateException("Database unavailable"));
+        CacheWarmUp cacheWarmUp = cacheWarmUp(Runnable::run);
+
+        cacheWarmUp.warmUp();
+
+        assertThat(cacheWarmUp.isWarm()).isTrue();
+        assertThat(cacheWarmUp.getProgress()).containsEntry("shareCities", "failed").containsEntry("shareRides", 0);
+    }
+
+    @Test
+    void givesUpWaitingAfterTheTimeout() {
+        HeldExecutor executor = new HeldExecutor();
+        CacheWarmUp cacheWarmUp = cacheWarmUp(executor);
+        cacheWarmUp.warmUp();
+
+        clock.advance(properties.getTimeout().minusSeconds(1));
+        assertThat(cacheWarmUp.isWarm()).isFalse();
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(cacheWarmUp.isWarm()).isTrue();
+        assertThat(cacheWarmUp.getProgress()).containsEntry("shareCities", "loading").containsEntry("timedOut", true);
+    }
+
+    @Test
+    void isWarmWhenDisabled() {
+        properties.setEnabled(false);
+        HeldExecutor executor = new HeldExecutor();
+        CacheWarmUp cacheWarmUp = cacheWarmUp(executor);
+
+        cacheWarmUp.warmUp();
+
+        assertThat(cacheWarmUp.isWarm()).isTrue();
+        assertThat(executor.tasks).isEmpty();
+    }
+
+    private CacheWarmUp cacheWarmUp(Executor executor) {
+        return new CacheWarmUp(
+            shareCityRepository,
+            shareUserRepository,
+            shareRideRepository,
+            refreshTokenRepository,
+            userCache,
+            executor,
+            properties,
+            clock
+        );
+    }
+
+    private static final class HeldExecutor implements Executor {
+
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runOne() {
+            tasks.remove(0).run();
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                runOne();
+            }
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
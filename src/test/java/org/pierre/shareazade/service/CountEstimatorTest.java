@@ -0,0 +1,112 @@
+package org.pierre.shareazade.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.domain.ShareCity;
+import org.pierre.shareazade.domain.ShareUser;
+import org.pierre.shareazade.service.criteria.ShareCityCriteria;
+
+/**
+ * Test class for the {@link CountEstimator}.
+ */
+class CountEstimatorTest {
+
+    private static final String CACHE_NAME = CountEstimatorTest.class.getName();
+
+    private CacheManager cacheManager;
+
+    private MutableClock clock;
+
+    private CountEstimator countEstimator;
+
+    private final AtomicLong counts = new AtomicLong();
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager = Caching.getCachingProvider().getCacheManager();
+        clock = new MutableClock(Instant.parse("2030-01-01T00:00:00Z"));
+        countEstimator = new CountEstimator(cacheManager.createCache(CACHE_NAME, new MutableConfiguration<>()), Duration.ofMinutes(1), clock);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cacheManager.destroyCache(CACHE_NAME);
+    }
+
+    @Test
+    void reusesTheCountOfTheSameCriteriaUntilItExpires() {
+        assertThat(estimate(ShareCity.class, named("Lausanne"), 10L)).isEqualTo(10L);
+        assertThat(estimate(ShareCity.class, named("Lausanne"), 11L)).isEqualTo(10L);
+        assertThat(counts.get()).isEqualTo(1L);
+
+        clock.advance(Duration.ofMinutes(1));
+
+        assertThat(estimate(ShareCity.class, named("Lausanne"), 12L)).isEqualTo(12L);
+        assertThat(counts.get()).isEqualTo(2L);
+    }
+
+    @Test
+    void countsEachCriteriaAndEntitySeparately() {
+        assertThat(estimate(ShareCity.class, named("Lausanne"), 10L)).isEqualTo(10L);
+        assertThat(estimate(ShareCity.class, named("Geneva"), 20L)).isEqualTo(20L);
+        assertThat(estimate(ShareUser.class, named("Lausanne"), 30L)).isEqualTo(30L);
+        assertThat(counts.get()).isEqualTo(3L);
+    }
+
+    private long estimate(Class<?> entity, ShareCityCriteria criteria, long count) {
+        return countEstimator.estimate(
+            entity,
+            criteria,
+            () -> {
+                counts.incrementAndGet();
+                return count;
+            }
+        );
+    }
+
+    private static ShareCityCriteria named(String cityName) {
+        ShareCityCriteria criteria = new ShareCityCriteria();
+        criteria.cityName().setEquals(cityName);
+        return criteria;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.pierre.shareazade.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
+
+/**
+ * Test class for the {@link InMemoryShareRideCommentsIndex}.
+ */
+class InMemoryShareRideCommentsIndexTest {
+
+    private ShareRideRepository shareRideRepository;
+
+    private InMemoryShareRideCommentsIndex shareRideCommentsIndex;
+
+    @BeforeEach
+    public void setUp() {
+        shareRideRepository = mock(ShareRideRepository.class);
+        shareRideCommentsIndex = new InMemoryShareRideCommentsIndex(shareRideRepository, mock(EntityManager.class));
+    }
+
+    @Test
+    void findsCommentsContainingAllTheWordsByRelevance() {
+        save(1L, "Non smoker, small luggage only");
+        save(2L, "Luggage welcome. Luggage rack on the roof, non smoker!");
+        save(3L, "Smoker friendly, no luggage");
+        save(4L, null);
+
+        assertThat(shareRideCommentsIndex.search("luggage")).containsExactly(2L, 1L, 3L);
+        assertThat(shareRideCommentsIndex.search("NON smoker")).containsExactly(1L, 2L);
+        assertThat(shareRideCommentsIndex.search("smoker non")).containsExactly(1L, 2L);
+        assertThat(shareRideCommentsIndex.search("luggage pets")).isEmpty();
+        assertThat(shareRideCommentsIndex.search(" ,")).isEmpty();
+    }
+
+    @Test
+    void followsUpdatesAndDeletions() {
+        save(1L, "Non smoker");
+        save(2L, "Non smoker");
+
+        save(1L, "Pets allowed");
+        assertThat(shareRideCommentsIndex.search("smoker")).containsExactly(2L);
+        assertThat(shareRideCommentsIndex.search("pets")).containsExactly(1L);
+
+        shareRideCommentsIndex.onShareRideChanged(ShareRideChangedEvent.deleted(2L));
+        assertThat(shareRideCommentsIndex.search("smoker")).isEmpty();
+    }
+
+    @Test
+    void loadsTheCommentsOfTheExistingShareRides() {
+        when(shareRideRepository.findAllIdAndRideComments())
+            .thenReturn(Arrays.asList(new Object[] { 1L, "Non smoker" }, new Object[] { 2L, "Pets allowed" }));
+
+        shareRideCommentsIndex.loadShareRideComments();
+
+        assertThat(shareRideCommentsIndex.search("pets")).containsExactly(2L);
+    }
+
+    private void save(Long id, String rideComments) {
+        ShareRideDTO shareRide = new ShareRideDTO();
+        shareRide.setId(id);
+        shareRide.setRideComments(rideComments);
+        shareRideCommentsIndex.onShareRideChanged(ShareRideChangedEvent.saved(shareRide));
+    }
+}
@@ -0,0 +1,62 @@
+package org.pierre.shareazade.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.PostgreSqlIntegrationTest;
+import org.pierre.shareazade.domain.ShareRide;
+import org.pierre.shareazade.domain.ShareRide_;
+import org.pierre.shareazade.domain.enumeration.RideType;
+import org.pierre.shareazade.repository.ShareRideRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link PostgresShareRideCommentsIndex}.
+ */
+@PostgreSqlIntegrationTest
+@Transactional
+class PostgresShareRideCommentsIndexIT {
+
+    @Autowired
+    private ShareRideCommentsIndex shareRideCommentsIndex;
+
+    @Autowired
+    private ShareRideRepository shareRideRepository;
+
+    @Test
+    void isTheIndexOfPostgreSql() {
+        assertThat(shareRideCommentsIndex).isInstanceOf(PostgresShareRideCommentsIndex.class);
+    }
+
+    @Test
+    void matchesCommentsContainingAllTheWords() {
+        save("Zanzibar trip, non smoker", RideType.OFFER);
+        save("Zanzibar trip, smoker friendly", RideType.OFFER);
+        save(null, RideType.OFFER);
+
+        assertThat(shareRideRepository.count(shareRideCommentsIndex.matching("ZANZIBAR trip"))).isEqualTo(2);
+        assertThat(shareRideRepository.count(shareRideCommentsIndex.matching("non smoker zanzibar"))).isEqualTo(1);
+        assertThat(shareRideRepository.count(shareRideCommentsIndex.matching("zanzibar pets"))).isZero();
+    }
+
+    @Test
+    void ranksTheShareRidesMatchingTheOtherFilters() {
+        ShareRide once = save("Zanzibar, small luggage only", RideType.OFFER);
+        ShareRide twice = save("Zanzibar then back to Zanzibar", RideType.OFFER);
+        save("Zanzibar, Zanzibar and Zanzibar again", RideType.REQUEST);
+
+        Specification<ShareRide> offers = shareRideCommentsIndex
+            .matching("zanzibar")
+            .and((root, query, cb) -> cb.equal(root.get(ShareRide_.rideType), RideType.OFFER));
+
+        assertThat(shareRideCommentsIndex.rank("zanzibar", offers, 0, -1)).containsExactly(twice.getId(), once.getId());
+        assertThat(shareRideCommentsIndex.rank("zanzibar", offers, 1, 1)).containsExactly(once.getId());
+        assertThat(shareRideRepository.count(offers)).isEqualTo(2);
+    }
+
+    private ShareRide save(String rideComments, RideType rideType) {
+        return shareRideRepository.saveAndFlush(new ShareRide().rideType(rideType).rideComments(rideComments));
+    }
+}
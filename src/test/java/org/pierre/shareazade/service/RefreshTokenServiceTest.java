@@ -0,0 +1,160 @@
+package org.pierre.shareazade.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.domain.Authority;
+import org.pierre.shareazade.domain.RefreshToken;
+import org.pierre.shareazade.domain.User;
+import org.pierre.shareazade.repository.RefreshTokenRepository;
+import org.pierre.shareazade.security.AuthoritiesConstants;
+import org.pierre.shareazade.security.UserCache;
+import org.pierre.shareazade.security.jwt.TokenProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Test class for the {@link RefreshTokenService}.
+ */
+class RefreshTokenServiceTest {
+
+    private final Map<String, RefreshToken> refreshTokens = new ConcurrentHashMap<>();
+
+    private TokenProvider tokenProvider;
+
+    private UserCache userCache;
+
+    private PlatformTransactionManager transactionManager;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    public void setUp() {
+        RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+        AtomicLong ids = new AtomicLong();
+        when(refreshTokenRepository.save(any()))
+            .thenAnswer(invocation -> {
+                RefreshToken refreshToken = invocation.getArgument(0);
+                refreshToken.setId(ids.incrementAndGet());
+                refreshTokens.put(refreshToken.getTokenHash(), refreshToken);
+                return refreshToken;
+            });
+        when(refreshTokenRepository.findOneByTokenHash(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(refreshTokens.get(invocation.<String>getArgument(0))));
+        when(refreshTokenRepository.markUsed(anyLong(), any()))
+            .thenAnswer(invocation -> {
+                RefreshToken refreshToken = refreshTokens
+                    .values()
+                    .stream()
+                    .filter(candidate -> candidate.getId().equals(invocation.getArgument(0)))
+                    .findFirst()
+                    .orElseThrow();
+                if (refreshToken.getUsedAt() != null) {
+                    return 0;
+                }
+                refreshToken.setUsedAt(invocation.getArgument(1));
+                return 1;
+            });
+        when(refreshTokenRepository.deleteFamily(anyString()))
+            .thenAnswer(invocation -> {
+                refreshTokens.values().removeIf(refreshToken -> refreshToken.getFamily().equals(invocation.getArgument(0)));
+                return 0;
+            });
+
+        userCache = mock(UserCache.class);
+        User user = new User();
+        user.setLogin("user");
+        user.setActivated(true);
+        Authority authority = new Authority();
+        authority.setName(AuthoritiesConstants.USER);
+        user.setAuthorities(Set.of(authority));
+        when(userCache.findOneWithAuthoritiesByLogin("user")).thenReturn(Optional.of(user));
+
+        tokenProvider = mock(TokenProvider.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(tokenProvider.createToken(any(), any(Duration.class))).thenReturn("access-token");
+
+        refreshTokenService =
+            new RefreshTokenService(
+                refreshTokenRepository,
+                userCache,
+                tokenProvider,
+                new JHipsterProperties(),
+                new ApplicationProperties(),
+                transactionManager
+            );
+    }
+
+    @Test
+    void rotatesTheRefreshToken() {
+        String first = refreshTokenService.createRefreshToken("user", false);
+
+        RefreshTokenService.RefreshedTokens refreshed = refreshTokenService.refresh(first).orElseThrow();
+
+        assertThat(refreshed.getAccessToken()).isEqualTo("access-token");
+        assertThat(refreshed.getRefreshToken()).isNotEqualTo(first);
+        assertThat(refreshTokenService.refresh(refreshed.getRefreshToken())).isPresent();
+        assertThat(refreshTokens).hasSize(3);
+        verify(tokenProvider, never()).revokeTokens(any());
+    }
+
+    @Test
+    void looksTheUserUpBeforeTheReadWriteTransaction() {
+        String refreshToken = refreshTokenService.createRefreshToken("user", false);
+
+        assertThat(refreshTokenService.refresh(refreshToken)).isPresent();
+
+        InOrder inOrder = inOrder(userCache, transactionManager);
+        inOrder.verify(userCache).findOneWithAuthoritiesByLogin("user");
+        inOrder.verify(transactionManager).getTransaction(any());
+    }
+
+    @Test
+    void revokesTheFamilyOnReuse() {
+        String other = refreshTokenService.createRefreshToken("user", true);
+        String first = refreshTokenService.createRefreshToken("user", false);
+        String second = refreshTokenService.refresh(first).orElseThrow().getRefreshToken();
+
+        assertThat(refreshTokenService.refresh(first)).isEmpty();
+
+        verify(tokenProvider).revokeTokens("user");
+        assertThat(refreshTokenService.refresh(second)).isEmpty();
+        assertThat(refreshTokenService.refresh(other)).isPresent();
+    }
+
+    @Test
+    void rejectsUnknownAndExpiredTokens() {
+        String expired = refreshTokenService.createRefreshToken("user", false);
+        refreshTokens.values().forEach(refreshToken -> refreshToken.setExpiresAt(Instant.now().minusSeconds(1)));
+
+        assertThat(refreshTokenService.refresh(expired)).isEmpty();
+        assertThat(refreshTokenService.refresh("unknown")).isEmpty();
+    }
+
+    @Test
+    void rejectsTokensOfDeactivatedUsers() {
+        String refreshToken = refreshTokenService.createRefreshToken("user", false);
+        userCache.findOneWithAuthoritiesByLogin("user").orElseThrow().setActivated(false);
+
+        assertThat(refreshTokenService.refresh(refreshToken)).isEmpty();
+        assertThat(refreshTokens).isEmpty();
+    }
+}
@@ -0,0 +1,195 @@
+package org.pierre.shareazade.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.cache.CacheInvalidation;
+import org.pierre.shareazade.cache.CacheInvalidationBus;
+import org.pierre.shareazade.domain.ShareCity;
+import org.pierre.shareazade.domain.ShareRide;
+import org.pierre.shareazade.domain.enumeration.RideType;
+import org.pierre.shareazade.repository.ShareCityRepository;
+import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.dto.ShareUserDTO;
+import org.pierre.shareazade.service.event.ShareChangesLostEvent;
+import org.pierre.shareazade.service.event.ShareCityChangedEvent;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
+import org.pierre.shareazade.service.mapper.ShareCityMapper;
+import org.pierre.shareazade.service.mapper.ShareRideMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Test class for the {@link ShareChangeRelay}.
+ */
+class ShareChangeRelayTest {
+
+    private static final ZonedDateTime DEPARTURE = ZonedDateTime.of(2026, 10, 19, 8, 30, 0, 0, ZoneId.of("Europe/Paris"));
+
+    private CacheInvalidationBus origin;
+
+    private ShareRideRepository shareRideRepository;
+
+    private ShareRideMapper shareRideMapper;
+
+    private ShareCityRepository shareCityRepository;
+
+    private ShareCityMapper shareCityMapper;
+
+    private List<Object> published;
+
+    private ShareChangeRelay sender;
+
+    private ShareChangeRelay receiver;
+
+    @BeforeEach
+    public void setUp() {
+        origin = mock(CacheInvalidationBus.class);
+        shareRideRepository = mock(ShareRideRepository.class);
+        shareRideMapper = mock(ShareRideMapper.class);
+        shareCityRepository = mock(ShareCityRepository.class);
+        shareCityMapper = mock(ShareCityMapper.class);
+        published = new ArrayList<>();
+        sender = relay(origin, event -> {});
+        receiver = relay(mock(CacheInvalidationBus.class), published::add);
+    }
+
+    @Test
+    void relaysTheShareRidesAsLoadedByTheReceiver() {
+        ShareRideDTO previous = shareRide(1L, RideType.OFFER, 10L, 20L, 7L);
+        previous.setRideComments("before");
+        ShareRideDTO saved = shareRide(1L, RideType.REQUEST, 10L, 30L, 7L);
+        saved.setRideComments("after");
+        ShareRide entity = new ShareRide();
+        when(shareRideRepository.findOneWithToOneRelationships(1L)).thenReturn(Optional.of(entity));
+        when(shareRideMapper.toDto(entity)).thenReturn(saved);
+
+        relay(ShareRideChangedEvent.saved(previous, saved));
+
+        ShareRideChangedEvent event = (ShareRideChangedEvent) published.get(0);
+        assertThat(event.isRemote()).isTrue();
+        assertThat(event.getShareRide()).isSameAs(saved);
+        assertThat(event.getPrevious().getId()).isEqualTo(1L);
+        assertThat(event.getPrevious().getRideDateTime().toInstant()).isEqualTo(DEPARTURE.toInstant());
+        assertThat(event.getPrevious().getRideType()).isEqualTo(RideType.OFFER);
+        assertThat(event.getPrevious().getRideCityFrom().getId()).isEqualTo(10L);
+        assertThat(event.getPrevious().getRideCityTo().getId()).isEqualTo(20L);
+        assertThat(event.getPrevious().getRideUser().getId()).isEqualTo(7L);
+        assertThat(event.getPrevious().getRideComments()).isNull();
+    }
+
+    @Test
+    void relaysTheStateSentWhenTheShareRideChangedSince() {
+        ShareRideDTO saved = shareRide(1L, RideType.OFFER, 10L, 20L, 7L);
+        ShareRide entity = new ShareRide();
+        when(shareRideRepository.findOneWithToOneRelationships(1L)).thenReturn(Optional.of(entity));
+        when(shareRideMapper.toDto(entity)).thenReturn(shareRide(1L, RideType.OFFER, 10L, 30L, 7L));
+
+        relay(ShareRideChangedEvent.saved(saved));
+
+        ShareRideChangedEvent event = (ShareRideChangedEvent) published.get(0);
+        assertThat(event.getPrevious()).isNull();
+        assertThat(event.getShareRide().getRideCityTo().getId()).isEqualTo(20L);
+        assertThat(ShareChangeRelay.encode(event.getShareRide())).isEqualTo(ShareChangeRelay.encode(saved));
+    }
+
+    @Test
+    void relaysTheDeletedShareRides() {
+        relay(ShareRideChangedEvent.deleted(1L, shareRide(1L, RideType.OFFER, 10L, 20L, null)));
+
+        ShareRideChangedEvent event = (ShareRideChangedEvent) published.get(0);
+        assertThat(event.isDeleted()).isTrue();
+        assertThat(event.getPrevious().getRideUser()).isNull();
+        verify(shareRideRepository, never()).findOneWithToOneRelationships(any());
+    }
+
+    @Test
+    void relaysTheShareCitiesAsLoadedByTheReceiver() {
+        ShareCity entity = new ShareCity();
+        ShareCityDTO shareCity = new ShareCityDTO();
+        shareCity.setId(10L);
+        when(shareCityRepository.findById(10L)).thenReturn(Optional.of(entity));
+        when(shareCityMapper.toDto(entity)).thenReturn(shareCity);
+
+        relay(ShareCityChangedEvent.saved(shareCity));
+        relay(ShareCityChangedEvent.deleted(11L));
+
+        assertThat(published).hasSize(2);
+        ShareCityChangedEvent saved = (ShareCityChangedEvent) published.get(0);
+        assertThat(saved.isRemote()).isTrue();
+        assertThat(saved.getShareCity()).isSameAs(shareCity);
+        assertThat(((ShareCityChangedEvent) published.get(1)).isDeleted()).isTrue();
+    }
+
+    @Test
+    void doesNotRelayTheRemoteChangesAgain() {
+        sender.onShareRideChanged(ShareRideChangedEvent.remote(1L, null, null));
+        sender.onShareCityChanged(ShareCityChangedEvent.remote(10L, null));
+
+        verify(origin, never()).publish(any());
+    }
+
+    @Test
+    void publishesTheLossOfTheChanges() {
+        receiver.evictAll();
+
+        assertThat(published).singleElement().isInstanceOf(ShareChangesLostEvent.class);
+    }
+
+    private void relay(Object event) {
+        List<CacheInvalidation> sent = new ArrayList<>();
+        doAnswer(invocation -> sent.add(invocation.getArgument(0))).when(origin).publish(any());
+        if (event instanceof ShareRideChangedEvent) {
+            sender.onShareRideChanged((ShareRideChangedEvent) event);
+        } else {
+            sender.onShareCityChanged((ShareCityChangedEvent) event);
+        }
+        // As received from the transport
+        sent.forEach(invalidation -> receiver.evict(CacheInvalidation.parse(invalidation.encode())));
+    }
+
+    private ShareChangeRelay relay(CacheInvalidationBus bus, ApplicationEventPublisher publisher) {
+        return new ShareChangeRelay(
+            bus,
+            shareRideRepository,
+            shareRideMapper,
+            shareCityRepository,
+            shareCityMapper,
+            publisher,
+            mock(PlatformTransactionManager.class)
+        );
+    }
+
+    private static ShareRideDTO shareRide(Long id, RideType rideType, Long cityFromId, Long cityToId, Long userId) {
+        ShareRideDTO shareRide = new ShareRideDTO();
+        shareRide.setId(id);
+        shareRide.setRideType(rideType);
+        shareRide.setRideDateTime(DEPARTURE);
+        ShareCityDTO cityFrom = new ShareCityDTO();
+        cityFrom.setId(cityFromId);
+        shareRide.setRideCityFrom(cityFrom);
+        ShareCityDTO cityTo = new ShareCityDTO();
+        cityTo.setId(cityToId);
+        shareRide.setRideCityTo(cityTo);
+        if (userId != null) {
+            ShareUserDTO user = new ShareUserDTO();
+            user.setId(userId);
+            shareRide.setRideUser(user);
+        }
+        return shareRide;
+    }
+}
@@ -0,0 +1,87 @@
+package org.pierre.shareazade.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.repository.ShareCityRepository;
+import org.pierre.shareazade.service.criteria.GeoCircle;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+import org.pierre.shareazade.service.event.ShareCityChangedEvent;
+
+/**
+ * Test class for the {@link ShareCityGeoIndex}.
+ */
+class ShareCityGeoIndexTest {
+
+    private ShareCityGeoIndex shareCityGeoIndex;
+
+    @BeforeEach
+    public void setUp() {
+        shareCityGeoIndex = new ShareCityGeoIndex(mock(ShareCityRepository.class), new ApplicationProperties());
+    }
+
+    @Test
+    void findsTheCitiesWithinTheRadius() {
+        save(1L, 46.5197, 6.6323); // Lausanne
+        save(2L, 46.2044, 6.1432); // Geneva, 51 km away
+        save(3L, 46.9480, 7.4474); // Bern, 77 km away
+        save(4L, 45.4642, 9.1900); // Milan, 228 km away
+
+        assertThat(shareCityGeoIndex.findWithin(new GeoCircle(46.5197, 6.6323, 10))).containsExactly(1L);
+        assertThat(shareCityGeoIndex.findWithin(new GeoCircle(46.5197, 6.6323, 60))).containsExactly(1L, 2L);
+        assertThat(shareCityGeoIndex.findWithin(new GeoCircle(46.5197, 6.6323, 100))).containsExactly(1L, 2L, 3L);
+        assertThat(shareCityGeoIndex.findWithin(new GeoCircle(46.5197, 6.6323, 20000))).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void wrapsAroundTheAntimeridianAndThePoles() {
+        save(1L, 0.0, 179.9);
+        save(2L, 0.0, -179.9);
+        save(3L, 89.9, 0.0);
+        save(4L, 89.9, 180.0);
+        // Far away cities, so that the grid is searched instead of all the cities
+        for (long id = 10L; id < 100L; id++) {
+            save(id, -45.0, (double) id);
+        }
+
+        assertThat(shareCityGeoIndex.findWithin(new GeoCircle(0, 179.95, 30))).containsExactly(1L, 2L);
+        assertThat(shareCityGeoIndex.findWithin(new GeoCircle(90, 0, 20))).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void followsUpdatesAndDeletions() {
+        save(1L, 46.5197, 6.6323);
+        GeoCircle lausanne = new GeoCircle(46.5197, 6.6323, 10);
+        assertThat(shareCityGeoIndex.findWithin(lausanne)).containsExactly(1L);
+
+        save(1L, 46.2044, 6.1432);
+        assertThat(shareCityGeoIndex.findWithin(lausanne)).isEmpty();
+
+        save(1L, null, null);
+        assertThat(shareCityGeoIndex.findWithin(new GeoCircle(46.2044, 6.1432, 10))).isEmpty();
+
+        save(2L, 46.5197, 6.6323);
+        shareCityGeoIndex.onShareCityChanged(ShareCityChangedEvent.deleted(2L));
+        assertThat(shareCityGeoIndex.findWithin(lausanne)).isEmpty();
+    }
+
+    @Test
+    void parsesCircles() {
+        assertThat(GeoCircle.valueOf("46.52, 6.63,25")).isEqualTo(new GeoCircle(46.52, 6.63, 25));
+        assertThatThrownBy(() -> GeoCircle.valueOf("46.52,6.63")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> GeoCircle.valueOf("91,6.63,25")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> GeoCircle.valueOf("46.52,6.63,-1")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void save(Long id, Double latitude, Double longitude) {
+        ShareCityDTO shareCity = new ShareCityDTO();
+        shareCity.setId(id);
+        shareCity.setLatitude(latitude);
+        shareCity.setLongitude(longitude);
+        shareCityGeoIndex.onShareCityChanged(ShareCityChangedEvent.saved(shareCity));
+    }
+}
@@ -0,0 +1,111 @@
+package org.pierre.shareazade.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.domain.ShareCity;
+import org.pierre.shareazade.domain.enumeration.ShareCountry;
+import org.pierre.shareazade.repository.ShareCityRepository;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+import org.pierre.shareazade.service.event.ShareCityChangedEvent;
+import org.pierre.shareazade.service.mapper.ShareCityMapperImpl;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Test class for the {@link ShareCitySnapshot}.
+ */
+class ShareCitySnapshotTest {
+
+    private ShareCityRepository shareCityRepository;
+
+    private ShareCitySnapshot shareCitySnapshot;
+
+    @BeforeEach
+    public void setUp() {
+        shareCityRepository = mock(ShareCityRepository.class);
+        shareCitySnapshot = new ShareCitySnapshot(shareCityRepository, new ShareCityMapperImpl());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void servesTheLoadedCities() {
+        assertThat(shareCitySnapshot.isLoaded()).isFalse();
+        assertThat(shareCitySnapshot.get(1L)).isNull();
+
+        when(shareCityRepository.findAll())
+            .thenReturn(List.of(city(3L, "Zürich", ShareCountry.CH), city(1L, "Genève", ShareCountry.CH), city(2L, "Lyon", ShareCountry.FR)));
+        shareCitySnapshot.loadShareCities();
+
+        assertThat(shareCitySnapshot.isLoaded()).isTrue();
+        assertThat(shareCitySnapshot.get(2L).getCityName()).isEqualTo("Lyon");
+        assertThat(shareCitySnapshot.get(2L).getCityCountry()).isEqualTo(ShareCountry.FR);
+        assertThat(shareCitySnapshot.get(4L)).isNull();
+        assertThat(shareCitySnapshot.getReference(3L).getCityName()).isEqualTo("Zürich");
+        assertThat(shareCitySnapshot.getReference(3L).getCityCountry()).isNull();
+        assertThat(shareCitySnapshot.findAll(null)).extracting(ShareCityDTO::getId).containsExactly(1L, 2L, 3L);
+        assertThat(shareCitySnapshot.findAll(ShareCountry.CH)).extracting(ShareCityDTO::getId).containsExactly(1L, 3L);
+        assertThat(shareCitySnapshot.findAll(ShareCountry.IT)).isEmpty();
+    }
+
+    @Test
+    void returnsCopies() {
+        when(shareCityRepository.findAll()).thenReturn(List.of(city(1L, "Genève", ShareCountry.CH)));
+        shareCitySnapshot.loadShareCities();
+
+        shareCitySnapshot.get(1L).setCityName("Geneva");
+        shareCitySnapshot.findAll(ShareCountry.CH).get(0).setCityName("Genf");
+
+        assertThat(shareCitySnapshot.get(1L).getCityName()).isEqualTo("Genève");
+    }
+
+    @Test
+    void followsCommittedChanges() {
+        when(shareCityRepository.findAll()).thenReturn(List.of(city(1L, "Genève", ShareCountry.CH)));
+        shareCitySnapshot.loadShareCities();
+
+        ShareCityDTO shareCity = new ShareCityDTO();
+        shareCity.setId(2L);
+        shareCity.setCityName("Milano");
+        shareCity.setCityCountry(ShareCountry.IT);
+        shareCitySnapshot.onShareCityChanged(ShareCityChangedEvent.saved(shareCity));
+        assertThat(shareCitySnapshot.findAll(ShareCountry.IT)).extracting(ShareCityDTO::getCityName).containsExactly("Milano");
+
+        shareCity.setCityCountry(ShareCountry.CH);
+        shareCitySnapshot.onShareCityChanged(ShareCityChangedEvent.saved(shareCity));
+        assertThat(shareCitySnapshot.findAll(ShareCountry.IT)).isEmpty();
+        assertThat(shareCitySnapshot.findAll(ShareCountry.CH)).extracting(ShareCityDTO::getId).containsExactly(1L, 2L);
+
+        shareCitySnapshot.onShareCityChanged(ShareCityChangedEvent.deleted(1L));
+        assertThat(shareCitySnapshot.get(1L)).isNull();
+        assertThat(shareCitySnapshot.findAll(null)).extracting(ShareCityDTO::getId).containsExactly(2L);
+    }
+
+    @Test
+    void isNotConsultedInReadWriteTransactions() {
+        when(shareCityRepository.findAll()).thenReturn(List.of(city(1L, "Genève", ShareCountry.CH)));
+        shareCitySnapshot.loadShareCities();
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThat(shareCitySnapshot.get(1L)).isNull();
+        assertThat(shareCitySnapshot.findAll(null)).isNull();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(shareCitySnapshot.get(1L)).isNotNull();
+    }
+
+    private static ShareCity city(Long id, String cityName, ShareCountry country) {
+        ShareCity shareCity = new ShareCity().cityName(cityName).cityCountry(country);
+        shareCity.setId(id);
+        return shareCity;
+    }
+}
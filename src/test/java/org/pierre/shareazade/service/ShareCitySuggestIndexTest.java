@@ -0,0 +1,123 @@
+package org.pierre.shareazade.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.domain.ShareCity;
+import org.pierre.shareazade.domain.enumeration.ShareCountry;
+import org.pierre.shareazade.repository.ShareCityRepository;
+import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.event.ShareCityChangedEvent;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
+import org.pierre.shareazade.service.mapper.ShareCityMapperImpl;
+
+/**
+ * Test class for the {@link ShareCitySuggestIndex}.
+ */
+class ShareCitySuggestIndexTest {
+
+    private ShareCityRepository shareCityRepository;
+
+    private ShareRideRepository shareRideRepository;
+
+    private ShareCitySuggestIndex shareCitySuggestIndex;
+
+    @BeforeEach
+    public void setUp() {
+        shareCityRepository = mock(ShareCityRepository.class);
+        shareRideRepository = mock(ShareRideRepository.class);
+        shareCitySuggestIndex =
+            new ShareCitySuggestIndex(shareCityRepository, shareRideRepository, new ShareCityMapperImpl(), new ApplicationProperties());
+    }
+
+    @Test
+    void findsWordPrefixesIgnoringCaseAndAccents() {
+        save(1L, "Saint-Étienne", ShareCountry.FR);
+        save(2L, "Genève", ShareCountry.CH);
+        save(3L, "Sankt Gallen", ShareCountry.CH);
+
+        assertThat(suggestIds("SAINT", null)).containsExactly(1L);
+        assertThat(suggestIds("étien", null)).containsExactly(1L);
+        assertThat(suggestIds("gene", null)).containsExactly(2L);
+        assertThat(suggestIds("sa", null)).containsExactly(1L, 3L);
+        assertThat(suggestIds("sa", ShareCountry.CH)).containsExactly(3L);
+        assertThat(suggestIds("gallen", null)).containsExactly(3L);
+        assertThat(suggestIds("x", null)).isEmpty();
+        assertThat(suggestIds(" - ", null)).isEmpty();
+    }
+
+    @Test
+    void ranksByNumberOfShareRides() {
+        when(shareCityRepository.findAll()).thenReturn(List.of(city(1L, "Basel"), city(2L, "Bern"), city(3L, "Bellinzona")));
+        when(shareRideRepository.countByRideCityFrom()).thenReturn(List.<Object[]>of(new Object[] { 2L, 3L }, new Object[] { null, 7L }));
+        when(shareRideRepository.countByRideCityTo()).thenReturn(Collections.singletonList(new Object[] { 3L, 1L }));
+        shareCitySuggestIndex.loadShareCities();
+
+        assertThat(suggestIds("b", null)).containsExactly(2L, 3L, 1L);
+
+        shareCitySuggestIndex.onShareRideChanged(ShareRideChangedEvent.saved(ride(1L, 3L)));
+        shareCitySuggestIndex.onShareRideChanged(ShareRideChangedEvent.saved(ride(2L, 3L)));
+        assertThat(suggestIds("b", null)).containsExactly(3L, 2L, 1L);
+        assertThat(shareCitySuggestIndex.suggest("b", null, 1)).extracting(ShareCityDTO::getId).containsExactly(3L);
+
+        shareCitySuggestIndex.onShareRideChanged(ShareRideChangedEvent.saved(ride(1L, 3L), ride(1L, 1L)));
+        shareCitySuggestIndex.onShareRideChanged(ShareRideChangedEvent.deleted(2L, ride(2L, 3L)));
+        assertThat(suggestIds("b", null)).containsExactly(2L, 1L, 3L);
+    }
+
+    @Test
+    void followsRenamesAndDeletions() {
+        save(1L, "Lugano", ShareCountry.CH);
+        assertThat(suggestIds("lu", null)).containsExactly(1L);
+
+        save(1L, "Locarno", ShareCountry.CH);
+        assertThat(suggestIds("lu", null)).isEmpty();
+        assertThat(suggestIds("lo", null)).containsExactly(1L);
+
+        shareCitySuggestIndex.onShareCityChanged(ShareCityChangedEvent.deleted(1L));
+        assertThat(suggestIds("lo", null)).isEmpty();
+    }
+
+    @Test
+    void rejectsLimitAboveMaximum() {
+        assertThatThrownBy(() -> shareCitySuggestIndex.suggest("a", null, 21)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> shareCitySuggestIndex.suggest("a", null, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void save(Long id, String cityName, ShareCountry country) {
+        ShareCityDTO shareCity = new ShareCityDTO();
+        shareCity.setId(id);
+        shareCity.setCityName(cityName);
+        shareCity.setCityCountry(country);
+        shareCitySuggestIndex.onShareCityChanged(ShareCityChangedEvent.saved(shareCity));
+    }
+
+    private static ShareCity city(Long id, String cityName) {
+        ShareCity shareCity = new ShareCity().cityName(cityName).cityCountry(ShareCountry.CH);
+        shareCity.setId(id);
+        return shareCity;
+    }
+
+    private static ShareRideDTO ride(Long id, Long cityFromId) {
+        ShareRideDTO shareRide = new ShareRideDTO();
+        shareRide.setId(id);
+        ShareCityDTO cityFrom = new ShareCityDTO();
+        cityFrom.setId(cityFromId);
+        shareRide.setRideCityFrom(cityFrom);
+        return shareRide;
+    }
+
+    private List<Long> suggestIds(String prefix, ShareCountry country) {
+        return shareCitySuggestIndex.suggest(prefix, country, 10).stream().map(ShareCityDTO::getId).collect(Collectors.toList());
+    }
+}
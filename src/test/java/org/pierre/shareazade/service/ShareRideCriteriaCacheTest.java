@@ -0,0 +1,185 @@
+package org.pierre.shareazade.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.domain.enumeration.RideType;
+import org.pierre.shareazade.service.criteria.ShareRideCriteria;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.event.ShareCityChangedEvent;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Test class for the {@link ShareRideCriteriaCache}.
+ */
+class ShareRideCriteriaCacheTest {
+
+    private static final String CACHE_NAME = ShareRideCriteriaCacheTest.class.getName();
+
+    private static final ZonedDateTime TODAY = ZonedDateTime.of(2030, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private CacheManager cacheManager;
+
+    private ShareRideCriteriaCache shareRideCriteriaCache;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager = Caching.getCachingProvider().getCacheManager();
+        shareRideCriteriaCache = new ShareRideCriteriaCache(cacheManager.createCache(CACHE_NAME, new MutableConfiguration<>()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cacheManager.destroyCache(CACHE_NAME);
+    }
+
+    @Test
+    void normalizesTheCriteria() {
+        ShareRideCriteria utc = todayFrom(10L);
+        ShareRideCriteria zurich = todayFrom(10L);
+        zurich.rideDateTime().setGreaterThanOrEqual(TODAY.withZoneSameInstant(ZoneId.of("Europe/Zurich")));
+
+        put(utc, 1L);
+
+        assertThat(shareRideCriteriaCache.get(shareRideCriteriaCache.key(zurich, PageRequest.of(0, 20)))).isNotNull();
+        assertThat(shareRideCriteriaCache.get(shareRideCriteriaCache.key(zurich, PageRequest.of(1, 20)))).isNull();
+    }
+
+    @Test
+    void evictsTheResultsMatchedByAWrittenShareRide() {
+        put(todayFrom(10L), 1L);
+        put(todayFrom(20L), 2L);
+        ShareRideCriteria offers = new ShareRideCriteria();
+        offers.rideType().setIn(Collections.singletonList(RideType.OFFER));
+        put(offers, 1L);
+
+        shareRideCriteriaCache.onShareRideChanged(ShareRideChangedEvent.saved(shareRide(3L, 10L, TODAY.plusHours(8), RideType.REQUEST)));
+
+        assertThat(get(todayFrom(10L))).isNull();
+        assertThat(get(todayFrom(20L))).isNotNull();
+        assertThat(get(offers)).isNotNull();
+    }
+
+    @Test
+    void evictsTheResultsMatchedByAShareRideBeforeItsChange() {
+        put(todayFrom(10L), 1L);
+
+        ShareRideDTO previous = shareRide(1L, 10L, TODAY.plusHours(8), RideType.OFFER);
+        ShareRideDTO moved = shareRide(1L, 10L, TODAY.minusDays(1), RideType.OFFER);
+        shareRideCriteriaCache.onShareRideChanged(ShareRideChangedEvent.saved(previous, moved));
+        assertThat(get(todayFrom(10L))).isNull();
+
+        put(todayFrom(10L), 1L);
+        shareRideCriteriaCache.onShareRideChanged(ShareRideChangedEvent.deleted(1L, moved));
+        assertThat(get(todayFrom(10L))).isNotNull();
+    }
+
+    @Test
+    void evictsTheResultsRestrictedToTheCitiesOfAShareRideBeforeItsChange() {
+        ShareRideCriteria fromTwoCities = new ShareRideCriteria();
+        fromTwoCities.rideCityFromId().setIn(List.of(10L, 30L));
+        put(fromTwoCities, 1L);
+        put(todayFrom(40L), 2L);
+
+        ShareRideDTO previous = shareRide(1L, 30L, TODAY.plusHours(8), RideType.OFFER);
+        ShareRideDTO moved = shareRide(1L, 50L, TODAY.plusHours(8), RideType.OFFER);
+        shareRideCriteriaCache.onShareRideChanged(ShareRideChangedEvent.saved(previous, moved));
+
+        assertThat(get(fromTwoCities)).isNull();
+        assertThat(get(todayFrom(40L))).isNotNull();
+    }
+
+    @Test
+    void evictsThePagesSortedByTheCitiesOnAShareCityChange() {
+        ShareRideCriteria criteria = todayFrom(10L);
+        ShareRideCriteriaCache.Key byCityName = shareRideCriteriaCache.key(criteria, PageRequest.of(0, 20, Sort.by("rideCityTo.cityName")));
+        ShareRideCriteriaCache.Key byDateTime = shareRideCriteriaCache.key(criteria, PageRequest.of(0, 20, Sort.by("rideDateTime")));
+        long generation = shareRideCriteriaCache.generation();
+        shareRideCriteriaCache.put(byCityName, new ShareRideCriteriaCache.Result(List.of(1L), 1), generation);
+        shareRideCriteriaCache.put(byDateTime, new ShareRideCriteriaCache.Result(List.of(1L), 1), generation);
+
+        shareRideCriteriaCache.onShareCityChanged(ShareCityChangedEvent.deleted(20L));
+
+        assertThat(shareRideCriteriaCache.get(byCityName)).isNull();
+        assertThat(shareRideCriteriaCache.get(byDateTime)).isNotNull();
+    }
+
+    @Test
+    void ignoresResultsComputedDuringAChange() {
+        long generation = shareRideCriteriaCache.generation();
+
+        shareRideCriteriaCache.onShareRideChanged(ShareRideChangedEvent.deleted(1L));
+        shareRideCriteriaCache.put(key(todayFrom(10L)), new ShareRideCriteriaCache.Result(List.of(1L), 1), generation);
+
+        assertThat(get(todayFrom(10L))).isNull();
+    }
+
+    @Test
+    void dropsAResultStoredWhileAChangeIsCommitted() {
+        Cache<Object, Object> cache = cacheManager.getCache(CACHE_NAME);
+        ShareRideCriteriaCache[] racing = new ShareRideCriteriaCache[1];
+        @SuppressWarnings("unchecked")
+        Cache<Object, Object> committingOnPut = (Cache<Object, Object>) Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            new Class<?>[] { Cache.class },
+            (proxy, method, args) -> {
+                if ("put".equals(method.getName())) {
+                    racing[0].onShareRideChanged(ShareRideChangedEvent.deleted(1L));
+                }
+                return method.invoke(cache, args);
+            }
+        );
+        racing[0] = new ShareRideCriteriaCache(committingOnPut);
+
+        racing[0].put(key(todayFrom(10L)), new ShareRideCriteriaCache.Result(List.of(1L), 1), racing[0].generation());
+
+        assertThat(cache.containsKey(key(todayFrom(10L)))).isFalse();
+    }
+
+    private static ShareRideCriteria todayFrom(Long cityFromId) {
+        ShareRideCriteria criteria = new ShareRideCriteria();
+        criteria.rideCityFromId().setEquals(cityFromId);
+        criteria.rideDateTime().setGreaterThanOrEqual(TODAY);
+        criteria.rideDateTime().setLessThan(TODAY.plusDays(1));
+        return criteria;
+    }
+
+    private static ShareRideDTO shareRide(Long id, Long cityFromId, ZonedDateTime rideDateTime, RideType rideType) {
+        ShareRideDTO shareRide = new ShareRideDTO();
+        shareRide.setId(id);
+        shareRide.setRideDateTime(rideDateTime);
+        shareRide.setRideType(rideType);
+        ShareCityDTO cityFrom = new ShareCityDTO();
+        cityFrom.setId(cityFromId);
+        shareRide.setRideCityFrom(cityFrom);
+        return shareRide;
+    }
+
+    private ShareRideCriteriaCache.Key key(ShareRideCriteria criteria) {
+        return shareRideCriteriaCache.key(criteria, PageRequest.of(0, 20));
+    }
+
+    private void put(ShareRideCriteria criteria, Long id) {
+        ShareRideCriteriaCache.Result result = new ShareRideCriteriaCache.Result(List.of(id), 1);
+        shareRideCriteriaCache.put(key(criteria), result, shareRideCriteriaCache.generation());
+    }
+
+    private ShareRideCriteriaCache.Result get(ShareRideCriteria criteria) {
+        return shareRideCriteriaCache.get(key(criteria));
+    }
+}
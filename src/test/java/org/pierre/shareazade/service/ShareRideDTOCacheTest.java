@@ -0,0 +1,178 @@
+package org.pierre.shareazade.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.cache.CacheInvalidation;
+import org.pierre.shareazade.domain.ShareCity;
+import org.pierre.shareazade.domain.ShareRide;
+import org.pierre.shareazade.domain.ShareUser;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.dto.ShareUserDTO;
+import org.pierre.shareazade.service.event.ShareCityChangedEvent;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
+import org.pierre.shareazade.service.event.ShareUserChangedEvent;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Test class for the {@link ShareRideDTOCache}.
+ */
+class ShareRideDTOCacheTest {
+
+    private static final String CACHE_NAME = ShareRideDTOCacheTest.class.getName();
+
+    private CacheManager cacheManager;
+
+    private ShareRideDTOCache shareRideDTOCache;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager = Caching.getCachingProvider().getCacheManager();
+        shareRideDTOCache = new ShareRideDTOCache(cacheManager.createCache(CACHE_NAME, new MutableConfiguration<>()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        cacheManager.destroyCache(CACHE_NAME);
+    }
+
+    @Test
+    void returnsCopies() {
+        shareRideDTOCache.put(shareRide(1L, 10L, 20L, 100L), shareRideDTOCache.generation());
+
+        shareRideDTOCache.get(1L).setRideComments("changed");
+        shareRideDTOCache.get(1L).getRideCityFrom().setCityName("changed");
+
+        assertThat(shareRideDTOCache.get(1L).getRideComments()).isEqualTo("ride 1");
+        assertThat(shareRideDTOCache.get(1L).getRideCityFrom().getCityName()).isEqualTo("city 10");
+        assertThat(shareRideDTOCache.get(2L)).isNull();
+    }
+
+    @Test
+    void evictsTheShareRidesOfAChangedShareRideShareCityOrShareUser() {
+        long generation = shareRideDTOCache.generation();
+        shareRideDTOCache.put(shareRide(1L, 10L, 20L, 100L), generation);
+        shareRideDTOCache.put(shareRide(2L, 20L, 30L, 200L), generation);
+        shareRideDTOCache.put(shareRide(3L, 30L, 40L, 300L), generation);
+        shareRideDTOCache.put(shareRide(4L, 40L, 50L, 400L), generation);
+
+        shareRideDTOCache.onShareRideChanged(ShareRideChangedEvent.deleted(1L));
+        assertThat(shareRideDTOCache.get(1L)).isNull();
+        assertThat(shareRideDTOCache.get(2L)).isNotNull();
+
+        shareRideDTOCache.onShareCityChanged(ShareCityChangedEvent.deleted(30L));
+        assertThat(shareRideDTOCache.get(2L)).isNull();
+        assertThat(shareRideDTOCache.get(3L)).isNull();
+        assertThat(shareRideDTOCache.get(4L)).isNotNull();
+
+        shareRideDTOCache.onShareUserChanged(ShareUserChangedEvent.deleted(400L));
+        assertThat(shareRideDTOCache.get(4L)).isNull();
+    }
+
+    @Test
+    void evictsTheShareRidesInvalidatedByOtherNodes() {
+        long generation = shareRideDTOCache.generation();
+        shareRideDTOCache.put(shareRide(1L, 10L, 20L, 100L), generation);
+        shareRideDTOCache.put(shareRide(2L, 20L, 30L, 200L), generation);
+        shareRideDTOCache.put(shareRide(3L, 30L, 40L, 300L), generation);
+
+        shareRideDTOCache.evict(CacheInvalidation.entity(ShareRide.class.getName(), 1L));
+        shareRideDTOCache.evict(CacheInvalidation.entity(ShareUser.class.getName(), 300L));
+        // Evicted by the relayed ShareCityChangedEvent instead, once the snapshot is updated
+        shareRideDTOCache.evict(CacheInvalidation.entity(ShareCity.class.getName(), 20L));
+
+        assertThat(shareRideDTOCache.get(1L)).isNull();
+        assertThat(shareRideDTOCache.get(2L)).isNotNull();
+        assertThat(shareRideDTOCache.get(3L)).isNull();
+    }
+
+    @Test
+    void doesNotStoreAShareRideLoadedWhileChanged() {
+        long generation = shareRideDTOCache.generation();
+        shareRideDTOCache.onShareRideChanged(ShareRideChangedEvent.deleted(2L));
+
+        shareRideDTOCache.put(shareRide(1L, 10L, 20L, 100L), generation);
+
+        assertThat(shareRideDTOCache.get(1L)).isNull();
+    }
+
+    @Test
+    void dropsAShareRideStoredWhileItsShareCityIsChanged() {
+        Cache<Object, Object> cache = cacheManager.getCache(CACHE_NAME);
+        ShareRideDTOCache[] racing = new ShareRideDTOCache[1];
+        @SuppressWarnings("unchecked")
+        Cache<Object, Object> changingOnPut = (Cache<Object, Object>) Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            new Class<?>[] { Cache.class },
+            (proxy, method, args) -> {
+                if ("put".equals(method.getName())) {
+                    racing[0].onShareCityChanged(ShareCityChangedEvent.deleted(10L));
+                }
+                return method.invoke(cache, args);
+            }
+        );
+        racing[0] = new ShareRideDTOCache(changingOnPut);
+
+        racing[0].put(shareRide(1L, 10L, 20L, 100L), racing[0].generation());
+
+        assertThat(cache.containsKey(1L)).isFalse();
+    }
+
+    @Test
+    void evictsTheShareRidesStoredAgainAfterAnEviction() {
+        shareRideDTOCache.put(shareRide(1L, 10L, 20L, 100L), shareRideDTOCache.generation());
+        shareRideDTOCache.onShareCityChanged(ShareCityChangedEvent.deleted(10L));
+        shareRideDTOCache.evictAll();
+        shareRideDTOCache.put(shareRide(1L, 10L, 20L, 100L), shareRideDTOCache.generation());
+        assertThat(shareRideDTOCache.get(1L)).isNotNull();
+
+        shareRideDTOCache.onShareUserChanged(ShareUserChangedEvent.deleted(100L));
+        assertThat(shareRideDTOCache.get(1L)).isNull();
+        shareRideDTOCache.put(shareRide(1L, 10L, 20L, 100L), shareRideDTOCache.generation());
+
+        shareRideDTOCache.onShareCityChanged(ShareCityChangedEvent.deleted(20L));
+        assertThat(shareRideDTOCache.get(1L)).isNull();
+    }
+
+    @Test
+    void isNotUsedInReadWriteTransactions() {
+        shareRideDTOCache.put(shareRide(1L, 10L, 20L, 100L), shareRideDTOCache.generation());
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThat(shareRideDTOCache.get(1L)).isNull();
+        shareRideDTOCache.put(shareRide(2L, 10L, 20L, 100L), shareRideDTOCache.generation());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(shareRideDTOCache.get(1L)).isNotNull();
+        assertThat(shareRideDTOCache.get(2L)).isNull();
+    }
+
+    private static ShareRideDTO shareRide(Long id, Long rideCityFromId, Long rideCityToId, Long rideUserId) {
+        ShareRideDTO shareRide = new ShareRideDTO();
+        shareRide.setId(id);
+        shareRide.setRideComments("ride " + id);
+        shareRide.setRideCityFrom(shareCity(rideCityFromId));
+        shareRide.setRideCityTo(shareCity(rideCityToId));
+        ShareUserDTO shareUser = new ShareUserDTO();
+        shareUser.setId(rideUserId);
+        shareRide.setRideUser(shareUser);
+        return shareRide;
+    }
+
+    private static ShareCityDTO shareCity(Long id) {
+        ShareCityDTO shareCity = new ShareCityDTO();
+        shareCity.setId(id);
+        shareCity.setCityName("city " + id);
+        return shareCity;
+    }
+}
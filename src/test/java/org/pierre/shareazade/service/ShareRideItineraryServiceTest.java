@@ -0,0 +1,205 @@
+package org.pierre.shareazade.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.domain.enumeration.RideType;
+import org.pierre.shareazade.repository.ShareCityRepository;
+import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.dto.ShareRideItineraryDTO;
+import org.pierre.shareazade.service.dto.ShareRideLegDTO;
+import org.pierre.shareazade.service.event.ShareCityChangedEvent;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
+import org.pierre.shareazade.service.mapper.ShareRideMapperImpl;
+
+/**
+ * Test class for the {@link ShareRideItineraryService}.
+ * <p>
+ * Without coordinates, every ride lasts the default two hours; transfers wait between 15 minutes and 3 hours.
+ */
+class ShareRideItineraryServiceTest {
+
+    private static final ZonedDateTime DEPARTURE = ZonedDateTime.now(ZoneOffset.UTC).plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+    private static final Long GENEVA = 1L;
+
+    private static final Long LAUSANNE = 2L;
+
+    private static final Long BERN = 3L;
+
+    private static final Long ZURICH = 4L;
+
+    private ShareCityGeoIndex shareCityGeoIndex;
+
+    private ShareRideService shareRideService;
+
+    private ShareRideItineraryService shareRideItineraryService;
+
+    @BeforeEach
+    public void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        shareCityGeoIndex = new ShareCityGeoIndex(mock(ShareCityRepository.class), applicationProperties);
+        shareRideService = mock(ShareRideService.class);
+        when(shareRideService.findAllById(anyList())).thenAnswer(invocation -> committed(invocation.getArgument(0), Set.of()));
+        shareRideItineraryService =
+            new ShareRideItineraryService(
+                mock(ShareRideRepository.class),
+                new ShareRideMapperImpl(),
+                shareRideService,
+                shareCityGeoIndex,
+                applicationProperties
+            );
+    }
+
+    @Test
+    void prefersTheEarliestArrivalThenTheFewestTransfers() {
+        save(1L, RideType.OFFER, GENEVA, ZURICH, DEPARTURE.plusHours(2));
+        save(2L, RideType.OFFER, GENEVA, BERN, DEPARTURE);
+        save(3L, RideType.OFFER, BERN, ZURICH, DEPARTURE.plusHours(2).plusMinutes(30));
+        save(4L, RideType.OFFER, GENEVA, LAUSANNE, DEPARTURE);
+        save(5L, RideType.OFFER, LAUSANNE, BERN, DEPARTURE.plusHours(2).plusMinutes(15));
+        save(6L, RideType.REQUEST, GENEVA, ZURICH, DEPARTURE);
+
+        List<ShareRideItineraryDTO> itineraries = shareRideItineraryService.findItineraries(GENEVA, ZURICH, DEPARTURE, 1);
+
+        assertThat(itineraries).hasSize(1);
+        assertThat(rideIds(itineraries.get(0))).containsExactly(1L);
+        assertThat(itineraries.get(0).getTransfers()).isZero();
+        assertThat(itineraries.get(0).getEstimatedArrival()).isEqualTo(DEPARTURE.plusHours(4));
+    }
+
+    @Test
+    void findsConnectionsWithinTheTransferWait() {
+        save(1L, RideType.OFFER, GENEVA, LAUSANNE, DEPARTURE);
+        save(2L, RideType.OFFER, LAUSANNE, BERN, DEPARTURE.plusHours(2).plusMinutes(10));
+        save(3L, RideType.OFFER, LAUSANNE, BERN, DEPARTURE.plusHours(5).plusMinutes(1));
+        save(4L, RideType.OFFER, LAUSANNE, BERN, DEPARTURE.plusHours(3));
+        save(5L, RideType.OFFER, BERN, ZURICH, DEPARTURE.plusHours(6));
+
+        List<ShareRideItineraryDTO> itineraries = shareRideItineraryService.findItineraries(GENEVA, ZURICH, DEPARTURE, 3);
+
+        assertThat(itineraries).hasSize(1);
+        assertThat(rideIds(itineraries.get(0))).containsExactly(1L, 4L, 5L);
+        assertThat(itineraries.get(0).getTransfers()).isEqualTo(2);
+        assertThat(itineraries.get(0).getLegs().get(1).getEstimatedArrival()).isEqualTo(DEPARTURE.plusHours(5));
+    }
+
+    @Test
+    void estimatesTheArrivalFromTheCoordinates() {
+        coordinates(GENEVA, 46.2044, 6.1432);
+        coordinates(ZURICH, 47.3769, 8.5417);
+        save(1L, RideType.OFFER, GENEVA, ZURICH, DEPARTURE);
+
+        List<ShareRideItineraryDTO> itineraries = shareRideItineraryService.findItineraries(GENEVA, ZURICH, DEPARTURE, 1);
+
+        // 224 km at 70 km/h
+        assertThat(itineraries.get(0).getEstimatedArrival())
+            .isBetween(DEPARTURE.plusHours(3).plusMinutes(10), DEPARTURE.plusHours(3).plusMinutes(15));
+    }
+
+    @Test
+    void returnsSuccessiveItinerariesWithoutDominatedOnes() {
+        save(1L, RideType.OFFER, GENEVA, ZURICH, DEPARTURE);
+        save(2L, RideType.OFFER, GENEVA, BERN, DEPARTURE.plusHours(1));
+        save(3L, RideType.OFFER, BERN, ZURICH, DEPARTURE.plusHours(3).plusMinutes(30));
+        save(4L, RideType.OFFER, GENEVA, ZURICH, DEPARTURE.plusHours(3).plusMinutes(30));
+        save(5L, RideType.OFFER, GENEVA, ZURICH, DEPARTURE.plusHours(5));
+
+        List<ShareRideItineraryDTO> itineraries = shareRideItineraryService.findItineraries(GENEVA, ZURICH, DEPARTURE, 5);
+
+        assertThat(itineraries.stream().map(this::rideIds).collect(Collectors.toList()))
+            .containsExactly(List.of(1L), List.of(4L), List.of(5L));
+        assertThat(shareRideItineraryService.findItineraries(GENEVA, ZURICH, DEPARTURE, 2)).hasSize(2);
+    }
+
+    @Test
+    void followsUpdatesAndDeletions() {
+        save(1L, RideType.OFFER, GENEVA, ZURICH, DEPARTURE);
+        assertThat(shareRideItineraryService.findItineraries(GENEVA, ZURICH, DEPARTURE, 1)).hasSize(1);
+
+        save(1L, RideType.REQUEST, GENEVA, ZURICH, DEPARTURE);
+        assertThat(shareRideItineraryService.findItineraries(GENEVA, ZURICH, DEPARTURE, 1)).isEmpty();
+
+        save(1L, RideType.OFFER, GENEVA, ZURICH, DEPARTURE);
+        shareRideItineraryService.onShareRideChanged(ShareRideChangedEvent.deleted(1L));
+        assertThat(shareRideItineraryService.findItineraries(GENEVA, ZURICH, DEPARTURE, 1)).isEmpty();
+    }
+
+    @Test
+    void returnsTheCommittedShareRidesButForTheItinerariesOfTheDeletedOnes() {
+        save(1L, RideType.OFFER, GENEVA, ZURICH, DEPARTURE);
+        save(2L, RideType.OFFER, GENEVA, ZURICH, DEPARTURE.plusHours(1));
+        when(shareRideService.findAllById(anyList())).thenAnswer(invocation -> committed(invocation.getArgument(0), Set.of(1L)));
+
+        List<ShareRideItineraryDTO> itineraries = shareRideItineraryService.findItineraries(GENEVA, ZURICH, DEPARTURE, 2);
+
+        assertThat(itineraries).singleElement().satisfies(itinerary -> assertThat(rideIds(itinerary)).containsExactly(2L));
+        assertThat(itineraries.get(0).getLegs().get(0).getShareRide().getRideComments()).isEqualTo("committed");
+    }
+
+    @Test
+    void rejectsInvalidRequests() {
+        assertThatThrownBy(() -> shareRideItineraryService.findItineraries(GENEVA, GENEVA, DEPARTURE, 1))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> shareRideItineraryService.findItineraries(GENEVA, ZURICH, DEPARTURE, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> shareRideItineraryService.findItineraries(GENEVA, ZURICH, DEPARTURE, 11))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void coordinates(Long id, double latitude, double longitude) {
+        ShareCityDTO shareCity = new ShareCityDTO();
+        shareCity.setId(id);
+        shareCity.setLatitude(latitude);
+        shareCity.setLongitude(longitude);
+        shareCityGeoIndex.onShareCityChanged(ShareCityChangedEvent.saved(shareCity));
+    }
+
+    private void save(Long id, RideType rideType, Long cityFromId, Long cityToId, ZonedDateTime rideDateTime) {
+        ShareRideDTO shareRide = new ShareRideDTO();
+        shareRide.setId(id);
+        shareRide.setRideType(rideType);
+        shareRide.setRideDateTime(rideDateTime);
+        ShareCityDTO cityFrom = new ShareCityDTO();
+        cityFrom.setId(cityFromId);
+        shareRide.setRideCityFrom(cityFrom);
+        ShareCityDTO cityTo = new ShareCityDTO();
+        cityTo.setId(cityToId);
+        shareRide.setRideCityTo(cityTo);
+        shareRideItineraryService.onShareRideChanged(ShareRideChangedEvent.saved(shareRide));
+    }
+
+    /**
+     * The shareRides as committed, but for the deleted ones.
+     */
+    private static List<ShareRideDTO> committed(List<Long> ids, Set<Long> deleted) {
+        return ids
+            .stream()
+            .filter(id -> !deleted.contains(id))
+            .map(id -> {
+                ShareRideDTO shareRide = new ShareRideDTO();
+                shareRide.setId(id);
+                shareRide.setRideComments("committed");
+                return shareRide;
+            })
+            .collect(Collectors.toList());
+    }
+
+    private List<Long> rideIds(ShareRideItineraryDTO itinerary) {
+        return itinerary.getLegs().stream().map(ShareRideLegDTO::getShareRide).map(ShareRideDTO::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,178 @@
+package org.pierre.shareazade.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.config.ApplicationProperties;
+import org.pierre.shareazade.domain.ShareRide;
+import org.pierre.shareazade.domain.enumeration.RideType;
+import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.dto.ShareUserDTO;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
+import org.pierre.shareazade.service.mapper.ShareRideMapper;
+import org.pierre.shareazade.service.mapper.ShareRideMapperImpl;
+
+/**
+ * Test class for the {@link ShareRideMatchingService}.
+ */
+class ShareRideMatchingServiceTest {
+
+    private static final ZonedDateTime DEPARTURE = ZonedDateTime.now(ZoneOffset.UTC).plusDays(1).truncatedTo(ChronoUnit.HOURS);
+
+    private ShareRideService shareRideService;
+
+    private ShareRideMatchingService shareRideMatchingService;
+
+    @BeforeEach
+    public void setUp() {
+        shareRideService = mock(ShareRideService.class);
+        when(shareRideService.findAllById(anyList())).thenAnswer(invocation -> committed(invocation.getArgument(0), Set.of()));
+        shareRideMatchingService =
+            new ShareRideMatchingService(
+                mock(ShareRideRepository.class),
+                new ShareRideMapperImpl(),
+                shareRideService,
+                new ApplicationProperties()
+            );
+    }
+
+    @Test
+    void findsOppositeRidesOnTheSameRouteWithinTolerance() {
+        save(1L, RideType.OFFER, 10L, 20L, DEPARTURE);
+        save(2L, RideType.REQUEST, 10L, 20L, DEPARTURE.plusMinutes(50));
+        save(3L, RideType.REQUEST, 10L, 20L, DEPARTURE.minusMinutes(10));
+        save(4L, RideType.REQUEST, 10L, 20L, DEPARTURE.plusMinutes(61));
+        save(5L, RideType.OFFER, 10L, 20L, DEPARTURE);
+        save(6L, RideType.REQUEST, 20L, 10L, DEPARTURE);
+
+        assertThat(matchIds(1L, Duration.ofHours(1))).containsExactly(3L, 2L);
+        assertThat(matchIds(1L, Duration.ofMinutes(30))).containsExactly(3L);
+        assertThat(matchIds(2L, Duration.ofHours(1))).containsExactly(1L, 5L);
+    }
+
+    @Test
+    void followsUpdatesAndDeletions() {
+        save(1L, RideType.OFFER, 10L, 20L, DEPARTURE);
+        save(2L, RideType.REQUEST, 10L, 20L, DEPARTURE);
+        assertThat(matchIds(1L, null)).containsExactly(2L);
+
+        save(2L, RideType.REQUEST, 10L, 20L, DEPARTURE.plusHours(5));
+        assertThat(matchIds(1L, null)).isEmpty();
+        assertThat(matchIds(1L, Duration.ofHours(5))).containsExactly(2L);
+
+        shareRideMatchingService.onShareRideChanged(ShareRideChangedEvent.deleted(2L));
+        assertThat(matchIds(1L, Duration.ofHours(5))).isEmpty();
+        assertThat(shareRideMatchingService.findMatches(2L, null)).isEmpty();
+    }
+
+    @Test
+    void removesTheRidesNotFoundAnymoreWhenLoadedAgain() {
+        ShareRideRepository shareRideRepository = mock(ShareRideRepository.class);
+        ShareRideMapper shareRideMapper = mock(ShareRideMapper.class);
+        ShareRide offer = new ShareRide();
+        offer.setId(1L);
+        ShareRide request = new ShareRide();
+        request.setId(2L);
+        when(shareRideMapper.toDto(offer)).thenReturn(shareRide(1L, RideType.OFFER, 10L, 20L, DEPARTURE));
+        when(shareRideMapper.toDto(request)).thenReturn(shareRide(2L, RideType.REQUEST, 10L, 20L, DEPARTURE));
+        when(shareRideRepository.findAllUpcomingWithToOneRelationships(any()))
+            .thenReturn(List.of(offer, request))
+            .thenReturn(List.of(offer));
+        shareRideMatchingService =
+            new ShareRideMatchingService(shareRideRepository, shareRideMapper, shareRideService, new ApplicationProperties());
+
+        shareRideMatchingService.loadUpcomingShareRides();
+        assertThat(matchIds(1L, null)).containsExactly(2L);
+
+        shareRideMatchingService.loadUpcomingShareRides();
+        assertThat(matchIds(1L, null)).isEmpty();
+        assertThat(shareRideMatchingService.findMatches(2L, null)).isEmpty();
+    }
+
+    @Test
+    void returnsTheCommittedShareRidesRatherThanTheIndexedOnes() {
+        save(1L, RideType.OFFER, 10L, 20L, DEPARTURE);
+        ShareRideDTO sent = shareRide(2L, RideType.REQUEST, 10L, 20L, DEPARTURE);
+        sent.getRideCityFrom().setCityName("Sent by the client");
+        shareRideMatchingService.onShareRideChanged(ShareRideChangedEvent.saved(sent));
+        save(3L, RideType.REQUEST, 10L, 20L, DEPARTURE.plusMinutes(10));
+        when(shareRideService.findAllById(anyList())).thenAnswer(invocation -> committed(invocation.getArgument(0), Set.of(3L)));
+
+        List<ShareRideDTO> matches = shareRideMatchingService.findMatches(1L, null).orElseThrow();
+
+        assertThat(matches).singleElement().satisfies(match -> assertThat(match.getRideUser().getUserName()).isEqualTo("user-2"));
+        assertThat(matches.get(0).getRideCityFrom()).isNull();
+    }
+
+    @Test
+    void ignoresDepartedRides() {
+        save(1L, RideType.OFFER, 10L, 20L, ZonedDateTime.now(ZoneOffset.UTC).minusMinutes(1));
+
+        assertThat(shareRideMatchingService.findMatches(1L, null)).isEmpty();
+    }
+
+    @Test
+    void rejectsToleranceAboveMaximum() {
+        assertThatThrownBy(() -> shareRideMatchingService.findMatches(1L, Duration.ofDays(2))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void save(Long id, RideType rideType, Long cityFromId, Long cityToId, ZonedDateTime rideDateTime) {
+        ShareRideDTO shareRide = shareRide(id, rideType, cityFromId, cityToId, rideDateTime);
+        shareRideMatchingService.onShareRideChanged(ShareRideChangedEvent.saved(shareRide));
+    }
+
+    private static ShareRideDTO shareRide(Long id, RideType rideType, Long cityFromId, Long cityToId, ZonedDateTime rideDateTime) {
+        ShareRideDTO shareRide = new ShareRideDTO();
+        shareRide.setId(id);
+        shareRide.setRideType(rideType);
+        shareRide.setRideDateTime(rideDateTime);
+        ShareCityDTO cityFrom = new ShareCityDTO();
+        cityFrom.setId(cityFromId);
+        shareRide.setRideCityFrom(cityFrom);
+        ShareCityDTO cityTo = new ShareCityDTO();
+        cityTo.setId(cityToId);
+        shareRide.setRideCityTo(cityTo);
+        return shareRide;
+    }
+
+    /**
+     * The shareRides as committed, with the name of their user, but for the deleted ones.
+     */
+    private static List<ShareRideDTO> committed(List<Long> ids, Set<Long> deleted) {
+        return ids
+            .stream()
+            .filter(id -> !deleted.contains(id))
+            .map(id -> {
+                ShareRideDTO shareRide = new ShareRideDTO();
+                shareRide.setId(id);
+                ShareUserDTO rideUser = new ShareUserDTO();
+                rideUser.setId(id);
+                rideUser.setUserName("user-" + id);
+                shareRide.setRideUser(rideUser);
+                return shareRide;
+            })
+            .collect(Collectors.toList());
+    }
+
+    private List<Long> matchIds(Long id, Duration tolerance) {
+        return shareRideMatchingService
+            .findMatches(id, tolerance)
+            .map(matches -> matches.stream().map(ShareRideDTO::getId).collect(Collectors.toList()))
+            .orElseThrow();
+    }
+}
@@ -0,0 +1,188 @@
+package org.pierre.shareazade.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.PostgreSqlIntegrationTest;
+import org.pierre.shareazade.domain.enumeration.RideType;
+import org.pierre.shareazade.service.criteria.ShareRideCriteria;
+import org.pierre.shareazade.service.criteria.ShareRideCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Query plan regression tests for the {@link ShareRideQueryService}.
+ * <p>
+ * The SQL generated for each shape of {@link ShareRideCriteria} is recorded, then explained by PostgreSQL with the
+ * sequential scans disabled and a generic plan: a sequential scan of {@code share_ride} in the plan means that no index
+ * can serve the query. It needs PostgreSQL, so it runs with the integration tests of the {@code prod} Maven profile.
+ */
+@PostgreSqlIntegrationTest
+@TestPropertySource(
+    properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=org.pierre.shareazade.service.ShareRideQueryPlanIT$StatementRecorder"
+)
+class ShareRideQueryPlanIT {
+
+    private static final Pattern PARAMETER = Pattern.compile("\\?");
+
+    private static final ZonedDateTime NOW = ZonedDateTime.now(ZoneOffset.UTC);
+
+    @Autowired
+    private ShareRideQueryService shareRideQueryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void initTest() {
+        StatementRecorder.clear();
+    }
+
+    @Test
+    @Transactional
+    void routeAndDateTimeCriteriaUseAnIndex() {
+        assertNoSequentialScan(criteria -> {
+            criteria.rideCityFromId().setEquals(1L);
+            criteria.rideCityToId().setEquals(2L);
+            criteria.rideDateTime().setGreaterThanOrEqual(NOW);
+        });
+    }
+
+    @Test
+    @Transactional
+    void rideCityFromCriteriaUseAnIndex() {
+        assertNoSequentialScan(criteria -> criteria.rideCityFromId().setEquals(1L));
+    }
+
+    @Test
+    @Transactional
+    void rideCityToCriteriaUseAnIndex() {
+        assertNoSequentialScan(criteria -> {
+            criteria.rideCityToId().setEquals(2L);
+            criteria.rideType().setEquals(RideType.OFFER);
+        });
+    }
+
+    @Test
+    @Transactional
+    void rideUserAndDateTimeCriteriaUseAnIndex() {
+        assertNoSequentialScan(criteria -> {
+            criteria.rideUserId().setEquals(3L);
+            criteria.rideDateTime().setGreaterThan(NOW);
+            criteria.rideDateTime().setLessThan(NOW.plusDays(7));
+        });
+    }
+
+    @Test
+    @Transactional
+    void dateTimeCriteriaUseAnIndex() {
+        assertNoSequentialScan(criteria -> criteria.rideDateTime().setGreaterThanOrEqual(NOW));
+    }
+
+    @Test
+    @Transactional
+    void commentsCriteriaUseAnIndex() {
+        assertNoSequentialScan(criteria -> criteria.comments().setMatches("non smoker"));
+    }
+
+    @Test
+    @Transactional
+    void rankedCommentsCriteriaUseAnIndex() {
+        ShareRideCriteria criteria = new ShareRideCriteria();
+        criteria.comments().setMatches("non smoker");
+        criteria.rideType().setEquals(RideType.OFFER);
+
+        shareRideQueryService.findByCriteria(criteria, PageRequest.of(0, 20));
+
+        assertRecordedStatementsUseAnIndex();
+    }
+
+    @Test
+    @Transactional
+    void keysetPaginationUsesAnIndex() {
+        shareRideQueryService.findByCriteriaAfter(new ShareRideCriteria(), new ShareRideCursor(NOW, 1L), 20);
+
+        assertRecordedStatementsUseAnIndex();
+    }
+
+    private void assertNoSequentialScan(Consumer<ShareRideCriteria> shape) {
+        ShareRideCriteria criteria = new ShareRideCriteria();
+        shape.accept(criteria);
+
+        shareRideQueryService.findByCriteria(criteria, PageRequest.of(0, 20, Sort.by("rideDateTime")));
+        shareRideQueryService.countByCriteria(criteria);
+
+        assertRecordedStatementsUseAnIndex();
+    }
+
+    private void assertRecordedStatementsUseAnIndex() {
+        List<String> statements = StatementRecorder.statements();
+        assertThat(statements).isNotEmpty();
+        jdbcTemplate.execute("set local enable_seqscan = off");
+        jdbcTemplate.execute("set local plan_cache_mode = force_generic_plan");
+        for (String statement : statements) {
+            String plan = explain(statement);
+            assertThat(plan).as("Plan of %s", statement).doesNotContainIgnoringCase("Seq Scan on share_ride");
+        }
+    }
+
+    private String explain(String statement) {
+        Matcher matcher = PARAMETER.matcher(statement);
+        StringBuilder prepared = new StringBuilder();
+        List<String> arguments = new ArrayList<>();
+        while (matcher.find()) {
+            arguments.add("null");
+            matcher.appendReplacement(prepared, "\\$" + arguments.size());
+        }
+        matcher.appendTail(prepared);
+        jdbcTemplate.execute("prepare statement_under_test as " + prepared);
+        try {
+            String execute = arguments.isEmpty() ? "" : "(" + String.join(", ", arguments) + ")";
+            return String.join("\n", jdbcTemplate.queryForList("explain execute statement_under_test" + execute, String.class));
+        } finally {
+            jdbcTemplate.execute("deallocate statement_under_test");
+        }
+    }
+
+    /**
+     * Records the SQL sent by Hibernate, so that it can be explained.
+     */
+    public static class StatementRecorder implements StatementInspector {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        static void clear() {
+            STATEMENTS.clear();
+        }
+
+        static List<String> statements() {
+            synchronized (STATEMENTS) {
+                return new ArrayList<>(STATEMENTS);
+            }
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.contains("share_ride")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
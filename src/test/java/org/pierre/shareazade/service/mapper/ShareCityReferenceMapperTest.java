@@ -0,0 +1,49 @@
+package org.pierre.shareazade.service.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.domain.ShareCity;
+import org.pierre.shareazade.service.ShareCitySnapshot;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
+
+class ShareCityReferenceMapperTest {
+
+    private ShareCitySnapshot shareCitySnapshot;
+
+    private ShareCityReferenceMapper shareCityReferenceMapper;
+
+    @BeforeEach
+    public void setUp() {
+        shareCitySnapshot = mock(ShareCitySnapshot.class);
+        shareCityReferenceMapper = new ShareCityReferenceMapper(shareCitySnapshot);
+    }
+
+    @Test
+    void mapsTheCityOfTheSnapshot() {
+        ShareCityDTO reference = new ShareCityDTO();
+        reference.setId(1L);
+        reference.setCityName("Geneva");
+        when(shareCitySnapshot.getReference(1L)).thenReturn(reference);
+
+        assertThat(shareCityReferenceMapper.toDtoShareCityReference(shareCity(1L, "Genf"))).isSameAs(reference);
+    }
+
+    @Test
+    void mapsTheEntityOutOfTheSnapshot() {
+        ShareCityDTO shareCityDTO = shareCityReferenceMapper.toDtoShareCityReference(shareCity(2L, "Bern"));
+
+        assertThat(shareCityDTO.getId()).isEqualTo(2L);
+        assertThat(shareCityDTO.getCityName()).isEqualTo("Bern");
+        assertThat(shareCityReferenceMapper.toDtoShareCityReference(null)).isNull();
+    }
+
+    private static ShareCity shareCity(Long id, String cityName) {
+        ShareCity shareCity = new ShareCity().cityName(cityName);
+        shareCity.setId(id);
+        return shareCity;
+    }
+}
@@ -0,0 +1,80 @@
+package org.pierre.shareazade.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Test class for the {@link TrustedProxyFilter}.
+ */
+class TrustedProxyFilterTest {
+
+    private TrustedProxyFilter trustedProxyFilter;
+
+    @BeforeEach
+    public void setup() {
+        trustedProxyFilter = new TrustedProxyFilter(List.of("10.0.0.0/8", "::1"));
+    }
+
+    @Test
+    void takesTheLastUntrustedAddressFromATrustedProxy() throws Exception {
+        MockHttpServletRequest request = request("10.0.0.2");
+        // Sent by the client, then appended by the two proxies
+        request.addHeader("X-Forwarded-For", "203.0.113.66, 198.51.100.7");
+        request.addHeader("X-Forwarded-For", "10.0.0.1");
+        request.addHeader("X-Forwarded-Proto", "https");
+
+        HttpServletRequest filtered = filter(request);
+
+        assertThat(filtered.getRemoteAddr()).isEqualTo("198.51.100.7");
+        assertThat(filtered.getRemoteHost()).isEqualTo("198.51.100.7");
+        assertThat(filtered.getScheme()).isEqualTo("https");
+        assertThat(filtered.getHeader("X-Forwarded-For")).isNull();
+    }
+
+    @Test
+    void ignoresTheHeadersOfAnUntrustedPeer() throws Exception {
+        MockHttpServletRequest request = request("198.51.100.7");
+        request.addHeader("X-Forwarded-For", "203.0.113.66");
+        request.addHeader("X-Forwarded-Proto", "https");
+
+        HttpServletRequest filtered = filter(request);
+
+        assertThat(filtered.getRemoteAddr()).isEqualTo("198.51.100.7");
+        assertThat(filtered.getScheme()).isEqualTo("http");
+        assertThat(filtered.getHeader("X-Forwarded-For")).isNull();
+    }
+
+    @Test
+    void keepsTheAddressOfATrustedProxyWithoutHeader() throws Exception {
+        HttpServletRequest filtered = filter(request("::1"));
+
+        assertThat(filtered.getRemoteAddr()).isEqualTo("::1");
+    }
+
+    @Test
+    void doesNotTrustAHostName() throws Exception {
+        MockHttpServletRequest request = request("10.0.0.1");
+        request.addHeader("X-Forwarded-For", "203.0.113.66, localhost");
+
+        assertThat(filter(request).getRemoteAddr()).isEqualTo("localhost");
+    }
+
+    private HttpServletRequest filter(MockHttpServletRequest request) throws Exception {
+        MockFilterChain filterChain = new MockFilterChain();
+        trustedProxyFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+        return (HttpServletRequest) filterChain.getRequest();
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/authenticate");
+        request.setRemoteAddr(remoteAddress);
+        return request;
+    }
+}
@@ -12,6 +12,7 @@ import org.pierre.shareazade.IntegrationTest;
 import org.pierre.shareazade.domain.User;
 import org.pierre.shareazade.repository.UserRepository;
 import org.pierre.shareazade.security.AuthoritiesConstants;
+import org.pierre.shareazade.security.UserCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.cache.CacheManager;
@@ -48,6 +49,7 @@ class PublicUserResourceIT {
     public void setup() {
         cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
         cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
+        cacheManager.getCache(UserCache.USERS_NOT_FOUND_CACHE).clear();
     }
 
     @BeforeEach
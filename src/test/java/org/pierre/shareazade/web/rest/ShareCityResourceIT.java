@@ -39,6 +39,14 @@ class ShareCityResourceIT {
     private static final ShareCountry DEFAULT_CITY_COUNTRY = ShareCountry.CH;
     private static final ShareCountry UPDATED_CITY_COUNTRY = ShareCountry.IT;
 
+    private static final Double DEFAULT_LATITUDE = 1D;
+    private static final Double UPDATED_LATITUDE = 2D;
+    private static final Double SMALLER_LATITUDE = 1D - 1D;
+
+    private static final Double DEFAULT_LONGITUDE = 1D;
+    private static final Double UPDATED_LONGITUDE = 2D;
+    private static final Double SMALLER_LONGITUDE = 1D - 1D;
+
     private static final String ENTITY_API_URL = "/api/share-cities";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
 
@@ -66,7 +74,11 @@ class ShareCityResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static ShareCity createEntity(EntityManager em) {
-        ShareCity shareCity = new ShareCity().cityName(DEFAULT_CITY_NAME).cityCountry(DEFAULT_CITY_COUNTRY);
+        ShareCity shareCity = new ShareCity()
+            .cityName(DEFAULT_CITY_NAME)
+            .cityCountry(DEFAULT_CITY_COUNTRY)
+            .latitude(DEFAULT_LATITUDE)
+            .longitude(DEFAULT_LONGITUDE);
         return shareCity;
     }
 
@@ -77,7 +89,11 @@ class ShareCityResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static ShareCity createUpdatedEntity(EntityManager em) {
-        ShareCity shareCity = new ShareCity().cityName(UPDATED_CITY_NAME).cityCountry(UPDATED_CITY_COUNTRY);
+        ShareCity shareCity = new ShareCity()
+            .cityName(UPDATED_CITY_NAME)
+            .cityCountry(UPDATED_CITY_COUNTRY)
+            .latitude(UPDATED_LATITUDE)
+            .longitude(UPDATED_LONGITUDE);
         return shareCity;
     }
 
@@ -102,6 +118,8 @@ class ShareCityResourceIT {
         ShareCity testShareCity = shareCityList.get(shareCityList.size() - 1);
         assertThat(testShareCity.getCityName()).isEqualTo(DEFAULT_CITY_NAME);
         assertThat(testShareCity.getCityCountry()).isEqualTo(DEFAULT_CITY_COUNTRY);
+        assertThat(testShareCity.getLatitude()).isEqualTo(DEFAULT_LATITUDE);
+        assertThat(testShareCity.getLongitude()).isEqualTo(DEFAULT_LONGITUDE);
     }
 
     @Test
@@ -136,7 +154,48 @@ class ShareCityResourceIT {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(shareCity.getId().intValue())))
             .andExpect(jsonPath("$.[*].cityName").value(hasItem(DEFAULT_CITY_NAME)))
-            .andExpect(jsonPath("$.[*].cityCountry").value(hasItem(DEFAULT_CITY_COUNTRY.toString())));
+            .andExpect(jsonPath("$.[*].cityCountry").value(hasItem(DEFAULT_CITY_COUNTRY.toString())))
+            .andExpect(jsonPath("$.[*].latitude").value(hasItem(DEFAULT_LATITUDE.doubleValue())))
+            .andExpect(jsonPath("$.[*].longitude").value(hasItem(DEFAULT_LONGITUDE.doubleValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesWithoutCount() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        // Only whether a next page exists is known
+        restShareCityMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&size=1&count=none&id.equals=" + shareCity.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("X-Has-Next-Page", "false"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(shareCity.getId().intValue())));
+        restShareCityMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&size=1&count=none&id.lessThanOrEqual=" + shareCity.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesWithEstimatedCount() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        restShareCityMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&count=estimate&id.equals=" + shareCity.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(shareCity.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesWithUnknownCount() throws Exception {
+        restShareCityMockMvc.perform(get(ENTITY_API_URL + "?count=sometimes")).andExpect(status().isBadRequest());
     }
 
     @Test
@@ -152,7 +211,9 @@ class ShareCityResourceIT {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.id").value(shareCity.getId().intValue()))
             .andExpect(jsonPath("$.cityName").value(DEFAULT_CITY_NAME))
-            .andExpect(jsonPath("$.cityCountry").value(DEFAULT_CITY_COUNTRY.toString()));
+            .andExpect(jsonPath("$.cityCountry").value(DEFAULT_CITY_COUNTRY.toString()))
+            .andExpect(jsonPath("$.latitude").value(DEFAULT_LATITUDE.doubleValue()))
+            .andExpect(jsonPath("$.longitude").value(DEFAULT_LONGITUDE.doubleValue()));
     }
 
     @Test
@@ -277,6 +338,188 @@ class ShareCityResourceIT {
         defaultShareCityShouldNotBeFound("cityCountry.specified=false");
     }
 
+    @Test
+    @Transactional
+    void getAllShareCitiesByLatitudeIsEqualToSomething() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        // Get all the shareCityList where latitude equals to DEFAULT_LATITUDE
+        defaultShareCityShouldBeFound("latitude.equals=" + DEFAULT_LATITUDE);
+
+        // Get all the shareCityList where latitude equals to UPDATED_LATITUDE
+        defaultShareCityShouldNotBeFound("latitude.equals=" + UPDATED_LATITUDE);
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesByLatitudeIsInShouldWork() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        // Get all the shareCityList where latitude in DEFAULT_LATITUDE or UPDATED_LATITUDE
+        defaultShareCityShouldBeFound("latitude.in=" + DEFAULT_LATITUDE + "," + UPDATED_LATITUDE);
+
+        // Get all the shareCityList where latitude equals to UPDATED_LATITUDE
+        defaultShareCityShouldNotBeFound("latitude.in=" + UPDATED_LATITUDE);
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesByLatitudeIsNullOrNotNull() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        // Get all the shareCityList where latitude is not null
+        defaultShareCityShouldBeFound("latitude.specified=true");
+
+        // Get all the shareCityList where latitude is null
+        defaultShareCityShouldNotBeFound("latitude.specified=false");
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesByLatitudeIsGreaterThanOrEqualToSomething() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        // Get all the shareCityList where latitude is greater than or equal to DEFAULT_LATITUDE
+        defaultShareCityShouldBeFound("latitude.greaterThanOrEqual=" + DEFAULT_LATITUDE);
+
+        // Get all the shareCityList where latitude is greater than or equal to UPDATED_LATITUDE
+        defaultShareCityShouldNotBeFound("latitude.greaterThanOrEqual=" + UPDATED_LATITUDE);
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesByLatitudeIsLessThanOrEqualToSomething() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        // Get all the shareCityList where latitude is less than or equal to DEFAULT_LATITUDE
+        defaultShareCityShouldBeFound("latitude.lessThanOrEqual=" + DEFAULT_LATITUDE);
+
+        // Get all the shareCityList where latitude is less than or equal to SMALLER_LATITUDE
+        defaultShareCityShouldNotBeFound("latitude.lessThanOrEqual=" + SMALLER_LATITUDE);
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesByLatitudeIsLessThanSomething() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        // Get all the shareCityList where latitude is less than DEFAULT_LATITUDE
+        defaultShareCityShouldNotBeFound("latitude.lessThan=" + DEFAULT_LATITUDE);
+
+        // Get all the shareCityList where latitude is less than UPDATED_LATITUDE
+        defaultShareCityShouldBeFound("latitude.lessThan=" + UPDATED_LATITUDE);
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesByLatitudeIsGreaterThanSomething() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        // Get all the shareCityList where latitude is greater than DEFAULT_LATITUDE
+        defaultShareCityShouldNotBeFound("latitude.greaterThan=" + DEFAULT_LATITUDE);
+
+        // Get all the shareCityList where latitude is greater than SMALLER_LATITUDE
+        defaultShareCityShouldBeFound("latitude.greaterThan=" + SMALLER_LATITUDE);
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesByLongitudeIsEqualToSomething() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        // Get all the shareCityList where longitude equals to DEFAULT_LONGITUDE
+        defaultShareCityShouldBeFound("longitude.equals=" + DEFAULT_LONGITUDE);
+
+        // Get all the shareCityList where longitude equals to UPDATED_LONGITUDE
+        defaultShareCityShouldNotBeFound("longitude.equals=" + UPDATED_LONGITUDE);
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesByLongitudeIsInShouldWork() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        // Get all the shareCityList where longitude in DEFAULT_LONGITUDE or UPDATED_LONGITUDE
+        defaultShareCityShouldBeFound("longitude.in=" + DEFAULT_LONGITUDE + "," + UPDATED_LONGITUDE);
+
+        // Get all the shareCityList where longitude equals to UPDATED_LONGITUDE
+        defaultShareCityShouldNotBeFound("longitude.in=" + UPDATED_LONGITUDE);
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesByLongitudeIsNullOrNotNull() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        // Get all the shareCityList where longitude is not null
+        defaultShareCityShouldBeFound("longitude.specified=true");
+
+        // Get all the shareCityList where longitude is null
+        defaultShareCityShouldNotBeFound("longitude.specified=false");
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesByLongitudeIsGreaterThanOrEqualToSomething() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        // Get all the shareCityList where longitude is greater than or equal to DEFAULT_LONGITUDE
+        defaultShareCityShouldBeFound("longitude.greaterThanOrEqual=" + DEFAULT_LONGITUDE);
+
+        // Get all the shareCityList where longitude is greater than or equal to UPDATED_LONGITUDE
+        defaultShareCityShouldNotBeFound("longitude.greaterThanOrEqual=" + UPDATED_LONGITUDE);
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesByLongitudeIsLessThanOrEqualToSomething() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        // Get all the shareCityList where longitude is less than or equal to DEFAULT_LONGITUDE
+        defaultShareCityShouldBeFound("longitude.lessThanOrEqual=" + DEFAULT_LONGITUDE);
+
+        // Get all the shareCityList where longitude is less than or equal to SMALLER_LONGITUDE
+        defaultShareCityShouldNotBeFound("longitude.lessThanOrEqual=" + SMALLER_LONGITUDE);
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesByLongitudeIsLessThanSomething() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        // Get all the shareCityList where longitude is less than DEFAULT_LONGITUDE
+        defaultShareCityShouldNotBeFound("longitude.lessThan=" + DEFAULT_LONGITUDE);
+
+        // Get all the shareCityList where longitude is less than UPDATED_LONGITUDE
+        defaultShareCityShouldBeFound("longitude.lessThan=" + UPDATED_LONGITUDE);
+    }
+
+    @Test
+    @Transactional
+    void getAllShareCitiesByLongitudeIsGreaterThanSomething() throws Exception {
+        // Initialize the database
+        shareCityRepository.saveAndFlush(shareCity);
+
+        // Get all the shareCityList where longitude is greater than DEFAULT_LONGITUDE
+        defaultShareCityShouldNotBeFound("longitude.greaterThan=" + DEFAULT_LONGITUDE);
+
+        // Get all the shareCityList where longitude is greater than SMALLER_LONGITUDE
+        defaultShareCityShouldBeFound("longitude.greaterThan=" + SMALLER_LONGITUDE);
+    }
+
     /**
      * Executes the search, and checks that the default entity is returned.
      */
@@ -287,7 +530,9 @@ class ShareCityResourceIT {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(shareCity.getId().intValue())))
             .andExpect(jsonPath("$.[*].cityName").value(hasItem(DEFAULT_CITY_NAME)))
-            .andExpect(jsonPath("$.[*].cityCountry").value(hasItem(DEFAULT_CITY_COUNTRY.toString())));
+            .andExpect(jsonPath("$.[*].cityCountry").value(hasItem(DEFAULT_CITY_COUNTRY.toString())))
+            .andExpect(jsonPath("$.[*].latitude").value(hasItem(DEFAULT_LATITUDE.doubleValue())))
+            .andExpect(jsonPath("$.[*].longitude").value(hasItem(DEFAULT_LONGITUDE.doubleValue())));
 
         // Check, that the count call also returns 1
         restShareCityMockMvc
@@ -335,7 +580,7 @@ class ShareCityResourceIT {
         ShareCity updatedShareCity = shareCityRepository.findById(shareCity.getId()).get();
         // Disconnect from session so that the updates on updatedShareCity are not directly saved in db
         em.detach(updatedShareCity);
-        updatedShareCity.cityName(UPDATED_CITY_NAME).cityCountry(UPDATED_CITY_COUNTRY);
+        updatedShareCity.cityName(UPDATED_CITY_NAME).cityCountry(UPDATED_CITY_COUNTRY).latitude(UPDATED_LATITUDE).longitude(UPDATED_LONGITUDE);
         ShareCityDTO shareCityDTO = shareCityMapper.toDto(updatedShareCity);
 
         restShareCityMockMvc
@@ -352,6 +597,8 @@ class ShareCityResourceIT {
         ShareCity testShareCity = shareCityList.get(shareCityList.size() - 1);
         assertThat(testShareCity.getCityName()).isEqualTo(UPDATED_CITY_NAME);
         assertThat(testShareCity.getCityCountry()).isEqualTo(UPDATED_CITY_COUNTRY);
+        assertThat(testShareCity.getLatitude()).isEqualTo(UPDATED_LATITUDE);
+        assertThat(testShareCity.getLongitude()).isEqualTo(UPDATED_LONGITUDE);
     }
 
     @Test
@@ -431,7 +678,7 @@ class ShareCityResourceIT {
         ShareCity partialUpdatedShareCity = new ShareCity();
         partialUpdatedShareCity.setId(shareCity.getId());
 
-        partialUpdatedShareCity.cityCountry(UPDATED_CITY_COUNTRY);
+        partialUpdatedShareCity.cityCountry(UPDATED_CITY_COUNTRY).longitude(UPDATED_LONGITUDE);
 
         restShareCityMockMvc
             .perform(
@@ -447,6 +694,8 @@ class ShareCityResourceIT {
         ShareCity testShareCity = shareCityList.get(shareCityList.size() - 1);
         assertThat(testShareCity.getCityName()).isEqualTo(DEFAULT_CITY_NAME);
         assertThat(testShareCity.getCityCountry()).isEqualTo(UPDATED_CITY_COUNTRY);
+        assertThat(testShareCity.getLatitude()).isEqualTo(DEFAULT_LATITUDE);
+        assertThat(testShareCity.getLongitude()).isEqualTo(UPDATED_LONGITUDE);
     }
 
     @Test
@@ -461,7 +710,11 @@ class ShareCityResourceIT {
         ShareCity partialUpdatedShareCity = new ShareCity();
         partialUpdatedShareCity.setId(shareCity.getId());
 
-        partialUpdatedShareCity.cityName(UPDATED_CITY_NAME).cityCountry(UPDATED_CITY_COUNTRY);
+        partialUpdatedShareCity
+            .cityName(UPDATED_CITY_NAME)
+            .cityCountry(UPDATED_CITY_COUNTRY)
+            .latitude(UPDATED_LATITUDE)
+            .longitude(UPDATED_LONGITUDE);
 
         restShareCityMockMvc
             .perform(
@@ -477,6 +730,8 @@ class ShareCityResourceIT {
         ShareCity testShareCity = shareCityList.get(shareCityList.size() - 1);
         assertThat(testShareCity.getCityName()).isEqualTo(UPDATED_CITY_NAME);
         assertThat(testShareCity.getCityCountry()).isEqualTo(UPDATED_CITY_COUNTRY);
+        assertThat(testShareCity.getLatitude()).isEqualTo(UPDATED_LATITUDE);
+        assertThat(testShareCity.getLongitude()).isEqualTo(UPDATED_LONGITUDE);
     }
 
     @Test
@@ -1,12 +1,16 @@
 package org.pierre.shareazade.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.pierre.shareazade.web.rest.TestUtil.sameInstant;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
@@ -27,18 +31,27 @@ import org.pierre.shareazade.domain.ShareRide;
 import org.pierre.shareazade.domain.ShareUser;
 import org.pierre.shareazade.domain.enumeration.RideType;
 import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.service.InMemoryShareRideCommentsIndex;
+import org.pierre.shareazade.service.ShareCityGeoIndex;
+import org.pierre.shareazade.service.ShareRideCommentsIndex;
+import org.pierre.shareazade.service.ShareRideMatchingService;
 import org.pierre.shareazade.service.ShareRideService;
 import org.pierre.shareazade.service.criteria.ShareRideCriteria;
+import org.pierre.shareazade.service.dto.ShareCityDTO;
 import org.pierre.shareazade.service.dto.ShareRideDTO;
+import org.pierre.shareazade.service.event.ShareCityChangedEvent;
+import org.pierre.shareazade.service.event.ShareRideChangedEvent;
 import org.pierre.shareazade.service.mapper.ShareRideMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Base64Utils;
 
@@ -79,6 +92,15 @@ class ShareRideResourceIT {
     @Mock
     private ShareRideService shareRideServiceMock;
 
+    @Autowired
+    private ShareRideCommentsIndex shareRideCommentsIndex;
+
+    @Autowired
+    private ShareCityGeoIndex shareCityGeoIndex;
+
+    @Autowired
+    private ShareRideMatchingService shareRideMatchingService;
+
     @Autowired
     private EntityManager em;
 
@@ -158,6 +180,60 @@ class ShareRideResourceIT {
         assertThat(shareRideList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @Transactional
+    void createShareRidesInBulk() throws Exception {
+        int databaseSizeBeforeCreate = shareRideRepository.findAll().size();
+        ShareRideDTO shareRideDTO = shareRideMapper.toDto(shareRide);
+        ShareRideDTO existingShareRideDTO = shareRideMapper.toDto(shareRide);
+        existingShareRideDTO.setId(1L);
+
+        restShareRideMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/bulk")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(shareRideDTO, existingShareRideDTO, shareRideDTO)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(3))
+            .andExpect(jsonPath("$.[0].index").value(0))
+            .andExpect(jsonPath("$.[0].success").value(true))
+            .andExpect(jsonPath("$.[0].id").isNumber())
+            .andExpect(jsonPath("$.[1].index").value(1))
+            .andExpect(jsonPath("$.[1].success").value(false))
+            .andExpect(jsonPath("$.[1].errorKey").value("idexists"))
+            .andExpect(jsonPath("$.[2].index").value(2))
+            .andExpect(jsonPath("$.[2].success").value(true));
+
+        // Validate the ShareRides in the database
+        List<ShareRide> shareRideList = shareRideRepository.findAll();
+        assertThat(shareRideList).hasSize(databaseSizeBeforeCreate + 2);
+        ShareRide testShareRide = shareRideList.get(shareRideList.size() - 1);
+        assertThat(testShareRide.getRideDateTime()).isEqualTo(DEFAULT_RIDE_DATE_TIME);
+        assertThat(testShareRide.getRideType()).isEqualTo(DEFAULT_RIDE_TYPE);
+        assertThat(testShareRide.getRideComments()).isEqualTo(DEFAULT_RIDE_COMMENTS);
+    }
+
+    @Test
+    @Transactional
+    void createShareRidesInBulkFromNdjson() throws Exception {
+        int databaseSizeBeforeCreate = shareRideRepository.findAll().size();
+        String line = new String(TestUtil.convertObjectToJsonBytes(shareRideMapper.toDto(shareRide)), StandardCharsets.UTF_8);
+
+        restShareRideMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/bulk").contentType(MediaType.APPLICATION_NDJSON).content(line + "\n" + line + "\n{\"rideType\": \n")
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(3))
+            .andExpect(jsonPath("$.[0].success").value(true))
+            .andExpect(jsonPath("$.[1].success").value(true))
+            .andExpect(jsonPath("$.[2].success").value(false))
+            .andExpect(jsonPath("$.[2].errorKey").value("unreadable"));
+
+        assertThat(shareRideRepository.findAll()).hasSize(databaseSizeBeforeCreate + 2);
+    }
+
     @Test
     @Transactional
     void getAllShareRides() throws Exception {
@@ -175,6 +251,40 @@ class ShareRideResourceIT {
             .andExpect(jsonPath("$.[*].rideComments").value(hasItem(DEFAULT_RIDE_COMMENTS.toString())));
     }
 
+    @Test
+    @Transactional
+    void getAllShareRidesWithCursor() throws Exception {
+        // Initialize the database
+        ShareRide first = shareRideRepository.saveAndFlush(createEntity(em));
+        ShareRide second = shareRideRepository.saveAndFlush(createEntity(em));
+        ShareRide third = shareRideRepository.saveAndFlush(createUpdatedEntity(em));
+        String filter = "id.in=" + first.getId() + "," + second.getId() + "," + third.getId();
+
+        // Get the first slice, which links to the next one
+        MvcResult result = restShareRideMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=2&" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(contains(first.getId().intValue(), second.getId().intValue())))
+            .andReturn();
+        String link = result.getResponse().getHeader(HttpHeaders.LINK);
+        assertThat(link).endsWith("; rel=\"next\"");
+
+        // Follow the link to the last slice
+        restShareRideMockMvc
+            .perform(get(URI.create(link.substring(1, link.indexOf('>')))))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK))
+            .andExpect(jsonPath("$.[*].id").value(contains(third.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllShareRidesWithInvalidCursor() throws Exception {
+        restShareRideMockMvc.perform(get(ENTITY_API_URL + "?after=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
     @SuppressWarnings({ "unchecked" })
     void getAllShareRidesWithEagerRelationshipsIsEnabled() throws Exception {
         when(shareRideServiceMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
@@ -192,6 +302,45 @@ class ShareRideResourceIT {
         verify(shareRideRepositoryMock, times(1)).findAll(any(Pageable.class));
     }
 
+    @Test
+    @Transactional
+    void getAllShareRidesWithoutCount() throws Exception {
+        // Initialize the database
+        shareRideRepository.saveAndFlush(shareRide);
+
+        // Only whether a next page exists is known
+        restShareRideMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&size=1&count=none&id.equals=" + shareRide.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("X-Has-Next-Page", "false"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(shareRide.getId().intValue())));
+        restShareRideMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&size=1&count=none&id.lessThanOrEqual=" + shareRide.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @Transactional
+    void getAllShareRidesWithEstimatedCount() throws Exception {
+        // Initialize the database
+        shareRideRepository.saveAndFlush(shareRide);
+
+        restShareRideMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&count=estimate&id.equals=" + shareRide.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(shareRide.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllShareRidesWithUnknownCount() throws Exception {
+        restShareRideMockMvc.perform(get(ENTITY_API_URL + "?count=sometimes")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getShareRide() throws Exception {
@@ -357,6 +506,48 @@ class ShareRideResourceIT {
         defaultShareRideShouldNotBeFound("rideType.specified=false");
     }
 
+    @Test
+    @Transactional
+    void getAllShareRidesByCommentsMatchesSomething() throws Exception {
+        // Initialize the database
+        shareRideRepository.saveAndFlush(shareRide);
+        indexComments(shareRide);
+
+        // Get all the shareRideList where comments matches DEFAULT_RIDE_COMMENTS
+        defaultShareRideShouldBeFound("comments.matches=" + DEFAULT_RIDE_COMMENTS.toLowerCase());
+
+        // Get all the shareRideList where comments matches UPDATED_RIDE_COMMENTS
+        defaultShareRideShouldNotBeFound("comments.matches=" + UPDATED_RIDE_COMMENTS);
+    }
+
+    @Test
+    @Transactional
+    void getAllShareRidesByCommentsMatchesRanksTheFilteredShareRides() throws Exception {
+        // Initialize the database
+        ShareRide onceOffered = shareRideRepository.saveAndFlush(createEntity(em).rideComments("Small trunk"));
+        ShareRide twiceOffered = shareRideRepository.saveAndFlush(createEntity(em).rideComments("Big trunk, trunk rack"));
+        ShareRide requested = shareRideRepository.saveAndFlush(
+            createEntity(em).rideType(UPDATED_RIDE_TYPE).rideComments("Trunk, trunk, trunk")
+        );
+        indexComments(onceOffered);
+        indexComments(twiceOffered);
+        indexComments(requested);
+
+        // The other filters apply before the ranking and the pagination, and the total counts all the matches
+        restShareRideMockMvc
+            .perform(get(ENTITY_API_URL + "?comments.matches=trunk&rideType.equals=" + DEFAULT_RIDE_TYPE + "&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(jsonPath("$.[*].id").value(contains(twiceOffered.getId().intValue())));
+
+        // An explicit sort replaces the ranking
+        restShareRideMockMvc
+            .perform(get(ENTITY_API_URL + "?comments.matches=trunk&rideType.equals=" + DEFAULT_RIDE_TYPE + "&sort=id,asc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(jsonPath("$.[*].id").value(contains(onceOffered.getId().intValue(), twiceOffered.getId().intValue())));
+    }
+
     @Test
     @Transactional
     void getAllShareRidesByRideCityFromIsEqualToSomething() throws Exception {
@@ -380,6 +571,29 @@ class ShareRideResourceIT {
         defaultShareRideShouldNotBeFound("rideCityFromId.equals=" + (rideCityFromId + 1));
     }
 
+    @Test
+    @Transactional
+    void getAllShareRidesByRideCityFromNearSomething() throws Exception {
+        ShareCity rideCityFrom = ShareCityResourceIT.createEntity(em).latitude(46.5197).longitude(6.6323);
+        em.persist(rideCityFrom);
+        em.flush();
+        indexCoordinates(rideCityFrom);
+        shareRide.setRideCityFrom(rideCityFrom);
+        shareRideRepository.saveAndFlush(shareRide);
+
+        // Get all the shareRideList where rideCityFrom is within 60 km of Geneva
+        defaultShareRideShouldBeFound("rideCityFromNear=46.2044,6.1432,60");
+
+        // Get all the shareRideList where rideCityFrom is within 40 km of Geneva
+        defaultShareRideShouldNotBeFound("rideCityFromNear=46.2044,6.1432,40");
+    }
+
+    @Test
+    @Transactional
+    void getAllShareRidesByRideCityFromNearSomethingInvalid() throws Exception {
+        restShareRideMockMvc.perform(get(ENTITY_API_URL + "?rideCityFromNear=46.2044,6.1432")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getAllShareRidesByRideCityToIsEqualToSomething() throws Exception {
@@ -426,6 +640,162 @@ class ShareRideResourceIT {
         defaultShareRideShouldNotBeFound("rideUserId.equals=" + (rideUserId + 1));
     }
 
+    @Test
+    @Transactional
+    void getAllShareRidesWithRelationshipNames() throws Exception {
+        ShareCity rideCity = ShareCityResourceIT.createEntity(em);
+        em.persist(rideCity);
+        ShareUser rideUser = ShareUserResourceIT.createEntity(em);
+        em.persist(rideUser);
+        em.flush();
+        shareRide.setRideCityFrom(rideCity);
+        shareRide.setRideCityTo(rideCity);
+        shareRide.setRideUser(rideUser);
+        shareRideRepository.saveAndFlush(shareRide);
+        em.clear();
+
+        // Get the shareRideList with the names of the related entities, as projected by the query
+        restShareRideMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&id.equals=" + shareRide.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].rideCityFrom.id").value(hasItem(rideCity.getId().intValue())))
+            .andExpect(jsonPath("$.[*].rideCityFrom.cityName").value(hasItem(rideCity.getCityName())))
+            .andExpect(jsonPath("$.[*].rideCityTo.cityName").value(hasItem(rideCity.getCityName())))
+            .andExpect(jsonPath("$.[*].rideUser.id").value(hasItem(rideUser.getId().intValue())))
+            .andExpect(jsonPath("$.[*].rideUser.userName").value(hasItem(rideUser.getUserName())))
+            .andExpect(jsonPath("$.[*].rideComments").value(hasItem(DEFAULT_RIDE_COMMENTS)));
+    }
+
+    @Test
+    @Transactional
+    void getShareRideMatchesWithTheCommittedNames() throws Exception {
+        ShareCity rideCityFrom = ShareCityResourceIT.createEntity(em);
+        em.persist(rideCityFrom);
+        ShareCity rideCityTo = ShareCityResourceIT.createUpdatedEntity(em);
+        em.persist(rideCityTo);
+        ShareUser rideUser = ShareUserResourceIT.createEntity(em);
+        em.persist(rideUser);
+        em.flush();
+        ZonedDateTime departure = ZonedDateTime.now(ZoneOffset.UTC).plusDays(1).withNano(0);
+        ShareRide offer = shareRide.rideDateTime(departure).rideCityFrom(rideCityFrom).rideCityTo(rideCityTo).rideUser(rideUser);
+        shareRideRepository.saveAndFlush(offer);
+        ShareRide request = createEntity(em)
+            .rideDateTime(departure)
+            .rideType(RideType.REQUEST)
+            .rideCityFrom(rideCityFrom)
+            .rideCityTo(rideCityTo)
+            .rideUser(rideUser);
+        shareRideRepository.saveAndFlush(request);
+        em.clear();
+        // As published for a request naming the cities and the user otherwise
+        ShareRideDTO sent = shareRideMapper.toDto(request);
+        sent.getRideCityFrom().setCityName("Sent by the client");
+        sent.getRideUser().setUserName("Sent by the client");
+        shareRideMatchingService.onShareRideChanged(ShareRideChangedEvent.saved(shareRideMapper.toDto(offer)));
+        shareRideMatchingService.onShareRideChanged(ShareRideChangedEvent.saved(sent));
+        try {
+            restShareRideMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/matches", offer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(request.getId().intValue())))
+                .andExpect(jsonPath("$.[0].rideCityFrom.cityName").value(rideCityFrom.getCityName()))
+                .andExpect(jsonPath("$.[0].rideUser.userName").value(rideUser.getUserName()));
+        } finally {
+            shareRideMatchingService.onShareRideChanged(ShareRideChangedEvent.deleted(offer.getId()));
+            shareRideMatchingService.onShareRideChanged(ShareRideChangedEvent.deleted(request.getId()));
+        }
+    }
+
+    @Test
+    void exportShareRides() throws Exception {
+        // The export is streamed from another thread, which only sees committed shareRides
+        shareRide.setRideComments("Non smoker, \"quiet\" ride");
+        shareRideRepository.saveAndFlush(shareRide);
+        try {
+            MvcResult ndjson = restShareRideMockMvc
+                .perform(get(ENTITY_API_URL + "/export?id.equals=" + shareRide.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restShareRideMockMvc
+                .perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(jsonPath("$.id").value(shareRide.getId().intValue()))
+                .andExpect(jsonPath("$.rideType").value(DEFAULT_RIDE_TYPE.toString()))
+                .andExpect(jsonPath("$.rideComments").value(shareRide.getRideComments()));
+
+            MvcResult csv = restShareRideMockMvc
+                .perform(get(ENTITY_API_URL + "/export?format=csv&id.equals=" + shareRide.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restShareRideMockMvc
+                .perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(
+                    content()
+                        .string(
+                            "id,rideDateTime,rideType,rideComments,rideCityFromId,rideCityFromName,rideCityToId,rideCityToName,rideUserId,rideUserName\r\n" +
+                            shareRide.getId() +
+                            "," +
+                            shareRide.getRideDateTime().toInstant() +
+                            "," +
+                            DEFAULT_RIDE_TYPE +
+                            ",\"Non smoker, \"\"quiet\"\" ride\",,,,,,\r\n"
+                        )
+                );
+        } finally {
+            shareRideRepository.deleteById(shareRide.getId());
+        }
+    }
+
+    @Test
+    void exportShareRidesAsCsvNeutralisesFormulas() throws Exception {
+        // The export is streamed from another thread, which only sees committed shareRides
+        shareRide.setRideComments("=HYPERLINK(\"http://localhost\")");
+        shareRideRepository.saveAndFlush(shareRide);
+        try {
+            MvcResult csv = restShareRideMockMvc
+                .perform(get(ENTITY_API_URL + "/export?format=csv&id.equals=" + shareRide.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restShareRideMockMvc
+                .perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(",\"'=HYPERLINK(\"\"http://localhost\"\")\",")));
+        } finally {
+            shareRideRepository.deleteById(shareRide.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    void exportShareRidesWithUnknownFormat() throws Exception {
+        restShareRideMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    /**
+     * The in-memory geo index only follows committed changes, which these transactional tests never make.
+     */
+    private void indexCoordinates(ShareCity shareCity) {
+        ShareCityDTO shareCityDTO = new ShareCityDTO();
+        shareCityDTO.setId(shareCity.getId());
+        shareCityDTO.setLatitude(shareCity.getLatitude());
+        shareCityDTO.setLongitude(shareCity.getLongitude());
+        shareCityGeoIndex.onShareCityChanged(ShareCityChangedEvent.saved(shareCityDTO));
+    }
+
+    /**
+     * The in-memory comments index only follows committed changes, which these transactional tests never make.
+     */
+    private void indexComments(ShareRide shareRide) {
+        if (shareRideCommentsIndex instanceof InMemoryShareRideCommentsIndex) {
+            ((InMemoryShareRideCommentsIndex) shareRideCommentsIndex).onShareRideChanged(
+                    ShareRideChangedEvent.saved(shareRideMapper.toDto(shareRide))
+                );
+        }
+    }
+
     /**
      * Executes the search, and checks that the default entity is returned.
      */
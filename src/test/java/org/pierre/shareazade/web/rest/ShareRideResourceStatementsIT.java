@@ -0,0 +1,169 @@
+package org.pierre.shareazade.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.IntegrationTest;
+import org.pierre.shareazade.domain.ShareCity;
+import org.pierre.shareazade.domain.ShareRide;
+import org.pierre.shareazade.domain.ShareUser;
+import org.pierre.shareazade.repository.ShareCityRepository;
+import org.pierre.shareazade.repository.ShareRideRepository;
+import org.pierre.shareazade.repository.ShareUserRepository;
+import org.pierre.shareazade.service.ShareCitySnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests of the number of SQL statements issued by the {@link ShareRideResource} REST controller.
+ * <p>
+ * The shareRides are committed, so that each request runs in a read-only transaction of its own, as in production, and
+ * the statements are counted by the Hibernate {@link Statistics}.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ShareRideResourceStatementsIT {
+
+    private static final int SHARE_RIDES = 30;
+
+    private static final String ENTITY_API_URL = "/api/share-rides";
+
+    @Autowired
+    private ShareRideRepository shareRideRepository;
+
+    @Autowired
+    private ShareCityRepository shareCityRepository;
+
+    @Autowired
+    private ShareUserRepository shareUserRepository;
+
+    @Autowired
+    private ShareCitySnapshot shareCitySnapshot;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc restShareRideMockMvc;
+
+    private Statistics statistics;
+
+    private List<ShareCity> shareCities;
+
+    private ShareUser shareUser;
+
+    private List<ShareRide> shareRides;
+
+    @BeforeEach
+    public void initTest() {
+        new TransactionTemplate(transactionManager)
+            .executeWithoutResult(status -> {
+                shareCities =
+                    shareCityRepository.saveAll(List.of(ShareCityResourceIT.createEntity(em), ShareCityResourceIT.createEntity(em)));
+                shareUser = shareUserRepository.save(ShareUserResourceIT.createEntity(em));
+                List<ShareRide> created = new ArrayList<>();
+                for (int i = 0; i < SHARE_RIDES; i++) {
+                    created.add(
+                        ShareRideResourceIT
+                            .createEntity(em)
+                            .rideCityFrom(shareCities.get(i % 2))
+                            .rideCityTo(shareCities.get((i + 1) % 2))
+                            .rideUser(shareUser)
+                    );
+                }
+                shareRides = shareRideRepository.saveAll(created);
+            });
+        shareCitySnapshot.loadShareCities();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager)
+            .executeWithoutResult(status -> {
+                shareRideRepository.deleteAllInBatch(shareRides);
+                shareUserRepository.deleteById(shareUser.getId());
+                shareCityRepository.deleteAllInBatch(shareCities);
+            });
+        shareCitySnapshot.loadShareCities();
+    }
+
+    @Test
+    void pagesIssueTheSameStatementsWhateverTheirSize() throws Exception {
+        // The rows, then the total
+        assertThat(statements(byRideUser() + "&size=5&sort=id")).isEqualTo(2);
+        assertThat(statements(byRideUser() + "&size=25&sort=id")).isEqualTo(2);
+
+        // The ids and the total are cached: the shareRides, out of the disabled second-level cache, are loaded with their user
+        assertThat(statements(byRideUser() + "&size=5&sort=id")).isEqualTo(1);
+        assertThat(statements(byRideUser() + "&size=25&sort=id")).isEqualTo(1);
+    }
+
+    @Test
+    void slicesIssueTheSameStatementsWhateverTheirSize() throws Exception {
+        assertThat(statements(byRideUser() + "&size=5&sort=id&count=none")).isEqualTo(1);
+        assertThat(statements(byRideUser() + "&size=25&sort=id&count=none")).isEqualTo(1);
+        assertThat(statements(byRideUser() + "&size=5&after=")).isEqualTo(1);
+        assertThat(statements(byRideUser() + "&size=25&after=")).isEqualTo(1);
+    }
+
+    @Test
+    void detailIssuesASingleStatement() throws Exception {
+        assertThat(statements(ENTITY_API_URL + "/" + shareRides.get(0).getId())).isEqualTo(1);
+        assertThat(statements(ENTITY_API_URL + "/" + shareRides.get(1).getId())).isEqualTo(1);
+    }
+
+    @Test
+    void exportIssuesASingleStatementWhateverTheNumberOfShareRides() throws Exception {
+        assertThat(exportStatements(ENTITY_API_URL + "/export?id.equals=" + shareRides.get(0).getId())).isEqualTo(1);
+        assertThat(exportStatements(ENTITY_API_URL + "/export?rideUserId.equals=" + shareUser.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void countIssuesASingleStatement() throws Exception {
+        assertThat(statements(ENTITY_API_URL + "/count?rideUserId.equals=" + shareUser.getId())).isEqualTo(1);
+    }
+
+    private String byRideUser() {
+        return ENTITY_API_URL + "?rideUserId.equals=" + shareUser.getId();
+    }
+
+    private long statements(String url) throws Exception {
+        statistics.clear();
+        restShareRideMockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long exportStatements(String url) throws Exception {
+        statistics.clear();
+        MvcResult result = restShareRideMockMvc.perform(get(url)).andExpect(request().asyncStarted()).andReturn();
+        restShareRideMockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -165,6 +165,45 @@ class ShareUserResourceIT {
             .andExpect(jsonPath("$.[*].userStatus").value(hasItem(DEFAULT_USER_STATUS.toString())));
     }
 
+    @Test
+    @Transactional
+    void getAllShareUsersWithoutCount() throws Exception {
+        // Initialize the database
+        shareUserRepository.saveAndFlush(shareUser);
+
+        // Only whether a next page exists is known
+        restShareUserMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&size=1&count=none&id.equals=" + shareUser.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("X-Has-Next-Page", "false"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(shareUser.getId().intValue())));
+        restShareUserMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&size=1&count=none&id.lessThanOrEqual=" + shareUser.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @Transactional
+    void getAllShareUsersWithEstimatedCount() throws Exception {
+        // Initialize the database
+        shareUserRepository.saveAndFlush(shareUser);
+
+        restShareUserMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&count=estimate&id.equals=" + shareUser.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(shareUser.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllShareUsersWithUnknownCount() throws Exception {
+        restShareUserMockMvc.perform(get(ENTITY_API_URL + "?count=sometimes")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getShareUser() throws Exception {
@@ -0,0 +1,117 @@
+package org.pierre.shareazade.web.rest;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pierre.shareazade.security.LoginAttemptLimiter;
+import org.pierre.shareazade.security.PasswordEncoderOverloadedException;
+import org.pierre.shareazade.security.jwt.TokenProvider;
+import org.pierre.shareazade.service.RefreshTokenService;
+import org.pierre.shareazade.web.rest.errors.ExceptionTranslator;
+import org.pierre.shareazade.web.rest.vm.LoginVM;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.annotation.ObjectPostProcessor;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * Unit tests for the {@link UserJWTController} REST controller, when the password encoder is overloaded.
+ */
+class UserJWTControllerTest {
+
+    private LoginAttemptLimiter loginAttemptLimiter;
+
+    @BeforeEach
+    public void setup() {
+        loginAttemptLimiter = mock(LoginAttemptLimiter.class);
+    }
+
+    @Test
+    void answersServiceUnavailableForAnUnknownLoginWithoutCountingAFailure() throws Exception {
+        MockMvc restMockMvc = restMockMvc(login -> {
+            throw new UsernameNotFoundException("User " + login + " was not found in the database");
+        });
+
+        authenticate(restMockMvc);
+    }
+
+    @Test
+    void answersServiceUnavailableWhenTheOverloadIsWrapped() throws Exception {
+        // Wrapped by the provider into an InternalAuthenticationServiceException
+        MockMvc restMockMvc = restMockMvc(login -> {
+            throw new PasswordEncoderOverloadedException("The password encoder is overloaded", null);
+        });
+
+        authenticate(restMockMvc);
+    }
+
+    private void authenticate(MockMvc restMockMvc) throws Exception {
+        LoginVM login = new LoginVM();
+        login.setUsername("unknown-user");
+        login.setPassword("password");
+
+        restMockMvc
+            .perform(post("/api/authenticate").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(login)))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().exists("Retry-After"));
+
+        verify(loginAttemptLimiter).release("unknown-user", "127.0.0.1");
+        verify(loginAttemptLimiter, never()).loginSucceeded(anyString(), any());
+    }
+
+    private MockMvc restMockMvc(UserDetailsService userDetailsService) throws Exception {
+        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
+        authenticationProvider.setUserDetailsService(userDetailsService);
+        authenticationProvider.setPasswordEncoder(new OverloadedPasswordEncoder());
+        AuthenticationManagerBuilder authenticationManagerBuilder = new AuthenticationManagerBuilder(
+            new ObjectPostProcessor<Object>() {
+                @Override
+                public <O> O postProcess(O object) {
+                    return object;
+                }
+            }
+        );
+        authenticationManagerBuilder.authenticationProvider(authenticationProvider);
+        authenticationManagerBuilder.build();
+        UserJWTController userJWTController = new UserJWTController(
+            mock(TokenProvider.class),
+            authenticationManagerBuilder,
+            mock(RefreshTokenService.class),
+            loginAttemptLimiter
+        );
+        return MockMvcBuilders
+            .standaloneSetup(userJWTController)
+            .setControllerAdvice(new ExceptionTranslator(new MockEnvironment()))
+            .build();
+    }
+
+    /**
+     * Rejects the matches, as a {@link org.pierre.shareazade.security.BoundedPasswordEncoder} whose queue is full.
+     */
+    private static class OverloadedPasswordEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "{" + rawPassword + "}";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            throw new PasswordEncoderOverloadedException("The password encoder is overloaded", null);
+        }
+    }
+}
@@ -17,6 +17,7 @@ import org.pierre.shareazade.domain.Authority;
 import org.pierre.shareazade.domain.User;
 import org.pierre.shareazade.repository.UserRepository;
 import org.pierre.shareazade.security.AuthoritiesConstants;
+import org.pierre.shareazade.security.UserCache;
 import org.pierre.shareazade.service.dto.AdminUserDTO;
 import org.pierre.shareazade.service.mapper.UserMapper;
 import org.pierre.shareazade.web.rest.vm.ManagedUserVM;
@@ -80,6 +81,7 @@ class UserResourceIT {
     public void setup() {
         cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
         cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
+        cacheManager.getCache(UserCache.USERS_NOT_FOUND_CACHE).clear();
     }
 
     /**
@@ -278,7 +280,8 @@ class UserResourceIT {
             .andExpect(jsonPath("$.imageUrl").value(DEFAULT_IMAGEURL))
             .andExpect(jsonPath("$.langKey").value(DEFAULT_LANGKEY));
 
-        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(user.getLogin())).isNotNull();
+        // The user is not committed: the read-write transaction of the test reads it from the database only
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(user.getLogin())).isNull();
     }
 
     @Test